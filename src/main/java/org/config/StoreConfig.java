@@ -9,6 +9,13 @@ import java.io.Serializable;
  */
 public class StoreConfig implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final long DEFAULT_HOLD_TTL_MS = 15 * 60 * 1000L;
+    private static final int DEFAULT_IDEMPOTENCY_CACHE_SIZE = 100_000;
+    private static final long DEFAULT_IDEMPOTENCY_TTL_MS = 60 * 60 * 1000L;
+    private static final int DEFAULT_TOP_PRODUCTS_CAPACITY = 100;
+    private static final double DEFAULT_SKETCH_EPSILON = 0.001;
+    private static final double DEFAULT_SKETCH_DELTA = 0.01;
+    private static final int DEFAULT_NODE_ID = -1;
     
     // File operation configurations
     private final String receiptOutputDir;
@@ -18,6 +25,19 @@ public class StoreConfig implements Serializable {
     // Error handling configurations
     private final boolean throwExceptionOnDirectoryCreationFailure;
     private final boolean createMissingDirectories;
+
+    // Checkout configurations
+    private final long holdTtlMs;
+    private final int idempotencyCacheSize;
+    private final long idempotencyTtlMs;
+
+    // Sales analytics configurations
+    private final int topProductsCapacity;
+    private final double sketchEpsilon;
+    private final double sketchDelta;
+
+    // ID allocation configurations
+    private final int nodeId;
     
     /**
      * Default constructor with sensible defaults
@@ -25,17 +45,49 @@ public class StoreConfig implements Serializable {
     public StoreConfig() {
         this("output/receipts", 3, 1000, true, true);
     }
+
+    /**
+     * Constructor for the file and error handling parameters, using the default hold time-to-live
+     */
+    public StoreConfig(String receiptOutputDir, int maxRetryAttempts, long retryDelayMs,
+                      boolean throwExceptionOnDirectoryCreationFailure, boolean createMissingDirectories) {
+        this(receiptOutputDir, maxRetryAttempts, retryDelayMs, throwExceptionOnDirectoryCreationFailure,
+                createMissingDirectories, DEFAULT_HOLD_TTL_MS);
+    }
     
     /**
      * Full constructor allowing all parameters to be specified
      */
     public StoreConfig(String receiptOutputDir, int maxRetryAttempts, long retryDelayMs,
-                      boolean throwExceptionOnDirectoryCreationFailure, boolean createMissingDirectories) {
+                      boolean throwExceptionOnDirectoryCreationFailure, boolean createMissingDirectories,
+                      long holdTtlMs) {
         this.receiptOutputDir = receiptOutputDir;
         this.maxRetryAttempts = maxRetryAttempts;
         this.retryDelayMs = retryDelayMs;
         this.throwExceptionOnDirectoryCreationFailure = throwExceptionOnDirectoryCreationFailure;
         this.createMissingDirectories = createMissingDirectories;
+        this.holdTtlMs = holdTtlMs;
+        this.idempotencyCacheSize = DEFAULT_IDEMPOTENCY_CACHE_SIZE;
+        this.idempotencyTtlMs = DEFAULT_IDEMPOTENCY_TTL_MS;
+        this.topProductsCapacity = DEFAULT_TOP_PRODUCTS_CAPACITY;
+        this.sketchEpsilon = DEFAULT_SKETCH_EPSILON;
+        this.sketchDelta = DEFAULT_SKETCH_DELTA;
+        this.nodeId = DEFAULT_NODE_ID;
+    }
+
+    private StoreConfig(Builder builder) {
+        this.receiptOutputDir = builder.receiptOutputDir;
+        this.maxRetryAttempts = builder.maxRetryAttempts;
+        this.retryDelayMs = builder.retryDelayMs;
+        this.throwExceptionOnDirectoryCreationFailure = builder.throwExceptionOnDirectoryCreationFailure;
+        this.createMissingDirectories = builder.createMissingDirectories;
+        this.holdTtlMs = builder.holdTtlMs;
+        this.idempotencyCacheSize = builder.idempotencyCacheSize;
+        this.idempotencyTtlMs = builder.idempotencyTtlMs;
+        this.topProductsCapacity = builder.topProductsCapacity;
+        this.sketchEpsilon = builder.sketchEpsilon;
+        this.sketchDelta = builder.sketchDelta;
+        this.nodeId = builder.nodeId;
     }
     
     /**
@@ -47,6 +99,34 @@ public class StoreConfig implements Serializable {
         private long retryDelayMs = 1000;
         private boolean throwExceptionOnDirectoryCreationFailure = true;
         private boolean createMissingDirectories = true;
+        private long holdTtlMs = DEFAULT_HOLD_TTL_MS;
+        private int idempotencyCacheSize = DEFAULT_IDEMPOTENCY_CACHE_SIZE;
+        private long idempotencyTtlMs = DEFAULT_IDEMPOTENCY_TTL_MS;
+        private int topProductsCapacity = DEFAULT_TOP_PRODUCTS_CAPACITY;
+        private double sketchEpsilon = DEFAULT_SKETCH_EPSILON;
+        private double sketchDelta = DEFAULT_SKETCH_DELTA;
+        private int nodeId = DEFAULT_NODE_ID;
+
+        public Builder() {
+        }
+
+        /**
+         * Start from the settings of an existing configuration
+         */
+        public Builder(StoreConfig config) {
+            this.receiptOutputDir = config.receiptOutputDir;
+            this.maxRetryAttempts = config.maxRetryAttempts;
+            this.retryDelayMs = config.retryDelayMs;
+            this.throwExceptionOnDirectoryCreationFailure = config.throwExceptionOnDirectoryCreationFailure;
+            this.createMissingDirectories = config.createMissingDirectories;
+            this.holdTtlMs = config.holdTtlMs;
+            this.idempotencyCacheSize = config.idempotencyCacheSize;
+            this.idempotencyTtlMs = config.idempotencyTtlMs;
+            this.topProductsCapacity = config.topProductsCapacity;
+            this.sketchEpsilon = config.sketchEpsilon;
+            this.sketchDelta = config.sketchDelta;
+            this.nodeId = config.nodeId;
+        }
         
         public Builder receiptOutputDir(String receiptOutputDir) {
             this.receiptOutputDir = receiptOutputDir;
@@ -73,9 +153,57 @@ public class StoreConfig implements Serializable {
             return this;
         }
         
+        public Builder holdTtlMs(long holdTtlMs) {
+            this.holdTtlMs = holdTtlMs;
+            return this;
+        }
+        
+        public Builder idempotencyCacheSize(int idempotencyCacheSize) {
+            this.idempotencyCacheSize = idempotencyCacheSize;
+            return this;
+        }
+        
+        public Builder idempotencyTtlMs(long idempotencyTtlMs) {
+            this.idempotencyTtlMs = idempotencyTtlMs;
+            return this;
+        }
+        
+        /**
+         * The number of products tracked for the best-seller lists; counts are off by at most
+         * the total divided by this capacity
+         */
+        public Builder topProductsCapacity(int topProductsCapacity) {
+            this.topProductsCapacity = topProductsCapacity;
+            return this;
+        }
+        
+        /**
+         * The relative error of per-product frequency estimates, as a fraction of all units sold
+         */
+        public Builder sketchEpsilon(double sketchEpsilon) {
+            this.sketchEpsilon = sketchEpsilon;
+            return this;
+        }
+        
+        /**
+         * The probability that a frequency estimate exceeds its error bound
+         */
+        public Builder sketchDelta(double sketchDelta) {
+            this.sketchDelta = sketchDelta;
+            return this;
+        }
+        
+        /**
+         * The node encoded in the top bits of allocated IDs, so several processes can allocate
+         * without coordinating; -1 for no prefix
+         */
+        public Builder nodeId(int nodeId) {
+            this.nodeId = nodeId;
+            return this;
+        }
+        
         public StoreConfig build() {
-            return new StoreConfig(receiptOutputDir, maxRetryAttempts, retryDelayMs,
-                    throwExceptionOnDirectoryCreationFailure, createMissingDirectories);
+            return new StoreConfig(this);
         }
     }
     
@@ -100,4 +228,32 @@ public class StoreConfig implements Serializable {
     public boolean isCreateMissingDirectories() {
         return createMissingDirectories;
     }
-}
\ No newline at end of file
+    
+    public long getHoldTtlMs() {
+        return holdTtlMs;
+    }
+    
+    public int getIdempotencyCacheSize() {
+        return idempotencyCacheSize;
+    }
+    
+    public long getIdempotencyTtlMs() {
+        return idempotencyTtlMs;
+    }
+    
+    public int getTopProductsCapacity() {
+        return topProductsCapacity;
+    }
+    
+    public double getSketchEpsilon() {
+        return sketchEpsilon;
+    }
+    
+    public double getSketchDelta() {
+        return sketchDelta;
+    }
+    
+    public int getNodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,87 @@
+package org.data;
+
+import java.util.Arrays;
+
+import org.exception.NegativeQuantityException;
+
+/**
+ * Reusable purchase buffer holding product IDs and quantities in primitive arrays.
+ * A register can keep one basket and clear it between customers, so building a
+ * purchase does not allocate or box per line. Not thread-safe.
+ */
+public class Basket {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] productIds;
+    private int[] quantities;
+    private int size;
+
+    public Basket() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Basket(int initialCapacity) {
+        this.productIds = new int[Math.max(1, initialCapacity)];
+        this.quantities = new int[Math.max(1, initialCapacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Add a line to the basket. Adding a product that is already in the basket
+     * increases the quantity of its existing line.
+     * @param productId The product ID
+     * @param quantity The quantity
+     */
+    public void add(int productId, int quantity) {
+        if (quantity < 0) {
+            throw new NegativeQuantityException(quantity);
+        }
+        for (int i = 0; i < size; i++) {
+            if (productIds[i] == productId) {
+                quantities[i] += quantity;
+                return;
+            }
+        }
+        if (size == productIds.length) {
+            productIds = Arrays.copyOf(productIds, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+        }
+        productIds[size] = productId;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getProductId(int line) {
+        return productIds[line];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    /**
+     * @return The backing product ID array; only the first {@link #size()} entries are valid
+     */
+    public int[] getProductIds() {
+        return productIds;
+    }
+
+    /**
+     * @return The backing quantity array; only the first {@link #size()} entries are valid
+     */
+    public int[] getQuantities() {
+        return quantities;
+    }
+}
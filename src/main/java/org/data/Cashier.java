@@ -2,16 +2,17 @@ package org.data;
 
 import java.io.Serializable;
 import org.exception.NegativeRegisterNumberException;
+import org.util.IdAllocator;
 
 public class Cashier implements Serializable {
     private static final long serialVersionUID = 1L;
-    private static volatile int nextCashierId = 1;
-    private static final Object cashierIdLock = new Object();
+    private static final IdAllocator CASHIER_IDS = new IdAllocator();
 
     private final int id;
     private final String name;
     private final double monthlySalary;
-    private int registerNumber;
+    // Written by register assignments on any thread
+    private volatile int registerNumber;
 
     public Cashier(int id, String name, double monthlySalary) {
         this.id = id;
@@ -21,9 +22,7 @@ public class Cashier implements Serializable {
     }
 
     public Cashier(String name, double monthlySalary) {
-        synchronized (cashierIdLock) {
-            this.id = nextCashierId++;
-        }
+        this.id = CASHIER_IDS.nextId();
         this.name = name;
         this.monthlySalary = monthlySalary;
         this.registerNumber = -1;
@@ -52,6 +51,13 @@ public class Cashier implements Serializable {
         this.registerNumber = registerNumber;
     }
 
+    /**
+     * Mark the cashier as not assigned to any register
+     */
+    public void clearRegisterNumber() {
+        this.registerNumber = -1;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -74,8 +80,6 @@ public class Cashier implements Serializable {
     }
 
     public static void resetCashierCounter() {
-        synchronized (cashierIdLock) {
-            nextCashierId = 1;
-        }
+        CASHIER_IDS.reset();
     }
 }
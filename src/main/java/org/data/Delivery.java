@@ -0,0 +1,45 @@
+package org.data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Represents a delivery of additional stock for a product that is already in the store.
+ */
+public class Delivery implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int productId;
+    private final int quantity;
+    private final double unitCost;
+    private final LocalDate expirationDate;
+
+    public Delivery(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitCost = unitCost;
+        this.expirationDate = expirationDate;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getUnitCost() {
+        return unitCost;
+    }
+
+    public LocalDate getExpirationDate() {
+        return expirationDate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Delivery (Product: %d, Quantity: %d, Unit cost: %.2f, Expires: %s)",
+                productId, quantity, unitCost, expirationDate);
+    }
+}
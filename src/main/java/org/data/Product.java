@@ -1,21 +1,30 @@
 package org.data;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import org.exception.NegativeQuantityException;
+import org.util.IdAllocator;
 
 public class Product implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private static volatile int nextProductId = 1;
-    private static final Object productIdLock = new Object();
+    private static final long serialVersionUID = 2L;
+    private static final IdAllocator PRODUCT_IDS = new IdAllocator();
+    private static final AtomicLongFieldUpdater<Product> STOCK =
+            AtomicLongFieldUpdater.newUpdater(Product.class, "stock");
 
     private final int id;
     private final String name;
     private final double deliveryPrice;
     private final ProductCategory category;
-    private final LocalDate expirationDate;
-    private int quantity;
+    private volatile LocalDate expirationDate;
+    private volatile long stock;
+    // Weighted average cost of the stock on hand; null until a delivery states its cost
+    private volatile Double averageCost;
+    // Where the stock word lives once it is shared; set before the product is published
+    private transient StockSlot slot;
 
     public Product(int id, String name, double deliveryPrice, ProductCategory category,
             LocalDate expirationDate, int quantity) {
@@ -24,19 +33,17 @@ public class Product implements Serializable {
         this.deliveryPrice = deliveryPrice;
         this.category = category;
         this.expirationDate = expirationDate;
-        this.quantity = quantity;
+        this.stock = pack(quantity, 0);
     }
 
     public Product(String name, double deliveryPrice, ProductCategory category,
             LocalDate expirationDate, int quantity) {
-        synchronized (productIdLock) {
-            this.id = nextProductId++;
-        }
+        this.id = PRODUCT_IDS.nextId();
         this.name = name;
         this.deliveryPrice = deliveryPrice;
         this.category = category;
         this.expirationDate = expirationDate;
-        this.quantity = quantity;
+        this.stock = pack(quantity, 0);
     }
 
     public int getId() {
@@ -51,6 +58,15 @@ public class Product implements Serializable {
         return deliveryPrice;
     }
 
+    /**
+     * @return The weighted average unit cost of the stock on hand, or the delivery price if no
+     * delivery has stated a cost yet
+     */
+    public double getAverageCost() {
+        Double cost = averageCost;
+        return cost != null ? cost : deliveryPrice;
+    }
+
     public ProductCategory getCategory() {
         return category;
     }
@@ -60,14 +76,217 @@ public class Product implements Serializable {
     }
 
     public int getQuantity() {
-        return quantity;
+        return onHand(loadStock());
+    }
+
+    /**
+     * @return The quantity that is not held for an ongoing checkout
+     */
+    public int getAvailableQuantity() {
+        long current = loadStock();
+        return onHand(current) - reserved(current);
+    }
+
+    /**
+     * @return The quantity currently held for ongoing checkouts
+     */
+    public int getReservedQuantity() {
+        return reserved(loadStock());
     }
 
     public void setQuantity(int quantity) {
         if (quantity < 0) {
             throw new NegativeQuantityException(quantity);
         }
-        this.quantity = quantity;
+        while (true) {
+            long current = loadStock();
+            if (casStock(current, pack(quantity, reserved(current)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Atomically add a delivery to the stock of this product.
+     * If the shelf was empty the delivery's expiration date replaces the current one,
+     * otherwise the earlier of the two dates is kept so older stock is never sold past its date.
+     * @param amount The delivered quantity
+     * @param deliveryExpirationDate The expiration date of the delivered batch, or null to keep the current one
+     * @return The quantity after the delivery
+     */
+    public int restock(int amount, LocalDate deliveryExpirationDate) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        // Deliveries serialise among themselves; sales only ever CAS the stock word.
+        synchronized (this) {
+            if (deliveryExpirationDate != null
+                    && (getQuantity() == 0 || deliveryExpirationDate.isBefore(expirationDate))) {
+                expirationDate = deliveryExpirationDate;
+            }
+            return onHand(addStock(amount));
+        }
+    }
+
+    /**
+     * Atomically add a delivery bought at the given unit cost. The average cost is weighted by
+     * the quantity on hand before the delivery and the delivered quantity.
+     * @param amount The delivered quantity
+     * @param unitCost The delivery cost of one unit
+     * @param deliveryExpirationDate The expiration date of the delivered batch, or null to keep the current one
+     * @return The quantity after the delivery
+     */
+    public int restock(int amount, double unitCost, LocalDate deliveryExpirationDate) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        synchronized (this) {
+            int onHand = Math.max(0, getQuantity());
+            if (onHand + amount > 0) {
+                averageCost = (getAverageCost() * onHand + unitCost * amount) / (onHand + amount);
+            }
+            return restock(amount, deliveryExpirationDate);
+        }
+    }
+
+    /**
+     * Atomically remove the given amount if enough unreserved stock is available.
+     * @param amount The quantity to remove
+     * @return true if the stock was decreased, false if there was not enough
+     */
+    public boolean tryDecreaseQuantity(int amount) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        while (true) {
+            long current = loadStock();
+            if (onHand(current) - reserved(current) < amount) {
+                return false;
+            }
+            if (casStock(current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically return previously removed stock, e.g. when a sale is rolled back.
+     * @param amount The quantity to add back
+     */
+    public void increaseQuantity(int amount) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        addStock(amount);
+    }
+
+    /**
+     * Atomically hold the given amount for a checkout if enough unreserved stock is available.
+     * Held stock stays on hand but can no longer be sold or held by anyone else.
+     * @param amount The quantity to hold
+     * @return true if the hold was placed, false if there was not enough available stock
+     */
+    public boolean tryReserve(int amount) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        while (true) {
+            long current = loadStock();
+            int reserved = reserved(current);
+            if (onHand(current) - reserved < amount) {
+                return false;
+            }
+            if (casStock(current, pack(onHand(current), reserved + amount))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically release a hold without selling the stock.
+     * @param amount The held quantity to release
+     */
+    public void releaseReservation(int amount) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        while (true) {
+            long current = loadStock();
+            int reserved = Math.max(0, reserved(current) - amount);
+            if (casStock(current, pack(onHand(current), reserved))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Atomically turn a hold into a sale, removing the held amount from the stock.
+     * @param amount The held quantity to sell
+     * @return true if the stock was decreased, false if the stock was reset below the held amount
+     */
+    public boolean commitReservation(int amount) {
+        if (amount < 0) {
+            throw new NegativeQuantityException(amount);
+        }
+        while (true) {
+            long current = loadStock();
+            int onHand = onHand(current);
+            if (onHand < amount) {
+                return false;
+            }
+            int reserved = Math.max(0, reserved(current) - amount);
+            if (casStock(current, pack(onHand - amount, reserved))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move this product's stock word into external storage. From then on every quantity read
+     * and update goes to the slot, whose current value replaces the product's own stock. Bind
+     * the product before any other thread can see it.
+     * @param slot The slot holding the stock word
+     */
+    public void bindStock(StockSlot slot) {
+        this.slot = slot;
+    }
+
+    private long loadStock() {
+        StockSlot shared = slot;
+        return shared == null ? stock : shared.get();
+    }
+
+    private boolean casStock(long expected, long value) {
+        StockSlot shared = slot;
+        return shared == null ? STOCK.compareAndSet(this, expected, value) : shared.compareAndSet(expected, value);
+    }
+
+    private long addStock(long delta) {
+        StockSlot shared = slot;
+        return shared == null ? STOCK.addAndGet(this, delta) : shared.addAndGet(delta);
+    }
+
+    // Serialized receipts carry the quantity at the time of writing, wherever the stock lives
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        StockSlot shared = slot;
+        if (shared != null) {
+            stock = shared.get();
+        }
+        out.defaultWriteObject();
+    }
+
+    // The on-hand quantity lives in the low 32 bits and the held quantity in the high 32 bits,
+    // so both can be checked and updated with a single CAS.
+    private static long pack(int onHand, int reserved) {
+        return ((long) reserved << 32) | (onHand & 0xFFFFFFFFL);
+    }
+
+    private static int onHand(long stock) {
+        return (int) stock;
+    }
+
+    private static int reserved(long stock) {
+        return (int) (stock >>> 32);
     }
 
     public boolean isExpired() {
@@ -96,12 +315,10 @@ public class Product implements Serializable {
     @Override
     public String toString() {
         return String.format("%s (ID: %d, Price: %.2f, Quantity: %d, Expires: %s)",
-                name, id, deliveryPrice, quantity, expirationDate);
+                name, id, deliveryPrice, getQuantity(), expirationDate);
     }
 
     public static void resetProductCounter() {
-        synchronized (productIdLock) {
-            nextProductId = 1;
-        }
+        PRODUCT_IDS.reset();
     }
 }
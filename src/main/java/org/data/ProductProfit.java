@@ -0,0 +1,66 @@
+package org.data;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running profitability of one product: units sold, revenue and cost of goods sold, taken from
+ * the unit price and unit cost recorded on every receipt line. Updated concurrently as
+ * receipts are issued; every read is a constant-time sum.
+ */
+public class ProductProfit {
+    private final int productId;
+    private final LongAdder unitsSold = new LongAdder();
+    private final DoubleAdder revenue = new DoubleAdder();
+    private final DoubleAdder costOfGoodsSold = new DoubleAdder();
+
+    public ProductProfit(int productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Record one receipt line
+     * @param quantity The units sold
+     * @param unitPrice The selling price of one unit
+     * @param unitCost The average cost of one unit when it was sold
+     */
+    public void record(int quantity, double unitPrice, double unitCost) {
+        unitsSold.add(quantity);
+        revenue.add(unitPrice * quantity);
+        costOfGoodsSold.add(unitCost * quantity);
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold.sum();
+    }
+
+    public double getRevenue() {
+        return revenue.sum();
+    }
+
+    public double getCostOfGoodsSold() {
+        return costOfGoodsSold.sum();
+    }
+
+    public double getGrossMargin() {
+        return revenue.sum() - costOfGoodsSold.sum();
+    }
+
+    /**
+     * @return The gross margin as a fraction of revenue, or 0 if nothing was sold
+     */
+    public double getGrossMarginRate() {
+        double sold = revenue.sum();
+        return sold == 0 ? 0 : (sold - costOfGoodsSold.sum()) / sold;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ProductProfit{productId=%d, unitsSold=%d, revenue=%.2f, cost=%.2f, margin=%.2f}",
+                productId, getUnitsSold(), getRevenue(), getCostOfGoodsSold(), getGrossMargin());
+    }
+}
@@ -0,0 +1,39 @@
+package org.data;
+
+/**
+ * A product's place in a best-seller list, with the estimate's error bound
+ */
+public class ProductRank {
+    private final int productId;
+    private final double estimate;
+    private final double error;
+
+    public ProductRank(int productId, double estimate, double error) {
+        this.productId = productId;
+        this.estimate = estimate;
+        this.error = error;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    /**
+     * @return The estimated units or revenue; never below the true figure
+     */
+    public double getEstimate() {
+        return estimate;
+    }
+
+    /**
+     * @return The most the estimate can exceed the true figure by
+     */
+    public double getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Product %d: %.2f (+/- %.2f)", productId, estimate, error);
+    }
+}
@@ -2,41 +2,97 @@ package org.data;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Receipt implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private static volatile int nextReceiptNumber = 1;
-    private static final Object receiptNumberLock = new Object();
+    private static final long serialVersionUID = 2L;
 
     private final int receiptNumber;
     private final LocalDateTime date;
     private final Cashier cashier;
     private final int registerNumber;
-    private final Map<Product, Integer> items;
+    // Line items are stored as parallel arrays: product, quantity and unit selling price per line
+    private final Product[] products;
+    private final int[] quantities;
+    private final double[] unitPrices;
+    // Unit cost per line at the time of sale; null on receipts serialized before it existed
+    private final double[] unitCosts;
     private final double totalAmount;
+    // Item view built from the lines on first use; not serialized since the lines hold the data
+    private transient volatile Map<Product, Integer> items;
 
-    public Receipt(Cashier cashier, int registerNumber, Map<Product, Integer> items, double totalAmount) {
-        synchronized (receiptNumberLock) {
-            this.receiptNumber = nextReceiptNumber++;
-        }
+    public Receipt(int receiptNumber, Cashier cashier, int registerNumber, Map<Product, Integer> items, double totalAmount) {
+        this.receiptNumber = receiptNumber;
         this.date = LocalDateTime.now();
         this.cashier = cashier;
         this.registerNumber = registerNumber;
-        this.items = new HashMap<>(items);
+        this.products = new Product[items.size()];
+        this.quantities = new int[items.size()];
+        this.unitPrices = new double[items.size()];
+        this.unitCosts = new double[items.size()];
+        copyItems(items);
         this.totalAmount = totalAmount;
     }
 
-    public Receipt(int receiptNumber, Cashier cashier, int registerNumber, Map<Product, Integer> items, double totalAmount) {
+    /**
+     * Create a receipt from parallel line arrays. The arrays are taken over by the receipt
+     * without copying, so the caller must not modify them afterwards.
+     */
+    public Receipt(int receiptNumber, Cashier cashier, int registerNumber, Product[] products,
+            int[] quantities, double[] unitPrices, double totalAmount) {
+        this(receiptNumber, cashier, registerNumber, products, quantities, unitPrices,
+                averageCosts(products), totalAmount);
+    }
+
+    /**
+     * Create a receipt from parallel line arrays, including the unit cost of every line. The
+     * arrays are taken over by the receipt without copying.
+     */
+    public Receipt(int receiptNumber, Cashier cashier, int registerNumber, Product[] products,
+            int[] quantities, double[] unitPrices, double[] unitCosts, double totalAmount) {
+        this(receiptNumber, cashier, registerNumber, LocalDateTime.now(), products, quantities, unitPrices,
+                unitCosts, totalAmount);
+    }
+
+    /**
+     * Recreate a receipt issued elsewhere, keeping its original date. The arrays are taken
+     * over by the receipt without copying.
+     */
+    public Receipt(int receiptNumber, Cashier cashier, int registerNumber, LocalDateTime date, Product[] products,
+            int[] quantities, double[] unitPrices, double[] unitCosts, double totalAmount) {
         this.receiptNumber = receiptNumber;
-        this.date = LocalDateTime.now();
+        this.date = date;
         this.cashier = cashier;
         this.registerNumber = registerNumber;
-        this.items = new HashMap<>(items);
+        this.products = products;
+        this.quantities = quantities;
+        this.unitPrices = unitPrices;
+        this.unitCosts = unitCosts;
         this.totalAmount = totalAmount;
     }
 
+    private static double[] averageCosts(Product[] products) {
+        double[] costs = new double[products.length];
+        for (int line = 0; line < products.length; line++) {
+            costs[line] = products[line].getAverageCost();
+        }
+        return costs;
+    }
+
+    // An item map carries no selling prices, so the delivery price is recorded as before
+    private void copyItems(Map<Product, Integer> items) {
+        int line = 0;
+        for (Map.Entry<Product, Integer> entry : items.entrySet()) {
+            products[line] = entry.getKey();
+            quantities[line] = entry.getValue();
+            unitPrices[line] = entry.getKey().getDeliveryPrice();
+            unitCosts[line] = entry.getKey().getAverageCost();
+            line++;
+        }
+    }
+
     public int getReceiptNumber() {
         return receiptNumber;
     }
@@ -53,8 +109,59 @@ public class Receipt implements Serializable {
         return registerNumber;
     }
 
+    /**
+     * @return An unmodifiable view of the quantity sold per product, summed over all lines
+     */
     public Map<Product, Integer> getItems() {
-        return new HashMap<>(items);
+        Map<Product, Integer> view = items;
+        if (view == null) {
+            Map<Product, Integer> merged = new HashMap<>();
+            for (int i = 0; i < products.length; i++) {
+                merged.merge(products[i], quantities[i], Integer::sum);
+            }
+            view = Collections.unmodifiableMap(merged);
+            items = view;
+        }
+        return view;
+    }
+
+    public int getLineCount() {
+        return products.length;
+    }
+
+    public Product getProduct(int line) {
+        return products[line];
+    }
+
+    public int getProductId(int line) {
+        return products[line].getId();
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public double getUnitPrice(int line) {
+        return unitPrices[line];
+    }
+
+    /**
+     * @param line The line index
+     * @return The average cost of one unit of the product when the line was sold
+     */
+    public double getUnitCost(int line) {
+        return unitCosts != null ? unitCosts[line] : products[line].getDeliveryPrice();
+    }
+
+    /**
+     * @return The number of items sold, summed over all lines
+     */
+    public int getItemCount() {
+        int items = 0;
+        for (int quantity : quantities) {
+            items += quantity;
+        }
+        return items;
     }
 
     public double getTotalAmount() {
@@ -83,19 +190,13 @@ public class Receipt implements Serializable {
         sb.append("Date: ").append(date).append("\n");
         sb.append("Cashier: ").append(cashier.getName()).append("\n");
         sb.append("Items:\n");
-        for (Map.Entry<Product, Integer> entry : items.entrySet()) {
+        for (int i = 0; i < products.length; i++) {
             sb.append(String.format("%s x%d - %.2f BGN\n",
-                    entry.getKey().getName(),
-                    entry.getValue(),
-                    entry.getKey().getDeliveryPrice() * entry.getValue()));
+                    products[i].getName(),
+                    quantities[i],
+                    unitPrices[i] * quantities[i]));
         }
         sb.append(String.format("Total: %.2f BGN", totalAmount));
         return sb.toString();
     }
-
-    public static void resetReceiptCounter() {
-        synchronized (receiptNumberLock) {
-            nextReceiptNumber = 1;
-        }
-    }
 }
@@ -0,0 +1,16 @@
+package org.data;
+
+/**
+ * The business outcome of a sale attempt
+ */
+public enum SaleOutcome {
+    SOLD,
+    NO_ASSIGNED_CASHIER,
+    PRODUCT_NOT_FOUND,
+    PRODUCT_EXPIRED,
+    INSUFFICIENT_QUANTITY,
+    OVERLOADED,
+    STORE_CLOSED,
+    // Any other validation failure, such as a negative quantity
+    INVALID_REQUEST
+}
@@ -0,0 +1,37 @@
+package org.data;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents one sale in a batch, e.g. an offline sale replayed by a terminal that lost connectivity.
+ */
+public class SaleRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int registerNumber;
+    private final Map<Integer, Integer> purchase;
+
+    public SaleRequest(int registerNumber, Map<Integer, Integer> purchase) {
+        this.registerNumber = registerNumber;
+        this.purchase = Collections.unmodifiableMap(new LinkedHashMap<>(purchase));
+    }
+
+    public int getRegisterNumber() {
+        return registerNumber;
+    }
+
+    /**
+     * @return The purchase details (product ID -> quantity)
+     */
+    public Map<Integer, Integer> getPurchase() {
+        return purchase;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Sale request (Register: %d, Items: %s)", registerNumber, purchase);
+    }
+}
@@ -0,0 +1,110 @@
+package org.data;
+
+import org.exception.ExpiredProductException;
+import org.exception.InsufficientQuantityException;
+import org.exception.NoAssignedCashierException;
+import org.exception.ProductNotFoundException;
+import org.exception.StoreClosedException;
+import org.exception.StoreOverloadedException;
+
+/**
+ * The outcome of a sale: either the issued receipt or the reason the sale was rejected.
+ * <p>
+ * Rejections returned by {@code trySale} are shared flyweights, one per {@link SaleOutcome},
+ * and carry no exception. Rejections in a batch result also carry the exception describing
+ * which product or register caused them.
+ */
+public class SaleResult {
+    private static final SaleResult[] REJECTIONS = new SaleResult[SaleOutcome.values().length];
+
+    static {
+        for (SaleOutcome outcome : SaleOutcome.values()) {
+            if (outcome != SaleOutcome.SOLD) {
+                REJECTIONS[outcome.ordinal()] = new SaleResult(outcome, null, null);
+            }
+        }
+    }
+
+    private final SaleOutcome outcome;
+    private final Receipt receipt;
+    private final RuntimeException failure;
+
+    private SaleResult(SaleOutcome outcome, Receipt receipt, RuntimeException failure) {
+        this.outcome = outcome;
+        this.receipt = receipt;
+        this.failure = failure;
+    }
+
+    public static SaleResult success(Receipt receipt) {
+        return new SaleResult(SaleOutcome.SOLD, receipt, null);
+    }
+
+    /**
+     * Get the shared result for a rejected sale
+     * @param outcome The reason for the rejection; must not be {@link SaleOutcome#SOLD}
+     * @return The flyweight result
+     */
+    public static SaleResult rejected(SaleOutcome outcome) {
+        if (outcome == SaleOutcome.SOLD) {
+            throw new IllegalArgumentException("A sold outcome needs a receipt");
+        }
+        return REJECTIONS[outcome.ordinal()];
+    }
+
+    public static SaleResult failure(RuntimeException failure) {
+        return new SaleResult(outcomeOf(failure), null, failure);
+    }
+
+    private static SaleOutcome outcomeOf(RuntimeException failure) {
+        if (failure instanceof InsufficientQuantityException) {
+            return SaleOutcome.INSUFFICIENT_QUANTITY;
+        }
+        if (failure instanceof ExpiredProductException) {
+            return SaleOutcome.PRODUCT_EXPIRED;
+        }
+        if (failure instanceof ProductNotFoundException) {
+            return SaleOutcome.PRODUCT_NOT_FOUND;
+        }
+        if (failure instanceof NoAssignedCashierException) {
+            return SaleOutcome.NO_ASSIGNED_CASHIER;
+        }
+        if (failure instanceof StoreOverloadedException) {
+            return SaleOutcome.OVERLOADED;
+        }
+        if (failure instanceof StoreClosedException) {
+            return SaleOutcome.STORE_CLOSED;
+        }
+        return SaleOutcome.INVALID_REQUEST;
+    }
+
+    public boolean isSuccess() {
+        return outcome == SaleOutcome.SOLD;
+    }
+
+    public SaleOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The issued receipt, or null if the sale failed
+     */
+    public Receipt getReceipt() {
+        return receipt;
+    }
+
+    /**
+     * @return The exception describing the failure, or null if the sale succeeded or the result
+     *         is a shared rejection
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        if (isSuccess()) {
+            return "Sale succeeded (Receipt: " + receipt.getReceiptNumber() + ")";
+        }
+        return failure != null ? "Sale failed (" + failure.getMessage() + ")" : "Sale failed (" + outcome + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package org.data;
+
+import org.util.SlidingWindowCounter;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Running sales figures for one cashier, register or the whole store, with rates over the
+ * last minute and the last hour. Updated concurrently as receipts are issued; every read is
+ * a constant-time sum.
+ */
+public class SalesCounters {
+    private final LongAdder sales = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final DoubleAdder revenue = new DoubleAdder();
+    private final SlidingWindowCounter lastMinute = new SlidingWindowCounter(60, 1_000);
+    private final SlidingWindowCounter lastHour = new SlidingWindowCounter(60, 60_000);
+    private final LongSupplier clock;
+
+    /**
+     * @param clock The source of the current time in milliseconds
+     */
+    public SalesCounters(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Record one sale
+     * @param itemCount The number of items sold
+     * @param amount The sale total
+     */
+    public void record(int itemCount, double amount) {
+        long now = clock.getAsLong();
+        sales.increment();
+        items.add(itemCount);
+        revenue.add(amount);
+        lastMinute.record(now, itemCount, amount);
+        lastHour.record(now, itemCount, amount);
+    }
+
+    public long getSales() {
+        return sales.sum();
+    }
+
+    public long getItems() {
+        return items.sum();
+    }
+
+    public double getRevenue() {
+        return revenue.sum();
+    }
+
+    /**
+     * @return The average sale total, or 0 if there were no sales
+     */
+    public double getAverageBasket() {
+        long count = sales.sum();
+        return count == 0 ? 0 : revenue.sum() / count;
+    }
+
+    public long getSalesLastMinute() {
+        return lastMinute.getEvents(clock.getAsLong());
+    }
+
+    public long getItemsLastMinute() {
+        return lastMinute.getItems(clock.getAsLong());
+    }
+
+    public double getRevenueLastMinute() {
+        return lastMinute.getAmount(clock.getAsLong());
+    }
+
+    public long getSalesLastHour() {
+        return lastHour.getEvents(clock.getAsLong());
+    }
+
+    public long getItemsLastHour() {
+        return lastHour.getItems(clock.getAsLong());
+    }
+
+    public double getRevenueLastHour() {
+        return lastHour.getAmount(clock.getAsLong());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Sales: %d, Items: %d, Revenue: %.2f, Average basket: %.2f",
+                getSales(), getItems(), getRevenue(), getAverageBasket());
+    }
+}
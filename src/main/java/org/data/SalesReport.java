@@ -0,0 +1,82 @@
+package org.data;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Aggregated sales over a set of receipts
+ */
+public class SalesReport {
+    private final long receiptCount;
+    private final long itemCount;
+    private final double totalRevenue;
+    private final Map<ProductCategory, Double> revenueByCategory;
+    private final Map<LocalDate, Double> revenueByDay;
+    private final Map<Integer, Double> revenueByCashier;
+    private final Map<Integer, Double> marginByProduct;
+    private final long skippedReceipts;
+
+    public SalesReport(long receiptCount, long itemCount, double totalRevenue,
+            Map<ProductCategory, Double> revenueByCategory, Map<LocalDate, Double> revenueByDay,
+            Map<Integer, Double> revenueByCashier, Map<Integer, Double> marginByProduct, long skippedReceipts) {
+        this.receiptCount = receiptCount;
+        this.itemCount = itemCount;
+        this.totalRevenue = totalRevenue;
+        this.revenueByCategory = Collections.unmodifiableMap(revenueByCategory);
+        this.revenueByDay = Collections.unmodifiableMap(revenueByDay);
+        this.revenueByCashier = Collections.unmodifiableMap(revenueByCashier);
+        this.marginByProduct = Collections.unmodifiableMap(marginByProduct);
+        this.skippedReceipts = skippedReceipts;
+    }
+
+    public long getReceiptCount() {
+        return receiptCount;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public Map<ProductCategory, Double> getRevenueByCategory() {
+        return revenueByCategory;
+    }
+
+    /**
+     * @return Revenue per calendar day, in date order
+     */
+    public Map<LocalDate, Double> getRevenueByDay() {
+        return revenueByDay;
+    }
+
+    /**
+     * @return Revenue per cashier ID
+     */
+    public Map<Integer, Double> getRevenueByCashier() {
+        return revenueByCashier;
+    }
+
+    /**
+     * @return Selling price minus delivery price over all units sold, per product ID
+     */
+    public Map<Integer, Double> getMarginByProduct() {
+        return marginByProduct;
+    }
+
+    /**
+     * @return The number of persisted receipts that could not be read
+     */
+    public long getSkippedReceipts() {
+        return skippedReceipts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Sales report (Receipts: %d, Items: %d, Revenue: %.2f, Skipped: %d)",
+                receiptCount, itemCount, totalRevenue, skippedReceipts);
+    }
+}
@@ -0,0 +1,40 @@
+package org.data;
+
+/**
+ * Receipt count, item count and revenue over a period of time
+ */
+public class SalesTotals {
+    private final long receipts;
+    private final long items;
+    private final double revenue;
+
+    public SalesTotals(long receipts, long items, double revenue) {
+        this.receipts = receipts;
+        this.items = items;
+        this.revenue = revenue;
+    }
+
+    public long getReceipts() {
+        return receipts;
+    }
+
+    public long getItems() {
+        return items;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * @return The average receipt total, or 0 if there were no receipts
+     */
+    public double getAverageBasket() {
+        return receipts == 0 ? 0 : revenue / receipts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Receipts: %d, Items: %d, Revenue: %.2f", receipts, items, revenue);
+    }
+}
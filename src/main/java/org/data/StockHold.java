@@ -0,0 +1,66 @@
+package org.data;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.util.TimerWheel;
+
+/**
+ * A time-limited hold on the stock of a product. A hold ends exactly once: it is either
+ * committed as a sale, released, or expires when its time-to-live runs out.
+ */
+public class StockHold extends TimerWheel.Timer {
+    public enum State {
+        ACTIVE,
+        COMMITTED,
+        RELEASED,
+        EXPIRED
+    }
+
+    private static final State[] STATES = State.values();
+
+    private final int productId;
+    private final int quantity;
+    private final long expiresAtMillis;
+    private final AtomicInteger state = new AtomicInteger(State.ACTIVE.ordinal());
+
+    public StockHold(int productId, int quantity, long expiresAtMillis) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public State getState() {
+        return STATES[state.get()];
+    }
+
+    public boolean isActive() {
+        return state.get() == State.ACTIVE.ordinal();
+    }
+
+    /**
+     * Move an active hold into its final state
+     * @param target The final state
+     * @return true if this call ended the hold, false if it had already ended
+     */
+    public boolean end(State target) {
+        return state.compareAndSet(State.ACTIVE.ordinal(), target.ordinal());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hold (Product: %d, Quantity: %d, Expires: %d, State: %s)",
+                productId, quantity, expiresAtMillis, getState());
+    }
+}
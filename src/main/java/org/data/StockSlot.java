@@ -0,0 +1,14 @@
+package org.data;
+
+/**
+ * External storage for a product's stock word, e.g. in memory shared with other processes.
+ * The word packs the on-hand and held quantities exactly as {@link Product} does, so every
+ * update is a single atomic operation on it.
+ */
+public interface StockSlot {
+    long get();
+
+    boolean compareAndSet(long expected, long value);
+
+    long addAndGet(long delta);
+}
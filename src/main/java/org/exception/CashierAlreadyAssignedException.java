@@ -0,0 +1,23 @@
+package org.exception;
+
+public class CashierAlreadyAssignedException extends RuntimeException {
+    private final int cashierId;
+    private final int registerNumber;
+
+    public CashierAlreadyAssignedException(int cashierId, int registerNumber) {
+        super(String.format("Cashier %d is already assigned to register %d", cashierId, registerNumber));
+        this.cashierId = cashierId;
+        this.registerNumber = registerNumber;
+    }
+
+    public int getCashierId() {
+        return cashierId;
+    }
+
+    /**
+     * @return The register the cashier already holds
+     */
+    public int getRegisterNumber() {
+        return registerNumber;
+    }
+}
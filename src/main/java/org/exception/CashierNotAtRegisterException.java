@@ -0,0 +1,20 @@
+package org.exception;
+
+public class CashierNotAtRegisterException extends RuntimeException {
+    private final int cashierId;
+    private final int registerNumber;
+
+    public CashierNotAtRegisterException(int cashierId, int registerNumber) {
+        super(String.format("Cashier %d is not assigned to register %d", cashierId, registerNumber));
+        this.cashierId = cashierId;
+        this.registerNumber = registerNumber;
+    }
+
+    public int getCashierId() {
+        return cashierId;
+    }
+
+    public int getRegisterNumber() {
+        return registerNumber;
+    }
+}
@@ -0,0 +1,14 @@
+package org.exception;
+
+public class CheckoutAlreadyOpenException extends RuntimeException {
+    private final int registerNumber;
+
+    public CheckoutAlreadyOpenException(int registerNumber) {
+        super(String.format("A checkout is already open at register %d", registerNumber));
+        this.registerNumber = registerNumber;
+    }
+
+    public int getRegisterNumber() {
+        return registerNumber;
+    }
+}
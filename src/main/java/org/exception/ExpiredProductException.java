@@ -4,13 +4,22 @@ import org.data.Product;
 
 public class ExpiredProductException extends RuntimeException {
     private final Product product;
+    private String message;
 
     public ExpiredProductException(Product product) {
-        super(String.format("Cannot sell expired product: %s", product.getName()));
+        super(null, null, false, false);
         this.product = product;
     }
 
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = String.format("Cannot sell expired product: %s", product.getName());
+        }
+        return message;
+    }
+
     public Product getProduct() {
         return product;
     }
-}
\ No newline at end of file
+}
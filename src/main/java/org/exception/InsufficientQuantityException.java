@@ -5,12 +5,24 @@ import org.data.Product;
 public class InsufficientQuantityException extends RuntimeException {
     private final Product product;
     private final int requestedQuantity;
+    private final int availableQuantity;
+    private String message;
 
     public InsufficientQuantityException(Product product, int requestedQuantity) {
-        super(String.format("Insufficient quantity for %s. Requested: %d, Available: %d",
-            product.getName(), requestedQuantity, product.getQuantity()));
+        // An expected sale outcome: no stack trace, and the message is only built when asked for
+        super(null, null, false, false);
         this.product = product;
         this.requestedQuantity = requestedQuantity;
+        this.availableQuantity = product.getAvailableQuantity();
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = String.format("Insufficient quantity for %s. Requested: %d, Available: %d",
+                product.getName(), requestedQuantity, availableQuantity);
+        }
+        return message;
     }
 
     public Product getProduct() {
@@ -20,4 +32,4 @@ public class InsufficientQuantityException extends RuntimeException {
     public int getRequestedQuantity() {
         return requestedQuantity;
     }
-} 
\ No newline at end of file
+}
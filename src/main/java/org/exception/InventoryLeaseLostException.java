@@ -0,0 +1,14 @@
+package org.exception;
+
+public class InventoryLeaseLostException extends RuntimeException {
+    private final int owner;
+
+    public InventoryLeaseLostException(int owner) {
+        super(String.format("Shared inventory owner %d lost its lease after missing its heartbeat", owner));
+        this.owner = owner;
+    }
+
+    public int getOwner() {
+        return owner;
+    }
+}
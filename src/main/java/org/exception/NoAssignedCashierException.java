@@ -2,13 +2,22 @@ package org.exception;
 
 public class NoAssignedCashierException extends RuntimeException {
     private final int registerNumber;
+    private String message;
 
     public NoAssignedCashierException(int registerNumber) {
-        super(String.format("No cashier assigned to register %d", registerNumber));
+        super(null, null, false, false);
         this.registerNumber = registerNumber;
     }
 
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = String.format("No cashier assigned to register %d", registerNumber);
+        }
+        return message;
+    }
+
     public int getRegisterNumber() {
         return registerNumber;
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,22 @@ package org.exception;
 
 public class ProductNotFoundException extends RuntimeException {
     private final int productId;
+    private String message;
 
     public ProductNotFoundException(int productId) {
-        super(String.format("Product not found: %d", productId));
+        super(null, null, false, false);
         this.productId = productId;
     }
 
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = String.format("Product not found: %d", productId);
+        }
+        return message;
+    }
+
     public int getProductId() {
         return productId;
     }
-}
\ No newline at end of file
+}
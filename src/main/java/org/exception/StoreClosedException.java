@@ -0,0 +1,14 @@
+package org.exception;
+
+public class StoreClosedException extends RuntimeException {
+    private final String storeId;
+
+    public StoreClosedException(String storeId) {
+        super(String.format("Store %s is closed", storeId));
+        this.storeId = storeId;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+}
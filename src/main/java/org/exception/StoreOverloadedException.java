@@ -0,0 +1,10 @@
+package org.exception;
+
+public class StoreOverloadedException extends RuntimeException {
+    // Shared instance without a stack trace: shedding load must not cost an allocation per rejected sale
+    public static final StoreOverloadedException INSTANCE = new StoreOverloadedException();
+
+    private StoreOverloadedException() {
+        super("Store is overloaded, sale rejected", null, false, false);
+    }
+}
@@ -0,0 +1,85 @@
+package org.service;
+
+import org.data.Receipt;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.exception.ReceiptPersistenceException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of the store operations. Sales and pricing run on a compute executor,
+ * disk access runs on a separate I/O executor, and every call returns immediately with a future.
+ * Failures that the blocking {@link StoreService} throws complete the future exceptionally.
+ */
+public interface AsyncStoreService extends AutoCloseable {
+    /**
+     * Create a sale. The future completes as soon as the receipt is issued; the receipt is
+     * written to persistent storage in the background.
+     * @param registerNumber The register number
+     * @param purchase The purchase details (product ID -> quantity)
+     * @return A future with the created receipt
+     */
+    CompletableFuture<Receipt> createSale(int registerNumber, Map<Integer, Integer> purchase);
+
+    /**
+     * Create a sale and complete only once its receipt is written to persistent storage
+     * @param registerNumber The register number
+     * @param purchase The purchase details (product ID -> quantity)
+     * @return A future with the created and persisted receipt; it fails with a
+     *         {@link ReceiptPersistenceException} if the receipt could not be written
+     */
+    CompletableFuture<Receipt> createDurableSale(int registerNumber, Map<Integer, Integer> purchase);
+
+    /**
+     * Create a batch of sales
+     * @param requests The sales to create
+     * @return A future with one result per request, in request order
+     */
+    CompletableFuture<List<SaleResult>> createSales(List<SaleRequest> requests);
+
+    /**
+     * Load a receipt from its serialized file without blocking the caller during retries
+     * @param receiptNumber The receipt number
+     * @return A future with the loaded receipt
+     */
+    CompletableFuture<Receipt> loadReceiptFromFile(int receiptNumber);
+
+    /**
+     * Get the total revenue from all sales
+     * @return A future with the total revenue
+     */
+    CompletableFuture<Double> getTotalRevenue();
+
+    /**
+     * Get the income (revenue minus delivery expenses)
+     * @return A future with the income
+     */
+    CompletableFuture<Double> getIncome();
+
+    /**
+     * Get the profit (income minus salary expenses)
+     * @return A future with the profit
+     */
+    CompletableFuture<Double> getProfit();
+
+    /**
+     * Get the total number of receipts
+     * @return A future with the total number of receipts
+     */
+    CompletableFuture<Integer> getTotalReceipts();
+
+    /**
+     * Get the blocking store service the asynchronous operations run against
+     * @return The store service
+     */
+    StoreService getStoreService();
+
+    /**
+     * Stop the executors owned by this service
+     */
+    @Override
+    void close();
+}
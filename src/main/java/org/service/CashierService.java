@@ -12,7 +12,21 @@ public interface CashierService {
 
     void assignCashierToRegister(int cashierId, int registerNumber);
 
+    /**
+     * Free a register
+     * @return The cashier that was at the register, or null if it was already free
+     */
+    Cashier releaseRegister(int registerNumber);
+
+    /**
+     * Atomically replace the cashier at a register, e.g. at a shift change
+     * @throws IllegalStateException if the outgoing cashier is not at the register
+     */
+    void handOverRegister(int registerNumber, int outgoingCashierId, int incomingCashierId);
+
     double getTotalSalaryExpenses();
 
     Cashier getCashierAtRegister(int registerNumber);
+
+    int[] getAssignedRegisters();
 }
\ No newline at end of file
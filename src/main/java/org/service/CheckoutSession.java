@@ -0,0 +1,66 @@
+package org.service;
+
+import org.data.Receipt;
+import org.exception.ExpiredProductException;
+import org.exception.InsufficientQuantityException;
+import org.exception.ProductNotFoundException;
+
+/**
+ * Incremental checkout at a single register. Every scanned line is validated, priced and
+ * held in stock immediately, so finishing the sale only has to commit the held lines.
+ * A session is used by one terminal at a time and is not thread-safe.
+ */
+public interface CheckoutSession {
+    /**
+     * Get the register this session belongs to
+     * @return The register number
+     */
+    int getRegisterNumber();
+
+    /**
+     * Scan a product, holding the quantity in stock and adding it to the running total
+     * @param productId The product ID
+     * @param quantity The quantity
+     * @return The line number of the scanned item
+     * @throws ProductNotFoundException if the product doesn't exist
+     * @throws ExpiredProductException if the product is expired
+     * @throws InsufficientQuantityException if there's insufficient available quantity
+     */
+    int scan(int productId, int quantity);
+
+    /**
+     * Void a previously scanned line, releasing its hold
+     * @param line The line number returned by {@link #scan(int, int)}
+     */
+    void voidLine(int line);
+
+    /**
+     * Get the running total of all lines that have not been voided
+     * @return The running total
+     */
+    double total();
+
+    /**
+     * Get the number of scanned lines, including voided ones
+     * @return The number of lines
+     */
+    int getLineCount();
+
+    /**
+     * Commit all held lines and issue the receipt
+     * @return The created receipt
+     * @throws InsufficientQuantityException if held stock was removed by a manual stock correction
+     */
+    Receipt finish();
+
+    /**
+     * Abandon the checkout, releasing all holds
+     */
+    void cancel();
+
+    /**
+     * Check whether the session can still be used
+     * @return true until the session is finished or cancelled
+     */
+    boolean isOpen();
+}
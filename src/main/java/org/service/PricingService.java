@@ -14,6 +14,23 @@ public interface PricingService {
      * @throws NegativePercentageException if the markup is negative
      */
     double calculateSellingPrice(int productId, double markup) throws ProductNotFoundException, NegativePercentageException;
+
+    /**
+     * Calculate the selling prices for a batch of products in one pass.
+     * Each product is looked up once and the current date is resolved once for the whole batch.
+     * @param productIds The IDs of the products to price
+     * @param quantities The quantity for each product, or null to only fill the unit prices
+     * @param count The number of entries to price
+     * @param foodMarkup The markup for food products
+     * @param nonFoodMarkup The markup for non-food products
+     * @param unitPrices Output array that receives the selling price per unit for each entry
+     * @return The sum of unit price times quantity, or 0 if no quantities were given
+     * @throws ProductNotFoundException if any of the products doesn't exist
+     * @throws NegativePercentageException if a markup is negative
+     */
+    double calculateSellingPrices(int[] productIds, int[] quantities, int count,
+            double foodMarkup, double nonFoodMarkup, double[] unitPrices)
+            throws ProductNotFoundException, NegativePercentageException;
     
     /**
      * Get the total delivery expenses for all products
@@ -1,6 +1,9 @@
 package org.service;
 
 import org.data.Product;
+import org.data.StockHold;
+import org.exception.ProductNotFoundException;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ProductService {
@@ -30,6 +33,85 @@ public interface ProductService {
      */
     void updateProductQuantity(int id, int newQuantity);
 
+    /**
+     * Atomically add delivered stock to an existing product
+     * @param id The product ID
+     * @param quantity The delivered quantity
+     * @param unitCost The delivery cost per unit, folded into the product's average cost
+     * @param expirationDate The expiration date of the delivered batch, or null to keep the current one
+     * @return The quantity after the delivery
+     * @throws ProductNotFoundException if the product doesn't exist
+     */
+    int restockProduct(int id, int quantity, double unitCost, LocalDate expirationDate);
+
+    /**
+     * Atomically decrease the quantity of a product if enough stock is available
+     * @param id The product ID
+     * @param quantity The quantity to remove
+     * @return true if the stock was decreased, false if the product is missing or has too little stock
+     */
+    boolean decreaseProductQuantity(int id, int quantity);
+
+    /**
+     * Atomically increase the quantity of a product, e.g. to roll back a sale
+     * @param id The product ID
+     * @param quantity The quantity to add back
+     */
+    void increaseProductQuantity(int id, int quantity);
+
+    /**
+     * Hold stock of a product for an ongoing checkout. Held stock cannot be sold or held by anyone else.
+     * @param id The product ID
+     * @param quantity The quantity to hold
+     * @return true if the hold was placed, false if the product is missing or has too little available stock
+     */
+    boolean reserveProductQuantity(int id, int quantity);
+
+    /**
+     * Release a hold without selling the stock
+     * @param id The product ID
+     * @param quantity The held quantity to release
+     */
+    void releaseProductReservation(int id, int quantity);
+
+    /**
+     * Turn a hold into a sale, removing the held quantity from the stock
+     * @param id The product ID
+     * @param quantity The held quantity to sell
+     * @return true if the stock was decreased, false otherwise
+     */
+    boolean commitProductReservation(int id, int quantity);
+
+    /**
+     * Place a time-limited hold on the stock of a product. The hold is released automatically
+     * if it is neither committed nor released before its time-to-live runs out.
+     * @param id The product ID
+     * @param quantity The quantity to hold
+     * @param ttlMillis The time-to-live of the hold in milliseconds
+     * @return The hold, or null if the product is missing or has too little available stock
+     */
+    StockHold placeHold(int id, int quantity, long ttlMillis);
+
+    /**
+     * Release a hold without selling the stock
+     * @param hold The hold
+     * @return true if the hold was active and is now released, false if it had already ended
+     */
+    boolean releaseHold(StockHold hold);
+
+    /**
+     * Turn a hold into a sale, removing the held quantity from the stock
+     * @param hold The hold
+     * @return true if the stock was sold, false if the hold had already ended
+     */
+    boolean commitHold(StockHold hold);
+
+    /**
+     * Release every hold whose time-to-live has run out
+     * @return The number of holds that expired
+     */
+    int expireHolds();
+
     boolean isProductExpired(int id);
 
     boolean isProductNearExpiration(int id);
@@ -0,0 +1,15 @@
+package org.service;
+
+import org.data.Receipt;
+
+/**
+ * Callback for receipts as they are issued. Listeners run on the thread that issued the
+ * receipt, so they must be quick and thread-safe.
+ */
+public interface ReceiptListener {
+    /**
+     * Called once for every issued receipt
+     * @param receipt The new receipt
+     */
+    void onReceiptCreated(Receipt receipt);
+}
@@ -2,8 +2,10 @@ package org.service;
 
 import org.data.Receipt;
 import org.exception.ReceiptPersistenceException;
+import org.util.IdAllocator;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Interface for receipt persistence operations
@@ -15,6 +17,13 @@ public interface ReceiptPersistenceService {
      * @throws ReceiptPersistenceException if there's an error with receipt persistence
      */
     void saveReceipt(Receipt receipt) throws ReceiptPersistenceException;
+
+    /**
+     * Save a batch of receipts to persistent storage in one call
+     * @param receipts The receipts to save
+     * @throws ReceiptPersistenceException if there's an error with receipt persistence
+     */
+    void saveReceipts(List<Receipt> receipts) throws ReceiptPersistenceException;
     
     /**
      * Deserialize a receipt from a file
@@ -25,6 +34,15 @@ public interface ReceiptPersistenceService {
      * @throws ReceiptPersistenceException if there's an error with receipt persistence
      */
     Receipt deserializeReceiptFromFile(String filePath) throws IOException, ClassNotFoundException, ReceiptPersistenceException;
+
+    /**
+     * Deserialize a receipt from a file in a single attempt, without retrying
+     * @param filePath The file path
+     * @return The deserialized receipt
+     * @throws IOException if the file is missing, unreadable, corrupt or from an incompatible version
+     * @throws ClassNotFoundException if the receipt class can't be found
+     */
+    Receipt readReceiptFromFile(String filePath) throws IOException, ClassNotFoundException;
     
     /**
      * Read a receipt's text content from a file
@@ -47,4 +65,11 @@ public interface ReceiptPersistenceService {
      * @return The file path
      */
     String getTextFilePath(int receiptNumber);
+
+    /**
+     * Create the allocator for the numbers of the receipts stored here. Numbers name the receipt
+     * files, so storage that outlives the process must keep a high-water mark for them.
+     * @return The allocator
+     */
+    IdAllocator createReceiptNumbers();
 } 
\ No newline at end of file
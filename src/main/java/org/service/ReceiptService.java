@@ -8,6 +8,7 @@ import org.exception.ReceiptPersistenceException;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for receipt management operations
@@ -23,6 +24,49 @@ public interface ReceiptService {
      */
     Receipt createReceipt(Cashier cashier, int registerNumber, Map<Product, Integer> items, double totalAmount);
 
+    /**
+     * Create a new receipt from parallel line arrays. The arrays are handed over to the receipt.
+     * @param cashier The cashier who processed the sale
+     * @param registerNumber The register number
+     * @param products The product on each line
+     * @param quantities The quantity on each line
+     * @param unitPrices The selling price per unit on each line
+     * @param totalAmount The total amount
+     * @return The created receipt
+     */
+    Receipt createReceipt(Cashier cashier, int registerNumber, Product[] products, int[] quantities,
+            double[] unitPrices, double totalAmount);
+
+    /**
+     * Create a batch of receipts with a contiguous block of receipt numbers and persist them
+     * together. Entry {@code i} of every array describes the {@code i}-th receipt; the line
+     * arrays are handed over to the receipts.
+     * @param cashiers The cashier of each receipt
+     * @param registerNumbers The register number of each receipt
+     * @param products The line products of each receipt
+     * @param quantities The line quantities of each receipt
+     * @param unitPrices The line unit selling prices of each receipt
+     * @param totalAmounts The total amount of each receipt
+     * @return The created receipts, numbered in array order
+     */
+    List<Receipt> createReceipts(Cashier[] cashiers, int[] registerNumbers, Product[][] products,
+            int[][] quantities, double[][] unitPrices, double[] totalAmounts);
+
+    /**
+     * Register a receipt issued by another receipt service, e.g. on a replicated primary. The
+     * receipt keeps its number, is stored, persisted and passed to the listeners like a new
+     * one, and receipts created afterwards are numbered after it.
+     * @param receipt The receipt
+     * @return The receipt
+     */
+    Receipt importReceipt(Receipt receipt);
+
+    /**
+     * Register a listener that is called for every receipt issued from now on
+     * @param listener The listener
+     */
+    void addReceiptListener(ReceiptListener listener);
+
     /**
      * Get a receipt by its number
      * @param receiptNumber The receipt number
@@ -42,6 +86,15 @@ public interface ReceiptService {
      */
     void saveReceipt(Receipt receipt);
 
+    /**
+     * Get a future that completes once a receipt has been written to persistent storage.
+     * Receipts that are already written, or were never issued, yield a completed future.
+     * @param receiptNumber The receipt number
+     * @return The future; it fails with a {@link ReceiptPersistenceException} if the write failed,
+     * however long after the failure it is asked for
+     */
+    CompletableFuture<Void> whenPersisted(int receiptNumber);
+
     /**
      * Deserialize a receipt from a file
      * @param filePath The file path
@@ -0,0 +1,63 @@
+package org.service;
+
+import org.data.ProductRank;
+import org.data.SalesCounters;
+import org.data.SalesTotals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sales figures maintained incrementally as receipts are issued
+ */
+public interface SalesStatistics {
+    /**
+     * Get the sales of the whole store
+     * @return The store's counters
+     */
+    SalesCounters getStoreSales();
+
+    /**
+     * Get the sales processed by a cashier
+     * @param cashierId The cashier ID
+     * @return The cashier's counters, or null if the cashier has no sales
+     */
+    SalesCounters getCashierSales(int cashierId);
+
+    /**
+     * Get the sales made at a register
+     * @param registerNumber The register number
+     * @return The register's counters, or null if the register has no sales
+     */
+    SalesCounters getRegisterSales(int registerNumber);
+
+    /**
+     * Get the store's sales over a period. The range is resolved to the minute for the last
+     * 24 hours, to the hour for the last 90 days and to the day before that.
+     * @param from The start of the period
+     * @param to The end of the period, exclusive
+     * @return The totals over the period
+     */
+    SalesTotals getSalesBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Get the best-selling products by units, from a bounded-memory streaming summary
+     * @param k The number of products
+     * @return Up to {@code k} products, best-selling first
+     */
+    List<ProductRank> getTopProductsByUnits(int k);
+
+    /**
+     * Get the best-selling products by revenue, from a bounded-memory streaming summary
+     * @param k The number of products
+     * @return Up to {@code k} products, best-selling first
+     */
+    List<ProductRank> getTopProductsByRevenue(int k);
+
+    /**
+     * Estimate the units sold of a product. The estimate is never below the true figure.
+     * @param productId The product ID
+     * @return The estimated units sold
+     */
+    long estimateUnitsSold(int productId);
+}
@@ -0,0 +1,63 @@
+package org.service;
+
+import org.data.Store;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hosts many stores in one process. Every store has its own services, ID spaces and receipt
+ * directory; executors and caches are shared between them.
+ */
+public interface StoreRegistry extends AutoCloseable {
+    /**
+     * Open a store
+     * @param storeId The store ID; letters, digits, '-' and '_' only, as it names the store's directory
+     * @param store The store data
+     * @return The new store
+     * @throws IllegalStateException if a store with the ID is already open
+     */
+    StoreTenant openStore(String storeId, Store store);
+
+    /**
+     * Get an open store
+     * @param storeId The store ID
+     * @return The store, or null if no store with the ID is open
+     */
+    StoreTenant getStore(String storeId);
+
+    /**
+     * Close a store and remove it from the registry. Further sales on the store fail; running
+     * sales and receipt writes are waited for before the ID can be opened again. Its receipts
+     * stay on disk.
+     * @param storeId The store ID
+     * @return true if the store was open
+     */
+    boolean closeStore(String storeId);
+
+    Set<String> getStoreIds();
+
+    /**
+     * Get the revenue of all open stores
+     * @return The total revenue
+     */
+    double getTotalRevenue();
+
+    /**
+     * Get the number of receipts issued by all open stores
+     * @return The total number of receipts
+     */
+    long getTotalReceipts();
+
+    /**
+     * Get the revenue of every open store
+     * @return Revenue per store ID
+     */
+    Map<String, Double> getRevenueByStore();
+
+    /**
+     * Close the registry, waiting for receipts still being written
+     */
+    @Override
+    void close();
+}
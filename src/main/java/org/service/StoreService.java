@@ -1,13 +1,22 @@
 package org.service;
 
 import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Basket;
 import org.data.Cashier;
+import org.data.Delivery;
 import org.data.Receipt;
+import org.data.SaleRequest;
+import org.data.SaleResult;
 import org.data.Store;
+import org.exception.CheckoutAlreadyOpenException;
 import org.exception.InsufficientQuantityException;
+import org.exception.NoAssignedCashierException;
+import org.exception.ProductNotFoundException;
 import org.exception.ReceiptPersistenceException;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +30,13 @@ public interface StoreService extends ProductManagementService, CashierManagemen
      * @return The store
      */
     Store getStore();
+
+    /**
+     * Get a receipt issued by this store since it started, without reading it from storage
+     * @param receiptNumber The receipt number
+     * @return The receipt, or null if this store didn't issue it since it started
+     */
+    Receipt getReceipt(int receiptNumber);
     
     /**
      * Load a receipt from file
@@ -48,6 +64,32 @@ interface ProductManagementService {
      * @return List of all products
      */
     List<Product> getDeliveredProducts();
+
+    /**
+     * Get a delivered product by its ID
+     * @param productId The product ID
+     * @return The product, or null if it doesn't exist
+     */
+    Product getProduct(int productId);
+
+    /**
+     * Deliver additional stock for a product that is already in the store
+     * @param productId The product ID
+     * @param quantity The delivered quantity
+     * @param unitCost The delivery cost per unit
+     * @param expirationDate The expiration date of the delivered batch, or null to keep the current one
+     * @return The quantity after the delivery
+     * @throws ProductNotFoundException if the product doesn't exist
+     */
+    int restock(int productId, int quantity, double unitCost, LocalDate expirationDate);
+
+    /**
+     * Deliver a batch of restocks. The whole batch is validated before any stock changes,
+     * and the delivery expenses are booked once for the batch.
+     * @param deliveries The deliveries to apply
+     * @throws ProductNotFoundException if any of the products doesn't exist
+     */
+    void restock(List<Delivery> deliveries);
 }
 
 /**
@@ -79,6 +121,22 @@ interface CashierManagementService {
      * @return The cashier at the register, or null if none
      */
     Cashier getCashierAtRegister(int registerNumber);
+
+    /**
+     * Free a register so another cashier can be assigned to it
+     * @param registerNumber The register number
+     * @return The cashier that was at the register, or null if it was already free
+     */
+    Cashier releaseRegister(int registerNumber);
+
+    /**
+     * Atomically hand a register over to the next shift. Sales at the register never see it unassigned.
+     * @param registerNumber The register number
+     * @param outgoing The cashier currently at the register
+     * @param incoming The cashier taking over
+     * @throws IllegalStateException if the outgoing cashier is not at the register
+     */
+    void handOverRegister(int registerNumber, Cashier outgoing, Cashier incoming);
     
     /**
      * Check if a register is assigned
@@ -86,6 +144,12 @@ interface CashierManagementService {
      * @return true if the register is assigned, false otherwise
      */
     boolean isRegisterAssigned(int registerNumber);
+
+    /**
+     * Get all registers that have a cashier assigned
+     * @return The register numbers in ascending order
+     */
+    int[] getAssignedRegisters();
 }
 
 /**
@@ -100,6 +164,90 @@ interface SalesManagementService {
      * @throws InsufficientQuantityException if there's insufficient quantity
      */
     Receipt createSale(int registerNumber, Map<Integer, Integer> purchase) throws InsufficientQuantityException;
+
+    /**
+     * Create a sale at most once per idempotency key. A retry with a key whose sale already
+     * succeeded returns the original receipt without touching the inventory again.
+     * A sale that failed is not remembered, so retrying it runs the sale again.
+     * @param idempotencyKey The client-supplied key identifying the sale
+     * @param registerNumber The register number
+     * @param purchase The purchase details (product ID -> quantity)
+     * @return The created or previously issued receipt
+     * @throws InsufficientQuantityException if there's insufficient quantity
+     */
+    Receipt createSale(String idempotencyKey, int registerNumber, Map<Integer, Integer> purchase) throws InsufficientQuantityException;
+
+    /**
+     * Create a sale from parallel primitive arrays
+     * @param registerNumber The register number
+     * @param productIds The product ID of each line
+     * @param quantities The quantity of each line
+     * @param count The number of lines to sell
+     * @return The created receipt
+     * @throws InsufficientQuantityException if there's insufficient quantity
+     */
+    Receipt createSale(int registerNumber, int[] productIds, int[] quantities, int count) throws InsufficientQuantityException;
+
+    /**
+     * Create a sale from a basket. The basket is not modified and can be cleared and reused afterwards.
+     * @param registerNumber The register number
+     * @param basket The basket to sell
+     * @return The created receipt
+     * @throws InsufficientQuantityException if there's insufficient quantity
+     */
+    Receipt createSale(int registerNumber, Basket basket) throws InsufficientQuantityException;
+
+    /**
+     * Attempt a sale without throwing for expected business outcomes. A rejected sale returns the
+     * shared result for its {@link org.data.SaleOutcome}, so failed attempts allocate no exception.
+     * @param registerNumber The register number
+     * @param purchase The purchase details (product ID -> quantity)
+     * @return The sold result with its receipt, or the rejection
+     */
+    SaleResult trySale(int registerNumber, Map<Integer, Integer> purchase);
+
+    /**
+     * Attempt a sale from a basket without throwing for expected business outcomes
+     * @param registerNumber The register number
+     * @param basket The basket to sell; it is not modified
+     * @return The sold result with its receipt, or the rejection
+     */
+    SaleResult trySale(int registerNumber, Basket basket);
+
+    /**
+     * Create a batch of sales. The batch is validated and priced with shared lookups, its stock
+     * is taken in one pass and the successful sales receive a contiguous block of receipt
+     * numbers, in request order. A failing sale does not affect the others.
+     * @param requests The sales to create
+     * @return One result per request, in request order
+     */
+    List<SaleResult> createSales(List<SaleRequest> requests);
+
+    /**
+     * Open an incremental checkout at a register. Only one checkout can be open per register.
+     * @param registerNumber The register number
+     * @return The new checkout session
+     * @throws NoAssignedCashierException if no cashier is assigned to the register
+     * @throws CheckoutAlreadyOpenException if a checkout is already open at the register
+     */
+    CheckoutSession openCheckout(int registerNumber);
+
+    /**
+     * Get the checkout that is currently open at a register, e.g. to resume it after a terminal restart
+     * @param registerNumber The register number
+     * @return The open checkout session, or null if none
+     */
+    CheckoutSession getOpenCheckout(int registerNumber);
+
+    /**
+     * Quote the current selling prices for a list of products, e.g. for a basket or a shelf display
+     * @param productIds The IDs of the products to price
+     * @param quantities The quantity for each product, or null to only fill the unit prices
+     * @param unitPrices Output array that receives the selling price per unit for each product
+     * @return The total price of the given quantities
+     * @throws ProductNotFoundException if any of the products doesn't exist
+     */
+    double quoteSellingPrices(int[] productIds, int[] quantities, double[] unitPrices);
     
     /**
      * Get the total number of receipts
@@ -141,4 +289,23 @@ interface FinancialManagementService {
      * @return The profit
      */
     double getProfit();
+
+    /**
+     * Get the per-store, per-cashier and per-register sales figures
+     * @return The sales statistics
+     */
+    SalesStatistics getSalesStatistics();
+
+    /**
+     * Get the profitability of a product, from the unit price and cost on its receipt lines
+     * @param productId The product ID
+     * @return The product's profitability, or null if it has never been sold
+     */
+    ProductProfit getProductProfit(int productId);
+
+    /**
+     * Get the profitability of every product sold
+     * @return The products, highest gross margin first
+     */
+    List<ProductProfit> getProductProfits();
 }
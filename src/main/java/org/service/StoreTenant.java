@@ -0,0 +1,35 @@
+package org.service;
+
+import org.config.StoreConfig;
+
+/**
+ * One store hosted by a {@link StoreRegistry}, with its own ID spaces and receipt directory
+ */
+public interface StoreTenant {
+    String getStoreId();
+
+    StoreService getStoreService();
+
+    /**
+     * Get a non-blocking view of the store that runs on the registry's shared executors
+     * @return The asynchronous store service; closing it does not shut the shared executors down
+     */
+    AsyncStoreService getAsyncStoreService();
+
+    /**
+     * @return The store's configuration, with its own receipt output directory
+     */
+    StoreConfig getConfig();
+
+    /**
+     * Allocate a product ID that is unique within this store
+     * @return The next product ID
+     */
+    int nextProductId();
+
+    /**
+     * Allocate a cashier ID that is unique within this store
+     * @return The next cashier ID
+     */
+    int nextCashierId();
+}
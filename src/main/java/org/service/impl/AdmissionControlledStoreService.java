@@ -0,0 +1,270 @@
+package org.service.impl;
+
+import org.data.Basket;
+import org.data.Cashier;
+import org.data.Delivery;
+import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Receipt;
+import org.data.SaleOutcome;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.data.Store;
+import org.exception.InsufficientQuantityException;
+import org.exception.ReceiptPersistenceException;
+import org.exception.StoreOverloadedException;
+import org.service.CheckoutSession;
+import org.service.SalesStatistics;
+import org.service.StoreService;
+import org.util.AdmissionController;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store service that puts an {@link AdmissionController} in front of the sale operations.
+ * Sales beyond the adaptive concurrency limit wait in a bounded queue; when that is full, or
+ * the wait runs out, the sale fails fast with {@link StoreOverloadedException}.
+ * All other operations are passed straight to the wrapped store.
+ */
+public class AdmissionControlledStoreService implements StoreService {
+    private final StoreService delegate;
+    private final AdmissionController admission;
+
+    public AdmissionControlledStoreService(StoreService delegate, AdmissionController admission) {
+        this.delegate = delegate;
+        this.admission = admission;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admission;
+    }
+
+    private long admit() {
+        long admittedAt = admission.acquire();
+        if (admittedAt == AdmissionController.REJECTED) {
+            throw StoreOverloadedException.INSTANCE;
+        }
+        return admittedAt;
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Map<Integer, Integer> purchase) throws InsufficientQuantityException {
+        long admittedAt = admit();
+        try {
+            return delegate.createSale(registerNumber, purchase);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public Receipt createSale(String idempotencyKey, int registerNumber, Map<Integer, Integer> purchase)
+            throws InsufficientQuantityException {
+        long admittedAt = admit();
+        try {
+            return delegate.createSale(idempotencyKey, registerNumber, purchase);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, int[] productIds, int[] quantities, int count)
+            throws InsufficientQuantityException {
+        long admittedAt = admit();
+        try {
+            return delegate.createSale(registerNumber, productIds, quantities, count);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Basket basket) throws InsufficientQuantityException {
+        long admittedAt = admit();
+        try {
+            return delegate.createSale(registerNumber, basket);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Map<Integer, Integer> purchase) {
+        long admittedAt = admission.acquire();
+        if (admittedAt == AdmissionController.REJECTED) {
+            return SaleResult.rejected(SaleOutcome.OVERLOADED);
+        }
+        try {
+            return delegate.trySale(registerNumber, purchase);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Basket basket) {
+        long admittedAt = admission.acquire();
+        if (admittedAt == AdmissionController.REJECTED) {
+            return SaleResult.rejected(SaleOutcome.OVERLOADED);
+        }
+        try {
+            return delegate.trySale(registerNumber, basket);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public List<SaleResult> createSales(List<SaleRequest> requests) {
+        long admittedAt = admit();
+        try {
+            return delegate.createSales(requests);
+        } finally {
+            admission.release(admittedAt);
+        }
+    }
+
+    @Override
+    public Store getStore() {
+        return delegate.getStore();
+    }
+
+    @Override
+    public Receipt getReceipt(int receiptNumber) {
+        return delegate.getReceipt(receiptNumber);
+    }
+
+    @Override
+    public Receipt loadReceiptFromFile(int receiptNumber) throws IOException, ClassNotFoundException, ReceiptPersistenceException {
+        return delegate.loadReceiptFromFile(receiptNumber);
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        delegate.addProduct(product);
+    }
+
+    @Override
+    public List<Product> getDeliveredProducts() {
+        return delegate.getDeliveredProducts();
+    }
+
+    @Override
+    public Product getProduct(int productId) {
+        return delegate.getProduct(productId);
+    }
+
+    @Override
+    public int restock(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        return delegate.restock(productId, quantity, unitCost, expirationDate);
+    }
+
+    @Override
+    public void restock(List<Delivery> deliveries) {
+        delegate.restock(deliveries);
+    }
+
+    @Override
+    public void addCashier(Cashier cashier) {
+        delegate.addCashier(cashier);
+    }
+
+    @Override
+    public List<Cashier> getCashiers() {
+        return delegate.getCashiers();
+    }
+
+    @Override
+    public void assignCashierToRegister(Cashier cashier, int registerNumber) {
+        delegate.assignCashierToRegister(cashier, registerNumber);
+    }
+
+    @Override
+    public Cashier getCashierAtRegister(int registerNumber) {
+        return delegate.getCashierAtRegister(registerNumber);
+    }
+
+    @Override
+    public Cashier releaseRegister(int registerNumber) {
+        return delegate.releaseRegister(registerNumber);
+    }
+
+    @Override
+    public void handOverRegister(int registerNumber, Cashier outgoing, Cashier incoming) {
+        delegate.handOverRegister(registerNumber, outgoing, incoming);
+    }
+
+    @Override
+    public boolean isRegisterAssigned(int registerNumber) {
+        return delegate.isRegisterAssigned(registerNumber);
+    }
+
+    @Override
+    public int[] getAssignedRegisters() {
+        return delegate.getAssignedRegisters();
+    }
+
+    @Override
+    public CheckoutSession openCheckout(int registerNumber) {
+        return delegate.openCheckout(registerNumber);
+    }
+
+    @Override
+    public CheckoutSession getOpenCheckout(int registerNumber) {
+        return delegate.getOpenCheckout(registerNumber);
+    }
+
+    @Override
+    public double quoteSellingPrices(int[] productIds, int[] quantities, double[] unitPrices) {
+        return delegate.quoteSellingPrices(productIds, quantities, unitPrices);
+    }
+
+    @Override
+    public int getTotalReceipts() {
+        return delegate.getTotalReceipts();
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        return delegate.getTotalRevenue();
+    }
+
+    @Override
+    public double getSalaryExpenses() {
+        return delegate.getSalaryExpenses();
+    }
+
+    @Override
+    public double getDeliveryExpenses() {
+        return delegate.getDeliveryExpenses();
+    }
+
+    @Override
+    public double getIncome() {
+        return delegate.getIncome();
+    }
+
+    @Override
+    public double getProfit() {
+        return delegate.getProfit();
+    }
+
+    @Override
+    public SalesStatistics getSalesStatistics() {
+        return delegate.getSalesStatistics();
+    }
+
+    @Override
+    public ProductProfit getProductProfit(int productId) {
+        return delegate.getProductProfit(productId);
+    }
+
+    @Override
+    public List<ProductProfit> getProductProfits() {
+        return delegate.getProductProfits();
+    }
+}
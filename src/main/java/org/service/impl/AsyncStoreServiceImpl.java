@@ -0,0 +1,156 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Receipt;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.data.Store;
+import org.exception.ReceiptPersistenceException;
+import org.service.AsyncStoreService;
+import org.service.CashierService;
+import org.service.PricingService;
+import org.service.ProductService;
+import org.service.ReceiptService;
+import org.service.StoreService;
+import org.util.Threads;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class AsyncStoreServiceImpl implements AsyncStoreService {
+    // Pool size for blocking I/O when virtual threads are not available
+    private static final int IO_PLATFORM_THREADS = 8;
+
+    private final StoreService store;
+    private final ReceiptService receiptService;
+    private final Executor computeExecutor;
+    private final Executor ioExecutor;
+    private final List<ExecutorService> ownedExecutors;
+
+    /**
+     * Run the asynchronous operations against an existing store on caller-supplied executors.
+     * Receipts are only written in the background if the receipt service was created with a
+     * persistence executor.
+     * @param store The store service
+     * @param receiptService The receipt service used by the store
+     * @param computeExecutor The executor for sales, pricing and reporting
+     * @param ioExecutor The executor for disk access
+     */
+    public AsyncStoreServiceImpl(StoreService store, ReceiptService receiptService,
+            Executor computeExecutor, Executor ioExecutor) {
+        this(store, receiptService, computeExecutor, ioExecutor, Collections.emptyList());
+    }
+
+    private AsyncStoreServiceImpl(StoreService store, ReceiptService receiptService, Executor computeExecutor,
+            Executor ioExecutor, List<ExecutorService> ownedExecutors) {
+        this.store = store;
+        this.receiptService = receiptService;
+        this.computeExecutor = computeExecutor;
+        this.ioExecutor = ioExecutor;
+        this.ownedExecutors = ownedExecutors;
+    }
+
+    /**
+     * Create a store whose receipts are written on a dedicated I/O executor, with a compute pool
+     * sized to the available processors. Both executors are shut down by {@link #close()}.
+     * @param storeData The store data
+     * @param config The store configuration
+     * @return The asynchronous store service
+     */
+    public static AsyncStoreServiceImpl create(Store storeData, StoreConfig config) {
+        ExecutorService compute = Threads.newComputeExecutor("store-compute",
+                Runtime.getRuntime().availableProcessors());
+        ExecutorService io = Threads.newWorkerExecutor("store-io", IO_PLATFORM_THREADS);
+
+        ProductService productService = new ProductServiceImpl(storeData.getExpirationThreshold(),
+                storeData.getExpirationDiscount());
+        CashierService cashierService = new CashierServiceImpl();
+        ReceiptService receiptService = new ReceiptServiceImpl(new ReceiptPersistenceServiceImpl(config), io);
+        PricingService pricingService = new PricingServiceImpl(productService, storeData.getExpirationThreshold(),
+                storeData.getExpirationDiscount());
+        StoreService store = new StoreServiceImpl(storeData, config, productService, cashierService,
+                receiptService, pricingService);
+        return new AsyncStoreServiceImpl(store, receiptService, compute, io, List.of(compute, io));
+    }
+
+    @Override
+    public CompletableFuture<Receipt> createSale(int registerNumber, Map<Integer, Integer> purchase) {
+        return compute(() -> store.createSale(registerNumber, purchase));
+    }
+
+    @Override
+    public CompletableFuture<Receipt> createDurableSale(int registerNumber, Map<Integer, Integer> purchase) {
+        return createSale(registerNumber, purchase).thenCompose(receipt ->
+                receiptService.whenPersisted(receipt.getReceiptNumber()).thenApply(written -> receipt));
+    }
+
+    @Override
+    public CompletableFuture<List<SaleResult>> createSales(List<SaleRequest> requests) {
+        return compute(() -> store.createSales(requests));
+    }
+
+    @Override
+    public CompletableFuture<Receipt> loadReceiptFromFile(int receiptNumber) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.loadReceiptFromFile(receiptNumber);
+            } catch (IOException | ClassNotFoundException | ReceiptPersistenceException e) {
+                throw new CompletionException(e);
+            }
+        }, ioExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Double> getTotalRevenue() {
+        return compute(store::getTotalRevenue);
+    }
+
+    @Override
+    public CompletableFuture<Double> getIncome() {
+        return compute(store::getIncome);
+    }
+
+    @Override
+    public CompletableFuture<Double> getProfit() {
+        return compute(store::getProfit);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getTotalReceipts() {
+        return compute(store::getTotalReceipts);
+    }
+
+    @Override
+    public StoreService getStoreService() {
+        return store;
+    }
+
+    private <T> CompletableFuture<T> compute(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, computeExecutor);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService executor : ownedExecutors) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : ownedExecutors) {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ExecutorService executor : ownedExecutors) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.service.impl;
+
+import org.data.ProductRank;
+import org.data.Receipt;
+import org.service.ReceiptListener;
+import org.util.CountMinSketch;
+import org.util.SpaceSaving;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming best-seller analytics fed from issued receipts.
+ * <p>
+ * Each register has its own Space-Saving summaries of units and revenue per product and a
+ * Count-Min sketch of units per product, so registers never contend with each other. Queries
+ * merge the per-register summaries into a {@link Summary}, which can in turn be merged with the
+ * summaries of other stores.
+ */
+public class BestSellerTracker implements ReceiptListener {
+    // Shared by every tracker so that Count-Min sketches of different stores can be merged
+    private static final long SKETCH_SEED = 0x5DEECE66DL;
+
+    private final int capacity;
+    private final double epsilon;
+    private final double delta;
+    private final Map<Integer, Summary> registers = new ConcurrentHashMap<>();
+
+    /**
+     * Merged best-seller figures of one or more registers
+     */
+    public static final class Summary {
+        private final SpaceSaving<Integer> units;
+        private final SpaceSaving<Integer> revenue;
+        private final CountMinSketch frequencies;
+
+        private Summary(int capacity, double epsilon, double delta) {
+            this(new SpaceSaving<>(capacity), new SpaceSaving<>(capacity),
+                    new CountMinSketch(epsilon, delta, SKETCH_SEED));
+        }
+
+        private Summary(SpaceSaving<Integer> units, SpaceSaving<Integer> revenue, CountMinSketch frequencies) {
+            this.units = units;
+            this.revenue = revenue;
+            this.frequencies = frequencies;
+        }
+
+        private void record(Receipt receipt) {
+            for (int line = 0; line < receipt.getLineCount(); line++) {
+                int productId = receipt.getProductId(line);
+                int quantity = receipt.getQuantity(line);
+                units.offer(productId, quantity);
+                revenue.offer(productId, receipt.getUnitPrice(line) * quantity);
+                frequencies.add(productId, quantity);
+            }
+        }
+
+        /**
+         * Combine this summary with another one, e.g. from a different store
+         * @return A new summary; neither input is modified
+         */
+        public Summary merge(Summary other) {
+            CountMinSketch mergedFrequencies = frequencies.copy();
+            mergedFrequencies.merge(other.frequencies);
+            return new Summary(SpaceSaving.merge(units, other.units, units.getCapacity()),
+                    SpaceSaving.merge(revenue, other.revenue, revenue.getCapacity()), mergedFrequencies);
+        }
+
+        public List<ProductRank> getTopByUnits(int k) {
+            return ranks(units, k);
+        }
+
+        public List<ProductRank> getTopByRevenue(int k) {
+            return ranks(revenue, k);
+        }
+
+        /**
+         * @return An upper estimate of the units sold of the product
+         */
+        public long estimateUnits(int productId) {
+            return frequencies.estimate(productId);
+        }
+
+        private static List<ProductRank> ranks(SpaceSaving<Integer> summary, int k) {
+            List<ProductRank> ranks = new ArrayList<>(k);
+            for (SpaceSaving.Entry<Integer> entry : summary.top(k)) {
+                ranks.add(new ProductRank(entry.getKey(), entry.getCount(), entry.getError()));
+            }
+            return ranks;
+        }
+    }
+
+    /**
+     * @param capacity The number of products each Space-Saving summary tracks
+     * @param epsilon The Count-Min error bound as a fraction of all units sold
+     * @param delta The probability of a Count-Min estimate exceeding its error bound
+     */
+    public BestSellerTracker(int capacity, double epsilon, double delta) {
+        this.capacity = capacity;
+        this.epsilon = epsilon;
+        this.delta = delta;
+        // Fail fast on invalid bounds rather than on the first receipt
+        new Summary(capacity, epsilon, delta);
+    }
+
+    @Override
+    public void onReceiptCreated(Receipt receipt) {
+        Summary summary = registers.computeIfAbsent(receipt.getRegisterNumber(),
+                register -> new Summary(capacity, epsilon, delta));
+        // Sales at one register are sequential in practice, so this lock is rarely contended
+        synchronized (summary) {
+            summary.record(receipt);
+        }
+    }
+
+    /**
+     * @return The merged figures of all registers
+     */
+    public Summary getSummary() {
+        Summary merged = new Summary(capacity, epsilon, delta);
+        for (Summary register : registers.values()) {
+            synchronized (register) {
+                merged = merged.merge(register);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return An upper estimate of the units sold of the product across all registers
+     */
+    public long estimateUnits(int productId) {
+        // Summing per-register estimates is tighter than estimating from the merged sketch
+        long estimate = 0;
+        for (Summary register : registers.values()) {
+            synchronized (register) {
+                estimate += register.estimateUnits(productId);
+            }
+        }
+        return estimate;
+    }
+}
@@ -1,6 +1,8 @@
 package org.service.impl;
 
 import org.data.Cashier;
+import org.exception.CashierAlreadyAssignedException;
+import org.exception.CashierNotAtRegisterException;
 import org.exception.CashierNotFoundException;
 import org.exception.RegisterAlreadyAssignedException;
 import org.service.CashierService;
@@ -11,11 +13,11 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class CashierServiceImpl implements CashierService {
     private final Map<Integer, Cashier> cashiers;
-    private final Map<Integer, Cashier> registerAssignments;
+    private final RegisterTable registerAssignments;
 
     public CashierServiceImpl() {
         this.cashiers = new ConcurrentHashMap<>();
-        this.registerAssignments = new ConcurrentHashMap<>();
+        this.registerAssignments = new RegisterTable();
     }
 
     @Override
@@ -40,13 +42,59 @@ public class CashierServiceImpl implements CashierService {
     @Override
     public void assignCashierToRegister(int cashierId, int registerNumber) {
         Cashier cashier = getCashier(cashierId);
-        
-        if (registerAssignments.containsKey(registerNumber)) {
-            throw new RegisterAlreadyAssignedException(registerNumber);
+
+        // A cashier's register only changes under its lock, so one cashier can't be given two registers
+        synchronized (cashier) {
+            int current = cashier.getRegisterNumber();
+            if (current >= 0 && current != registerNumber) {
+                throw new CashierAlreadyAssignedException(cashierId, current);
+            }
+            if (!registerAssignments.assign(registerNumber, cashier)) {
+                throw new RegisterAlreadyAssignedException(registerNumber);
+            }
+            cashier.setRegisterNumber(registerNumber);
         }
+    }
 
-        cashier.setRegisterNumber(registerNumber);
-        registerAssignments.put(registerNumber, cashier);
+    @Override
+    public Cashier releaseRegister(int registerNumber) {
+        while (true) {
+            Cashier cashier = registerAssignments.get(registerNumber);
+            if (cashier == null) {
+                return null;
+            }
+            if (registerAssignments.release(registerNumber, cashier)) {
+                clearRegister(cashier, registerNumber);
+                return cashier;
+            }
+        }
+    }
+
+    @Override
+    public void handOverRegister(int registerNumber, int outgoingCashierId, int incomingCashierId) {
+        Cashier outgoing = getCashier(outgoingCashierId);
+        Cashier incoming = getCashier(incomingCashierId);
+
+        synchronized (incoming) {
+            int current = incoming.getRegisterNumber();
+            if (current >= 0) {
+                throw new CashierAlreadyAssignedException(incomingCashierId, current);
+            }
+            if (!registerAssignments.handOver(registerNumber, outgoing, incoming)) {
+                throw new CashierNotAtRegisterException(outgoingCashierId, registerNumber);
+            }
+            incoming.setRegisterNumber(registerNumber);
+        }
+        // Taken separately so two hand-overs in opposite directions can't deadlock
+        clearRegister(outgoing, registerNumber);
+    }
+
+    private static void clearRegister(Cashier cashier, int registerNumber) {
+        synchronized (cashier) {
+            if (cashier.getRegisterNumber() == registerNumber) {
+                cashier.clearRegisterNumber();
+            }
+        }
     }
 
     @Override
@@ -60,4 +108,9 @@ public class CashierServiceImpl implements CashierService {
     public Cashier getCashierAtRegister(int registerNumber) {
         return registerAssignments.get(registerNumber);
     }
+
+    @Override
+    public int[] getAssignedRegisters() {
+        return registerAssignments.assignedRegisters();
+    }
 }
@@ -0,0 +1,264 @@
+package org.service.impl;
+
+import org.data.Receipt;
+import org.exception.NoAssignedCashierException;
+import org.service.StoreService;
+import org.util.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every open register as its own worker. Each worker consumes a bounded queue of
+ * customer baskets and sells them through the store service, so registers check out in
+ * parallel while the sales of a single register stay in order.
+ * Workers run on virtual threads when the runtime supports them, otherwise on a pool of
+ * platform threads with one thread per register.
+ */
+public class CheckoutEngine implements AutoCloseable {
+    private static final Order SHUTDOWN = new Order(null);
+
+    private final StoreService store;
+    private final int queueCapacity;
+    private final Map<Integer, RegisterWorker> workers = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    private static final class Order {
+        private final Map<Integer, Integer> basket;
+        private final CompletableFuture<Receipt> result = new CompletableFuture<>();
+
+        private Order(Map<Integer, Integer> basket) {
+            this.basket = basket;
+        }
+    }
+
+    private final class RegisterWorker implements Runnable {
+        private final int registerNumber;
+        private final BlockingQueue<Order> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder serviceNanos = new LongAdder();
+        private final long startedAtNanos = System.nanoTime();
+
+        private RegisterWorker(int registerNumber) {
+            this.registerNumber = registerNumber;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Order order = queue.take();
+                    if (order == SHUTDOWN) {
+                        return;
+                    }
+                    process(order);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                Order order;
+                while ((order = queue.poll()) != null) {
+                    if (order != SHUTDOWN) {
+                        order.result.completeExceptionally(
+                                new RejectedExecutionException("Register " + registerNumber + " was stopped"));
+                    }
+                }
+            }
+        }
+
+        private void process(Order order) {
+            long start = System.nanoTime();
+            try {
+                Receipt receipt = store.createSale(registerNumber, order.basket);
+                completed.increment();
+                order.result.complete(receipt);
+            } catch (RuntimeException e) {
+                failed.increment();
+                order.result.completeExceptionally(e);
+            } finally {
+                serviceNanos.add(System.nanoTime() - start);
+            }
+        }
+
+        private RegisterMetrics snapshot() {
+            long done = completed.sum();
+            long errors = failed.sum();
+            double elapsedSeconds = (System.nanoTime() - startedAtNanos) / 1e9;
+            double averageServiceMillis = done + errors == 0 ? 0 : serviceNanos.sum() / 1e6 / (done + errors);
+            return new RegisterMetrics(registerNumber, done, errors, rejected.sum(), queue.size(),
+                    averageServiceMillis, elapsedSeconds > 0 ? done / elapsedSeconds : 0);
+        }
+    }
+
+    /**
+     * Read-only snapshot of the throughput and queue of a single register
+     */
+    public static final class RegisterMetrics {
+        private final int registerNumber;
+        private final long completedSales;
+        private final long failedSales;
+        private final long rejectedBaskets;
+        private final int queueDepth;
+        private final double averageServiceMillis;
+        private final double salesPerSecond;
+
+        RegisterMetrics(int registerNumber, long completedSales, long failedSales, long rejectedBaskets,
+                int queueDepth, double averageServiceMillis, double salesPerSecond) {
+            this.registerNumber = registerNumber;
+            this.completedSales = completedSales;
+            this.failedSales = failedSales;
+            this.rejectedBaskets = rejectedBaskets;
+            this.queueDepth = queueDepth;
+            this.averageServiceMillis = averageServiceMillis;
+            this.salesPerSecond = salesPerSecond;
+        }
+
+        public int getRegisterNumber() {
+            return registerNumber;
+        }
+
+        public long getCompletedSales() {
+            return completedSales;
+        }
+
+        public long getFailedSales() {
+            return failedSales;
+        }
+
+        public long getRejectedBaskets() {
+            return rejectedBaskets;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public double getAverageServiceMillis() {
+            return averageServiceMillis;
+        }
+
+        public double getSalesPerSecond() {
+            return salesPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Register %d (Completed: %d, Failed: %d, Rejected: %d, Queued: %d, Avg: %.3f ms, %.1f sales/s)",
+                    registerNumber, completedSales, failedSales, rejectedBaskets, queueDepth,
+                    averageServiceMillis, salesPerSecond);
+        }
+    }
+
+    /**
+     * @param store The store to sell through
+     * @param queueCapacity The maximum number of baskets waiting at each register
+     */
+    public CheckoutEngine(StoreService store, int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        this.store = store;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Start one worker for every register that currently has a cashier assigned
+     */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Checkout engine is already running");
+        }
+        int[] registers = store.getAssignedRegisters();
+        executor = Threads.newWorkerExecutor("checkout-register", registers.length);
+        workers.clear();
+        for (int registerNumber : registers) {
+            RegisterWorker worker = new RegisterWorker(registerNumber);
+            workers.put(registerNumber, worker);
+            executor.execute(worker);
+        }
+        running = true;
+    }
+
+    /**
+     * Queue a basket at a register
+     * @param registerNumber The register number
+     * @param basket The purchase details (product ID -> quantity)
+     * @return A future that completes with the receipt, or exceptionally if the sale failed
+     *         or the register's queue was full
+     */
+    public CompletableFuture<Receipt> submit(int registerNumber, Map<Integer, Integer> basket) {
+        RegisterWorker worker = workers.get(registerNumber);
+        if (!running || worker == null) {
+            CompletableFuture<Receipt> failed = new CompletableFuture<>();
+            failed.completeExceptionally(running
+                    ? new NoAssignedCashierException(registerNumber)
+                    : new RejectedExecutionException("Checkout engine is not running"));
+            return failed;
+        }
+        Order order = new Order(basket);
+        if (!worker.queue.offer(order)) {
+            worker.rejected.increment();
+            order.result.completeExceptionally(
+                    new RejectedExecutionException("Queue of register " + registerNumber + " is full"));
+        }
+        return order.result;
+    }
+
+    /**
+     * @param registerNumber The register number
+     * @return The metrics of the register, or null if the engine has no worker for it
+     */
+    public RegisterMetrics getMetrics(int registerNumber) {
+        RegisterWorker worker = workers.get(registerNumber);
+        return worker == null ? null : worker.snapshot();
+    }
+
+    /**
+     * @return The metrics of all registers
+     */
+    public List<RegisterMetrics> getAllMetrics() {
+        List<RegisterMetrics> metrics = new ArrayList<>();
+        for (RegisterWorker worker : workers.values()) {
+            metrics.add(worker.snapshot());
+        }
+        metrics.sort((a, b) -> Integer.compare(a.getRegisterNumber(), b.getRegisterNumber()));
+        return metrics;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop accepting baskets, let every register finish its queue and stop the workers
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            for (RegisterWorker worker : workers.values()) {
+                worker.queue.put(SHUTDOWN);
+            }
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.StockHold;
+import org.data.Store;
+import org.exception.ExpiredProductException;
+import org.exception.InsufficientQuantityException;
+import org.exception.InvalidInputException;
+import org.exception.NegativeQuantityException;
+import org.exception.ProductNotFoundException;
+import org.service.CheckoutSession;
+import org.service.PricingService;
+import org.service.ProductService;
+import org.service.ReceiptService;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class CheckoutSessionImpl implements CheckoutSession {
+    private static final int INITIAL_LINES = 16;
+
+    private final int registerNumber;
+    private final Cashier cashier;
+    private final Store store;
+    private final ProductService productService;
+    private final PricingService pricingService;
+    private final ReceiptService receiptService;
+    private final Consumer<CheckoutSessionImpl> onClose;
+    private final long holdTtlMillis;
+
+    // Scanned lines; a voided line keeps its slot with a quantity of 0
+    private StockHold[] holds = new StockHold[INITIAL_LINES];
+    private Product[] products = new Product[INITIAL_LINES];
+    private int[] quantities = new int[INITIAL_LINES];
+    private double[] unitPrices = new double[INITIAL_LINES];
+    private int lineCount;
+    private int activeLines;
+    private double runningTotal;
+    private volatile boolean open = true;
+    private volatile long lastActivityMillis = System.currentTimeMillis();
+
+    CheckoutSessionImpl(int registerNumber, Cashier cashier, Store store, ProductService productService,
+            PricingService pricingService, ReceiptService receiptService, long holdTtlMillis,
+            Consumer<CheckoutSessionImpl> onClose) {
+        this.registerNumber = registerNumber;
+        this.cashier = cashier;
+        this.store = store;
+        this.productService = productService;
+        this.pricingService = pricingService;
+        this.receiptService = receiptService;
+        this.holdTtlMillis = holdTtlMillis;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public int getRegisterNumber() {
+        return registerNumber;
+    }
+
+    @Override
+    public int scan(int productId, int quantity) {
+        ensureOpen();
+        if (quantity < 0) {
+            throw new NegativeQuantityException(quantity);
+        }
+        if (quantity == 0) {
+            throw new InvalidInputException("quantity", "0", "Scanned quantity must be positive");
+        }
+
+        Product product = productService.getProduct(productId);
+        if (product == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        if (pricingService.isProductExpired(productId)) {
+            throw new ExpiredProductException(product);
+        }
+        double markup = product.getCategory() == ProductCategory.FOOD ? store.getFoodMarkup() : store.getNonFoodMarkup();
+        double unitPrice = pricingService.calculateSellingPrice(productId, markup);
+
+        StockHold hold = productService.placeHold(productId, quantity, holdTtlMillis);
+        if (hold == null) {
+            throw new InsufficientQuantityException(product, quantity);
+        }
+        lastActivityMillis = System.currentTimeMillis();
+
+        if (lineCount == products.length) {
+            holds = Arrays.copyOf(holds, lineCount * 2);
+            products = Arrays.copyOf(products, lineCount * 2);
+            quantities = Arrays.copyOf(quantities, lineCount * 2);
+            unitPrices = Arrays.copyOf(unitPrices, lineCount * 2);
+        }
+        holds[lineCount] = hold;
+        products[lineCount] = product;
+        quantities[lineCount] = quantity;
+        unitPrices[lineCount] = unitPrice;
+        runningTotal += unitPrice * quantity;
+        activeLines++;
+        return lineCount++;
+    }
+
+    @Override
+    public void voidLine(int line) {
+        ensureOpen();
+        if (line < 0 || line >= lineCount) {
+            throw new InvalidInputException("line", String.valueOf(line), "No such line in this checkout");
+        }
+        if (quantities[line] == 0) {
+            return;
+        }
+        productService.releaseHold(holds[line]);
+        lastActivityMillis = System.currentTimeMillis();
+        runningTotal -= unitPrices[line] * quantities[line];
+        quantities[line] = 0;
+        activeLines--;
+    }
+
+    @Override
+    public double total() {
+        return runningTotal;
+    }
+
+    @Override
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public Receipt finish() {
+        ensureOpen();
+        Product[] soldProducts = new Product[activeLines];
+        int[] soldQuantities = new int[activeLines];
+        double[] soldUnitPrices = new double[activeLines];
+        double totalAmount = 0;
+
+        int sold = 0;
+        for (int i = 0; i < lineCount; i++) {
+            if (quantities[i] == 0) {
+                continue;
+            }
+            // A hold that already expired can still be sold if the stock is available
+            if (!productService.commitHold(holds[i])
+                    && !productService.decreaseProductQuantity(products[i].getId(), quantities[i])) {
+                rollback(soldProducts, soldQuantities, sold, i);
+                throw new InsufficientQuantityException(products[i], quantities[i]);
+            }
+            soldProducts[sold] = products[i];
+            soldQuantities[sold] = quantities[i];
+            soldUnitPrices[sold] = unitPrices[i];
+            totalAmount += unitPrices[i] * quantities[i];
+            sold++;
+        }
+
+        close();
+        return receiptService.createReceipt(cashier, registerNumber, soldProducts, soldQuantities,
+                soldUnitPrices, totalAmount);
+    }
+
+    @Override
+    public void cancel() {
+        if (!open) {
+            return;
+        }
+        for (int i = 0; i < lineCount; i++) {
+            if (quantities[i] > 0) {
+                productService.releaseHold(holds[i]);
+            }
+        }
+        close();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * A session is abandoned when nothing happened on it for longer than the hold time-to-live,
+     * at which point all of its holds have expired.
+     * @param nowMillis The current time
+     * @return true if the session was abandoned
+     */
+    boolean isAbandoned(long nowMillis) {
+        return nowMillis - lastActivityMillis > holdTtlMillis;
+    }
+
+    // Undo committed lines and drop the holds of the lines that were not reached
+    private void rollback(Product[] soldProducts, int[] soldQuantities, int sold, int failedLine) {
+        for (int i = 0; i < sold; i++) {
+            productService.increaseProductQuantity(soldProducts[i].getId(), soldQuantities[i]);
+        }
+        for (int i = failedLine; i < lineCount; i++) {
+            if (quantities[i] > 0) {
+                productService.releaseHold(holds[i]);
+            }
+        }
+        close();
+    }
+
+    private void close() {
+        open = false;
+        onClose.accept(this);
+    }
+
+    private void ensureOpen() {
+        if (!open) {
+            throw new IllegalStateException("Checkout at register " + registerNumber + " is already closed");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.service.impl;
+
+import java.util.Arrays;
+
+/**
+ * Layout of the columnar sales files written by {@link SalesExporter} and read by
+ * {@link ColumnarSalesReader}. All fixed-width values are big-endian.
+ * <pre>
+ * header:  magic, version, row count, block count (ints)
+ *          product dictionary, cashier dictionary (int count, then sorted int IDs)
+ * block:   int row count
+ *          per column: long min, long max, int raw length, int compressed length
+ *          per column: the deflated column data
+ * </pre>
+ * Timestamps and receipt numbers are stored as zig-zag varint deltas from the previous row,
+ * products and cashiers as varint indexes into their dictionaries, registers and quantities as
+ * zig-zag varints and unit prices as raw doubles. Column statistics hold the raw values
+ * (real IDs, not dictionary indexes; double bits for unit prices).
+ */
+final class ColumnarSalesFormat {
+    static final int MAGIC = 0x53414C43;
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 4096;
+    static final int COLUMN_COUNT = ColumnarSalesReader.Column.values().length;
+    static final int BLOCK_HEADER_BYTES = Integer.BYTES + COLUMN_COUNT * (2 * Long.BYTES + 2 * Integer.BYTES);
+
+    private ColumnarSalesFormat() {
+    }
+
+    static final class ByteSink {
+        private byte[] bytes = new byte[1024];
+        private int length;
+
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            bytes[length++] = (byte) zigzag;
+        }
+
+        void writeLong(long value) {
+            ensure(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        void reset() {
+            length = 0;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int length() {
+            return length;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    static final class ByteSource {
+        private final byte[] bytes;
+        private int position;
+
+        ByteSource(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package org.service.impl;
+
+import org.service.impl.ColumnarSalesFormat.ByteSource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads columnar sales files written by {@link SalesExporter}.
+ * <p>
+ * Opening a file reads only the dictionaries and block headers. A scan then skips every block
+ * whose column statistics rule out the query and reads and inflates only the columns that are
+ * projected or filtered on, straight from their offsets in the file.
+ */
+public class ColumnarSalesReader implements AutoCloseable {
+    /**
+     * The columns of a sales file, in their on-disk order
+     */
+    public enum Column {
+        TIMESTAMP,
+        RECEIPT,
+        REGISTER,
+        CASHIER,
+        PRODUCT,
+        QUANTITY,
+        UNIT_PRICE
+    }
+
+    /**
+     * The matching rows of one block. Columns that were not projected are null.
+     */
+    public static final class RowBatch {
+        private final int size;
+        private final long[] timestamps;
+        private final int[] receiptNumbers;
+        private final int[] registers;
+        private final int[] cashiers;
+        private final int[] products;
+        private final int[] quantities;
+        private final double[] unitPrices;
+
+        private RowBatch(int size, long[] timestamps, int[] receiptNumbers, int[] registers, int[] cashiers,
+                int[] products, int[] quantities, double[] unitPrices) {
+            this.size = size;
+            this.timestamps = timestamps;
+            this.receiptNumbers = receiptNumbers;
+            this.registers = registers;
+            this.cashiers = cashiers;
+            this.products = products;
+            this.quantities = quantities;
+            this.unitPrices = unitPrices;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long[] getTimestamps() {
+            return timestamps;
+        }
+
+        public int[] getReceiptNumbers() {
+            return receiptNumbers;
+        }
+
+        public int[] getRegisters() {
+            return registers;
+        }
+
+        public int[] getCashiers() {
+            return cashiers;
+        }
+
+        public int[] getProducts() {
+            return products;
+        }
+
+        public int[] getQuantities() {
+            return quantities;
+        }
+
+        public double[] getUnitPrices() {
+            return unitPrices;
+        }
+    }
+
+    private static final class Block {
+        int rows;
+        final long[] min = new long[ColumnarSalesFormat.COLUMN_COUNT];
+        final long[] max = new long[ColumnarSalesFormat.COLUMN_COUNT];
+        final long[] offsets = new long[ColumnarSalesFormat.COLUMN_COUNT];
+        final int[] rawLengths = new int[ColumnarSalesFormat.COLUMN_COUNT];
+        final int[] compressedLengths = new int[ColumnarSalesFormat.COLUMN_COUNT];
+    }
+
+    private final FileChannel channel;
+    private final int rowCount;
+    private final int[] productDictionary;
+    private final int[] cashierDictionary;
+    private final Block[] blocks;
+
+    private ColumnarSalesReader(FileChannel channel, int rowCount, int[] productDictionary,
+            int[] cashierDictionary, Block[] blocks) {
+        this.channel = channel;
+        this.rowCount = rowCount;
+        this.productDictionary = productDictionary;
+        this.cashierDictionary = cashierDictionary;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Open a sales file and read its dictionaries and block headers
+     * @param file The file
+     * @return The reader, which must be closed
+     * @throws IOException if the file can't be read or is not a sales file
+     */
+    public static ColumnarSalesReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(channel, 0, 4 * Integer.BYTES);
+            if (header.getInt() != ColumnarSalesFormat.MAGIC || header.getInt() != ColumnarSalesFormat.VERSION) {
+                throw new IOException("Not a columnar sales file: " + file);
+            }
+            int rowCount = header.getInt();
+            Block[] blocks = new Block[header.getInt()];
+            long position = header.capacity();
+
+            int[] productDictionary = readDictionary(channel, position);
+            position += Integer.BYTES * (1L + productDictionary.length);
+            int[] cashierDictionary = readDictionary(channel, position);
+            position += Integer.BYTES * (1L + cashierDictionary.length);
+
+            for (int i = 0; i < blocks.length; i++) {
+                ByteBuffer blockHeader = read(channel, position, ColumnarSalesFormat.BLOCK_HEADER_BYTES);
+                position += ColumnarSalesFormat.BLOCK_HEADER_BYTES;
+                Block block = new Block();
+                block.rows = blockHeader.getInt();
+                for (int column = 0; column < ColumnarSalesFormat.COLUMN_COUNT; column++) {
+                    block.min[column] = blockHeader.getLong();
+                    block.max[column] = blockHeader.getLong();
+                    block.rawLengths[column] = blockHeader.getInt();
+                    block.compressedLengths[column] = blockHeader.getInt();
+                }
+                for (int column = 0; column < ColumnarSalesFormat.COLUMN_COUNT; column++) {
+                    block.offsets[column] = position;
+                    position += block.compressedLengths[column];
+                }
+                blocks[i] = block;
+            }
+            return new ColumnarSalesReader(channel, rowCount, productDictionary, cashierDictionary, blocks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * @return The distinct product IDs in the file, in ascending order
+     */
+    public int[] getProductIds() {
+        return productDictionary.clone();
+    }
+
+    /**
+     * Scan the rows matching a query
+     * @param query The rows to include
+     * @param columns The columns to return
+     * @param sink Receives the matching rows of every block that has any
+     * @return The number of blocks read; the rest were skipped on their statistics
+     * @throws IOException if the file can't be read or is corrupt
+     */
+    public int scan(SalesFactStore.Query query, Set<Column> columns, Consumer<RowBatch> sink) throws IOException {
+        EnumSet<Column> needed = EnumSet.noneOf(Column.class);
+        needed.addAll(columns);
+        boolean timeFiltered = query.fromMillis() != Long.MIN_VALUE || query.toMillis() != Long.MAX_VALUE;
+        if (timeFiltered) {
+            needed.add(Column.TIMESTAMP);
+        }
+        if (query.register() != SalesFactStore.Query.ANY) {
+            needed.add(Column.REGISTER);
+        }
+        if (query.cashier() != SalesFactStore.Query.ANY) {
+            needed.add(Column.CASHIER);
+        }
+        if (query.product() != SalesFactStore.Query.ANY) {
+            needed.add(Column.PRODUCT);
+        }
+
+        int blocksRead = 0;
+        Inflater inflater = new Inflater();
+        try {
+            for (Block block : blocks) {
+                if (!mayMatch(block, query)) {
+                    continue;
+                }
+                blocksRead++;
+                RowBatch decoded = decode(block, needed, inflater);
+                RowBatch batch = select(decoded, query, timeFiltered, columns);
+                if (batch.size > 0) {
+                    sink.accept(batch);
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        return blocksRead;
+    }
+
+    /**
+     * Sum revenue over the rows matching a query, reading only the columns it needs
+     */
+    public double sumRevenue(SalesFactStore.Query query) throws IOException {
+        double[] sum = new double[1];
+        scan(query, EnumSet.of(Column.QUANTITY, Column.UNIT_PRICE), batch -> {
+            for (int row = 0; row < batch.size; row++) {
+                sum[0] += batch.unitPrices[row] * batch.quantities[row];
+            }
+        });
+        return sum[0];
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean mayMatch(Block block, SalesFactStore.Query query) {
+        if (block.max[Column.TIMESTAMP.ordinal()] < query.fromMillis()
+                || block.min[Column.TIMESTAMP.ordinal()] >= query.toMillis()) {
+            return false;
+        }
+        return inRange(block, Column.REGISTER, query.register())
+                && inRange(block, Column.CASHIER, query.cashier())
+                && inRange(block, Column.PRODUCT, query.product());
+    }
+
+    private static boolean inRange(Block block, Column column, int value) {
+        return value == SalesFactStore.Query.ANY
+                || (value >= block.min[column.ordinal()] && value <= block.max[column.ordinal()]);
+    }
+
+    private RowBatch decode(Block block, Set<Column> columns, Inflater inflater) throws IOException {
+        int rows = block.rows;
+        long[] timestamps = null;
+        int[] receiptNumbers = null;
+        int[] registers = null;
+        int[] cashiers = null;
+        int[] products = null;
+        int[] quantities = null;
+        double[] unitPrices = null;
+        for (Column column : columns) {
+            ByteSource source = new ByteSource(inflate(block, column, inflater));
+            switch (column) {
+                case TIMESTAMP:
+                    timestamps = new long[rows];
+                    long timestamp = 0;
+                    for (int row = 0; row < rows; row++) {
+                        timestamp += source.readVarLong();
+                        timestamps[row] = timestamp;
+                    }
+                    break;
+                case RECEIPT:
+                    receiptNumbers = new int[rows];
+                    long receipt = 0;
+                    for (int row = 0; row < rows; row++) {
+                        receipt += source.readVarLong();
+                        receiptNumbers[row] = (int) receipt;
+                    }
+                    break;
+                case REGISTER:
+                    registers = readInts(source, rows);
+                    break;
+                case CASHIER:
+                    cashiers = lookUp(readInts(source, rows), cashierDictionary);
+                    break;
+                case PRODUCT:
+                    products = lookUp(readInts(source, rows), productDictionary);
+                    break;
+                case QUANTITY:
+                    quantities = readInts(source, rows);
+                    break;
+                default:
+                    unitPrices = new double[rows];
+                    for (int row = 0; row < rows; row++) {
+                        unitPrices[row] = Double.longBitsToDouble(source.readLong());
+                    }
+                    break;
+            }
+        }
+        return new RowBatch(rows, timestamps, receiptNumbers, registers, cashiers, products, quantities, unitPrices);
+    }
+
+    private static RowBatch select(RowBatch all, SalesFactStore.Query query, boolean timeFiltered, Set<Column> columns) {
+        int[] selected = new int[all.size];
+        int size = 0;
+        for (int row = 0; row < all.size; row++) {
+            if ((!timeFiltered || (all.timestamps[row] >= query.fromMillis() && all.timestamps[row] < query.toMillis()))
+                    && (query.register() == SalesFactStore.Query.ANY || all.registers[row] == query.register())
+                    && (query.cashier() == SalesFactStore.Query.ANY || all.cashiers[row] == query.cashier())
+                    && (query.product() == SalesFactStore.Query.ANY || all.products[row] == query.product())) {
+                selected[size++] = row;
+            }
+        }
+        return new RowBatch(size,
+                columns.contains(Column.TIMESTAMP) ? gather(all.timestamps, selected, size) : null,
+                columns.contains(Column.RECEIPT) ? gather(all.receiptNumbers, selected, size) : null,
+                columns.contains(Column.REGISTER) ? gather(all.registers, selected, size) : null,
+                columns.contains(Column.CASHIER) ? gather(all.cashiers, selected, size) : null,
+                columns.contains(Column.PRODUCT) ? gather(all.products, selected, size) : null,
+                columns.contains(Column.QUANTITY) ? gather(all.quantities, selected, size) : null,
+                columns.contains(Column.UNIT_PRICE) ? gather(all.unitPrices, selected, size) : null);
+    }
+
+    private static long[] gather(long[] values, int[] rows, int size) {
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[rows[i]];
+        }
+        return result;
+    }
+
+    private static int[] gather(int[] values, int[] rows, int size) {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[rows[i]];
+        }
+        return result;
+    }
+
+    private static double[] gather(double[] values, int[] rows, int size) {
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[rows[i]];
+        }
+        return result;
+    }
+
+    private static int[] readInts(ByteSource source, int rows) {
+        int[] values = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            values[row] = (int) source.readVarLong();
+        }
+        return values;
+    }
+
+    private static int[] lookUp(int[] indexes, int[] dictionary) throws IOException {
+        for (int row = 0; row < indexes.length; row++) {
+            if (indexes[row] < 0 || indexes[row] >= dictionary.length) {
+                throw new IOException("Dictionary index out of range: " + indexes[row]);
+            }
+            indexes[row] = dictionary[indexes[row]];
+        }
+        return indexes;
+    }
+
+    private byte[] inflate(Block block, Column column, Inflater inflater) throws IOException {
+        int index = column.ordinal();
+        ByteBuffer compressed = read(channel, block.offsets[index], block.compressedLengths[index]);
+        byte[] raw = new byte[block.rawLengths[index]];
+        inflater.reset();
+        inflater.setInput(compressed.array(), 0, block.compressedLengths[index]);
+        try {
+            if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                throw new IOException("Corrupt " + column + " column");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt " + column + " column", e);
+        }
+        return raw;
+    }
+
+    private static int[] readDictionary(FileChannel channel, long position) throws IOException {
+        int length = read(channel, position, Integer.BYTES).getInt();
+        ByteBuffer ids = read(channel, position + Integer.BYTES, length * Integer.BYTES);
+        int[] dictionary = new int[length];
+        for (int i = 0; i < length; i++) {
+            dictionary[i] = ids.getInt();
+        }
+        return dictionary;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated columnar sales file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,116 @@
+package org.service.impl;
+
+import org.util.Threads;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Streams a {@link SalesJournal} to followers over loopback sockets.
+ * <p>
+ * A follower connects and sends the journal position it has applied up to; the shipper then
+ * sends every record from there on as it is appended. Each batch of records is preceded by a
+ * heartbeat carrying the primary's last sequence number and clock, and heartbeats keep coming
+ * while the journal is idle, so a follower can always tell how far behind it is.
+ */
+public class JournalShipper implements AutoCloseable {
+    static final byte FRAME_RECORD = 1;
+    static final byte FRAME_HEARTBEAT = 2;
+    static final long HEARTBEAT_MILLIS = 200;
+
+    private final SalesJournal journal;
+    private final ServerSocket server;
+    private final ThreadFactory threads = Threads.platformThreadFactory("journal-shipper");
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * Start shipping a journal
+     * @param journal The journal
+     * @param port The loopback port to listen on, or 0 for any free port
+     * @throws IOException if the port can't be bound
+     */
+    public JournalShipper(SalesJournal journal, int port) throws IOException {
+        this.journal = journal;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        threads.newThread(this::acceptFollowers).start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return The number of connected followers
+     */
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+    }
+
+    private void acceptFollowers() {
+        while (!closed) {
+            try {
+                Socket follower = server.accept();
+                followers.add(follower);
+                threads.newThread(() -> ship(follower)).start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Failed to accept a journal follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void ship(Socket follower) {
+        try (Socket socket = follower) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            long position = in.readLong();
+            if (position < 0 || position > journal.getLength()) {
+                throw new IOException("Follower asked for position " + position + " beyond the journal");
+            }
+            while (!closed) {
+                long end = journal.getLength();
+                out.writeByte(FRAME_HEARTBEAT);
+                out.writeLong(journal.getLastSequence());
+                out.writeLong(System.currentTimeMillis());
+                while (position < end) {
+                    byte[] record = journal.read(position);
+                    out.writeByte(FRAME_RECORD);
+                    out.writeInt(record.length);
+                    out.write(record);
+                    position += record.length;
+                }
+                out.flush();
+                journal.awaitLength(position, HEARTBEAT_MILLIS);
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Journal follower disconnected: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(follower);
+        }
+    }
+}
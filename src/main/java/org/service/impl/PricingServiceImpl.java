@@ -1,19 +1,20 @@
 package org.service.impl;
 
 import org.data.Product;
+import org.data.ProductCategory;
 import org.exception.NegativePercentageException;
 import org.exception.ProductNotFoundException;
 import org.service.PricingService;
 import org.service.ProductService;
 
 import java.time.LocalDate;
-import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
 
 public class PricingServiceImpl implements PricingService {
     private final ProductService productService;
     private final int expirationThreshold;
     private final double expirationDiscount;
-    private double totalDeliveryExpenses = 0.0;
+    private final DoubleAdder totalDeliveryExpenses = new DoubleAdder();
 
     public PricingServiceImpl(ProductService productService, int expirationThreshold, double expirationDiscount) {
         if (expirationDiscount < 0) {
@@ -45,9 +46,48 @@ public class PricingServiceImpl implements PricingService {
         return Math.round(priceWithMarkup * 100.0) / 100.0;
     }
 
+    @Override
+    public double calculateSellingPrices(int[] productIds, int[] quantities, int count,
+            double foodMarkup, double nonFoodMarkup, double[] unitPrices)
+            throws ProductNotFoundException, NegativePercentageException {
+        if (foodMarkup < 0) {
+            throw new NegativePercentageException(foodMarkup);
+        }
+        if (nonFoodMarkup < 0) {
+            throw new NegativePercentageException(nonFoodMarkup);
+        }
+
+        // Same rule as isProductNearExpiration: expirationDate - threshold < today
+        LocalDate discountCutoff = LocalDate.now().plusDays(expirationThreshold);
+        double foodFactor = 1 + foodMarkup;
+        double nonFoodFactor = 1 + nonFoodMarkup;
+        double discountFactor = 1.0 - expirationDiscount;
+        double total = 0;
+
+        for (int i = 0; i < count; i++) {
+            Product product = productService.getProduct(productIds[i]);
+            if (product == null) {
+                throw new ProductNotFoundException(productIds[i]);
+            }
+
+            double price = product.getDeliveryPrice()
+                    * (product.getCategory() == ProductCategory.FOOD ? foodFactor : nonFoodFactor);
+            if (product.getExpirationDate().isBefore(discountCutoff)) {
+                price *= discountFactor;
+            }
+            price = Math.round(price * 100.0) / 100.0;
+
+            unitPrices[i] = price;
+            if (quantities != null) {
+                total += price * quantities[i];
+            }
+        }
+        return total;
+    }
+
     @Override
     public double getTotalDeliveryExpenses() {
-        return totalDeliveryExpenses;
+        return totalDeliveryExpenses.sum();
     }
 
     @Override
@@ -74,6 +114,14 @@ public class PricingServiceImpl implements PricingService {
      * @param product The product to add to the delivery expenses
      */
     public void addProductDeliveryExpense(Product product) {
-        totalDeliveryExpenses += product.getDeliveryPrice() * product.getQuantity();
+        totalDeliveryExpenses.add(product.getDeliveryPrice() * product.getQuantity());
+    }
+
+    /**
+     * Update the total delivery expenses with the cost of a restock
+     * @param amount The cost of the delivered stock
+     */
+    public void addDeliveryExpense(double amount) {
+        totalDeliveryExpenses.add(amount);
     }
 } 
\ No newline at end of file
@@ -1,31 +1,37 @@
 package org.service.impl;
 
 import org.data.Product;
+import org.data.StockHold;
 import org.service.ProductService;
 import org.service.PricingService;
 import org.exception.NegativePercentageException;
 import org.exception.ProductNotFoundException;
+import org.util.TimerWheel;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ProductServiceImpl implements ProductService {
     private final Map<Integer, Product> products;
     private final PricingService pricingService;
+    // 100 ms ticks over four levels cover holds of up to about 19 days without re-cascading
+    private final TimerWheel<StockHold> holdTimers =
+            new TimerWheel<>(100, 4, System.currentTimeMillis(), this::expire);
 
     public ProductServiceImpl() {
-        this.products = new HashMap<>();
+        this.products = new ConcurrentHashMap<>();
         this.pricingService = new PricingServiceImpl(this, 7, 0.2); // Default values
     }
 
     public ProductServiceImpl(int expirationThreshold, double expirationDiscount) {
-        this.products = new HashMap<>();
+        this.products = new ConcurrentHashMap<>();
         this.pricingService = new PricingServiceImpl(this, expirationThreshold, expirationDiscount);
     }
 
     public ProductServiceImpl(PricingService pricingService) {
-        this.products = new HashMap<>();
+        this.products = new ConcurrentHashMap<>();
         this.pricingService = pricingService;
     }
 
@@ -52,6 +58,108 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public int restockProduct(int id, int quantity, double unitCost, LocalDate expirationDate) {
+        Product product = products.get(id);
+        if (product == null) {
+            throw new ProductNotFoundException(id);
+        }
+        return product.restock(quantity, unitCost, expirationDate);
+    }
+
+    @Override
+    public boolean decreaseProductQuantity(int id, int quantity) {
+        holdTimers.advance(System.currentTimeMillis());
+        Product product = products.get(id);
+        return product != null && product.tryDecreaseQuantity(quantity);
+    }
+
+    @Override
+    public void increaseProductQuantity(int id, int quantity) {
+        Product product = products.get(id);
+        if (product != null) {
+            product.increaseQuantity(quantity);
+        }
+    }
+
+    @Override
+    public boolean reserveProductQuantity(int id, int quantity) {
+        holdTimers.advance(System.currentTimeMillis());
+        Product product = products.get(id);
+        return product != null && product.tryReserve(quantity);
+    }
+
+    @Override
+    public void releaseProductReservation(int id, int quantity) {
+        Product product = products.get(id);
+        if (product != null) {
+            product.releaseReservation(quantity);
+        }
+    }
+
+    @Override
+    public boolean commitProductReservation(int id, int quantity) {
+        Product product = products.get(id);
+        return product != null && product.commitReservation(quantity);
+    }
+
+    @Override
+    public StockHold placeHold(int id, int quantity, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        holdTimers.advance(now);
+        Product product = products.get(id);
+        if (product == null || !product.tryReserve(quantity)) {
+            return null;
+        }
+        StockHold hold = new StockHold(id, quantity, now + ttlMillis);
+        holdTimers.arm(hold, hold.getExpiresAtMillis());
+        return hold;
+    }
+
+    @Override
+    public boolean releaseHold(StockHold hold) {
+        if (!hold.end(StockHold.State.RELEASED)) {
+            return false;
+        }
+        holdTimers.cancel(hold);
+        releaseProductReservation(hold.getProductId(), hold.getQuantity());
+        return true;
+    }
+
+    @Override
+    public boolean commitHold(StockHold hold) {
+        if (!hold.end(StockHold.State.COMMITTED)) {
+            return false;
+        }
+        holdTimers.cancel(hold);
+        if (!commitProductReservation(hold.getProductId(), hold.getQuantity())) {
+            // The stock was reset below the held amount by a manual correction
+            releaseProductReservation(hold.getProductId(), hold.getQuantity());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int expireHolds() {
+        return expireHolds(System.currentTimeMillis());
+    }
+
+    /**
+     * Release every hold whose time-to-live has run out at the given time
+     * @param nowMillis The current time
+     * @return The number of holds that expired
+     */
+    public int expireHolds(long nowMillis) {
+        return holdTimers.advance(nowMillis);
+    }
+
+    private void expire(StockHold hold) {
+        if (hold.end(StockHold.State.EXPIRED)) {
+            releaseProductReservation(hold.getProductId(), hold.getQuantity());
+        }
+    }
+
     @Override
     public boolean isProductExpired(int id) {
         return pricingService.isProductExpired(id);
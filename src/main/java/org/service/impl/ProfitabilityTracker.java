@@ -0,0 +1,39 @@
+package org.service.impl;
+
+import org.data.ProductProfit;
+import org.data.Receipt;
+import org.service.ReceiptListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the per-product profitability view up to date from every issued receipt
+ */
+class ProfitabilityTracker implements ReceiptListener {
+    private final Map<Integer, ProductProfit> byProduct = new ConcurrentHashMap<>();
+
+    @Override
+    public void onReceiptCreated(Receipt receipt) {
+        for (int line = 0; line < receipt.getLineCount(); line++) {
+            ProductProfit profit = byProduct.get(receipt.getProductId(line));
+            if (profit == null) {
+                profit = byProduct.computeIfAbsent(receipt.getProductId(line), ProductProfit::new);
+            }
+            profit.record(receipt.getQuantity(line), receipt.getUnitPrice(line), receipt.getUnitCost(line));
+        }
+    }
+
+    ProductProfit get(int productId) {
+        return byProduct.get(productId);
+    }
+
+    List<ProductProfit> getAllByMargin() {
+        List<ProductProfit> all = new ArrayList<>(byProduct.values());
+        all.sort(Comparator.comparingDouble(ProductProfit::getGrossMargin).reversed());
+        return all;
+    }
+}
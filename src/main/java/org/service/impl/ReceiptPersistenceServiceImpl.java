@@ -4,11 +4,15 @@ import org.config.StoreConfig;
 import org.data.Receipt;
 import org.exception.ReceiptPersistenceException;
 import org.service.ReceiptPersistenceService;
+import org.util.FileHighWaterMark;
+import org.util.IdAllocator;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class ReceiptPersistenceServiceImpl implements ReceiptPersistenceService {
@@ -20,13 +24,28 @@ public class ReceiptPersistenceServiceImpl implements ReceiptPersistenceService
 
     @Override
     public void saveReceipt(Receipt receipt) throws ReceiptPersistenceException {
+        ensureDirectoryExists();
+        writeReceipt(receipt);
+    }
+
+    @Override
+    public void saveReceipts(List<Receipt> receipts) throws ReceiptPersistenceException {
+        if (receipts.isEmpty()) {
+            return;
+        }
+        // The directory is checked once for the whole batch
+        ensureDirectoryExists();
+        for (Receipt receipt : receipts) {
+            writeReceipt(receipt);
+        }
+    }
+
+    private void writeReceipt(Receipt receipt) throws ReceiptPersistenceException {
         String filePath = getSerializedFilePath(receipt.getReceiptNumber());
         String textFilePath = getTextFilePath(receipt.getReceiptNumber());
-        
-        ensureDirectoryExists();
-        
+
         // Save serialized receipt
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filePath))) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
             oos.writeObject(receipt);
         } catch (IOException e) {
             throw new ReceiptPersistenceException("Failed to save receipt: " + e.getMessage(), e);
@@ -47,9 +66,10 @@ public class ReceiptPersistenceServiceImpl implements ReceiptPersistenceService
         
         while (attempts < config.getMaxRetryAttempts()) {
             try {
-                try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filePath))) {
-                    return (Receipt) ois.readObject();
-                }
+                return readReceiptFromFile(filePath);
+            } catch (FileNotFoundException | NoSuchFileException e) {
+                // A missing file won't appear by waiting for it
+                throw new ReceiptPersistenceException("Receipt file not found: " + filePath, e);
             } catch (IOException e) {
                 lastException = e;
                 attempts++;
@@ -67,6 +87,13 @@ public class ReceiptPersistenceServiceImpl implements ReceiptPersistenceService
         throw new ReceiptPersistenceException("Failed to deserialize receipt after " + attempts + " attempts", lastException);
     }
 
+    @Override
+    public Receipt readReceiptFromFile(String filePath) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
+            return (Receipt) ois.readObject();
+        }
+    }
+
     @Override
     public String readReceiptTextFromFile(String filePath) throws IOException {
         return new String(Files.readAllBytes(Paths.get(filePath)));
@@ -81,6 +108,13 @@ public class ReceiptPersistenceServiceImpl implements ReceiptPersistenceService
     public String getTextFilePath(int receiptNumber) {
         return config.getReceiptOutputDir() + "/receipt_" + receiptNumber + ".txt";
     }
+
+    @Override
+    public IdAllocator createReceiptNumbers() {
+        // The mark lives next to the receipt files, so a restarted store never overwrites one
+        return new IdAllocator(config.getNodeId(), IdAllocator.DEFAULT_BLOCK_SIZE,
+                new FileHighWaterMark(Paths.get(config.getReceiptOutputDir(), "receipt.ids")));
+    }
     
     private void ensureDirectoryExists() throws ReceiptPersistenceException {
         Path dir = Paths.get(config.getReceiptOutputDir());
@@ -5,59 +5,225 @@ import org.data.Receipt;
 import org.data.Cashier;
 import org.data.Product;
 import org.exception.ReceiptPersistenceException;
+import org.service.ReceiptListener;
 import org.service.ReceiptService;
 import org.service.ReceiptPersistenceService;
+import org.util.IdAllocator;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
 
 public class ReceiptServiceImpl implements ReceiptService {
     private final ReceiptPersistenceService persistenceService;
-    private final List<Receipt> receipts;
-    private final AtomicInteger receiptCounter;
+    // Ordered by receipt number and safe for registers issuing receipts concurrently
+    private final ConcurrentSkipListMap<Integer, Receipt> receipts;
+    private final IdAllocator receiptNumbers;
+    private final AtomicInteger receiptCount = new AtomicInteger();
+    private final DoubleAdder totalRevenue = new DoubleAdder();
+    // Writes still in flight when persistence runs on a separate executor, and writes that failed;
+    // a failed write stays here so that waiting on it later still reports the failure
+    private final Map<Integer, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+    private final Executor persistenceExecutor;
+    private final List<ReceiptListener> listeners = new CopyOnWriteArrayList<>();
 
     public ReceiptServiceImpl(StoreConfig config) {
-        this.persistenceService = new ReceiptPersistenceServiceImpl(config);
-        this.receipts = new ArrayList<>();
-        this.receiptCounter = new AtomicInteger(1);
+        this(new ReceiptPersistenceServiceImpl(config));
     }
 
     public ReceiptServiceImpl(ReceiptPersistenceService persistenceService) {
+        this(persistenceService, null);
+    }
+
+    /**
+     * Receipt numbers come from the allocator of the persistence service, so they continue
+     * where the receipts already stored left off.
+     * @param persistenceService The persistence service
+     * @param persistenceExecutor The executor that writes receipts, or null to write them on the
+     *                            calling thread before the receipt is returned
+     */
+    public ReceiptServiceImpl(ReceiptPersistenceService persistenceService, Executor persistenceExecutor) {
+        this(persistenceService, persistenceExecutor, receiptNumbersOf(persistenceService));
+    }
+
+    /**
+     * @param persistenceService The persistence service
+     * @param persistenceExecutor The executor that writes receipts, or null to write them on the
+     *                            calling thread before the receipt is returned
+     * @param receiptNumbers The allocator for receipt numbers; give it a high-water mark so that
+     *                       numbers, and so receipt files, are not reused after a restart
+     */
+    public ReceiptServiceImpl(ReceiptPersistenceService persistenceService, Executor persistenceExecutor,
+            IdAllocator receiptNumbers) {
         this.persistenceService = persistenceService;
-        this.receipts = new ArrayList<>();
-        this.receiptCounter = new AtomicInteger(1);
+        this.persistenceExecutor = persistenceExecutor;
+        this.receipts = new ConcurrentSkipListMap<>();
+        this.receiptNumbers = receiptNumbers;
+    }
+
+    // A persistence service that keeps nothing, such as a test double, may not number receipts
+    private static IdAllocator receiptNumbersOf(ReceiptPersistenceService persistenceService) {
+        IdAllocator receiptNumbers = persistenceService.createReceiptNumbers();
+        return receiptNumbers != null ? receiptNumbers : new IdAllocator();
     }
 
     @Override
     public Receipt createReceipt(Cashier cashier, int registerNumber, Map<Product, Integer> items, double totalAmount) {
-        int receiptNumber = receiptCounter.getAndIncrement();
-        Receipt receipt = new Receipt(receiptNumber, cashier, registerNumber, items, totalAmount);
-        receipts.add(receipt);
-        
-        try {
-            persistenceService.saveReceipt(receipt);
-        } catch (ReceiptPersistenceException e) {
-            // Log the error but don't fail the receipt creation
-            System.err.println("Failed to save receipt: " + e.getMessage());
+        int receiptNumber = receiptNumbers.nextId();
+        return register(new Receipt(receiptNumber, cashier, registerNumber, items, totalAmount));
+    }
+
+    @Override
+    public Receipt createReceipt(Cashier cashier, int registerNumber, Product[] products, int[] quantities,
+            double[] unitPrices, double totalAmount) {
+        int receiptNumber = receiptNumbers.nextId();
+        return register(new Receipt(receiptNumber, cashier, registerNumber, products, quantities,
+                unitPrices, totalAmount));
+    }
+
+    @Override
+    public List<Receipt> createReceipts(Cashier[] cashiers, int[] registerNumbers, Product[][] products,
+            int[][] quantities, double[][] unitPrices, double[] totalAmounts) {
+        int count = cashiers.length;
+        List<Receipt> batch = new ArrayList<>(count);
+        if (count == 0) {
+            return batch;
         }
-        
+        int firstNumber = receiptNumbers.nextIds(count);
+        double revenue = 0;
+        for (int i = 0; i < count; i++) {
+            Receipt receipt = new Receipt(firstNumber + i, cashiers[i], registerNumbers[i], products[i],
+                    quantities[i], unitPrices[i], totalAmounts[i]);
+            receipts.put(receipt.getReceiptNumber(), receipt);
+            revenue += totalAmounts[i];
+            batch.add(receipt);
+        }
+        receiptCount.addAndGet(count);
+        totalRevenue.add(revenue);
+        for (Receipt receipt : batch) {
+            notifyListeners(receipt);
+        }
+
+        persist(batch);
+        return batch;
+    }
+
+    @Override
+    public Receipt importReceipt(Receipt receipt) {
+        receiptNumbers.skipPast(receipt.getReceiptNumber());
+        return register(receipt);
+    }
+
+    private Receipt register(Receipt receipt) {
+        receipts.put(receipt.getReceiptNumber(), receipt);
+        receiptCount.incrementAndGet();
+        totalRevenue.add(receipt.getTotalAmount());
+        notifyListeners(receipt);
+
+        persist(Collections.singletonList(receipt));
         return receipt;
     }
 
+    private void notifyListeners(Receipt receipt) {
+        for (ReceiptListener listener : listeners) {
+            listener.onReceiptCreated(receipt);
+        }
+    }
+
+    @Override
+    public void addReceiptListener(ReceiptListener listener) {
+        listeners.add(listener);
+    }
+
+    private void persist(List<Receipt> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (persistenceExecutor == null) {
+            try {
+                saveAll(batch);
+            } catch (ReceiptPersistenceException e) {
+                // Log the error but don't fail the receipt creation; durable callers see it instead
+                System.err.println("Failed to save receipt: " + e.getMessage());
+                CompletableFuture<Void> failed = CompletableFuture.failedFuture(e);
+                for (Receipt receipt : batch) {
+                    pendingWrites.put(receipt.getReceiptNumber(), failed);
+                }
+            }
+            return;
+        }
+
+        // Register the pending write before it starts, so it can't finish before being tracked
+        CompletableFuture<Void> write = new CompletableFuture<>();
+        for (Receipt receipt : batch) {
+            pendingWrites.put(receipt.getReceiptNumber(), write);
+        }
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                return;
+            }
+            for (Receipt receipt : batch) {
+                pendingWrites.remove(receipt.getReceiptNumber(), write);
+            }
+        });
+        try {
+            persistenceExecutor.execute(() -> {
+                try {
+                    saveAll(batch);
+                    write.complete(null);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to save receipt: " + e.getMessage());
+                    write.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Failed to schedule receipt write: " + e.getMessage());
+            write.completeExceptionally(e);
+        }
+    }
+
+    private void saveAll(List<Receipt> batch) throws ReceiptPersistenceException {
+        if (batch.size() == 1) {
+            persistenceService.saveReceipt(batch.get(0));
+        } else {
+            persistenceService.saveReceipts(batch);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> whenPersisted(int receiptNumber) {
+        CompletableFuture<Void> write = pendingWrites.get(receiptNumber);
+        return write != null ? write : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * @return A future that completes once every receipt write scheduled so far has finished,
+     * successfully or not
+     */
+    public CompletableFuture<Void> whenAllPersisted() {
+        CompletableFuture<?>[] writes = pendingWrites.values().stream()
+                .distinct()
+                .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(writes).handle((ignored, error) -> null);
+    }
+
     @Override
     public Receipt getReceipt(int receiptNumber) {
-        return receipts.stream()
-                .filter(r -> r.getReceiptNumber() == receiptNumber)
-                .findFirst()
-                .orElse(null);
+        return receipts.get(receiptNumber);
     }
 
     @Override
     public List<Receipt> getAllReceipts() {
-        return new ArrayList<>(receipts);
+        return new ArrayList<>(receipts.values());
     }
 
     @Override
@@ -81,19 +247,17 @@ public class ReceiptServiceImpl implements ReceiptService {
 
     @Override
     public void resetReceiptCounter() {
-        receiptCounter.set(1);
+        receiptNumbers.reset();
     }
 
     @Override
     public double getTotalRevenue() {
-        return receipts.stream()
-                .mapToDouble(Receipt::getTotalAmount)
-                .sum();
+        return totalRevenue.sum();
     }
 
     @Override
     public int getTotalReceipts() {
-        return receipts.size();
+        return receiptCount.get();
     }
 
     @Override
@@ -0,0 +1,98 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.exception.InvalidInputException;
+import org.exception.NegativeRegisterNumberException;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free table of the cashier at each register, indexed directly by register number.
+ * <p>
+ * Registers are stored in fixed-size chunks that are created on first use, so the table stays
+ * compact for a handful of registers and never has to be resized or locked. Every change is a
+ * single compare-and-set on the register's slot.
+ */
+final class RegisterTable {
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = 1024;
+    static final int MAX_REGISTER_NUMBER = MAX_CHUNKS * CHUNK_SIZE - 1;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<Cashier>> chunks =
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    /**
+     * @return The cashier at the register, or null if the register is free
+     */
+    Cashier get(int registerNumber) {
+        if (registerNumber < 0 || registerNumber > MAX_REGISTER_NUMBER) {
+            return null;
+        }
+        AtomicReferenceArray<Cashier> chunk = chunks.get(registerNumber >>> CHUNK_BITS);
+        return chunk == null ? null : chunk.get(registerNumber & CHUNK_MASK);
+    }
+
+    /**
+     * @return true if the register was free and is now assigned to the cashier
+     */
+    boolean assign(int registerNumber, Cashier cashier) {
+        return chunkFor(registerNumber).compareAndSet(registerNumber & CHUNK_MASK, null, cashier);
+    }
+
+    /**
+     * @return true if the cashier was at the register and the register is now free
+     */
+    boolean release(int registerNumber, Cashier cashier) {
+        return chunkFor(registerNumber).compareAndSet(registerNumber & CHUNK_MASK, cashier, null);
+    }
+
+    /**
+     * @return true if the outgoing cashier was at the register and the incoming one now is
+     */
+    boolean handOver(int registerNumber, Cashier outgoing, Cashier incoming) {
+        return chunkFor(registerNumber).compareAndSet(registerNumber & CHUNK_MASK, outgoing, incoming);
+    }
+
+    /**
+     * @return The numbers of all assigned registers in ascending order
+     */
+    int[] assignedRegisters() {
+        int[] registers = new int[CHUNK_SIZE];
+        int count = 0;
+        for (int c = 0; c < MAX_CHUNKS; c++) {
+            AtomicReferenceArray<Cashier> chunk = chunks.get(c);
+            if (chunk == null) {
+                continue;
+            }
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                if (chunk.get(i) != null) {
+                    if (count == registers.length) {
+                        registers = Arrays.copyOf(registers, count * 2);
+                    }
+                    registers[count++] = (c << CHUNK_BITS) | i;
+                }
+            }
+        }
+        return Arrays.copyOf(registers, count);
+    }
+
+    private AtomicReferenceArray<Cashier> chunkFor(int registerNumber) {
+        if (registerNumber < 0) {
+            throw new NegativeRegisterNumberException(registerNumber);
+        }
+        if (registerNumber > MAX_REGISTER_NUMBER) {
+            throw new InvalidInputException("registerNumber", String.valueOf(registerNumber),
+                    "Register number cannot exceed " + MAX_REGISTER_NUMBER);
+        }
+        int index = registerNumber >>> CHUNK_BITS;
+        AtomicReferenceArray<Cashier> chunk = chunks.get(index);
+        if (chunk == null) {
+            chunks.compareAndSet(index, null, new AtomicReferenceArray<>(CHUNK_SIZE));
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,382 @@
+package org.service.impl;
+
+import org.data.Basket;
+import org.data.Cashier;
+import org.data.Delivery;
+import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Receipt;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.data.Store;
+import org.exception.InsufficientQuantityException;
+import org.exception.ReceiptPersistenceException;
+import org.service.CheckoutSession;
+import org.service.ReceiptListener;
+import org.service.SalesStatistics;
+import org.service.StoreService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary side of journal-shipping replication. Every committed mutation of the wrapped store
+ * is appended to a {@link SalesJournal}, which a {@link JournalShipper} streams to
+ * {@link ReplicationFollower}s.
+ * <p>
+ * Sales are journaled from the receipt listener, so every sale path, including checkouts and
+ * batches, is covered once its receipt is issued. A new product is journaled before the wrapped
+ * store publishes it, so no sale of it can reach the journal first; delivery and register changes
+ * are journaled after the wrapped store accepted them. Sales carry stock deltas rather than
+ * quantities, so records that commute on the primary can be applied in journal order.
+ * <p>
+ * If an append fails, replication is broken: nothing more is journaled, since followers would
+ * silently miss the lost record, and {@link #isBroken()} reports it. The store itself keeps
+ * serving.
+ */
+public class ReplicatingStoreService implements StoreService, AutoCloseable {
+    private final StoreService delegate;
+    private final SalesJournal journal;
+    private final JournalShipper shipper;
+    // The first failed append; once set, the journal no longer matches the store
+    private volatile IOException journalFailure;
+
+    private ReplicatingStoreService(StoreService delegate, SalesJournal journal, JournalShipper shipper) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.shipper = shipper;
+    }
+
+    /**
+     * Start replicating a store
+     * @param primary The store to replicate
+     * @param journalFile The journal file; an existing journal is appended to
+     * @param port The loopback port followers connect to, or 0 for any free port
+     * @return The replicating store service, to be used in place of the primary
+     * @throws IOException if the journal can't be opened or the port can't be bound
+     */
+    public static ReplicatingStoreService start(StoreServiceImpl primary, Path journalFile, int port)
+            throws IOException {
+        SalesJournal journal = SalesJournal.open(journalFile);
+        JournalShipper shipper;
+        try {
+            shipper = new JournalShipper(journal, port);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        ReplicatingStoreService service = new ReplicatingStoreService(primary, journal, shipper);
+        primary.getReceiptService().addReceiptListener(service.new SaleRecorder());
+        return service;
+    }
+
+    public int getPort() {
+        return shipper.getPort();
+    }
+
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    public int getFollowerCount() {
+        return shipper.getFollowerCount();
+    }
+
+    /**
+     * @return Whether replication stopped because a store mutation could not be journaled
+     */
+    public boolean isBroken() {
+        return journalFailure != null;
+    }
+
+    /**
+     * @return Why a store mutation could not be journaled, or null if replication is not broken
+     */
+    public IOException getJournalFailure() {
+        return journalFailure;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            shipper.close();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private final class SaleRecorder implements ReceiptListener {
+        @Override
+        public void onReceiptCreated(Receipt receipt) {
+            record(SalesJournal.SALE, out -> {
+                out.writeInt(receipt.getReceiptNumber());
+                out.writeInt(receipt.getCashier() != null ? receipt.getCashier().getId() : -1);
+                out.writeInt(receipt.getRegisterNumber());
+                out.writeLong(receipt.getDate().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(receipt.getDate().getNano());
+                out.writeDouble(receipt.getTotalAmount());
+                out.writeInt(receipt.getLineCount());
+                for (int line = 0; line < receipt.getLineCount(); line++) {
+                    out.writeInt(receipt.getProductId(line));
+                    out.writeInt(receipt.getQuantity(line));
+                    out.writeDouble(receipt.getUnitPrice(line));
+                    out.writeDouble(receipt.getUnitCost(line));
+                }
+            });
+        }
+    }
+
+    private interface Encoder {
+        void encode(DataOutputStream out) throws IOException;
+    }
+
+    // A failed append does not undo the mutation, which has already happened, but breaks replication
+    private void record(byte type, Encoder encoder) {
+        if (journalFailure != null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            encoder.encode(out);
+            out.flush();
+            journal.append(type, bytes.toByteArray());
+        } catch (IOException e) {
+            synchronized (this) {
+                if (journalFailure == null) {
+                    journalFailure = e;
+                }
+            }
+            System.err.println("Replication broken: failed to journal a store mutation: " + e.getMessage());
+        }
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date != null ? date.toEpochDay() : Long.MIN_VALUE);
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        // Journaled before the store publishes the product, so it precedes every sale of it
+        record(SalesJournal.PRODUCT_ADDED, out -> {
+            out.writeInt(product.getId());
+            out.writeUTF(product.getName());
+            out.writeDouble(product.getDeliveryPrice());
+            out.writeUTF(product.getCategory().name());
+            writeDate(out, product.getExpirationDate());
+            out.writeInt(product.getQuantity());
+        });
+        delegate.addProduct(product);
+    }
+
+    @Override
+    public int restock(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        int newQuantity = delegate.restock(productId, quantity, unitCost, expirationDate);
+        recordRestock(productId, quantity, unitCost, expirationDate);
+        return newQuantity;
+    }
+
+    @Override
+    public void restock(List<Delivery> deliveries) {
+        delegate.restock(deliveries);
+        for (Delivery delivery : deliveries) {
+            recordRestock(delivery.getProductId(), delivery.getQuantity(), delivery.getUnitCost(),
+                    delivery.getExpirationDate());
+        }
+    }
+
+    private void recordRestock(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        record(SalesJournal.RESTOCKED, out -> {
+            out.writeInt(productId);
+            out.writeInt(quantity);
+            out.writeDouble(unitCost);
+            writeDate(out, expirationDate);
+        });
+    }
+
+    @Override
+    public void addCashier(Cashier cashier) {
+        delegate.addCashier(cashier);
+        record(SalesJournal.CASHIER_ADDED, out -> {
+            out.writeInt(cashier.getId());
+            out.writeUTF(cashier.getName());
+            out.writeDouble(cashier.getSalary());
+        });
+    }
+
+    @Override
+    public void assignCashierToRegister(Cashier cashier, int registerNumber) {
+        delegate.assignCashierToRegister(cashier, registerNumber);
+        record(SalesJournal.REGISTER_ASSIGNED, out -> {
+            out.writeInt(cashier.getId());
+            out.writeInt(registerNumber);
+        });
+    }
+
+    @Override
+    public Cashier releaseRegister(int registerNumber) {
+        Cashier released = delegate.releaseRegister(registerNumber);
+        if (released != null) {
+            record(SalesJournal.REGISTER_RELEASED, out -> out.writeInt(registerNumber));
+        }
+        return released;
+    }
+
+    @Override
+    public void handOverRegister(int registerNumber, Cashier outgoing, Cashier incoming) {
+        delegate.handOverRegister(registerNumber, outgoing, incoming);
+        record(SalesJournal.REGISTER_HANDED_OVER, out -> {
+            out.writeInt(registerNumber);
+            out.writeInt(outgoing.getId());
+            out.writeInt(incoming.getId());
+        });
+    }
+
+    @Override
+    public Store getStore() {
+        return delegate.getStore();
+    }
+
+    @Override
+    public Receipt getReceipt(int receiptNumber) {
+        return delegate.getReceipt(receiptNumber);
+    }
+
+    @Override
+    public Receipt loadReceiptFromFile(int receiptNumber) throws IOException, ClassNotFoundException, ReceiptPersistenceException {
+        return delegate.loadReceiptFromFile(receiptNumber);
+    }
+
+    @Override
+    public List<Product> getDeliveredProducts() {
+        return delegate.getDeliveredProducts();
+    }
+
+    @Override
+    public Product getProduct(int productId) {
+        return delegate.getProduct(productId);
+    }
+
+    @Override
+    public List<Cashier> getCashiers() {
+        return delegate.getCashiers();
+    }
+
+    @Override
+    public Cashier getCashierAtRegister(int registerNumber) {
+        return delegate.getCashierAtRegister(registerNumber);
+    }
+
+    @Override
+    public boolean isRegisterAssigned(int registerNumber) {
+        return delegate.isRegisterAssigned(registerNumber);
+    }
+
+    @Override
+    public int[] getAssignedRegisters() {
+        return delegate.getAssignedRegisters();
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Map<Integer, Integer> purchase) throws InsufficientQuantityException {
+        return delegate.createSale(registerNumber, purchase);
+    }
+
+    @Override
+    public Receipt createSale(String idempotencyKey, int registerNumber, Map<Integer, Integer> purchase)
+            throws InsufficientQuantityException {
+        return delegate.createSale(idempotencyKey, registerNumber, purchase);
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, int[] productIds, int[] quantities, int count)
+            throws InsufficientQuantityException {
+        return delegate.createSale(registerNumber, productIds, quantities, count);
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Basket basket) throws InsufficientQuantityException {
+        return delegate.createSale(registerNumber, basket);
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Map<Integer, Integer> purchase) {
+        return delegate.trySale(registerNumber, purchase);
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Basket basket) {
+        return delegate.trySale(registerNumber, basket);
+    }
+
+    @Override
+    public List<SaleResult> createSales(List<SaleRequest> requests) {
+        return delegate.createSales(requests);
+    }
+
+    @Override
+    public CheckoutSession openCheckout(int registerNumber) {
+        return delegate.openCheckout(registerNumber);
+    }
+
+    @Override
+    public CheckoutSession getOpenCheckout(int registerNumber) {
+        return delegate.getOpenCheckout(registerNumber);
+    }
+
+    @Override
+    public double quoteSellingPrices(int[] productIds, int[] quantities, double[] unitPrices) {
+        return delegate.quoteSellingPrices(productIds, quantities, unitPrices);
+    }
+
+    @Override
+    public int getTotalReceipts() {
+        return delegate.getTotalReceipts();
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        return delegate.getTotalRevenue();
+    }
+
+    @Override
+    public double getSalaryExpenses() {
+        return delegate.getSalaryExpenses();
+    }
+
+    @Override
+    public double getDeliveryExpenses() {
+        return delegate.getDeliveryExpenses();
+    }
+
+    @Override
+    public double getIncome() {
+        return delegate.getIncome();
+    }
+
+    @Override
+    public double getProfit() {
+        return delegate.getProfit();
+    }
+
+    @Override
+    public SalesStatistics getSalesStatistics() {
+        return delegate.getSalesStatistics();
+    }
+
+    @Override
+    public ProductProfit getProductProfit(int productId) {
+        return delegate.getProductProfit(productId);
+    }
+
+    @Override
+    public List<ProductProfit> getProductProfits() {
+        return delegate.getProductProfits();
+    }
+}
@@ -0,0 +1,397 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.Store;
+import org.service.StoreService;
+import org.util.Threads;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hot standby fed by a {@link JournalShipper}. The follower keeps its own copy of the store,
+ * applies journal records in order as they arrive, and reconnects from the last applied
+ * record whenever the connection drops.
+ * <p>
+ * The standby must not be written to while replicating; {@link #promote()} stops replication
+ * and hands it over as a regular store, with receipt numbers continuing after the last
+ * replicated sale.
+ * <p>
+ * A record the primary accepted but the standby rejects means the two stores have drifted
+ * apart. The follower then stops replicating at that record, without applying it or anything
+ * after it, and reports itself diverged; the standby is no longer a faithful copy.
+ */
+public class ReplicationFollower implements AutoCloseable {
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private final int port;
+    private final ProductServiceImpl productService;
+    private final CashierServiceImpl cashierService;
+    private final ReceiptServiceImpl receiptService;
+    private final StoreServiceImpl standby;
+    // Units sold on the primary before a restock that was journaled after the sale; only
+    // touched by the replication thread
+    private final Map<Integer, Integer> stockDeficits = new HashMap<>();
+    private final Thread replicator;
+
+    private final Object progress = new Object();
+    private long appliedPosition;
+    private long appliedSequence;
+    private long appliedTimeMillis;
+    private long primarySequence;
+    private long primaryTimeMillis;
+
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile RuntimeException divergence;
+    private volatile Socket socket;
+
+    /**
+     * Start following a primary
+     * @param store The store being replicated
+     * @param config The standby's configuration; receipts are persisted to its output directory
+     * @param port The loopback port of the primary's journal shipper
+     */
+    public ReplicationFollower(Store store, StoreConfig config, int port) {
+        this.port = port;
+        this.productService = new ProductServiceImpl(store.getExpirationThreshold(), store.getExpirationDiscount());
+        this.cashierService = new CashierServiceImpl();
+        this.receiptService = new ReceiptServiceImpl(config);
+        PricingServiceImpl pricingService = new PricingServiceImpl(productService,
+                store.getExpirationThreshold(), store.getExpirationDiscount());
+        this.standby = new StoreServiceImpl(store, config, productService, cashierService,
+                receiptService, pricingService);
+        this.replicator = Threads.platformThreadFactory("replication-follower").newThread(this::replicate);
+        replicator.start();
+    }
+
+    /**
+     * @return The sequence number of the last applied journal record
+     */
+    public long getAppliedSequence() {
+        synchronized (progress) {
+            return appliedSequence;
+        }
+    }
+
+    /**
+     * @return The primary's last sequence number, as of its latest heartbeat
+     */
+    public long getPrimarySequence() {
+        synchronized (progress) {
+            return primarySequence;
+        }
+    }
+
+    /**
+     * @return How many journal records the standby is behind the primary
+     */
+    public long getLagEntries() {
+        synchronized (progress) {
+            return Math.max(0, primarySequence - appliedSequence);
+        }
+    }
+
+    /**
+     * @return How far behind the primary's clock the last applied record is, or 0 when caught up
+     */
+    public long getLagMillis() {
+        synchronized (progress) {
+            if (appliedSequence >= primarySequence) {
+                return 0;
+            }
+            return Math.max(0, primaryTimeMillis - appliedTimeMillis);
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return Whether replication stopped because the standby rejected a journal record
+     */
+    public boolean isDiverged() {
+        return divergence != null;
+    }
+
+    /**
+     * @return Why the standby rejected a journal record, or null if it has not diverged
+     */
+    public RuntimeException getDivergence() {
+        return divergence;
+    }
+
+    /**
+     * Wait until a journal record has been applied
+     * @param sequence The sequence number to wait for
+     * @param timeoutMillis How long to wait at most
+     * @return Whether the record was applied in time; false as soon as replication diverges
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            long remaining = timeoutMillis;
+            while (appliedSequence < sequence && divergence == null && remaining > 0) {
+                progress.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return appliedSequence >= sequence;
+        }
+    }
+
+    /**
+     * The standby store, for reads while replicating
+     */
+    public StoreService getStoreService() {
+        return standby;
+    }
+
+    /**
+     * Stop replicating and take over as primary
+     * @return The standby store, ready for writes
+     * @throws InterruptedException if interrupted while the replication thread stops
+     */
+    public StoreService promote() throws InterruptedException {
+        stop();
+        return standby;
+    }
+
+    @Override
+    public void close() {
+        try {
+            stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stop() throws InterruptedException {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close the replication connection: " + e.getMessage());
+            }
+        }
+        replicator.interrupt();
+        replicator.join();
+    }
+
+    private void replicate() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try (Socket connection = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket = connection;
+                if (!running) {
+                    break;
+                }
+                connection.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                out.writeLong(getAppliedPosition());
+                out.flush();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                connected = true;
+                backoff = MIN_BACKOFF_MILLIS;
+                while (running) {
+                    receive(in);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Replication connection lost: " + e.getMessage());
+                }
+            } finally {
+                connected = false;
+                socket = null;
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private void receive(DataInputStream in) throws IOException {
+        byte frame = in.readByte();
+        if (frame == JournalShipper.FRAME_HEARTBEAT) {
+            long sequence = in.readLong();
+            long timeMillis = in.readLong();
+            synchronized (progress) {
+                primarySequence = Math.max(primarySequence, sequence);
+                primaryTimeMillis = timeMillis;
+            }
+        } else if (frame == JournalShipper.FRAME_RECORD) {
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            if (!SalesJournal.checksumMatches(record)) {
+                throw new IOException("Received a corrupt journal record");
+            }
+            apply(record);
+        } else {
+            throw new IOException("Unknown replication frame " + frame);
+        }
+    }
+
+    private long getAppliedPosition() {
+        synchronized (progress) {
+            return appliedPosition;
+        }
+    }
+
+    private void apply(byte[] record) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(record, SalesJournal.HEADER_BYTES, SalesJournal.BODY_PREFIX_BYTES);
+        long sequence = header.getLong();
+        long timeMillis = header.getLong();
+        byte type = header.get();
+        int payloadOffset = SalesJournal.HEADER_BYTES + SalesJournal.BODY_PREFIX_BYTES;
+        DataInputStream payload = new DataInputStream(
+                new ByteArrayInputStream(record, payloadOffset, record.length - payloadOffset));
+        try {
+            applyPayload(type, payload);
+        } catch (RuntimeException e) {
+            // The primary accepted this change, so a rejection here means the standby has
+            // drifted; applying later records on top of it would only compound the damage
+            System.err.println("Replication diverged at journal record " + sequence + ": " + e.getMessage());
+            running = false;
+            synchronized (progress) {
+                divergence = e;
+                progress.notifyAll();
+            }
+            return;
+        }
+        synchronized (progress) {
+            appliedPosition += record.length;
+            appliedSequence = sequence;
+            appliedTimeMillis = timeMillis;
+            primarySequence = Math.max(primarySequence, sequence);
+            progress.notifyAll();
+        }
+    }
+
+    private void applyPayload(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case SalesJournal.PRODUCT_ADDED: {
+                int id = in.readInt();
+                String name = in.readUTF();
+                double deliveryPrice = in.readDouble();
+                ProductCategory category = ProductCategory.valueOf(in.readUTF());
+                LocalDate expirationDate = readDate(in);
+                standby.addProduct(new Product(id, name, deliveryPrice, category, expirationDate, in.readInt()));
+                break;
+            }
+            case SalesJournal.RESTOCKED: {
+                int productId = in.readInt();
+                int quantity = in.readInt();
+                double unitCost = in.readDouble();
+                standby.restock(productId, quantity, unitCost, readDate(in));
+                settleDeficit(productId);
+                break;
+            }
+            case SalesJournal.CASHIER_ADDED:
+                standby.addCashier(new Cashier(in.readInt(), in.readUTF(), in.readDouble()));
+                break;
+            case SalesJournal.REGISTER_ASSIGNED: {
+                Cashier cashier = cashierService.getCashier(in.readInt());
+                standby.assignCashierToRegister(cashier, in.readInt());
+                break;
+            }
+            case SalesJournal.REGISTER_RELEASED:
+                standby.releaseRegister(in.readInt());
+                break;
+            case SalesJournal.REGISTER_HANDED_OVER: {
+                int registerNumber = in.readInt();
+                Cashier outgoing = cashierService.getCashier(in.readInt());
+                Cashier incoming = cashierService.getCashier(in.readInt());
+                standby.handOverRegister(registerNumber, outgoing, incoming);
+                break;
+            }
+            case SalesJournal.SALE:
+                applySale(in);
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private void applySale(DataInputStream in) throws IOException {
+        int receiptNumber = in.readInt();
+        int cashierId = in.readInt();
+        int registerNumber = in.readInt();
+        LocalDateTime date = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        double totalAmount = in.readDouble();
+        int lines = in.readInt();
+        Product[] products = new Product[lines];
+        int[] quantities = new int[lines];
+        double[] unitPrices = new double[lines];
+        double[] unitCosts = new double[lines];
+        for (int line = 0; line < lines; line++) {
+            int productId = in.readInt();
+            products[line] = productService.getProduct(productId);
+            if (products[line] == null) {
+                throw new IllegalStateException("Sale of unknown product " + productId);
+            }
+            quantities[line] = in.readInt();
+            unitPrices[line] = in.readDouble();
+            unitCosts[line] = in.readDouble();
+        }
+        for (int line = 0; line < lines; line++) {
+            takeStock(products[line], quantities[line]);
+        }
+        Cashier cashier = cashierId >= 0 ? cashierService.getCashier(cashierId) : null;
+        receiptService.importReceipt(new Receipt(receiptNumber, cashier, registerNumber, date,
+                products, quantities, unitPrices, unitCosts, totalAmount));
+    }
+
+    // A sale can reach the journal before the restock it sold from, so a shortfall is owed
+    // to the next restock rather than rejected
+    private void takeStock(Product product, int quantity) {
+        if (productService.decreaseProductQuantity(product.getId(), quantity)) {
+            return;
+        }
+        int available = product.getQuantity();
+        productService.updateProductQuantity(product.getId(), 0);
+        stockDeficits.merge(product.getId(), quantity - available, Integer::sum);
+    }
+
+    private void settleDeficit(int productId) {
+        Integer deficit = stockDeficits.remove(productId);
+        if (deficit == null) {
+            return;
+        }
+        int settled = Math.min(deficit, productService.getProduct(productId).getQuantity());
+        productService.decreaseProductQuantity(productId, settled);
+        if (settled < deficit) {
+            stockDeficits.put(productId, deficit - settled);
+        }
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
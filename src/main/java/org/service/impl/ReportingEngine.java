@@ -0,0 +1,248 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.SalesReport;
+import org.service.ReceiptPersistenceService;
+import org.util.Threads;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Builds sales reports over the receipt history.
+ * <p>
+ * The history is split into partitions of receipts; every partition is folded into a partial
+ * report and the partials are merged. Receipts already in memory are folded with fork/join,
+ * merging pairwise as the tasks join. Reading persisted receipts blocks on file I/O, so those
+ * partitions run on a worker executor instead, where blocking costs a virtual thread rather than
+ * a fork/join worker shared with the rest of the JVM. Each worker deserializes one receipt at a time and drops it after folding, so only the partial
+ * reports, never the whole history, are held in memory.
+ */
+public class ReportingEngine {
+    private static final int PARTITION_SIZE = 256;
+    // Pool size for reading receipts when the runtime has no virtual threads
+    private static final int IO_THREADS = 8;
+
+    private final StoreConfig config;
+    private final ReceiptPersistenceService persistenceService;
+    private final ForkJoinPool pool;
+    // Null when every storage report creates, and shuts down, its own worker executor
+    private final Executor ioExecutor;
+
+    public ReportingEngine(StoreConfig config) {
+        this(config, new ReceiptPersistenceServiceImpl(config), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param config The store configuration
+     * @param persistenceService Reads persisted receipts
+     * @param pool Folds receipts that are already in memory; it never blocks
+     */
+    public ReportingEngine(StoreConfig config, ReceiptPersistenceService persistenceService, ForkJoinPool pool) {
+        this(config, persistenceService, pool, null);
+    }
+
+    /**
+     * @param config The store configuration
+     * @param persistenceService Reads persisted receipts
+     * @param pool Folds receipts that are already in memory; it never blocks
+     * @param ioExecutor Reads and folds persisted receipts, or null to use a worker executor per report
+     */
+    public ReportingEngine(StoreConfig config, ReceiptPersistenceService persistenceService, ForkJoinPool pool,
+            Executor ioExecutor) {
+        this.config = config;
+        this.persistenceService = persistenceService;
+        this.pool = pool;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Report over all receipts persisted in the receipt output directory
+     * @param from The first day to include, or null for no lower bound
+     * @param to The last day to include, or null for no upper bound
+     * @return The report
+     * @throws IOException if the receipt directory can't be listed
+     */
+    public SalesReport reportFromStorage(LocalDate from, LocalDate to) throws IOException {
+        List<Path> files = listReceiptFiles();
+        IntFunction<Receipt> source = index -> readReceipt(files.get(index));
+        ExecutorService owned = ioExecutor == null ? Threads.newWorkerExecutor("report-io", IO_THREADS) : null;
+        Executor executor = owned != null ? owned : ioExecutor;
+        try {
+            List<CompletableFuture<PartialReport>> partitions = new ArrayList<>();
+            for (int start = 0; start < files.size(); start += PARTITION_SIZE) {
+                int first = start;
+                int end = Math.min(files.size(), start + PARTITION_SIZE);
+                partitions.add(CompletableFuture.supplyAsync(() -> fold(source, first, end, from, to), executor));
+            }
+            PartialReport total = new PartialReport();
+            for (CompletableFuture<PartialReport> partition : partitions) {
+                total.merge(partition.join());
+            }
+            return total.toReport();
+        } finally {
+            if (owned != null) {
+                owned.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Report over receipts that are already in memory, e.g. from {@code getAllReceipts()}
+     * @param receipts The receipts
+     * @param from The first day to include, or null for no lower bound
+     * @param to The last day to include, or null for no upper bound
+     * @return The report
+     */
+    public SalesReport report(List<Receipt> receipts, LocalDate from, LocalDate to) {
+        return pool.invoke(new ReportTask(receipts::get, 0, receipts.size(), from, to)).toReport();
+    }
+
+    private List<Path> listReceiptFiles() throws IOException {
+        Path dir = Paths.get(config.getReceiptOutputDir());
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "receipt_*.ser")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    // Returns null for a receipt that can't be read, which the partition counts as skipped. Every
+    // file in the listing exists, so a failed read is not retried: a corrupt file, or one written
+    // by an incompatible version of Receipt, won't read any better a second later.
+    private Receipt readReceipt(Path file) {
+        try {
+            return persistenceService.readReceiptFromFile(file.toString());
+        } catch (InvalidClassException e) {
+            System.err.println("Skipping receipt " + file + " from an incompatible version: " + e.getMessage());
+            return null;
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Skipping unreadable receipt " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private static final class ReportTask extends RecursiveTask<PartialReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final IntFunction<Receipt> source;
+        private final int start;
+        private final int end;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private ReportTask(IntFunction<Receipt> source, int start, int end, LocalDate from, LocalDate to) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PartialReport compute() {
+            if (end - start <= PARTITION_SIZE) {
+                return fold(source, start, end, from, to);
+            }
+            int middle = (start + end) >>> 1;
+            ReportTask left = new ReportTask(source, start, middle, from, to);
+            left.fork();
+            PartialReport right = new ReportTask(source, middle, end, from, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static PartialReport fold(IntFunction<Receipt> source, int start, int end, LocalDate from,
+            LocalDate to) {
+        PartialReport partial = new PartialReport();
+        for (int i = start; i < end; i++) {
+            Receipt receipt = source.apply(i);
+            if (receipt == null) {
+                partial.skipped++;
+            } else if (inRange(receipt.getDate().toLocalDate(), from, to)) {
+                partial.add(receipt);
+            }
+        }
+        return partial;
+    }
+
+    private static boolean inRange(LocalDate day, LocalDate from, LocalDate to) {
+        return (from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to));
+    }
+
+    /**
+     * Mutable aggregate of one partition, owned by a single task until it is merged
+     */
+    private static final class PartialReport {
+        private long receipts;
+        private long items;
+        private double revenue;
+        private long skipped;
+        private final Map<ProductCategory, Double> byCategory = new EnumMap<>(ProductCategory.class);
+        private final Map<LocalDate, Double> byDay = new HashMap<>();
+        private final Map<Integer, Double> byCashier = new HashMap<>();
+        private final Map<Integer, Double> marginByProduct = new HashMap<>();
+
+        private void add(Receipt receipt) {
+            receipts++;
+            revenue += receipt.getTotalAmount();
+            byDay.merge(receipt.getDate().toLocalDate(), receipt.getTotalAmount(), Double::sum);
+            Cashier cashier = receipt.getCashier();
+            if (cashier != null) {
+                byCashier.merge(cashier.getId(), receipt.getTotalAmount(), Double::sum);
+            }
+            for (int line = 0; line < receipt.getLineCount(); line++) {
+                Product product = receipt.getProduct(line);
+                int quantity = receipt.getQuantity(line);
+                double lineRevenue = receipt.getUnitPrice(line) * quantity;
+                items += quantity;
+                byCategory.merge(product.getCategory(), lineRevenue, Double::sum);
+                marginByProduct.merge(product.getId(), lineRevenue - receipt.getUnitCost(line) * quantity,
+                        Double::sum);
+            }
+        }
+
+        private PartialReport merge(PartialReport other) {
+            receipts += other.receipts;
+            items += other.items;
+            revenue += other.revenue;
+            skipped += other.skipped;
+            other.byCategory.forEach((key, value) -> byCategory.merge(key, value, Double::sum));
+            other.byDay.forEach((key, value) -> byDay.merge(key, value, Double::sum));
+            other.byCashier.forEach((key, value) -> byCashier.merge(key, value, Double::sum));
+            other.marginByProduct.forEach((key, value) -> marginByProduct.merge(key, value, Double::sum));
+            return this;
+        }
+
+        private SalesReport toReport() {
+            return new SalesReport(receipts, items, revenue, byCategory, new TreeMap<>(byDay), byCashier,
+                    marginByProduct, skipped);
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package org.service.impl;
+
+import org.data.Basket;
+import org.data.Cashier;
+import org.data.Delivery;
+import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Receipt;
+import org.data.SaleOutcome;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.data.Store;
+import org.exception.InsufficientQuantityException;
+import org.exception.ReceiptPersistenceException;
+import org.exception.StoreClosedException;
+import org.service.CheckoutSession;
+import org.service.SalesStatistics;
+import org.service.StoreService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Store service that can be retired, e.g. when its store is closed. Once {@link #retire()}
+ * returns no sale is running and every further sale fails with {@link StoreClosedException},
+ * so the store issues no receipt numbers after it has been handed back.
+ * <p>
+ * Checkouts are handed out wrapped: finishing one is a sale and passes the same gate, and the
+ * wrapper serializes the terminal's calls with the cancellation by {@link #retire()}, since a
+ * session itself is not thread-safe. All other operations are passed straight to the wrapped store.
+ */
+public class RetiringStoreService implements StoreService {
+    private final StoreService delegate;
+    private final String storeId;
+    // Sales hold the read lock while they run; retiring takes the write lock to wait them out
+    private final ReadWriteLock gate = new ReentrantReadWriteLock();
+    private volatile boolean retired;
+    private final Map<Integer, GatedCheckout> checkouts = new ConcurrentHashMap<>();
+
+    public RetiringStoreService(StoreService delegate, String storeId) {
+        this.delegate = delegate;
+        this.storeId = storeId;
+    }
+
+    /**
+     * Reject all further sales and wait for the running ones, checkouts being finished or
+     * cancelled included, to end. Open checkouts are then cancelled. Calling it again has no effect.
+     */
+    public void retire() {
+        gate.writeLock().lock();
+        try {
+            retired = true;
+        } finally {
+            gate.writeLock().unlock();
+        }
+        for (GatedCheckout checkout : checkouts.values()) {
+            checkout.cancel();
+        }
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    private boolean enter() {
+        gate.readLock().lock();
+        if (retired) {
+            gate.readLock().unlock();
+            return false;
+        }
+        return true;
+    }
+
+    private void admit() {
+        if (!enter()) {
+            throw new StoreClosedException(storeId);
+        }
+    }
+
+    private void leave() {
+        gate.readLock().unlock();
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Map<Integer, Integer> purchase) throws InsufficientQuantityException {
+        admit();
+        try {
+            return delegate.createSale(registerNumber, purchase);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public Receipt createSale(String idempotencyKey, int registerNumber, Map<Integer, Integer> purchase)
+            throws InsufficientQuantityException {
+        admit();
+        try {
+            return delegate.createSale(idempotencyKey, registerNumber, purchase);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, int[] productIds, int[] quantities, int count)
+            throws InsufficientQuantityException {
+        admit();
+        try {
+            return delegate.createSale(registerNumber, productIds, quantities, count);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Basket basket) throws InsufficientQuantityException {
+        admit();
+        try {
+            return delegate.createSale(registerNumber, basket);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Map<Integer, Integer> purchase) {
+        if (!enter()) {
+            return SaleResult.rejected(SaleOutcome.STORE_CLOSED);
+        }
+        try {
+            return delegate.trySale(registerNumber, purchase);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Basket basket) {
+        if (!enter()) {
+            return SaleResult.rejected(SaleOutcome.STORE_CLOSED);
+        }
+        try {
+            return delegate.trySale(registerNumber, basket);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public List<SaleResult> createSales(List<SaleRequest> requests) {
+        admit();
+        try {
+            return delegate.createSales(requests);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public Store getStore() {
+        return delegate.getStore();
+    }
+
+    @Override
+    public Receipt getReceipt(int receiptNumber) {
+        return delegate.getReceipt(receiptNumber);
+    }
+
+    @Override
+    public Receipt loadReceiptFromFile(int receiptNumber) throws IOException, ClassNotFoundException, ReceiptPersistenceException {
+        return delegate.loadReceiptFromFile(receiptNumber);
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        delegate.addProduct(product);
+    }
+
+    @Override
+    public List<Product> getDeliveredProducts() {
+        return delegate.getDeliveredProducts();
+    }
+
+    @Override
+    public Product getProduct(int productId) {
+        return delegate.getProduct(productId);
+    }
+
+    @Override
+    public int restock(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        return delegate.restock(productId, quantity, unitCost, expirationDate);
+    }
+
+    @Override
+    public void restock(List<Delivery> deliveries) {
+        delegate.restock(deliveries);
+    }
+
+    @Override
+    public void addCashier(Cashier cashier) {
+        delegate.addCashier(cashier);
+    }
+
+    @Override
+    public List<Cashier> getCashiers() {
+        return delegate.getCashiers();
+    }
+
+    @Override
+    public void assignCashierToRegister(Cashier cashier, int registerNumber) {
+        delegate.assignCashierToRegister(cashier, registerNumber);
+    }
+
+    @Override
+    public Cashier getCashierAtRegister(int registerNumber) {
+        return delegate.getCashierAtRegister(registerNumber);
+    }
+
+    @Override
+    public Cashier releaseRegister(int registerNumber) {
+        return delegate.releaseRegister(registerNumber);
+    }
+
+    @Override
+    public void handOverRegister(int registerNumber, Cashier outgoing, Cashier incoming) {
+        delegate.handOverRegister(registerNumber, outgoing, incoming);
+    }
+
+    @Override
+    public boolean isRegisterAssigned(int registerNumber) {
+        return delegate.isRegisterAssigned(registerNumber);
+    }
+
+    @Override
+    public int[] getAssignedRegisters() {
+        return delegate.getAssignedRegisters();
+    }
+
+    @Override
+    public CheckoutSession openCheckout(int registerNumber) {
+        admit();
+        try {
+            GatedCheckout checkout = new GatedCheckout(delegate.openCheckout(registerNumber));
+            checkouts.put(registerNumber, checkout);
+            return checkout;
+        } finally {
+            leave();
+        }
+    }
+
+    @Override
+    public CheckoutSession getOpenCheckout(int registerNumber) {
+        GatedCheckout checkout = checkouts.get(registerNumber);
+        return checkout != null && checkout.isOpen() ? checkout : null;
+    }
+
+    /**
+     * Checkout whose calls are serialized, so that {@link #retire()} can cancel it from another
+     * thread, and whose finish and cancel are waited out by {@link #retire()}
+     */
+    private final class GatedCheckout implements CheckoutSession {
+        private final CheckoutSession session;
+
+        private GatedCheckout(CheckoutSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public int getRegisterNumber() {
+            return session.getRegisterNumber();
+        }
+
+        @Override
+        public synchronized int scan(int productId, int quantity) {
+            return session.scan(productId, quantity);
+        }
+
+        @Override
+        public synchronized void voidLine(int line) {
+            session.voidLine(line);
+        }
+
+        @Override
+        public synchronized double total() {
+            return session.total();
+        }
+
+        @Override
+        public synchronized int getLineCount() {
+            return session.getLineCount();
+        }
+
+        @Override
+        public synchronized Receipt finish() {
+            admit();
+            try {
+                Receipt receipt = session.finish();
+                checkouts.remove(getRegisterNumber(), this);
+                return receipt;
+            } finally {
+                leave();
+            }
+        }
+
+        // Cancelling is allowed after retiring, which cancels every open checkout itself
+        @Override
+        public synchronized void cancel() {
+            gate.readLock().lock();
+            try {
+                session.cancel();
+                checkouts.remove(getRegisterNumber(), this);
+            } finally {
+                gate.readLock().unlock();
+            }
+        }
+
+        @Override
+        public synchronized boolean isOpen() {
+            return session.isOpen();
+        }
+    }
+
+    @Override
+    public double quoteSellingPrices(int[] productIds, int[] quantities, double[] unitPrices) {
+        return delegate.quoteSellingPrices(productIds, quantities, unitPrices);
+    }
+
+    @Override
+    public int getTotalReceipts() {
+        return delegate.getTotalReceipts();
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        return delegate.getTotalRevenue();
+    }
+
+    @Override
+    public double getSalaryExpenses() {
+        return delegate.getSalaryExpenses();
+    }
+
+    @Override
+    public double getDeliveryExpenses() {
+        return delegate.getDeliveryExpenses();
+    }
+
+    @Override
+    public double getIncome() {
+        return delegate.getIncome();
+    }
+
+    @Override
+    public double getProfit() {
+        return delegate.getProfit();
+    }
+
+    @Override
+    public SalesStatistics getSalesStatistics() {
+        return delegate.getSalesStatistics();
+    }
+
+    @Override
+    public ProductProfit getProductProfit(int productId) {
+        return delegate.getProductProfit(productId);
+    }
+
+    @Override
+    public List<ProductProfit> getProductProfits() {
+        return delegate.getProductProfits();
+    }
+}
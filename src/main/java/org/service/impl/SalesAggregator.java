@@ -0,0 +1,108 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.ProductRank;
+import org.data.Receipt;
+import org.data.SalesCounters;
+import org.data.SalesTotals;
+import org.service.ReceiptListener;
+import org.service.SalesStatistics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps per-store, per-cashier and per-register sales counters, time rollups and best-seller
+ * sketches up to date from the receipt stream
+ */
+public class SalesAggregator implements SalesStatistics, ReceiptListener {
+    private final LongSupplier clock;
+    private final SalesCounters storeSales;
+    private final Map<Integer, SalesCounters> cashierSales = new ConcurrentHashMap<>();
+    private final Map<Integer, SalesCounters> registerSales = new ConcurrentHashMap<>();
+    private final ZoneId zone;
+    private final SalesRollup rollup;
+    private final BestSellerTracker bestSellers;
+
+    public SalesAggregator() {
+        this(new StoreConfig());
+    }
+
+    public SalesAggregator(StoreConfig config) {
+        this(System::currentTimeMillis, ZoneId.systemDefault(), new BestSellerTracker(
+                config.getTopProductsCapacity(), config.getSketchEpsilon(), config.getSketchDelta()));
+    }
+
+    /**
+     * @param clock The source of the current time in milliseconds
+     * @param zone The time zone whose midnight starts the daily rollups
+     * @param bestSellers The best-seller tracker to feed
+     */
+    public SalesAggregator(LongSupplier clock, ZoneId zone, BestSellerTracker bestSellers) {
+        this.clock = clock;
+        this.zone = zone;
+        this.bestSellers = bestSellers;
+        this.storeSales = new SalesCounters(clock);
+        this.rollup = new SalesRollup(zone);
+    }
+
+    @Override
+    public void onReceiptCreated(Receipt receipt) {
+        int items = receipt.getItemCount();
+        double amount = receipt.getTotalAmount();
+        storeSales.record(items, amount);
+        rollup.record(clock.getAsLong(), items, amount);
+        bestSellers.onReceiptCreated(receipt);
+        Cashier cashier = receipt.getCashier();
+        if (cashier != null) {
+            cashierSales.computeIfAbsent(cashier.getId(), id -> new SalesCounters(clock)).record(items, amount);
+        }
+        registerSales.computeIfAbsent(receipt.getRegisterNumber(), register -> new SalesCounters(clock))
+                .record(items, amount);
+    }
+
+    @Override
+    public SalesCounters getStoreSales() {
+        return storeSales;
+    }
+
+    @Override
+    public SalesCounters getCashierSales(int cashierId) {
+        return cashierSales.get(cashierId);
+    }
+
+    @Override
+    public SalesCounters getRegisterSales(int registerNumber) {
+        return registerSales.get(registerNumber);
+    }
+
+    @Override
+    public SalesTotals getSalesBetween(LocalDateTime from, LocalDateTime to) {
+        return rollup.getTotals(from.atZone(zone).toInstant().toEpochMilli(),
+                to.atZone(zone).toInstant().toEpochMilli(), clock.getAsLong());
+    }
+
+    @Override
+    public List<ProductRank> getTopProductsByUnits(int k) {
+        return bestSellers.getSummary().getTopByUnits(k);
+    }
+
+    @Override
+    public List<ProductRank> getTopProductsByRevenue(int k) {
+        return bestSellers.getSummary().getTopByRevenue(k);
+    }
+
+    @Override
+    public long estimateUnitsSold(int productId) {
+        return bestSellers.estimateUnits(productId);
+    }
+
+    public BestSellerTracker getBestSellerTracker() {
+        return bestSellers;
+    }
+}
@@ -0,0 +1,259 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.service.impl.ColumnarSalesFormat.ByteSink;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Exports a day of receipt lines from the {@link SalesFactStore} into a compact columnar file
+ * that {@link ColumnarSalesReader} can scan column by column. See {@link ColumnarSalesFormat}
+ * for the layout.
+ */
+public class SalesExporter {
+    private final StoreConfig config;
+    private final SalesFactStore facts;
+    private final ZoneId zone;
+
+    public SalesExporter(StoreConfig config, SalesFactStore facts) {
+        this(config, facts, ZoneId.systemDefault());
+    }
+
+    public SalesExporter(StoreConfig config, SalesFactStore facts, ZoneId zone) {
+        this.config = config;
+        this.facts = facts;
+        this.zone = zone;
+    }
+
+    /**
+     * Export a day into {@code sales_<day>.col} in the receipt output directory
+     * @param day The day to export
+     * @return The written file
+     * @throws IOException if the file can't be written
+     */
+    public Path exportDay(LocalDate day) throws IOException {
+        Path dir = Paths.get(config.getReceiptOutputDir());
+        Files.createDirectories(dir);
+        Path file = dir.resolve("sales_" + day + ".col");
+        export(day, file);
+        return file;
+    }
+
+    /**
+     * Export a day into a file. The file is written next to its target and moved into place,
+     * so readers never see a partial export.
+     * @param day The day to export
+     * @param file The file to write
+     * @return The number of lines exported
+     * @throws IOException if the file can't be written
+     */
+    public int export(LocalDate day, Path file) throws IOException {
+        long from = day.atStartOfDay(zone).toInstant().toEpochMilli();
+        long to = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        // Pin the rows to export, since the last chunk may keep growing while we write
+        List<SalesFactStore.Chunk> chunks = facts.chunks();
+        int[] sizes = new int[chunks.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = chunks.get(i).size;
+        }
+
+        int rowCount = 0;
+        int[] productIds = new int[64];
+        int[] cashierIds = new int[64];
+        for (int i = 0; i < sizes.length; i++) {
+            SalesFactStore.Chunk chunk = chunks.get(i);
+            for (int row = 0; row < sizes[i]; row++) {
+                if (chunk.timestamps[row] >= from && chunk.timestamps[row] < to) {
+                    if (rowCount == productIds.length) {
+                        productIds = Arrays.copyOf(productIds, rowCount * 2);
+                        cashierIds = Arrays.copyOf(cashierIds, rowCount * 2);
+                    }
+                    productIds[rowCount] = chunk.products[row];
+                    cashierIds[rowCount] = chunk.cashiers[row];
+                    rowCount++;
+                }
+            }
+        }
+        int[] productDictionary = distinctSorted(productIds, rowCount);
+        int[] cashierDictionary = distinctSorted(cashierIds, rowCount);
+        int blockCount = (rowCount + ColumnarSalesFormat.BLOCK_ROWS - 1) / ColumnarSalesFormat.BLOCK_ROWS;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(ColumnarSalesFormat.MAGIC);
+            out.writeInt(ColumnarSalesFormat.VERSION);
+            out.writeInt(rowCount);
+            out.writeInt(blockCount);
+            writeDictionary(out, productDictionary);
+            writeDictionary(out, cashierDictionary);
+
+            BlockWriter writer = new BlockWriter(out, productDictionary, cashierDictionary);
+            for (int i = 0; i < sizes.length; i++) {
+                SalesFactStore.Chunk chunk = chunks.get(i);
+                for (int row = 0; row < sizes[i]; row++) {
+                    if (chunk.timestamps[row] >= from && chunk.timestamps[row] < to) {
+                        writer.add(chunk, row);
+                    }
+                }
+            }
+            writer.finish();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rowCount;
+    }
+
+    private static int[] distinctSorted(int[] values, int length) {
+        int[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static void writeDictionary(DataOutputStream out, int[] dictionary) throws IOException {
+        out.writeInt(dictionary.length);
+        for (int id : dictionary) {
+            out.writeInt(id);
+        }
+    }
+
+    /**
+     * Buffers one block of rows, then encodes, compresses and writes it column by column
+     */
+    private static final class BlockWriter {
+        private final DataOutputStream out;
+        private final int[] productDictionary;
+        private final int[] cashierDictionary;
+        private final long[] timestamps = new long[ColumnarSalesFormat.BLOCK_ROWS];
+        private final int[] receiptNumbers = new int[ColumnarSalesFormat.BLOCK_ROWS];
+        private final int[] registers = new int[ColumnarSalesFormat.BLOCK_ROWS];
+        private final int[] cashiers = new int[ColumnarSalesFormat.BLOCK_ROWS];
+        private final int[] products = new int[ColumnarSalesFormat.BLOCK_ROWS];
+        private final int[] quantities = new int[ColumnarSalesFormat.BLOCK_ROWS];
+        private final double[] unitPrices = new double[ColumnarSalesFormat.BLOCK_ROWS];
+        private final ByteSink[] raw = new ByteSink[ColumnarSalesFormat.COLUMN_COUNT];
+        private final byte[][] compressed = new byte[ColumnarSalesFormat.COLUMN_COUNT][];
+        private final int[] compressedLengths = new int[ColumnarSalesFormat.COLUMN_COUNT];
+        private final long[] min = new long[ColumnarSalesFormat.COLUMN_COUNT];
+        private final long[] max = new long[ColumnarSalesFormat.COLUMN_COUNT];
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private int rows;
+
+        BlockWriter(DataOutputStream out, int[] productDictionary, int[] cashierDictionary) {
+            this.out = out;
+            this.productDictionary = productDictionary;
+            this.cashierDictionary = cashierDictionary;
+            for (int column = 0; column < raw.length; column++) {
+                raw[column] = new ByteSink();
+                compressed[column] = new byte[1024];
+            }
+        }
+
+        void add(SalesFactStore.Chunk chunk, int row) throws IOException {
+            timestamps[rows] = chunk.timestamps[row];
+            receiptNumbers[rows] = chunk.receiptNumbers[row];
+            registers[rows] = chunk.registers[row];
+            cashiers[rows] = chunk.cashiers[row];
+            products[rows] = chunk.products[row];
+            quantities[rows] = chunk.quantities[row];
+            unitPrices[rows] = chunk.unitPrices[row];
+            if (++rows == ColumnarSalesFormat.BLOCK_ROWS) {
+                flush();
+            }
+        }
+
+        void finish() throws IOException {
+            try {
+                if (rows > 0) {
+                    flush();
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void flush() throws IOException {
+            for (ByteSink sink : raw) {
+                sink.reset();
+            }
+            Arrays.fill(min, Long.MAX_VALUE);
+            Arrays.fill(max, Long.MIN_VALUE);
+            double minPrice = Double.POSITIVE_INFINITY;
+            double maxPrice = Double.NEGATIVE_INFINITY;
+            long previousTimestamp = 0;
+            long previousReceipt = 0;
+            for (int row = 0; row < rows; row++) {
+                raw[0].writeVarLong(timestamps[row] - previousTimestamp);
+                previousTimestamp = timestamps[row];
+                raw[1].writeVarLong(receiptNumbers[row] - previousReceipt);
+                previousReceipt = receiptNumbers[row];
+                raw[2].writeVarLong(registers[row]);
+                raw[3].writeVarLong(Arrays.binarySearch(cashierDictionary, cashiers[row]));
+                raw[4].writeVarLong(Arrays.binarySearch(productDictionary, products[row]));
+                raw[5].writeVarLong(quantities[row]);
+                raw[6].writeLong(Double.doubleToLongBits(unitPrices[row]));
+
+                track(0, timestamps[row]);
+                track(1, receiptNumbers[row]);
+                track(2, registers[row]);
+                track(3, cashiers[row]);
+                track(4, products[row]);
+                track(5, quantities[row]);
+                minPrice = Math.min(minPrice, unitPrices[row]);
+                maxPrice = Math.max(maxPrice, unitPrices[row]);
+            }
+            min[6] = Double.doubleToLongBits(minPrice);
+            max[6] = Double.doubleToLongBits(maxPrice);
+
+            for (int column = 0; column < raw.length; column++) {
+                compress(column);
+            }
+            out.writeInt(rows);
+            for (int column = 0; column < raw.length; column++) {
+                out.writeLong(min[column]);
+                out.writeLong(max[column]);
+                out.writeInt(raw[column].length());
+                out.writeInt(compressedLengths[column]);
+            }
+            for (int column = 0; column < raw.length; column++) {
+                out.write(compressed[column], 0, compressedLengths[column]);
+            }
+            rows = 0;
+        }
+
+        private void track(int column, long value) {
+            min[column] = Math.min(min[column], value);
+            max[column] = Math.max(max[column], value);
+        }
+
+        private void compress(int column) {
+            deflater.reset();
+            deflater.setInput(raw[column].bytes(), 0, raw[column].length());
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed[column].length) {
+                    compressed[column] = Arrays.copyOf(compressed[column], length * 2);
+                }
+                length += deflater.deflate(compressed[column], length, compressed[column].length - length);
+            }
+            compressedLengths[column] = length;
+        }
+    }
+}
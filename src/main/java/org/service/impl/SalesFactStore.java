@@ -0,0 +1,340 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.data.Receipt;
+import org.service.ReceiptListener;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Columnar, append-only copy of every receipt line for analytic scans.
+ * <p>
+ * Lines are stored one row each in chunks of parallel primitive arrays (timestamp, receipt,
+ * register, cashier, product, quantity and unit price), so an aggregation is a tight loop over
+ * a few arrays instead of a walk through receipts, products and cashiers. Chunks are scanned in
+ * parallel and their partial results combined.
+ * <p>
+ * Appends are serialized; readers never lock. A receipt is never split across chunks: one that
+ * does not fit in the rest of the current chunk starts a new one, sized to the receipt if it has
+ * more lines than a chunk. The chunk then publishes its row count once, after all of the
+ * receipt's rows are written, so scans see whole receipts.
+ */
+public class SalesFactStore implements ReceiptListener {
+    static final int CHUNK_ROWS = 1 << 14;
+    private static final int NO_CASHIER = -1;
+
+    private final List<Chunk> chunks = new CopyOnWriteArrayList<>();
+    private final ZoneId zone;
+    private Chunk current;
+
+    /**
+     * The dimension to group rows by
+     */
+    public enum Column {
+        REGISTER,
+        CASHIER,
+        PRODUCT
+    }
+
+    /**
+     * Row filter; every criterion is optional. Instances are immutable.
+     */
+    public static final class Query {
+        static final int ANY = Integer.MIN_VALUE;
+        private static final Query ALL = new Query(Long.MIN_VALUE, Long.MAX_VALUE, ANY, ANY, ANY);
+
+        private final long fromMillis;
+        private final long toMillis;
+        private final int register;
+        private final int cashier;
+        private final int product;
+
+        private Query(long fromMillis, long toMillis, int register, int cashier, int product) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.register = register;
+            this.cashier = cashier;
+            this.product = product;
+        }
+
+        public static Query all() {
+            return ALL;
+        }
+
+        /**
+         * @param fromMillis The first sale time to include
+         * @param toMillis The sale time to stop at, exclusive
+         */
+        public Query between(long fromMillis, long toMillis) {
+            return new Query(fromMillis, toMillis, register, cashier, product);
+        }
+
+        public Query atRegister(int registerNumber) {
+            return new Query(fromMillis, toMillis, registerNumber, cashier, product);
+        }
+
+        public Query byCashier(int cashierId) {
+            return new Query(fromMillis, toMillis, register, cashierId, product);
+        }
+
+        public Query forProduct(int productId) {
+            return new Query(fromMillis, toMillis, register, cashier, productId);
+        }
+
+        long fromMillis() {
+            return fromMillis;
+        }
+
+        long toMillis() {
+            return toMillis;
+        }
+
+        int register() {
+            return register;
+        }
+
+        int cashier() {
+            return cashier;
+        }
+
+        int product() {
+            return product;
+        }
+
+        private boolean matches(Chunk chunk, int row) {
+            long time = chunk.timestamps[row];
+            return time >= fromMillis && time < toMillis
+                    && (register == ANY || chunk.registers[row] == register)
+                    && (cashier == ANY || chunk.cashiers[row] == cashier)
+                    && (product == ANY || chunk.products[row] == product);
+        }
+    }
+
+    static final class Chunk {
+        final long[] timestamps;
+        final int[] receiptNumbers;
+        final int[] registers;
+        final int[] cashiers;
+        final int[] products;
+        final int[] quantities;
+        final double[] unitPrices;
+        // Written after the rows, so a reader that sees a size also sees those rows
+        volatile int size;
+
+        Chunk(int capacity) {
+            timestamps = new long[capacity];
+            receiptNumbers = new int[capacity];
+            registers = new int[capacity];
+            cashiers = new int[capacity];
+            products = new int[capacity];
+            quantities = new int[capacity];
+            unitPrices = new double[capacity];
+        }
+
+        int capacity() {
+            return timestamps.length;
+        }
+
+        int[] column(Column column) {
+            switch (column) {
+                case REGISTER:
+                    return registers;
+                case CASHIER:
+                    return cashiers;
+                default:
+                    return products;
+            }
+        }
+    }
+
+    public SalesFactStore() {
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * @param zone The time zone used to turn receipt dates into timestamps
+     */
+    public SalesFactStore(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    @Override
+    public void onReceiptCreated(Receipt receipt) {
+        long timestamp = receipt.getDate().atZone(zone).toInstant().toEpochMilli();
+        Cashier cashier = receipt.getCashier();
+        int cashierId = cashier != null ? cashier.getId() : NO_CASHIER;
+        int lines = receipt.getLineCount();
+        if (lines == 0) {
+            return;
+        }
+        synchronized (this) {
+            Chunk chunk = current;
+            int row = chunk == null ? 0 : chunk.size;
+            if (chunk == null || row + lines > chunk.capacity()) {
+                chunk = new Chunk(Math.max(CHUNK_ROWS, lines));
+                chunks.add(chunk);
+                current = chunk;
+                row = 0;
+            }
+            for (int line = 0; line < lines; line++) {
+                chunk.timestamps[row] = timestamp;
+                chunk.receiptNumbers[row] = receipt.getReceiptNumber();
+                chunk.registers[row] = receipt.getRegisterNumber();
+                chunk.cashiers[row] = cashierId;
+                chunk.products[row] = receipt.getProductId(line);
+                chunk.quantities[row] = receipt.getQuantity(line);
+                chunk.unitPrices[row] = receipt.getUnitPrice(line);
+                row++;
+            }
+            chunk.size = row;
+        }
+    }
+
+    // Chunks fill up in order, so only the last one can still grow
+    List<Chunk> chunks() {
+        return List.copyOf(chunks);
+    }
+
+    /**
+     * @return The number of lines stored
+     */
+    public long getRowCount() {
+        long rows = 0;
+        for (Chunk chunk : chunks) {
+            rows += chunk.size;
+        }
+        return rows;
+    }
+
+    public double sumRevenue(Query query) {
+        return chunks.parallelStream().mapToDouble(chunk -> {
+            int size = chunk.size;
+            double sum = 0;
+            for (int row = 0; row < size; row++) {
+                if (query.matches(chunk, row)) {
+                    sum += chunk.unitPrices[row] * chunk.quantities[row];
+                }
+            }
+            return sum;
+        }).sum();
+    }
+
+    public long sumQuantity(Query query) {
+        return chunks.parallelStream().mapToLong(chunk -> {
+            int size = chunk.size;
+            long sum = 0;
+            for (int row = 0; row < size; row++) {
+                if (query.matches(chunk, row)) {
+                    sum += chunk.quantities[row];
+                }
+            }
+            return sum;
+        }).sum();
+    }
+
+    public long countLines(Query query) {
+        return chunks.parallelStream().mapToLong(chunk -> {
+            int size = chunk.size;
+            long count = 0;
+            for (int row = 0; row < size; row++) {
+                if (query.matches(chunk, row)) {
+                    count++;
+                }
+            }
+            return count;
+        }).sum();
+    }
+
+    /**
+     * Sum revenue per value of a column
+     * @param groupBy The column to group by
+     * @param query The rows to include
+     * @return Revenue per register number, cashier ID or product ID
+     */
+    public Map<Integer, Double> revenueBy(Column groupBy, Query query) {
+        return chunks.parallelStream()
+                .map(chunk -> {
+                    int size = chunk.size;
+                    int[] keys = chunk.column(groupBy);
+                    IntDoubleSums sums = new IntDoubleSums();
+                    for (int row = 0; row < size; row++) {
+                        if (query.matches(chunk, row)) {
+                            sums.add(keys[row], chunk.unitPrices[row] * chunk.quantities[row]);
+                        }
+                    }
+                    return sums;
+                })
+                .reduce(IntDoubleSums::merge)
+                .map(IntDoubleSums::toMap)
+                .orElseGet(HashMap::new);
+    }
+
+    /**
+     * Open-addressing int-to-double sums, so grouping does not box a key per row
+     */
+    private static final class IntDoubleSums {
+        private int[] keys = new int[64];
+        private double[] values = new double[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        void add(int key, double value) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    values[slot] = value;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] += value;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        IntDoubleSums merge(IntDoubleSums other) {
+            IntDoubleSums target = size >= other.size ? this : other;
+            IntDoubleSums source = target == this ? other : this;
+            for (int i = 0; i < source.keys.length; i++) {
+                if (source.used[i]) {
+                    target.add(source.keys[i], source.values[i]);
+                }
+            }
+            return target;
+        }
+
+        Map<Integer, Double> toMap() {
+            Map<Integer, Double> map = new HashMap<>(size * 2);
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    map.put(keys[i], values[i]);
+                }
+            }
+            return map;
+        }
+    }
+}
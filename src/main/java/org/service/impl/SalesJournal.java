@@ -0,0 +1,185 @@
+package org.service.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of committed store mutations, shipped to followers by {@link JournalShipper}.
+ * <p>
+ * Every record is {@code [int length][int crc][long sequence][long time][byte type][payload]},
+ * where the length and checksum cover everything after them. Appends go straight to the file, so
+ * a process crash loses nothing that was appended; opening the journal drops a torn record left
+ * by a crash in the middle of an append.
+ */
+public class SalesJournal implements AutoCloseable {
+    static final byte PRODUCT_ADDED = 1;
+    static final byte RESTOCKED = 2;
+    static final byte CASHIER_ADDED = 3;
+    static final byte REGISTER_ASSIGNED = 4;
+    static final byte REGISTER_RELEASED = 5;
+    static final byte REGISTER_HANDED_OVER = 6;
+    static final byte SALE = 7;
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final int BODY_PREFIX_BYTES = 2 * Long.BYTES + 1;
+
+    private final FileChannel channel;
+    // Guarded by this
+    private long length;
+    private long lastSequence;
+
+    private SalesJournal(FileChannel channel, long length, long lastSequence) {
+        this.channel = channel;
+        this.length = length;
+        this.lastSequence = lastSequence;
+    }
+
+    /**
+     * Open a journal, creating it if it does not exist and truncating a torn last record
+     * @param file The journal file
+     * @return The journal, which must be closed
+     * @throws IOException if the file can't be opened or read
+     */
+    public static SalesJournal open(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long position = 0;
+            long lastSequence = 0;
+            long size = channel.size();
+            while (position < size) {
+                byte[] record;
+                try {
+                    record = readRecord(channel, position, size);
+                } catch (IOException e) {
+                    break;
+                }
+                lastSequence = ByteBuffer.wrap(record, HEADER_BYTES, Long.BYTES).getLong();
+                position += record.length;
+            }
+            if (position < size) {
+                channel.truncate(position);
+            }
+            return new SalesJournal(channel, position, lastSequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a record
+     * @param type The record type
+     * @param payload The encoded mutation
+     * @return The record's sequence number
+     * @throws IOException if the record can't be written
+     */
+    public synchronized long append(byte type, byte[] payload) throws IOException {
+        long sequence = lastSequence + 1;
+        int bodyLength = BODY_PREFIX_BYTES + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.putInt(bodyLength).putInt(0)
+                .putLong(sequence).putLong(System.currentTimeMillis()).put(type).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, bodyLength);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record, length + record.position());
+        }
+        length += record.limit();
+        lastSequence = sequence;
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Read the raw record at a position, header included
+     * @param position The position of a record, as reached by adding up record lengths from 0
+     * @return The record
+     * @throws IOException if the record can't be read or fails its checksum
+     */
+    public byte[] read(long position) throws IOException {
+        return readRecord(channel, position, getLength());
+    }
+
+    public synchronized long getLength() {
+        return length;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Wait until the journal grows past a position
+     * @param position The position
+     * @param timeoutMillis The longest time to wait
+     * @return The journal length
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized long awaitLength(long position, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (length <= position && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static byte[] readRecord(FileChannel channel, long position, long limit) throws IOException {
+        if (position + HEADER_BYTES > limit) {
+            throw new EOFException("Truncated journal record at " + position);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header, position);
+        int bodyLength = header.getInt(0);
+        if (bodyLength < BODY_PREFIX_BYTES || position + HEADER_BYTES + bodyLength > limit) {
+            throw new EOFException("Truncated journal record at " + position);
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + bodyLength);
+        record.put(header.array());
+        readFully(channel, record, position + HEADER_BYTES);
+        if (!checksumMatches(record.array())) {
+            throw new IOException("Corrupt journal record at " + position);
+        }
+        return record.array();
+    }
+
+    /**
+     * @param record A raw record, header included
+     * @return true if the record's checksum matches its body
+     */
+    static boolean checksumMatches(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, HEADER_BYTES, record.length - HEADER_BYTES);
+        return ByteBuffer.wrap(record).getInt(Integer.BYTES) == (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Truncated journal");
+            }
+            offset += read;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.service.impl;
+
+import org.data.SalesTotals;
+import org.util.TimeBucketRing;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Sales rolled up into per-minute buckets for the last 24 hours, per-hour buckets for the
+ * last 90 days and per-day buckets for the last ten years.
+ * <p>
+ * Every sale is added to its minute, hour and day bucket as it happens, so the coarser levels
+ * never have to be recomputed. A query walks the range with the coarsest buckets that fit: at
+ * most 82 minute and hour reads at its two ends plus one read per whole day, so a range
+ * spanning the full ten years takes about 3,750 array reads. Range ends that are older than the
+ * finer levels keep are widened to the enclosing hour or day.
+ * <p>
+ * Buckets are kept in local wall-clock time, converting every instant with the offset the
+ * zone has at that instant, so day buckets start at local midnight on both sides of a daylight
+ * saving change. The hour repeated when clocks go back shares its minute and hour buckets.
+ */
+public class SalesRollup {
+    static final long MINUTE_MILLIS = 60_000L;
+    static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    private static final int MINUTE_BUCKETS = 24 * 60;
+    private static final int HOUR_BUCKETS = 90 * 24;
+    private static final int DAY_BUCKETS = 10 * 366;
+
+    private final TimeBucketRing minutes = new TimeBucketRing(MINUTE_BUCKETS);
+    private final TimeBucketRing hours = new TimeBucketRing(HOUR_BUCKETS);
+    private final TimeBucketRing days = new TimeBucketRing(DAY_BUCKETS);
+    private final ZoneRules rules;
+    // Set when the zone never changes its offset, which spares the rules lookup per sale
+    private final long fixedOffsetMillis;
+
+    /**
+     * @param offsetMillis A fixed offset added to epoch time so that day buckets start at local midnight
+     */
+    public SalesRollup(long offsetMillis) {
+        this(ZoneOffset.ofTotalSeconds((int) (offsetMillis / 1000)));
+    }
+
+    /**
+     * @param zone The time zone whose midnight starts the day buckets
+     */
+    public SalesRollup(ZoneId zone) {
+        this.rules = zone.getRules();
+        this.fixedOffsetMillis = rules.isFixedOffset()
+                ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L : Long.MIN_VALUE;
+    }
+
+    private long toLocal(long epochMillis) {
+        if (fixedOffsetMillis != Long.MIN_VALUE) {
+            return epochMillis + fixedOffsetMillis;
+        }
+        return epochMillis + rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000L;
+    }
+
+    /**
+     * Record one sale
+     * @param timeMillis The time of the sale
+     * @param itemCount The number of items sold
+     * @param amount The sale total
+     */
+    public void record(long timeMillis, int itemCount, double amount) {
+        long local = toLocal(timeMillis);
+        minutes.add(Math.floorDiv(local, MINUTE_MILLIS), itemCount, amount);
+        hours.add(Math.floorDiv(local, HOUR_MILLIS), itemCount, amount);
+        days.add(Math.floorDiv(local, DAY_MILLIS), itemCount, amount);
+    }
+
+    /**
+     * Sum the sales in {@code [fromMillis, toMillis)}, widened to bucket boundaries
+     * @param fromMillis The start of the range
+     * @param toMillis The end of the range, exclusive
+     * @param nowMillis The current time, which decides which levels still hold a given bucket
+     * @return The totals over the range
+     */
+    public SalesTotals getTotals(long fromMillis, long toMillis, long nowMillis) {
+        long now = toLocal(nowMillis);
+        // Nothing is kept before the oldest day bucket or after the current minute
+        long start = Math.max(alignDown(toLocal(fromMillis), now),
+                (Math.floorDiv(now, DAY_MILLIS) - DAY_BUCKETS + 1) * DAY_MILLIS);
+        long end = Math.min(alignUp(toLocal(toMillis), now),
+                (Math.floorDiv(now, MINUTE_MILLIS) + 1) * MINUTE_MILLIS);
+
+        long receipts = 0;
+        long items = 0;
+        double revenue = 0;
+        long t = start;
+        while (t < end) {
+            TimeBucketRing ring;
+            long length;
+            if (t % DAY_MILLIS == 0 && t + DAY_MILLIS <= end) {
+                ring = days;
+                length = DAY_MILLIS;
+            } else if (t % HOUR_MILLIS == 0 && t + HOUR_MILLIS <= end) {
+                ring = hours;
+                length = HOUR_MILLIS;
+            } else {
+                ring = minutes;
+                length = MINUTE_MILLIS;
+            }
+            long slice = Math.floorDiv(t, length);
+            receipts += ring.getEvents(slice);
+            items += ring.getItems(slice);
+            revenue += ring.getAmount(slice);
+            t += length;
+        }
+        return new SalesTotals(receipts, items, revenue);
+    }
+
+    private static long alignDown(long time, long now) {
+        long unit = finestRetainedUnit(time, now);
+        return Math.floorDiv(time, unit) * unit;
+    }
+
+    private static long alignUp(long time, long now) {
+        long unit = finestRetainedUnit(time - 1, now);
+        return -Math.floorDiv(-time, unit) * unit;
+    }
+
+    private static long finestRetainedUnit(long time, long now) {
+        if (Math.floorDiv(now, MINUTE_MILLIS) - Math.floorDiv(time, MINUTE_MILLIS) < MINUTE_BUCKETS) {
+            return MINUTE_MILLIS;
+        }
+        if (Math.floorDiv(now, HOUR_MILLIS) - Math.floorDiv(time, HOUR_MILLIS) < HOUR_BUCKETS) {
+            return HOUR_MILLIS;
+        }
+        return DAY_MILLIS;
+    }
+}
@@ -0,0 +1,446 @@
+package org.service.impl;
+
+import org.data.StockSlot;
+import org.exception.InventoryLeaseLostException;
+import org.util.Threads;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock words kept in a memory-mapped file, so several processes on one host can sell from the
+ * same stock. Every update is a compare-and-set on the mapped memory, which the processes share
+ * through the page cache.
+ * <p>
+ * The file is an open-addressing table of 16-byte slots, each holding a product key and the
+ * product's packed stock word. A key is claimed by a CAS from zero to its negated value, the
+ * stock word is written, and the key is then made positive; other processes wait for a
+ * negative key to turn positive. If a process dies between those steps the key stays negative,
+ * and whoever next meets the slot or opens the file completes it after a short wait; the stock
+ * word is a single aligned long, so it holds either zero or the initial stock, never a torn value.
+ * <p>
+ * Every open inventory is an owner with a record in the file: a lease ID and a heartbeat that a
+ * daemon thread renews. Each owner also has a column of held quantities, one per slot, that its
+ * slots update after every compare-and-set that changes a hold. An owner whose heartbeat is
+ * older than the owner timeout is taken as dead: the next process to look releases exactly the
+ * holds in its column and frees the record, while the holds of live owners stay. A process that
+ * dies between a hold and its column update leaks that one hold. An owner that was only paused
+ * and finds its record taken has lost its lease: its holds are gone, so every further stock
+ * update through its slots fails with {@link InventoryLeaseLostException}.
+ * <p>
+ * A new file is built under a temporary name and linked into place, so no process can map a
+ * half-written header. A process crash leaves the mapped writes in the page cache; call
+ * {@link #force()} to write them to disk as well.
+ */
+public class SharedInventory implements AutoCloseable {
+    private static final long MAGIC = 0x53544F434B494E56L;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 16;
+    // Owner records follow the slots: a lease ID and the last heartbeat in epoch millis
+    private static final int OWNER_BYTES = 16;
+    // Held-quantity columns follow the owner records, one int per slot for every owner
+    private static final int HELD_BYTES = 4;
+    static final int MAX_OWNERS = 16;
+    private static final int MAX_CAPACITY = 1 << 24;
+    private static final long CLAIM_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final long DEFAULT_OWNER_TIMEOUT_MS = 10_000;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int ownersOffset;
+    private final int heldOffset;
+    private final long ownerTimeoutMs;
+    private final long lease;
+    // Slots this process has already located
+    private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final int owner;
+    private final ScheduledExecutorService heartbeat;
+    // Only touched by the heartbeat thread once the inventory is open
+    private long lastBeat;
+    // Set once another process took over the owner record
+    private volatile boolean leaseLost;
+
+    private SharedInventory(FileChannel channel, ByteBuffer buffer, int capacity, long ownerTimeoutMs) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.ownersOffset = HEADER_BYTES + capacity * SLOT_BYTES;
+        this.heldOffset = ownersOffset + MAX_OWNERS * OWNER_BYTES;
+        this.ownerTimeoutMs = ownerTimeoutMs;
+        long id = ThreadLocalRandom.current().nextLong();
+        this.lease = id != 0 ? id : 1;
+        this.owner = register();
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Threads.platformThreadFactory("inventory-heartbeat"));
+    }
+
+    /**
+     * Open a shared inventory file, creating it if it does not exist, and complete any slot
+     * left half-claimed by a crashed process
+     * @param file The file
+     * @param capacity The number of products the file can hold if it is created; a power of
+     *                 two. An existing file keeps its own capacity.
+     * @return The inventory, which must be closed
+     * @throws IOException if the file can't be created or mapped, or is not an inventory file
+     */
+    public static SharedInventory open(Path file, int capacity) throws IOException {
+        return open(file, capacity, DEFAULT_OWNER_TIMEOUT_MS);
+    }
+
+    /**
+     * @param ownerTimeoutMs How long an owner may miss its heartbeat before its holds are released
+     */
+    static SharedInventory open(Path file, int capacity, long ownerTimeoutMs) throws IOException {
+        if (!Files.exists(file)) {
+            create(file, capacity);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a shared inventory file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+                throw new IOException("Not a shared inventory file: " + file);
+            }
+            int fileCapacity = buffer.getInt(12);
+            if (Integer.bitCount(fileCapacity) != 1 || fileCapacity > MAX_CAPACITY || fileSize(fileCapacity) != size) {
+                throw new IOException("Corrupt shared inventory file: " + file);
+            }
+            SharedInventory inventory = new SharedInventory(channel, buffer, fileCapacity, ownerTimeoutMs);
+            inventory.recover();
+            long interval = Math.max(1, ownerTimeoutMs / 4);
+            inventory.heartbeat.scheduleWithFixedDelay(inventory::beat, interval, interval, TimeUnit.MILLISECONDS);
+            return inventory;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void create(Path file, int capacity) throws IOException {
+        if (capacity <= 0 || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two up to " + MAX_CAPACITY);
+        }
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+                header.putLong(MAGIC).putInt(VERSION).putInt(capacity).rewind();
+                channel.write(header, 0);
+                // Extend the file; slots and owner records start out zero, i.e. empty
+                channel.write(ByteBuffer.allocate(1), fileSize(capacity) - 1);
+                channel.force(true);
+            }
+            // Unlike a rename, a link fails if another process created the file first
+            Files.createLink(file, temp);
+        } catch (FileAlreadyExistsException e) {
+            // Another process won the race; use its file
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long fileSize(int capacity) {
+        return HEADER_BYTES + (long) capacity * SLOT_BYTES + (long) MAX_OWNERS * OWNER_BYTES
+                + (long) MAX_OWNERS * capacity * HELD_BYTES;
+    }
+
+    /**
+     * Get the shared stock word of a product, claiming a slot for it if it has none yet
+     * @param productId The product ID
+     * @param initialQuantity The on-hand quantity to start from if the slot is new
+     * @return The product's slot
+     * @throws IllegalStateException if every slot is taken
+     */
+    public StockSlot slotFor(int productId, int initialQuantity) {
+        Slot cached = slots.get(productId);
+        if (cached != null) {
+            return cached;
+        }
+        long key = key(productId);
+        int mask = capacity - 1;
+        int index = mix(productId) & mask;
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = HEADER_BYTES + index * SLOT_BYTES;
+            long current = (long) LONGS.getVolatile(buffer, offset);
+            if (current == 0) {
+                if (LONGS.compareAndSet(buffer, offset, 0L, -key)) {
+                    LONGS.setVolatile(buffer, offset + 8, initialQuantity & 0xFFFFFFFFL);
+                    LONGS.setVolatile(buffer, offset, key);
+                    return cache(productId, index);
+                }
+                current = (long) LONGS.getVolatile(buffer, offset);
+            }
+            if (current == -key) {
+                awaitClaim(offset, key);
+                current = key;
+            }
+            if (current == key) {
+                return cache(productId, index);
+            }
+            index = (index + 1) & mask;
+        }
+        throw new IllegalStateException("Shared inventory is full");
+    }
+
+    /**
+     * @param productId The product ID
+     * @return The product's shared on-hand quantity, or -1 if it has no slot
+     */
+    public int getQuantity(int productId) {
+        long key = key(productId);
+        int mask = capacity - 1;
+        int index = mix(productId) & mask;
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = HEADER_BYTES + index * SLOT_BYTES;
+            long current = (long) LONGS.getVolatile(buffer, offset);
+            if (current == 0) {
+                return -1;
+            }
+            if (current == key || current == -key) {
+                return (int) (long) LONGS.getVolatile(buffer, offset + 8);
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Release the holds of every owner whose heartbeat is older than the owner timeout and free
+     * its record. The heartbeat thread does this on every beat, so it only needs calling to
+     * release the holds of a crashed process sooner.
+     * @return The number of owners released
+     */
+    public int releaseStaleHolds() {
+        int released = 0;
+        for (int other = 0; other < MAX_OWNERS; other++) {
+            if (other == owner) {
+                continue;
+            }
+            long beat = (long) LONGS.getVolatile(buffer, ownerOffset(other) + 8);
+            if (isStale(beat, System.currentTimeMillis()) && claim(other, beat)) {
+                releaseHolds(other);
+                LONGS.setVolatile(buffer, ownerOffset(other), 0L);
+                LONGS.setVolatile(buffer, ownerOffset(other) + 8, 0L);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * @return The quantity of a product this inventory holds for its checkouts
+     */
+    int getHeldQuantity(int productId) {
+        Slot slot = slots.get(productId);
+        return slot == null ? 0 : (int) INTS.getVolatile(buffer, heldOffset(owner, slot.index));
+    }
+
+    /**
+     * Write the mapped stock to disk, so it also survives a machine crash
+     */
+    public void force() {
+        ((MappedByteBuffer) buffer).force();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Release this inventory's holds and its owner record, and unmap the file
+     */
+    @Override
+    public void close() throws IOException {
+        heartbeat.shutdownNow();
+        try {
+            heartbeat.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if ((long) LONGS.getVolatile(buffer, ownerOffset(owner)) == lease) {
+            releaseHolds(owner);
+            LONGS.setVolatile(buffer, ownerOffset(owner), 0L);
+            LONGS.setVolatile(buffer, ownerOffset(owner) + 8, 0L);
+        }
+        channel.close();
+    }
+
+    /**
+     * @return Whether another process took over this inventory's owner record after it missed
+     * its heartbeat, releasing its holds
+     */
+    public boolean isLeaseLost() {
+        return leaseLost;
+    }
+
+    // Stop renewing the heartbeat, as if the process had died
+    void stopHeartbeat() {
+        heartbeat.shutdownNow();
+    }
+
+    // Take a free or stale owner record, releasing whatever a dead owner left in its column
+    private int register() {
+        long now = System.currentTimeMillis();
+        for (int candidate = 0; candidate < MAX_OWNERS; candidate++) {
+            long beat = (long) LONGS.getVolatile(buffer, ownerOffset(candidate) + 8);
+            if ((beat == 0 || isStale(beat, now)) && claim(candidate, beat)) {
+                releaseHolds(candidate);
+                LONGS.setVolatile(buffer, ownerOffset(candidate), lease);
+                lastBeat = (long) LONGS.getVolatile(buffer, ownerOffset(candidate) + 8);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("Shared inventory already has " + MAX_OWNERS + " owners");
+    }
+
+    // The heartbeat word is the claim: of the processes that saw the same old beat only one moves it
+    private boolean claim(int candidate, long beat) {
+        return LONGS.compareAndSet(buffer, ownerOffset(candidate) + 8, beat, System.currentTimeMillis());
+    }
+
+    private boolean isStale(long beat, long now) {
+        return beat != 0 && now - beat > ownerTimeoutMs;
+    }
+
+    void beat() {
+        long now = System.currentTimeMillis();
+        if (!LONGS.compareAndSet(buffer, ownerOffset(owner) + 8, lastBeat, now)) {
+            leaseLost = true;
+            System.err.println("Shared inventory owner " + owner + " was taken over after missing its heartbeat");
+            heartbeat.shutdown();
+            return;
+        }
+        lastBeat = now;
+        releaseStaleHolds();
+    }
+
+    private void releaseHolds(int releasedOwner) {
+        for (int index = 0; index < capacity; index++) {
+            int held = (int) INTS.getAndSet(buffer, heldOffset(releasedOwner, index), 0);
+            if (held <= 0) {
+                continue;
+            }
+            int offset = HEADER_BYTES + index * SLOT_BYTES + 8;
+            while (true) {
+                long word = (long) LONGS.getVolatile(buffer, offset);
+                long reserved = Math.max(0, (word >>> 32) - held);
+                if (LONGS.compareAndSet(buffer, offset, word, (reserved << 32) | (word & 0xFFFFFFFFL))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private int ownerOffset(int index) {
+        return ownersOffset + index * OWNER_BYTES;
+    }
+
+    private int heldOffset(int ownerIndex, int slotIndex) {
+        return heldOffset + (ownerIndex * capacity + slotIndex) * HELD_BYTES;
+    }
+
+    private void recover() {
+        for (int index = 0; index < capacity; index++) {
+            int offset = HEADER_BYTES + index * SLOT_BYTES;
+            long current = (long) LONGS.getVolatile(buffer, offset);
+            if (current < 0) {
+                awaitClaim(offset, -current);
+            }
+        }
+    }
+
+    // Wait for a claim in progress; if it is not finished in time its process is taken as dead
+    private void awaitClaim(int offset, long key) {
+        long deadline = System.nanoTime() + CLAIM_TIMEOUT_NANOS;
+        while ((long) LONGS.getVolatile(buffer, offset) == -key) {
+            if (System.nanoTime() - deadline > 0) {
+                LONGS.compareAndSet(buffer, offset, -key, key);
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Slot cache(int productId, int index) {
+        Slot slot = new Slot(index);
+        Slot existing = slots.putIfAbsent(productId, slot);
+        return existing != null ? existing : slot;
+    }
+
+    // Never zero, and positive for every product ID, so the sign can mark a claim in progress
+    private static long key(int productId) {
+        return (productId & 0xFFFFFFFFL) + 1;
+    }
+
+    private static int mix(int productId) {
+        int hash = productId * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Slot implements StockSlot {
+        private final int index;
+        private final int offset;
+
+        Slot(int index) {
+            this.index = index;
+            this.offset = HEADER_BYTES + index * SLOT_BYTES + 8;
+        }
+
+        @Override
+        public long get() {
+            return (long) LONGS.getVolatile(buffer, offset);
+        }
+
+        // Holds live in the high half of the word; record every change to them in this owner's column
+        @Override
+        public boolean compareAndSet(long expected, long value) {
+            checkLease();
+            if (!LONGS.compareAndSet(buffer, offset, expected, value)) {
+                return false;
+            }
+            int held = (int) (value >>> 32) - (int) (expected >>> 32);
+            if (held != 0) {
+                INTS.getAndAdd(buffer, heldOffset(owner, index), held);
+            }
+            return true;
+        }
+
+        @Override
+        public long addAndGet(long delta) {
+            checkLease();
+            return (long) LONGS.getAndAdd(buffer, offset, delta) + delta;
+        }
+
+        // Holds recorded in a column that now belongs to someone else would never be released
+        private void checkLease() {
+            if (leaseLost) {
+                throw new InventoryLeaseLostException(owner);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.service.impl;
+
+import org.data.Product;
+
+/**
+ * Product service whose stock lives in a {@link SharedInventory}, so several processes can sell
+ * from the same stock. Each process keeps its own product catalog; a product's quantities are
+ * shared with every process that adds a product with the same ID. Expiration dates stay local
+ * to each process.
+ */
+public class SharedInventoryProductService extends ProductServiceImpl {
+    private final SharedInventory inventory;
+
+    public SharedInventoryProductService(SharedInventory inventory, int expirationThreshold,
+            double expirationDiscount) {
+        super(expirationThreshold, expirationDiscount);
+        this.inventory = inventory;
+    }
+
+    /**
+     * Add a product, moving its stock into the shared inventory. If another process already
+     * added the product, the shared stock is kept and the product's own quantity is ignored.
+     * @param product The product to add
+     */
+    @Override
+    public void addProduct(Product product) {
+        product.bindStock(inventory.slotFor(product.getId(), product.getQuantity()));
+        super.addProduct(product);
+    }
+}
@@ -0,0 +1,577 @@
+package org.service.impl;
+
+import org.data.Basket;
+import org.data.Cashier;
+import org.data.Delivery;
+import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Receipt;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.data.Store;
+import org.exception.InsufficientQuantityException;
+import org.exception.ReceiptPersistenceException;
+import org.service.CheckoutSession;
+import org.service.SalesStatistics;
+import org.service.StoreService;
+import org.util.RingBuffer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Store service that executes every mutating command on a single writer thread.
+ * <p>
+ * Commands are published into a pre-allocated ring buffer and applied one after another by
+ * the writer, so the wrapped store never sees two mutations at the same time. Results come
+ * back through futures; the blocking {@link StoreService} methods simply wait for them.
+ * Read-side queries are answered from an immutable snapshot without touching the writer as long
+ * as no command changed the store since it was taken. A read that finds it outdated asks the
+ * writer for a new one, so the copy never races a mutation; reads queued behind the same burst
+ * of writes share one copy.
+ * <p>
+ * Checkout sessions are handed out wrapped, so that every scan, void, finish and cancel runs on
+ * the writer as well. Price quotes and receipt lookups are passed straight to the wrapped store;
+ * they only read its concurrent or atomic state.
+ */
+public class SingleWriterStoreService implements StoreService, AutoCloseable {
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final StoreService delegate;
+    private final RingBuffer<Command> ring;
+    private final Thread writer;
+    private volatile StoreSnapshot snapshot;
+    // The sequence of the last store-changing command whose result was handed out
+    private volatile long completedWrite = -1;
+    // Writer thread only: the sequence of the last store-changing command applied
+    private long appliedWrite = -1;
+    // Identifies snapshot requests, the only commands that don't change the store
+    private final Function<StoreService, Object> takeSnapshot = store -> takeSnapshot();
+    private volatile boolean running = true;
+
+    private static final class Command {
+        private Function<StoreService, Object> action;
+        private CompletableFuture<Object> result;
+    }
+
+    /**
+     * Immutable copy of the store, taken on the writer thread after every command up to its
+     * sequence was applied
+     */
+    public static final class StoreSnapshot {
+        private final long sequence;
+        private final List<Product> products;
+        private final Map<Integer, Product> productsById;
+        private final List<Cashier> cashiers;
+        private final Map<Integer, Cashier> registerAssignments;
+        private final int[] assignedRegisters;
+        private final int totalReceipts;
+        private final double totalRevenue;
+        private final double salaryExpenses;
+        private final double deliveryExpenses;
+
+        private StoreSnapshot(long sequence, StoreService store) {
+            this.sequence = sequence;
+            List<Product> products = new ArrayList<>();
+            Map<Integer, Product> productsById = new HashMap<>();
+            for (Product p : store.getDeliveredProducts()) {
+                Product copy = new Product(p.getId(), p.getName(), p.getDeliveryPrice(), p.getCategory(),
+                        p.getExpirationDate(), p.getQuantity());
+                products.add(copy);
+                productsById.put(copy.getId(), copy);
+            }
+            this.products = Collections.unmodifiableList(products);
+            this.productsById = productsById;
+            this.assignedRegisters = store.getAssignedRegisters();
+            Map<Integer, Cashier> copies = new HashMap<>();
+            List<Cashier> cashiers = new ArrayList<>();
+            for (Cashier c : store.getCashiers()) {
+                Cashier copy = new Cashier(c.getId(), c.getName(), c.getSalary());
+                if (c.getRegisterNumber() >= 0) {
+                    copy.setRegisterNumber(c.getRegisterNumber());
+                }
+                cashiers.add(copy);
+                copies.put(copy.getId(), copy);
+            }
+            this.cashiers = Collections.unmodifiableList(cashiers);
+            Map<Integer, Cashier> assignments = new HashMap<>();
+            for (int register : assignedRegisters) {
+                Cashier assigned = store.getCashierAtRegister(register);
+                if (assigned != null) {
+                    assignments.put(register, copies.getOrDefault(assigned.getId(), assigned));
+                }
+            }
+            this.registerAssignments = Collections.unmodifiableMap(assignments);
+            this.totalReceipts = store.getTotalReceipts();
+            this.totalRevenue = store.getTotalRevenue();
+            this.salaryExpenses = store.getSalaryExpenses();
+            this.deliveryExpenses = store.getDeliveryExpenses();
+        }
+
+        /**
+         * @return The sequence of the last command included in this snapshot
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public Product getProduct(int productId) {
+            return productsById.get(productId);
+        }
+
+        public List<Cashier> getCashiers() {
+            return cashiers;
+        }
+
+        public Cashier getCashierAtRegister(int registerNumber) {
+            return registerAssignments.get(registerNumber);
+        }
+
+        public int[] getAssignedRegisters() {
+            return assignedRegisters.clone();
+        }
+
+        public int getTotalReceipts() {
+            return totalReceipts;
+        }
+
+        public double getTotalRevenue() {
+            return totalRevenue;
+        }
+
+        public double getSalaryExpenses() {
+            return salaryExpenses;
+        }
+
+        public double getDeliveryExpenses() {
+            return deliveryExpenses;
+        }
+    }
+
+    /**
+     * @param delegate The store to apply the commands to; it must not be mutated by anyone else
+     * @param capacity The number of pre-allocated command slots; must be a power of two
+     */
+    public SingleWriterStoreService(StoreService delegate, int capacity) {
+        this.delegate = delegate;
+        this.ring = new RingBuffer<>(capacity, Command::new);
+        this.snapshot = new StoreSnapshot(-1, delegate);
+        this.writer = new Thread(this::runWriter, "store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a mutating command for the writer thread
+     * @param action The command, applied to the wrapped store
+     * @return A future that completes with the command's result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(Function<StoreService, T> action) {
+        if (!running) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("Store writer is stopped"));
+            return rejected;
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        long sequence = ring.next();
+        Command command = ring.get(sequence);
+        command.action = (Function<StoreService, Object>) action;
+        command.result = result;
+        ring.publish(sequence);
+        if (!running) {
+            // close() may have let the writer exit before this command was published; a command
+            // the writer did apply is already complete, so failing it is a no-op
+            awaitWriterStopped();
+            result.completeExceptionally(new RejectedExecutionException("Store writer is stopped"));
+        }
+        return (CompletableFuture<T>) result;
+    }
+
+    private void awaitWriterStopped() {
+        if (Thread.currentThread() == writer) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public CompletableFuture<Receipt> submitSale(int registerNumber, Map<Integer, Integer> purchase) {
+        return submit(store -> store.createSale(registerNumber, purchase));
+    }
+
+    public CompletableFuture<Void> submitAddProduct(Product product) {
+        return submit(store -> {
+            store.addProduct(product);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> submitAssignCashierToRegister(Cashier cashier, int registerNumber) {
+        return submit(store -> {
+            store.assignCashierToRegister(cashier, registerNumber);
+            return null;
+        });
+    }
+
+    /**
+     * @return A snapshot that includes every command completed so far
+     */
+    public StoreSnapshot getSnapshot() {
+        StoreSnapshot current = snapshot;
+        if (current.getSequence() >= completedWrite) {
+            return current;
+        }
+        try {
+            return (StoreSnapshot) await(submit(takeSnapshot));
+        } catch (RejectedExecutionException e) {
+            // The writer takes a last snapshot as it stops
+            awaitWriterStopped();
+            return snapshot;
+        }
+    }
+
+    // Writer thread only
+    private StoreSnapshot takeSnapshot() {
+        if (snapshot.getSequence() < appliedWrite) {
+            snapshot = new StoreSnapshot(appliedWrite, delegate);
+        }
+        return snapshot;
+    }
+
+    private void runWriter() {
+        int capacity = ring.getCapacity();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Object>[] futures = (CompletableFuture<Object>[]) new CompletableFuture<?>[capacity];
+        Object[] outcomes = new Object[capacity];
+        boolean[] failed = new boolean[capacity];
+        long next = 0;
+        while (running || ring.isPublished(next)) {
+            if (!ring.awaitPublished(next, IDLE_WAIT_NANOS)) {
+                continue;
+            }
+            // Apply everything that is already published and advance the applied sequence before
+            // completing the futures, so callers read their own writes
+            int batch = 0;
+            do {
+                Command command = ring.get(next);
+                Function<StoreService, Object> action = command.action;
+                futures[batch] = command.result;
+                command.action = null;
+                command.result = null;
+                ring.release(next);
+                if (action != takeSnapshot) {
+                    appliedWrite = next;
+                }
+                try {
+                    outcomes[batch] = action.apply(delegate);
+                    failed[batch] = false;
+                } catch (RuntimeException e) {
+                    outcomes[batch] = e;
+                    failed[batch] = true;
+                }
+                batch++;
+                next++;
+            } while (batch < capacity && ring.isPublished(next));
+            completedWrite = appliedWrite;
+            for (int i = 0; i < batch; i++) {
+                if (failed[i]) {
+                    futures[i].completeExceptionally((Throwable) outcomes[i]);
+                } else {
+                    futures[i].complete(outcomes[i]);
+                }
+                futures[i] = null;
+                outcomes[i] = null;
+            }
+        }
+        takeSnapshot();
+        // Nothing consumes the ring any more; free every slot so producers still waiting for
+        // space get through to the running check in submit() instead of waiting forever
+        ring.release(Long.MAX_VALUE >> 1);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Store getStore() {
+        return delegate.getStore();
+    }
+
+    @Override
+    public Receipt getReceipt(int receiptNumber) {
+        return delegate.getReceipt(receiptNumber);
+    }
+
+    @Override
+    public Receipt loadReceiptFromFile(int receiptNumber) throws IOException, ClassNotFoundException, ReceiptPersistenceException {
+        return delegate.loadReceiptFromFile(receiptNumber);
+    }
+
+    @Override
+    public void addProduct(Product product) {
+        await(submitAddProduct(product));
+    }
+
+    @Override
+    public List<Product> getDeliveredProducts() {
+        return getSnapshot().getProducts();
+    }
+
+    @Override
+    public Product getProduct(int productId) {
+        return getSnapshot().getProduct(productId);
+    }
+
+    @Override
+    public int restock(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        return await(submit(store -> store.restock(productId, quantity, unitCost, expirationDate)));
+    }
+
+    @Override
+    public void restock(List<Delivery> deliveries) {
+        await(submit(store -> {
+            store.restock(deliveries);
+            return null;
+        }));
+    }
+
+    @Override
+    public void addCashier(Cashier cashier) {
+        await(submit(store -> {
+            store.addCashier(cashier);
+            return null;
+        }));
+    }
+
+    @Override
+    public List<Cashier> getCashiers() {
+        return getSnapshot().getCashiers();
+    }
+
+    @Override
+    public void assignCashierToRegister(Cashier cashier, int registerNumber) {
+        await(submitAssignCashierToRegister(cashier, registerNumber));
+    }
+
+    @Override
+    public Cashier getCashierAtRegister(int registerNumber) {
+        return getSnapshot().getCashierAtRegister(registerNumber);
+    }
+
+    @Override
+    public Cashier releaseRegister(int registerNumber) {
+        return await(submit(store -> store.releaseRegister(registerNumber)));
+    }
+
+    @Override
+    public void handOverRegister(int registerNumber, Cashier outgoing, Cashier incoming) {
+        await(submit(store -> {
+            store.handOverRegister(registerNumber, outgoing, incoming);
+            return null;
+        }));
+    }
+
+    @Override
+    public boolean isRegisterAssigned(int registerNumber) {
+        return getSnapshot().getCashierAtRegister(registerNumber) != null;
+    }
+
+    @Override
+    public int[] getAssignedRegisters() {
+        return getSnapshot().getAssignedRegisters();
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Map<Integer, Integer> purchase) throws InsufficientQuantityException {
+        return await(submitSale(registerNumber, purchase));
+    }
+
+    @Override
+    public Receipt createSale(String idempotencyKey, int registerNumber, Map<Integer, Integer> purchase)
+            throws InsufficientQuantityException {
+        return await(submit(store -> store.createSale(idempotencyKey, registerNumber, purchase)));
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, int[] productIds, int[] quantities, int count)
+            throws InsufficientQuantityException {
+        return await(submit(store -> store.createSale(registerNumber, productIds, quantities, count)));
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Basket basket) throws InsufficientQuantityException {
+        return await(submit(store -> store.createSale(registerNumber, basket)));
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Map<Integer, Integer> purchase) {
+        return await(submit(store -> store.trySale(registerNumber, purchase)));
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Basket basket) {
+        return await(submit(store -> store.trySale(registerNumber, basket)));
+    }
+
+    @Override
+    public List<SaleResult> createSales(List<SaleRequest> requests) {
+        return await(submit(store -> store.createSales(requests)));
+    }
+
+    @Override
+    public CheckoutSession openCheckout(int registerNumber) {
+        return new WriterCheckout(await(submit(store -> store.openCheckout(registerNumber))));
+    }
+
+    @Override
+    public CheckoutSession getOpenCheckout(int registerNumber) {
+        CheckoutSession session = await(submit(store -> store.getOpenCheckout(registerNumber)));
+        return session != null ? new WriterCheckout(session) : null;
+    }
+
+    /**
+     * Checkout whose every step runs on the writer thread, in order with the other commands
+     */
+    private final class WriterCheckout implements CheckoutSession {
+        private final CheckoutSession session;
+
+        private WriterCheckout(CheckoutSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public int getRegisterNumber() {
+            return session.getRegisterNumber();
+        }
+
+        @Override
+        public int scan(int productId, int quantity) {
+            return await(submit(store -> session.scan(productId, quantity)));
+        }
+
+        @Override
+        public void voidLine(int line) {
+            await(submit(store -> {
+                session.voidLine(line);
+                return null;
+            }));
+        }
+
+        @Override
+        public double total() {
+            return await(submit(store -> session.total()));
+        }
+
+        @Override
+        public int getLineCount() {
+            return await(submit(store -> session.getLineCount()));
+        }
+
+        @Override
+        public Receipt finish() {
+            return await(submit(store -> session.finish()));
+        }
+
+        @Override
+        public void cancel() {
+            await(submit(store -> {
+                session.cancel();
+                return null;
+            }));
+        }
+
+        @Override
+        public boolean isOpen() {
+            return await(submit(store -> session.isOpen()));
+        }
+    }
+
+    @Override
+    public double quoteSellingPrices(int[] productIds, int[] quantities, double[] unitPrices) {
+        return delegate.quoteSellingPrices(productIds, quantities, unitPrices);
+    }
+
+    @Override
+    public int getTotalReceipts() {
+        return getSnapshot().getTotalReceipts();
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        return getSnapshot().getTotalRevenue();
+    }
+
+    @Override
+    public double getSalaryExpenses() {
+        return getSnapshot().getSalaryExpenses();
+    }
+
+    @Override
+    public double getDeliveryExpenses() {
+        return getSnapshot().getDeliveryExpenses();
+    }
+
+    @Override
+    public double getIncome() {
+        return getTotalRevenue() - getDeliveryExpenses();
+    }
+
+    @Override
+    public double getProfit() {
+        return getIncome() - getSalaryExpenses();
+    }
+
+    @Override
+    public SalesStatistics getSalesStatistics() {
+        return delegate.getSalesStatistics();
+    }
+
+    @Override
+    public ProductProfit getProductProfit(int productId) {
+        return delegate.getProductProfit(productId);
+    }
+
+    @Override
+    public List<ProductProfit> getProductProfits() {
+        return delegate.getProductProfits();
+    }
+
+    /**
+     * Stop accepting commands, apply the ones already queued and stop the writer thread
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package org.service.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.data.Basket;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Receipt;
+import org.exception.CashierAlreadyAssignedException;
+import org.exception.CashierNotAtRegisterException;
+import org.exception.CashierNotFoundException;
+import org.exception.ExpiredProductException;
+import org.exception.InsufficientQuantityException;
+import org.exception.InvalidInputException;
+import org.exception.NegativeQuantityException;
+import org.exception.NegativeRegisterNumberException;
+import org.exception.NoAssignedCashierException;
+import org.exception.ProductNotFoundException;
+import org.exception.ReceiptPersistenceException;
+import org.exception.RegisterAlreadyAssignedException;
+import org.exception.StoreClosedException;
+import org.exception.StoreOverloadedException;
+import org.service.StoreService;
+import org.util.JsonReader;
+import org.util.JsonWriter;
+import org.util.Threads;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * HTTP/JSON front end for POS terminals, built on the JDK's embedded HTTP server.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code GET /products}, {@code GET /products/{id}}: catalog with current selling prices</li>
+ *   <li>{@code POST /sales}: sell {@code {"register":1,"items":[{"productId":1,"quantity":2}]}};
+ *       an {@code Idempotency-Key} header makes retries safe</li>
+ *   <li>{@code GET /receipts/{number}}: a receipt issued since the store started, or a persisted one</li>
+ *   <li>{@code GET /finance}: revenue, expenses and profit</li>
+ *   <li>{@code GET /finance/products}, {@code GET /finance/products/{id}}: per-product profitability</li>
+ * </ul>
+ * Requests are handled on a pluggable executor; by default one virtual thread per request when
+ * the runtime supports it. Store errors map to 400 for invalid input, 404 for unknown ids, 409
+ * for sales the store's state doesn't allow and 503 when the store sheds load or is closed.
+ */
+public class StoreHttpServer implements AutoCloseable {
+    static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final StoreService store;
+    private final HttpServer server;
+    // Only set when the server created its own executor and must shut it down
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Serve a store on all interfaces with the default worker executor
+     * @param store The store
+     * @param port The port, or 0 for any free port
+     * @throws IOException if the port can't be bound
+     */
+    public StoreHttpServer(StoreService store, int port) throws IOException {
+        this(store, new InetSocketAddress(port),
+                Threads.newWorkerExecutor("http", Runtime.getRuntime().availableProcessors() * 4), true);
+    }
+
+    /**
+     * Serve a store on the given executor; the caller keeps ownership of the executor
+     * @param store The store
+     * @param address The address to bind
+     * @param executor The executor that runs request handlers
+     * @throws IOException if the address can't be bound
+     */
+    public StoreHttpServer(StoreService store, InetSocketAddress address, Executor executor) throws IOException {
+        this(store, address, executor, false);
+    }
+
+    private StoreHttpServer(StoreService store, InetSocketAddress address, Executor executor, boolean owned)
+            throws IOException {
+        this.store = store;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException | RuntimeException e) {
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+            }
+            throw e;
+        }
+        server.setExecutor(executor);
+        server.createContext("/products", exchange -> handle(exchange, this::products));
+        server.createContext("/sales", exchange -> handle(exchange, this::sales));
+        server.createContext("/receipts", exchange -> handle(exchange, this::receipts));
+        server.createContext("/finance", exchange -> handle(exchange, this::finance));
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(STOP_DELAY_SECONDS);
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private interface Route {
+        void serve(HttpExchange exchange, String[] path) throws Exception;
+    }
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        try {
+            try {
+                String path = exchange.getRequestURI().getPath();
+                String[] segments = path.substring(1).split("/");
+                route.serve(exchange, segments);
+            } catch (HttpError e) {
+                sendError(exchange, e.status, e.getMessage());
+            } catch (InvalidInputException | NegativeQuantityException | NegativeRegisterNumberException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (ProductNotFoundException | CashierNotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (NoSuchFileException | FileNotFoundException e) {
+                sendError(exchange, 404, "Not found");
+            } catch (ReceiptPersistenceException e) {
+                if (e.getCause() instanceof FileNotFoundException || e.getCause() instanceof NoSuchFileException) {
+                    sendError(exchange, 404, "Not found");
+                } else {
+                    System.err.println("HTTP request failed: " + e);
+                    sendError(exchange, 500, "Internal error");
+                }
+            } catch (InsufficientQuantityException | ExpiredProductException | NoAssignedCashierException
+                    | RegisterAlreadyAssignedException | CashierAlreadyAssignedException
+                    | CashierNotAtRegisterException e) {
+                sendError(exchange, 409, e.getMessage());
+            } catch (StoreOverloadedException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, e.getMessage());
+            } catch (StoreClosedException e) {
+                sendError(exchange, 503, e.getMessage());
+            } catch (IOException e) {
+                // The terminal went away mid-exchange; nothing left to answer
+                System.err.println("HTTP exchange failed: " + e.getMessage());
+            } catch (Exception e) {
+                System.err.println("HTTP request failed: " + e);
+                sendError(exchange, 500, "Internal error");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void products(HttpExchange exchange, String[] path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (path.length > 2) {
+            throw new HttpError(404, "Not found");
+        }
+        JsonWriter json = new JsonWriter();
+        if (path.length == 2) {
+            int id = parseId(path[1], "product id");
+            Product product = store.getProduct(id);
+            if (product == null) {
+                throw new ProductNotFoundException(id);
+            }
+            double[] price = new double[1];
+            store.quoteSellingPrices(new int[] {id}, null, price);
+            writeProduct(json, product, price[0]);
+        } else {
+            List<Product> products = store.getDeliveredProducts();
+            int[] ids = new int[products.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = products.get(i).getId();
+            }
+            double[] prices = new double[ids.length];
+            store.quoteSellingPrices(ids, null, prices);
+            json.beginArray();
+            for (int i = 0; i < ids.length; i++) {
+                writeProduct(json, products.get(i), prices[i]);
+            }
+            json.endArray();
+        }
+        send(exchange, 200, json);
+    }
+
+    private void sales(HttpExchange exchange, String[] path) throws IOException {
+        requireMethod(exchange, "POST");
+        if (path.length > 1) {
+            throw new HttpError(404, "Not found");
+        }
+        Object body = parseJson(readBody(exchange));
+        if (!(body instanceof Map)) {
+            throw new InvalidInputException("body", "", "Expected a JSON object");
+        }
+        Map<?, ?> sale = (Map<?, ?>) body;
+        int registerNumber = intMember(sale, "register");
+        Object items = sale.get("items");
+        if (!(items instanceof List) || ((List<?>) items).isEmpty()) {
+            throw new InvalidInputException("items", String.valueOf(items), "Expected a non-empty array");
+        }
+
+        String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        Receipt receipt;
+        if (idempotencyKey != null) {
+            Map<Integer, Integer> purchase = new HashMap<>();
+            for (Object item : (List<?>) items) {
+                Map<?, ?> line = asObject(item);
+                purchase.merge(intMember(line, "productId"), intMember(line, "quantity"), Integer::sum);
+            }
+            receipt = store.createSale(idempotencyKey, registerNumber, purchase);
+        } else {
+            Basket basket = new Basket(((List<?>) items).size());
+            for (Object item : (List<?>) items) {
+                Map<?, ?> line = asObject(item);
+                basket.add(intMember(line, "productId"), intMember(line, "quantity"));
+            }
+            receipt = store.createSale(registerNumber, basket);
+        }
+        JsonWriter json = new JsonWriter();
+        writeReceipt(json, receipt);
+        send(exchange, 201, json);
+    }
+
+    private void receipts(HttpExchange exchange, String[] path) throws Exception {
+        requireMethod(exchange, "GET");
+        if (path.length != 2) {
+            throw new HttpError(404, "Not found");
+        }
+        int number = parseId(path[1], "receipt number");
+        // Receipts issued since the store started are served from memory, even while still being written
+        Receipt receipt = store.getReceipt(number);
+        if (receipt == null) {
+            receipt = store.loadReceiptFromFile(number);
+        }
+        JsonWriter json = new JsonWriter();
+        writeReceipt(json, receipt);
+        send(exchange, 200, json);
+    }
+
+    private void finance(HttpExchange exchange, String[] path) throws IOException {
+        requireMethod(exchange, "GET");
+        JsonWriter json = new JsonWriter();
+        if (path.length == 1) {
+            json.beginObject()
+                    .name("receipts").value(store.getTotalReceipts())
+                    .name("revenue").value(store.getTotalRevenue())
+                    .name("salaryExpenses").value(store.getSalaryExpenses())
+                    .name("deliveryExpenses").value(store.getDeliveryExpenses())
+                    .name("income").value(store.getIncome())
+                    .name("profit").value(store.getProfit())
+                    .endObject();
+        } else if (path.length == 2 && path[1].equals("products")) {
+            json.beginArray();
+            for (ProductProfit profit : store.getProductProfits()) {
+                writeProfit(json, profit);
+            }
+            json.endArray();
+        } else if (path.length == 3 && path[1].equals("products")) {
+            int id = parseId(path[2], "product id");
+            ProductProfit profit = store.getProductProfit(id);
+            if (profit == null) {
+                throw new HttpError(404, "No sales of product " + id);
+            }
+            writeProfit(json, profit);
+        } else {
+            throw new HttpError(404, "Not found");
+        }
+        send(exchange, 200, json);
+    }
+
+    private static void writeProduct(JsonWriter json, Product product, double sellingPrice) {
+        json.beginObject()
+                .name("id").value(product.getId())
+                .name("name").value(product.getName())
+                .name("category").value(product.getCategory().name())
+                .name("sellingPrice").value(sellingPrice)
+                .name("quantity").value(product.getQuantity())
+                .name("availableQuantity").value(product.getAvailableQuantity())
+                .name("expirationDate").value(product.getExpirationDate() != null
+                        ? product.getExpirationDate().toString() : null)
+                .endObject();
+    }
+
+    private static void writeReceipt(JsonWriter json, Receipt receipt) {
+        json.beginObject()
+                .name("number").value(receipt.getReceiptNumber())
+                .name("date").value(receipt.getDate().toString())
+                .name("register").value(receipt.getRegisterNumber());
+        Cashier cashier = receipt.getCashier();
+        json.name("cashier");
+        if (cashier == null) {
+            json.nullValue();
+        } else {
+            json.beginObject().name("id").value(cashier.getId()).name("name").value(cashier.getName()).endObject();
+        }
+        json.name("lines").beginArray();
+        for (int line = 0; line < receipt.getLineCount(); line++) {
+            json.beginObject()
+                    .name("productId").value(receipt.getProductId(line))
+                    .name("name").value(receipt.getProduct(line).getName())
+                    .name("quantity").value(receipt.getQuantity(line))
+                    .name("unitPrice").value(receipt.getUnitPrice(line))
+                    .endObject();
+        }
+        json.endArray()
+                .name("total").value(receipt.getTotalAmount())
+                .endObject();
+    }
+
+    private static void writeProfit(JsonWriter json, ProductProfit profit) {
+        json.beginObject()
+                .name("productId").value(profit.getProductId())
+                .name("unitsSold").value(profit.getUnitsSold())
+                .name("revenue").value(profit.getRevenue())
+                .name("costOfGoodsSold").value(profit.getCostOfGoodsSold())
+                .name("grossMargin").value(profit.getGrossMargin())
+                .name("grossMarginRate").value(profit.getGrossMarginRate())
+                .endObject();
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new HttpError(405, "Use " + method);
+        }
+    }
+
+    private static Object parseJson(String text) {
+        try {
+            return JsonReader.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("body", "", e.getMessage());
+        }
+    }
+
+    private static int parseId(String value, String field) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException(field, value, "Expected an integer");
+        }
+    }
+
+    private static Map<?, ?> asObject(Object value) {
+        if (!(value instanceof Map)) {
+            throw new InvalidInputException("items", String.valueOf(value), "Expected an object per item");
+        }
+        return (Map<?, ?>) value;
+    }
+
+    private static int intMember(Map<?, ?> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new InvalidInputException(name, String.valueOf(value), "Expected an integer");
+        }
+        return ((Long) value).intValue();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        byte[] buffer = new byte[4096];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new HttpError(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, new JsonWriter().beginObject().name("error").value(message).endObject());
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonWriter json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
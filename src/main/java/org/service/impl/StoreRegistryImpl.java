@@ -0,0 +1,237 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Receipt;
+import org.data.Store;
+import org.exception.InvalidInputException;
+import org.service.AsyncStoreService;
+import org.service.CashierService;
+import org.service.PricingService;
+import org.service.ProductService;
+import org.service.StoreRegistry;
+import org.service.StoreService;
+import org.service.StoreTenant;
+import org.util.ExpiringCache;
+import org.util.FileHighWaterMark;
+import org.util.IdAllocator;
+import org.util.Threads;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Store registry whose stores share one compute executor, one I/O executor for receipt writes
+ * and one idempotency cache. Every store allocates its product, cashier and receipt IDs from
+ * high-water marks kept in its receipt directory.
+ * <p>
+ * Stores never synchronize with each other: the registry is a concurrent map that is only
+ * written when stores are opened or closed, and the cross-store totals read each store's
+ * lock-free counters without blocking its sales.
+ * <p>
+ * Closing a store retires it before it leaves the map: further sales are rejected, running
+ * sales and pending receipt writes are waited for, and only then can the ID be opened again.
+ * A reopened store therefore never shares its ID files with a store still issuing receipts.
+ */
+public class StoreRegistryImpl implements StoreRegistry {
+    private static final Pattern STORE_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    // Pool size for blocking I/O when virtual threads are not available
+    private static final int IO_PLATFORM_THREADS = 8;
+
+    private final Map<String, Tenant> stores = new ConcurrentHashMap<>();
+    private final StoreConfig baseConfig;
+    private final ExecutorService computeExecutor;
+    private final ExecutorService ioExecutor;
+    private final List<ExecutorService> ownedExecutors;
+    private final ExpiringCache<String, Receipt> idempotentSales;
+
+    /**
+     * Create a registry that owns its executors and shuts them down on {@link #close()}
+     * @param baseConfig The configuration every store starts from; each store writes its
+     *                   receipts to a subdirectory of its receipt output directory
+     */
+    public StoreRegistryImpl(StoreConfig baseConfig) {
+        this(baseConfig, Threads.newComputeExecutor("registry-compute", Runtime.getRuntime().availableProcessors()),
+                Threads.newWorkerExecutor("registry-io", IO_PLATFORM_THREADS), true);
+    }
+
+    /**
+     * Create a registry on executors owned by the caller
+     * @param baseConfig The configuration every store starts from
+     * @param computeExecutor The executor for sales, pricing and reporting
+     * @param ioExecutor The executor for receipt writes and other disk access
+     */
+    public StoreRegistryImpl(StoreConfig baseConfig, ExecutorService computeExecutor, ExecutorService ioExecutor) {
+        this(baseConfig, computeExecutor, ioExecutor, false);
+    }
+
+    private StoreRegistryImpl(StoreConfig baseConfig, ExecutorService computeExecutor, ExecutorService ioExecutor,
+            boolean ownsExecutors) {
+        this.baseConfig = baseConfig;
+        this.computeExecutor = computeExecutor;
+        this.ioExecutor = ioExecutor;
+        this.ownedExecutors = ownsExecutors ? List.of(computeExecutor, ioExecutor) : Collections.emptyList();
+        this.idempotentSales = StoreServiceImpl.newIdempotencyCache(baseConfig);
+    }
+
+    @Override
+    public StoreTenant openStore(String storeId, Store store) {
+        if (storeId == null || !STORE_ID.matcher(storeId).matches()) {
+            throw new InvalidInputException("storeId", String.valueOf(storeId),
+                    "Store ID must be 1-64 letters, digits, '-' or '_'");
+        }
+        // Built outside the map, so opening a store never blocks other stores' map updates on I/O
+        Tenant tenant = new Tenant(storeId, store);
+        if (stores.putIfAbsent(storeId, tenant) != null) {
+            throw new IllegalStateException("Store already open: " + storeId);
+        }
+        return tenant;
+    }
+
+    @Override
+    public StoreTenant getStore(String storeId) {
+        return stores.get(storeId);
+    }
+
+    @Override
+    public boolean closeStore(String storeId) {
+        Tenant tenant = stores.get(storeId);
+        if (tenant == null) {
+            return false;
+        }
+        tenant.retire();
+        // Only the closer that removes the store reports it; a concurrent one has waited for it too
+        return stores.remove(storeId, tenant);
+    }
+
+    @Override
+    public Set<String> getStoreIds() {
+        return Collections.unmodifiableSet(new TreeSet<>(stores.keySet()));
+    }
+
+    @Override
+    public double getTotalRevenue() {
+        double revenue = 0;
+        for (Tenant tenant : stores.values()) {
+            revenue += tenant.service.getTotalRevenue();
+        }
+        return revenue;
+    }
+
+    @Override
+    public long getTotalReceipts() {
+        long receipts = 0;
+        for (Tenant tenant : stores.values()) {
+            receipts += tenant.service.getTotalReceipts();
+        }
+        return receipts;
+    }
+
+    @Override
+    public Map<String, Double> getRevenueByStore() {
+        Map<String, Double> revenue = new HashMap<>();
+        for (Tenant tenant : stores.values()) {
+            revenue.put(tenant.storeId, tenant.service.getTotalRevenue());
+        }
+        return revenue;
+    }
+
+    @Override
+    public void close() {
+        for (Tenant tenant : stores.values()) {
+            tenant.retire();
+        }
+        stores.clear();
+        for (ExecutorService executor : ownedExecutors) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : ownedExecutors) {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ExecutorService executor : ownedExecutors) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private final class Tenant implements StoreTenant {
+        private final String storeId;
+        private final StoreConfig config;
+        private final RetiringStoreService service;
+        private final ReceiptServiceImpl receiptService;
+        private final AsyncStoreService asyncService;
+        private final IdAllocator productIds;
+        private final IdAllocator cashierIds;
+
+        Tenant(String storeId, Store store) {
+            this.storeId = storeId;
+            this.config = new StoreConfig.Builder(baseConfig)
+                    .receiptOutputDir(Paths.get(baseConfig.getReceiptOutputDir(), storeId).toString())
+                    .build();
+            this.productIds = newIdAllocator("product");
+            this.cashierIds = newIdAllocator("cashier");
+            ProductService productService = new ProductServiceImpl(store.getExpirationThreshold(),
+                    store.getExpirationDiscount());
+            CashierService cashierService = new CashierServiceImpl();
+            this.receiptService = new ReceiptServiceImpl(new ReceiptPersistenceServiceImpl(config), ioExecutor);
+            PricingService pricingService = new PricingServiceImpl(productService, store.getExpirationThreshold(),
+                    store.getExpirationDiscount());
+            this.service = new RetiringStoreService(new StoreServiceImpl(store, config, productService,
+                    cashierService, receiptService, pricingService, idempotentSales, storeId + ':'), storeId);
+            this.asyncService = new AsyncStoreServiceImpl(service, receiptService, computeExecutor, ioExecutor);
+        }
+
+        // Stop the store's sales and wait for its receipts to reach disk
+        void retire() {
+            service.retire();
+            receiptService.whenAllPersisted().join();
+        }
+
+        // The high-water marks live next to the store's receipts, so a reopened store continues its IDs
+        private IdAllocator newIdAllocator(String kind) {
+            return new IdAllocator(config.getNodeId(), IdAllocator.DEFAULT_BLOCK_SIZE,
+                    new FileHighWaterMark(Paths.get(config.getReceiptOutputDir(), kind + ".ids")));
+        }
+
+        @Override
+        public String getStoreId() {
+            return storeId;
+        }
+
+        @Override
+        public StoreService getStoreService() {
+            return service;
+        }
+
+        @Override
+        public AsyncStoreService getAsyncStoreService() {
+            return asyncService;
+        }
+
+        @Override
+        public StoreConfig getConfig() {
+            return config;
+        }
+
+        @Override
+        public int nextProductId() {
+            return productIds.nextId();
+        }
+
+        @Override
+        public int nextCashierId() {
+            return cashierIds.nextId();
+        }
+    }
+}
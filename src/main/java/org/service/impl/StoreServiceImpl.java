@@ -2,25 +2,38 @@ package org.service.impl;
 
 import org.config.StoreConfig;
 import org.data.Product;
+import org.data.ProductProfit;
+import org.data.Basket;
 import org.data.Cashier;
+import org.data.Delivery;
 import org.data.Receipt;
-import org.data.ProductCategory;
+import org.data.SaleOutcome;
+import org.data.SaleRequest;
+import org.data.SaleResult;
 import org.data.Store;
 import org.service.StoreService;
+import org.service.CheckoutSession;
 import org.service.ProductService;
 import org.service.CashierService;
 import org.service.ReceiptService;
 import org.service.PricingService;
+import org.service.SalesStatistics;
+import org.exception.CheckoutAlreadyOpenException;
 import org.exception.ExpiredProductException;
 import org.exception.InsufficientQuantityException;
+import org.exception.InvalidInputException;
+import org.exception.NegativeQuantityException;
 import org.exception.NoAssignedCashierException;
 import org.exception.ProductNotFoundException;
 import org.exception.RegisterAlreadyAssignedException;
 import org.exception.NegativePercentageException;
 import org.exception.ReceiptPersistenceException;
+import org.util.ExpiringCache;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StoreServiceImpl implements StoreService {
     private final ProductService productService;
@@ -29,34 +42,45 @@ public class StoreServiceImpl implements StoreService {
     private final PricingService pricingService;
     private final Store store;
     private final StoreConfig config;
+    private final Map<Integer, CheckoutSessionImpl> openCheckouts = new ConcurrentHashMap<>();
+    private final ExpiringCache<String, Receipt> idempotentSales;
+    private final String idempotencyScope;
+    private final SalesAggregator salesAggregator;
+    private final SalesFactStore salesFacts = new SalesFactStore();
+    private final ProfitabilityTracker profitability = new ProfitabilityTracker();
 
     public StoreServiceImpl(Store store, StoreConfig config, 
             ProductService productService, CashierService cashierService, 
             ReceiptService receiptService, PricingService pricingService) {
+        this(store, config, productService, cashierService, receiptService, pricingService,
+                newIdempotencyCache(config), "");
+    }
+
+    /**
+     * Create a store that keeps its idempotent sales in a cache shared with other stores. Keys
+     * are prefixed with the scope, so stores sharing the cache need distinct scopes.
+     */
+    StoreServiceImpl(Store store, StoreConfig config, ProductService productService,
+            CashierService cashierService, ReceiptService receiptService, PricingService pricingService,
+            ExpiringCache<String, Receipt> idempotentSales, String idempotencyScope) {
         this.store = store;
-        this.config = config;
+        this.config = config != null ? config : new StoreConfig();
         this.productService = productService;
         this.cashierService = cashierService;
         this.receiptService = receiptService;
         this.pricingService = pricingService;
+        this.idempotentSales = idempotentSales;
+        this.idempotencyScope = idempotencyScope;
+        this.salesAggregator = new SalesAggregator(this.config);
+        receiptService.addReceiptListener(salesAggregator);
+        receiptService.addReceiptListener(salesFacts);
+        receiptService.addReceiptListener(profitability);
     }
 
     public StoreServiceImpl(double foodMarkup, double nonFoodMarkup,
             int expirationThreshold, double expirationDiscount) {
-        StoreConfig config = new StoreConfig();
-        Store store = new Store("Default Store", "Default Address", foodMarkup, nonFoodMarkup,
-                expirationThreshold, expirationDiscount);
-        ProductService productService = new ProductServiceImpl(expirationThreshold, expirationDiscount);
-        CashierService cashierService = new CashierServiceImpl();
-        ReceiptService receiptService = new ReceiptServiceImpl(config);
-        PricingService pricingService = new PricingServiceImpl(productService, expirationThreshold, expirationDiscount);
-        
-        this.store = store;
-        this.config = config;
-        this.productService = productService;
-        this.cashierService = cashierService;
-        this.receiptService = receiptService;
-        this.pricingService = pricingService;
+        this(new Store("Default Store", "Default Address", foodMarkup, nonFoodMarkup,
+                expirationThreshold, expirationDiscount), new StoreConfig());
     }
 
     public StoreServiceImpl(Store store) {
@@ -64,17 +88,12 @@ public class StoreServiceImpl implements StoreService {
     }
 
     public StoreServiceImpl(Store store, StoreConfig config) {
-        ProductService productService = new ProductServiceImpl(store.getExpirationThreshold(), store.getExpirationDiscount());
-        CashierService cashierService = new CashierServiceImpl();
-        ReceiptService receiptService = new ReceiptServiceImpl(config);
-        PricingService pricingService = new PricingServiceImpl(productService, store.getExpirationThreshold(), store.getExpirationDiscount());
-        
-        this.store = store;
-        this.config = config;
-        this.productService = productService;
-        this.cashierService = cashierService;
-        this.receiptService = receiptService;
-        this.pricingService = pricingService;
+        this(store, config, new ProductServiceImpl(store.getExpirationThreshold(), store.getExpirationDiscount()));
+    }
+
+    private StoreServiceImpl(Store store, StoreConfig config, ProductService productService) {
+        this(store, config, productService, new CashierServiceImpl(), new ReceiptServiceImpl(config),
+                new PricingServiceImpl(productService, store.getExpirationThreshold(), store.getExpirationDiscount()));
     }
 
     @Override
@@ -90,6 +109,57 @@ public class StoreServiceImpl implements StoreService {
         return productService.getAllProducts();
     }
 
+    @Override
+    public Product getProduct(int productId) {
+        return productService.getProduct(productId);
+    }
+
+    @Override
+    public int restock(int productId, int quantity, double unitCost, LocalDate expirationDate) {
+        validateDelivery(productId, quantity, unitCost);
+        int newQuantity = productService.restockProduct(productId, quantity, unitCost, expirationDate);
+        bookDeliveryExpense(unitCost * quantity);
+        return newQuantity;
+    }
+
+    @Override
+    public void restock(List<Delivery> deliveries) {
+        for (Delivery delivery : deliveries) {
+            validateDelivery(delivery.getProductId(), delivery.getQuantity(), delivery.getUnitCost());
+        }
+
+        double totalCost = 0;
+        for (Delivery delivery : deliveries) {
+            productService.restockProduct(delivery.getProductId(), delivery.getQuantity(),
+                    delivery.getUnitCost(), delivery.getExpirationDate());
+            totalCost += delivery.getUnitCost() * delivery.getQuantity();
+        }
+        bookDeliveryExpense(totalCost);
+    }
+
+    static ExpiringCache<String, Receipt> newIdempotencyCache(StoreConfig config) {
+        StoreConfig settings = config != null ? config : new StoreConfig();
+        return new ExpiringCache<>(settings.getIdempotencyCacheSize(), settings.getIdempotencyTtlMs());
+    }
+
+    private void validateDelivery(int productId, int quantity, double unitCost) {
+        if (productService.getProduct(productId) == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        if (quantity < 0) {
+            throw new NegativeQuantityException(quantity);
+        }
+        if (unitCost < 0) {
+            throw new InvalidInputException("unitCost", String.valueOf(unitCost), "Unit cost cannot be negative");
+        }
+    }
+
+    private void bookDeliveryExpense(double amount) {
+        if (pricingService instanceof PricingServiceImpl) {
+            ((PricingServiceImpl) pricingService).addDeliveryExpense(amount);
+        }
+    }
+
     @Override
     public void addCashier(Cashier cashier) {
         cashierService.addCashier(cashier);
@@ -113,51 +183,372 @@ public class StoreServiceImpl implements StoreService {
         return cashierService.getCashierAtRegister(registerNumber);
     }
 
+    @Override
+    public Cashier releaseRegister(int registerNumber) {
+        return cashierService.releaseRegister(registerNumber);
+    }
+
+    @Override
+    public void handOverRegister(int registerNumber, Cashier outgoing, Cashier incoming) {
+        cashierService.handOverRegister(registerNumber, outgoing.getId(), incoming.getId());
+    }
+
     @Override
     public boolean isRegisterAssigned(int registerNumber) {
         return cashierService.getCashierAtRegister(registerNumber) != null;
     }
 
+    @Override
+    public int[] getAssignedRegisters() {
+        return cashierService.getAssignedRegisters();
+    }
+
     @Override
     public Receipt createSale(int registerNumber, Map<Integer, Integer> purchase)
             throws InsufficientQuantityException {
+        int lineCount = purchase.size();
+        int[] productIds = new int[lineCount];
+        int[] quantities = new int[lineCount];
+        copyPurchase(purchase, productIds, quantities);
+        return sell(registerNumber, productIds, quantities, lineCount, true).getReceipt();
+    }
+
+    @Override
+    public Receipt createSale(String idempotencyKey, int registerNumber, Map<Integer, Integer> purchase)
+            throws InsufficientQuantityException {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            throw new InvalidInputException("idempotencyKey", String.valueOf(idempotencyKey),
+                    "Idempotency key cannot be empty");
+        }
+        String scopedKey = idempotencyScope.isEmpty() ? idempotencyKey : idempotencyScope + idempotencyKey;
+        return idempotentSales.computeIfAbsent(scopedKey, key -> createSale(registerNumber, purchase));
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, int[] productIds, int[] quantities, int count)
+            throws InsufficientQuantityException {
+        return sell(registerNumber, productIds, Arrays.copyOf(quantities, count), count, true).getReceipt();
+    }
+
+    @Override
+    public Receipt createSale(int registerNumber, Basket basket) throws InsufficientQuantityException {
+        return sell(registerNumber, basket.getProductIds(),
+                Arrays.copyOf(basket.getQuantities(), basket.size()), basket.size(), true).getReceipt();
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Map<Integer, Integer> purchase) {
+        int lineCount = purchase.size();
+        int[] productIds = new int[lineCount];
+        int[] quantities = new int[lineCount];
+        copyPurchase(purchase, productIds, quantities);
+        return sell(registerNumber, productIds, quantities, lineCount, false);
+    }
+
+    @Override
+    public SaleResult trySale(int registerNumber, Basket basket) {
+        return sell(registerNumber, basket.getProductIds(),
+                Arrays.copyOf(basket.getQuantities(), basket.size()), basket.size(), false);
+    }
+
+    private static void copyPurchase(Map<Integer, Integer> purchase, int[] productIds, int[] quantities) {
+        int line = 0;
+        for (Map.Entry<Integer, Integer> entry : purchase.entrySet()) {
+            productIds[line] = entry.getKey();
+            // A missing quantity is left at 0 and rejected as invalid along with the others
+            Integer quantity = entry.getValue();
+            quantities[line] = quantity != null ? quantity : 0;
+            line++;
+        }
+    }
+
+    /**
+     * Validate, price and commit a sale. The quantities array must hold exactly {@code lineCount}
+     * entries and is handed over to the receipt. A rejected sale either throws the matching
+     * exception or, when {@code throwing} is false, returns the shared rejection for its outcome.
+     */
+    private SaleResult sell(int registerNumber, int[] productIds, int[] quantities, int lineCount,
+            boolean throwing) {
         Cashier cashier = getCashierAtRegister(registerNumber);
         if (cashier == null) {
-            throw new NoAssignedCashierException(registerNumber);
+            if (throwing) {
+                throw new NoAssignedCashierException(registerNumber);
+            }
+            return SaleResult.rejected(SaleOutcome.NO_ASSIGNED_CASHIER);
         }
 
-        for (Map.Entry<Integer, Integer> entry : purchase.entrySet()) {
-            Product product = productService.getProduct(entry.getKey());
+        // Holds past their time-to-live must not keep blocking the available stock checked below
+        productService.expireHolds();
+
+        // Everything is validated before any stock is touched, so a rejection never has to roll back
+        Product[] products = new Product[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            if (quantities[i] <= 0) {
+                if (throwing) {
+                    throw invalidQuantity(quantities[i]);
+                }
+                return SaleResult.rejected(SaleOutcome.INVALID_REQUEST);
+            }
+            Product product = productService.getProduct(productIds[i]);
             if (product == null) {
-                throw new ProductNotFoundException(entry.getKey());
+                if (throwing) {
+                    throw new ProductNotFoundException(productIds[i]);
+                }
+                return SaleResult.rejected(SaleOutcome.PRODUCT_NOT_FOUND);
             }
             if (pricingService.isProductExpired(product.getId())) {
-                throw new ExpiredProductException(product);
+                if (throwing) {
+                    throw new ExpiredProductException(product);
+                }
+                return SaleResult.rejected(SaleOutcome.PRODUCT_EXPIRED);
             }
-            if (product.getQuantity() < entry.getValue()) {
-                throw new InsufficientQuantityException(product, entry.getValue());
+            // Held stock is promised to an open checkout and can't be sold again
+            if (product.getAvailableQuantity() < quantities[i]) {
+                if (throwing) {
+                    throw new InsufficientQuantityException(product, quantities[i]);
+                }
+                return SaleResult.rejected(SaleOutcome.INSUFFICIENT_QUANTITY);
             }
+            products[i] = product;
         }
 
-        double totalAmount = 0;
-        Map<Product, Integer> soldItems = new HashMap<>();
+        double[] unitPrices = new double[lineCount];
+        double totalAmount = pricingService.calculateSellingPrices(productIds, quantities, lineCount,
+                store.getFoodMarkup(), store.getNonFoodMarkup(), unitPrices);
+
+        for (int i = 0; i < lineCount; i++) {
+            // A concurrent sale may have taken the stock since validation
+            if (!productService.decreaseProductQuantity(productIds[i], quantities[i])) {
+                rollbackSoldLines(productIds, quantities, i);
+                if (throwing) {
+                    throw new InsufficientQuantityException(products[i], quantities[i]);
+                }
+                return SaleResult.rejected(SaleOutcome.INSUFFICIENT_QUANTITY);
+            }
+        }
 
-        for (Map.Entry<Integer, Integer> entry : purchase.entrySet()) {
-            Product product = productService.getProduct(entry.getKey());
-            int quantity = entry.getValue();
+        return SaleResult.success(receiptService.createReceipt(cashier, registerNumber, products, quantities,
+                unitPrices, totalAmount));
+    }
+
+    private static RuntimeException invalidQuantity(int quantity) {
+        if (quantity < 0) {
+            return new NegativeQuantityException(quantity);
+        }
+        return new InvalidInputException("quantity", String.valueOf(quantity), "Quantity must be positive");
+    }
 
-            double markup = product.getCategory() == ProductCategory.FOOD ? store.getFoodMarkup() : store.getNonFoodMarkup();
-            double price = pricingService.calculateSellingPrice(product.getId(), markup);
+    @Override
+    public List<SaleResult> createSales(List<SaleRequest> requests) {
+        int saleCount = requests.size();
+        RuntimeException[] failures = new RuntimeException[saleCount];
+        Cashier[] cashiers = new Cashier[saleCount];
+        int[][] productIds = new int[saleCount][];
+        int[][] quantities = new int[saleCount][];
+        Product[][] products = new Product[saleCount][];
+        double[][] unitPrices = new double[saleCount][];
+        double[] totalAmounts = new double[saleCount];
+
+        // Registers and products are looked up once per batch, and the stock still free for
+        // the batch is tracked locally so that later sales see what earlier ones will take
+        Map<Integer, Cashier> registers = new HashMap<>();
+        Map<Integer, Product> resolved = new HashMap<>();
+        Map<Integer, int[]> unallocated = new HashMap<>();
+        double foodMarkup = store.getFoodMarkup();
+        double nonFoodMarkup = store.getNonFoodMarkup();
+        productService.expireHolds();
+
+        for (int sale = 0; sale < saleCount; sale++) {
+            SaleRequest request = requests.get(sale);
+            try {
+                Cashier cashier = registers.computeIfAbsent(request.getRegisterNumber(), this::getCashierAtRegister);
+                if (cashier == null) {
+                    throw new NoAssignedCashierException(request.getRegisterNumber());
+                }
+
+                Map<Integer, Integer> purchase = request.getPurchase();
+                int lineCount = purchase.size();
+                int[] lineIds = new int[lineCount];
+                int[] lineQuantities = new int[lineCount];
+                Product[] lineProducts = new Product[lineCount];
+                int line = 0;
+                for (Map.Entry<Integer, Integer> entry : purchase.entrySet()) {
+                    Integer quantity = entry.getValue();
+                    if (quantity == null || quantity <= 0) {
+                        throw invalidQuantity(quantity != null ? quantity : 0);
+                    }
+                    Product product = resolveForSale(entry.getKey(), resolved);
+                    int[] free = unallocated.computeIfAbsent(product.getId(),
+                            id -> new int[] {product.getAvailableQuantity()});
+                    if (free[0] < entry.getValue()) {
+                        throw new InsufficientQuantityException(product, entry.getValue());
+                    }
+                    lineIds[line] = entry.getKey();
+                    lineQuantities[line] = entry.getValue();
+                    lineProducts[line] = product;
+                    line++;
+                }
+
+                double[] linePrices = new double[lineCount];
+                totalAmounts[sale] = pricingService.calculateSellingPrices(lineIds, lineQuantities, lineCount,
+                        foodMarkup, nonFoodMarkup, linePrices);
+                for (int i = 0; i < lineCount; i++) {
+                    unallocated.get(lineIds[i])[0] -= lineQuantities[i];
+                }
+                cashiers[sale] = cashier;
+                productIds[sale] = lineIds;
+                quantities[sale] = lineQuantities;
+                products[sale] = lineProducts;
+                unitPrices[sale] = linePrices;
+            } catch (RuntimeException e) {
+                failures[sale] = e;
+            }
+        }
 
-            totalAmount += price * quantity;
-            soldItems.put(product, quantity);
+        takeBatchStock(productIds, quantities, products, failures);
+        return issueBatchReceipts(requests, cashiers, products, quantities, unitPrices, totalAmounts, failures);
+    }
 
-            productService.updateProductQuantity(
-                    product.getId(),
-                    product.getQuantity() - quantity);
+    private Product resolveForSale(int productId, Map<Integer, Product> resolved) {
+        Product product = resolved.get(productId);
+        if (product != null) {
+            return product;
+        }
+        product = productService.getProduct(productId);
+        if (product == null) {
+            throw new ProductNotFoundException(productId);
         }
+        if (pricingService.isProductExpired(productId)) {
+            throw new ExpiredProductException(product);
+        }
+        resolved.put(productId, product);
+        return product;
+    }
 
-        return receiptService.createReceipt(cashier, registerNumber, soldItems, totalAmount);
+    /**
+     * Take the stock of all accepted sales with one decrease per product. If a concurrent sale
+     * got in between, the batch falls back to taking stock sale by sale.
+     */
+    private void takeBatchStock(int[][] productIds, int[][] quantities, Product[][] products,
+            RuntimeException[] failures) {
+        Map<Integer, Integer> demand = new LinkedHashMap<>();
+        for (int sale = 0; sale < failures.length; sale++) {
+            if (failures[sale] == null) {
+                for (int i = 0; i < productIds[sale].length; i++) {
+                    demand.merge(productIds[sale][i], quantities[sale][i], Integer::sum);
+                }
+            }
+        }
+
+        List<Integer> taken = new ArrayList<>(demand.size());
+        for (Map.Entry<Integer, Integer> entry : demand.entrySet()) {
+            if (!productService.decreaseProductQuantity(entry.getKey(), entry.getValue())) {
+                for (int productId : taken) {
+                    productService.increaseProductQuantity(productId, demand.get(productId));
+                }
+                takeStockPerSale(productIds, quantities, products, failures);
+                return;
+            }
+            taken.add(entry.getKey());
+        }
+    }
+
+    private void takeStockPerSale(int[][] productIds, int[][] quantities, Product[][] products,
+            RuntimeException[] failures) {
+        for (int sale = 0; sale < failures.length; sale++) {
+            if (failures[sale] != null) {
+                continue;
+            }
+            for (int i = 0; i < productIds[sale].length; i++) {
+                if (!productService.decreaseProductQuantity(productIds[sale][i], quantities[sale][i])) {
+                    rollbackSoldLines(productIds[sale], quantities[sale], i);
+                    failures[sale] = new InsufficientQuantityException(products[sale][i], quantities[sale][i]);
+                    break;
+                }
+            }
+        }
+    }
+
+    private List<SaleResult> issueBatchReceipts(List<SaleRequest> requests, Cashier[] cashiers,
+            Product[][] products, int[][] quantities, double[][] unitPrices, double[] totalAmounts,
+            RuntimeException[] failures) {
+        int saleCount = failures.length;
+        int accepted = 0;
+        for (RuntimeException failure : failures) {
+            if (failure == null) {
+                accepted++;
+            }
+        }
+
+        Cashier[] receiptCashiers = new Cashier[accepted];
+        int[] receiptRegisters = new int[accepted];
+        Product[][] receiptProducts = new Product[accepted][];
+        int[][] receiptQuantities = new int[accepted][];
+        double[][] receiptPrices = new double[accepted][];
+        double[] receiptTotals = new double[accepted];
+        int next = 0;
+        for (int sale = 0; sale < saleCount; sale++) {
+            if (failures[sale] == null) {
+                receiptCashiers[next] = cashiers[sale];
+                receiptRegisters[next] = requests.get(sale).getRegisterNumber();
+                receiptProducts[next] = products[sale];
+                receiptQuantities[next] = quantities[sale];
+                receiptPrices[next] = unitPrices[sale];
+                receiptTotals[next] = totalAmounts[sale];
+                next++;
+            }
+        }
+        List<Receipt> receipts = receiptService.createReceipts(receiptCashiers, receiptRegisters, receiptProducts,
+                receiptQuantities, receiptPrices, receiptTotals);
+
+        List<SaleResult> results = new ArrayList<>(saleCount);
+        next = 0;
+        for (int sale = 0; sale < saleCount; sale++) {
+            results.add(failures[sale] == null
+                    ? SaleResult.success(receipts.get(next++))
+                    : SaleResult.failure(failures[sale]));
+        }
+        return results;
+    }
+
+    @Override
+    public CheckoutSession openCheckout(int registerNumber) {
+        Cashier cashier = getCashierAtRegister(registerNumber);
+        if (cashier == null) {
+            throw new NoAssignedCashierException(registerNumber);
+        }
+        CheckoutSessionImpl session = new CheckoutSessionImpl(registerNumber, cashier, store,
+                productService, pricingService, receiptService, config.getHoldTtlMs(),
+                closed -> openCheckouts.remove(closed.getRegisterNumber(), closed));
+        CheckoutSessionImpl existing = openCheckouts.putIfAbsent(registerNumber, session);
+        if (existing != null) {
+            // A terminal that crashed mid-checkout must not block its register forever
+            if (!existing.isAbandoned(System.currentTimeMillis())) {
+                throw new CheckoutAlreadyOpenException(registerNumber);
+            }
+            existing.cancel();
+            if (openCheckouts.putIfAbsent(registerNumber, session) != null) {
+                throw new CheckoutAlreadyOpenException(registerNumber);
+            }
+        }
+        return session;
+    }
+
+    @Override
+    public CheckoutSession getOpenCheckout(int registerNumber) {
+        return openCheckouts.get(registerNumber);
+    }
+
+    @Override
+    public double quoteSellingPrices(int[] productIds, int[] quantities, double[] unitPrices) {
+        return pricingService.calculateSellingPrices(productIds, quantities, productIds.length,
+                store.getFoodMarkup(), store.getNonFoodMarkup(), unitPrices);
+    }
+
+    private void rollbackSoldLines(int[] productIds, int[] quantities, int soldLines) {
+        for (int i = 0; i < soldLines; i++) {
+            productService.increaseProductQuantity(productIds[i], quantities[i]);
+        }
     }
 
     @Override
@@ -185,11 +576,31 @@ public class StoreServiceImpl implements StoreService {
         return getIncome() - getSalaryExpenses();
     }
 
+    @Override
+    public SalesStatistics getSalesStatistics() {
+        return salesAggregator;
+    }
+
+    @Override
+    public ProductProfit getProductProfit(int productId) {
+        return profitability.get(productId);
+    }
+
+    @Override
+    public List<ProductProfit> getProductProfits() {
+        return profitability.getAllByMargin();
+    }
+
     @Override
     public int getTotalReceipts() {
         return receiptService.getTotalReceipts();
     }
 
+    @Override
+    public Receipt getReceipt(int receiptNumber) {
+        return receiptService.getReceipt(receiptNumber);
+    }
+
     @Override
     public Receipt loadReceiptFromFile(int receiptNumber) throws IOException, ClassNotFoundException, ReceiptPersistenceException {
         String filePath = receiptService.getPersistenceService().getSerializedFilePath(receiptNumber);
@@ -204,6 +615,10 @@ public class StoreServiceImpl implements StoreService {
         return receiptService;
     }
 
+    public SalesFactStore getSalesFacts() {
+        return salesFacts;
+    }
+
     public double calculateSellingPrice(int productId, double markup) throws ProductNotFoundException, NegativePercentageException {
         return pricingService.calculateSellingPrice(productId, markup);
     }
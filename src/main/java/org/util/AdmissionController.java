@@ -0,0 +1,223 @@
+package org.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control with an adaptive concurrency limit.
+ * <p>
+ * At most {@link #getLimit()} requests run at once; up to {@code maxQueued} more wait for a
+ * slot for a bounded time and everything beyond that is rejected immediately. The limit follows
+ * the observed service time: while the smoothed service time stays within the latency target
+ * and the limit is actually used, it grows by one per round of requests; once the target is
+ * exceeded it shrinks by a tenth per round (additive increase, multiplicative decrease).
+ * <p>
+ * {@link #acquire()} returns the admission timestamp instead of a permit object, so neither
+ * admission nor rejection allocates.
+ */
+public class AdmissionController {
+    /**
+     * Returned by {@link #acquire()} when the request is rejected
+     */
+    public static final long REJECTED = Long.MIN_VALUE;
+
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long targetLatencyNanos;
+    private final long maxQueueWaitNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private volatile int limit;
+
+    // Limit adaptation state, guarded by lock
+    private double smoothedLatencyNanos;
+    private double growth;
+    private int samplesSinceDecrease;
+
+    /**
+     * @param initialLimit The starting concurrency limit
+     * @param minLimit The lowest the limit may shrink to
+     * @param maxLimit The highest the limit may grow to
+     * @param maxQueued The number of requests that may wait for a slot
+     * @param targetLatencyMillis The service time the limit is tuned for
+     * @param maxQueueWaitMillis How long a queued request waits before it is rejected
+     */
+    public AdmissionController(int initialLimit, int minLimit, int maxLimit, int maxQueued,
+            long targetLatencyMillis, long maxQueueWaitMillis) {
+        this(initialLimit, minLimit, maxLimit, maxQueued, TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis),
+                TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis), System::nanoTime);
+    }
+
+    AdmissionController(int initialLimit, int minLimit, int maxLimit, int maxQueued,
+            long targetLatencyNanos, long maxQueueWaitNanos, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid concurrency limits: initial %d, min %d, max %d", initialLimit, minLimit, maxLimit));
+        }
+        if (maxQueued < 0 || targetLatencyNanos <= 0 || maxQueueWaitNanos < 0) {
+            throw new IllegalArgumentException("Queue size, latency target and queue wait must not be negative");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.maxQueueWaitNanos = maxQueueWaitNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Admit a request, waiting in the queue if the limit is reached and the queue has room
+     * @return The admission timestamp to pass to {@link #release(long)}, or {@link #REJECTED}
+     */
+    public long acquire() {
+        if (tryEnter()) {
+            return nanoClock.getAsLong();
+        }
+        if (maxQueueWaitNanos == 0 || !tryEnqueue()) {
+            rejected.incrementAndGet();
+            return REJECTED;
+        }
+        try {
+            return awaitSlot() ? nanoClock.getAsLong() : REJECTED;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Finish an admitted request and feed its service time into the limit
+     * @param admittedAt The timestamp returned by {@link #acquire()}
+     */
+    public void release(long admittedAt) {
+        long serviceNanos = nanoClock.getAsLong() - admittedAt;
+        int wasInFlight = inFlight.getAndDecrement();
+        // Under contention a sample is simply dropped; the next one will adjust the limit
+        if (lock.tryLock()) {
+            try {
+                adjustLimit(serviceNanos, wasInFlight);
+                if (queued.get() > 0) {
+                    slotFreed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } else if (queued.get() > 0) {
+            lock.lock();
+            try {
+                slotFreed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean tryEnter() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryEnqueue() {
+        while (true) {
+            int current = queued.get();
+            if (current >= maxQueued) {
+                return false;
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean awaitSlot() {
+        long remaining = maxQueueWaitNanos;
+        lock.lock();
+        try {
+            while (!tryEnter()) {
+                if (remaining <= 0) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                remaining = slotFreed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjustLimit(long serviceNanos, int wasInFlight) {
+        smoothedLatencyNanos = smoothedLatencyNanos == 0
+                ? serviceNanos
+                : smoothedLatencyNanos + LATENCY_SMOOTHING * (serviceNanos - smoothedLatencyNanos);
+        int current = limit;
+        samplesSinceDecrease++;
+        if (smoothedLatencyNanos > targetLatencyNanos) {
+            growth = 0;
+            // Shrink at most once per round, so one slow round doesn't collapse the limit
+            if (samplesSinceDecrease >= current) {
+                samplesSinceDecrease = 0;
+                limit = Math.max(minLimit, (int) (current * DECREASE_FACTOR));
+            }
+        } else if (wasInFlight * 2 >= current && current < maxLimit) {
+            // Only grow a limit that is actually being used
+            growth += 1.0 / current;
+            if (growth >= 1.0) {
+                growth = 0;
+                limit = current + 1;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return The smoothed service time of admitted requests, in nanoseconds
+     */
+    public long getSmoothedLatencyNanos() {
+        lock.lock();
+        try {
+            return (long) smoothedLatencyNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
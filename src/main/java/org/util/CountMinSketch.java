@@ -0,0 +1,104 @@
+package org.util;
+
+/**
+ * Count-Min sketch: frequency estimates for a stream of long keys in fixed memory.
+ * <p>
+ * An estimate is never below the true count and, with probability {@code 1 - delta}, exceeds it
+ * by at most {@code epsilon} times the total of all counts. Updates and estimates touch one
+ * counter per row. Sketches with the same dimensions and seed can be merged by adding counters,
+ * e.g. to combine registers or stores. Not thread-safe.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long seed;
+    private final long[] counters;
+    private long total;
+
+    /**
+     * @param epsilon The error bound as a fraction of the total count
+     * @param delta The probability of exceeding the error bound
+     * @param seed The hash seed; sketches must share it to be merged
+     */
+    public CountMinSketch(double epsilon, double delta, long seed) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Epsilon and delta must be between 0 and 1");
+        }
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.seed = seed;
+        this.counters = new long[width * depth];
+    }
+
+    private CountMinSketch(CountMinSketch other) {
+        this.width = other.width;
+        this.depth = other.depth;
+        this.seed = other.seed;
+        this.counters = other.counters.clone();
+        this.total = other.total;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return The sum of all counts added
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void add(long key, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count-Min counts cannot be negative: " + count);
+        }
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(key, row)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * @return An upper estimate of the total count added for the key
+     */
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(key, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Add another sketch's counts to this one
+     * @throws IllegalArgumentException if the sketches have different dimensions or seeds
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth || other.seed != seed) {
+            throw new IllegalArgumentException("Only sketches with the same dimensions and seed can be merged");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    public CountMinSketch copy() {
+        return new CountMinSketch(this);
+    }
+
+    private int column(long key, int row) {
+        long h = key * 0x9E3779B97F4A7C15L + seed + row * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) width);
+    }
+}
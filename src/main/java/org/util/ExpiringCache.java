@@ -0,0 +1,161 @@
+package org.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded concurrent cache whose entries expire a fixed time after they were created.
+ * <p>
+ * {@link #computeIfAbsent(Object, Function)} runs the loader at most once per live key:
+ * concurrent callers with the same key wait for the first one and get its result. A loader
+ * that fails leaves no entry behind, so the next call runs it again.
+ * <p>
+ * All entries share one time-to-live, so insertion order is also expiry order and eviction
+ * only ever looks at the oldest entries. An entry whose loader is still running is never
+ * dropped, even when it is the oldest or has outlived its time-to-live: a caller retrying
+ * the same key must wait for that loader rather than run a second one. While loaders are
+ * running the cache may briefly hold more than its maximum size.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class ExpiringCache<K, V> {
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final long expiresAtMillis;
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+
+        private Entry(K key, long expiresAtMillis) {
+            this.key = key;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    public ExpiringCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    public ExpiringCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and time-to-live must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the value for a key, computing it if the key is absent or expired
+     * @param key The key
+     * @param loader Computes the value; runs at most once for concurrent callers with the same key
+     * @return The cached or computed value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        long now = clock.getAsLong();
+        Entry<K, V> created = null;
+        while (true) {
+            Entry<K, V> existing = entries.get(key);
+            if (existing != null && (existing.expiresAtMillis > now || !existing.value.isDone())) {
+                return await(existing);
+            }
+            if (created == null) {
+                created = new Entry<>(key, now + ttlMillis);
+            }
+            boolean installed = existing == null
+                    ? entries.putIfAbsent(key, created) == null
+                    : entries.replace(key, existing, created);
+            if (installed) {
+                if (existing == null) {
+                    size.incrementAndGet();
+                }
+                break;
+            }
+        }
+
+        insertionOrder.add(created);
+        evict(now);
+        try {
+            V value = loader.apply(key);
+            created.value.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            remove(created);
+            created.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the value for a key without computing it
+     * @param key The key
+     * @return The value, or null if the key is absent, expired or still being computed
+     */
+    public V getIfPresent(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null || entry.expiresAtMillis <= clock.getAsLong() || !entry.value.isDone()
+                || entry.value.isCompletedExceptionally()) {
+            return null;
+        }
+        return entry.value.join();
+    }
+
+    /**
+     * @return The number of entries, including expired ones that were not evicted yet
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void evict(long now) {
+        int requeued = 0;
+        Entry<K, V> oldest;
+        while ((oldest = insertionOrder.peek()) != null
+                && (oldest.expiresAtMillis <= now || size.get() > maxSize)) {
+            if (!insertionOrder.remove(oldest)) {
+                continue;
+            }
+            if (oldest.value.isDone()) {
+                remove(oldest);
+            } else {
+                // Still loading: move it behind the others and stop once only loading entries are left
+                insertionOrder.add(oldest);
+                if (++requeued >= size.get()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void remove(Entry<K, V> entry) {
+        if (entries.remove(entry.key, entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private static <V> V await(Entry<?, V> entry) {
+        try {
+            return entry.value.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * High-water mark kept as a decimal number in a small file. Every save is written to a
+ * temporary file, forced to disk and moved over the old one, so a crash leaves either the old
+ * or the new mark.
+ */
+public class FileHighWaterMark implements IdAllocator.HighWaterMark {
+    private final Path file;
+
+    public FileHighWaterMark(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public long load() {
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim());
+        } catch (NoSuchFileException e) {
+            return 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read ID high-water mark " + file, e);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Corrupt ID high-water mark " + file, e);
+        }
+    }
+
+    @Override
+    public void save(long mark) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(Long.toString(mark).getBytes(StandardCharsets.US_ASCII));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save ID high-water mark " + file, e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hands out unique positive int IDs without a shared lock on the hot path.
+ * <p>
+ * IDs are served from a fixed set of leased blocks, one per stripe, and every thread draws from
+ * the stripe its thread ID hashes to with an atomic increment; taking a new block is an atomic
+ * add followed by a compare-and-set of the stripe's lease, so no thread ever waits on a lock.
+ * Leases belong to stripes rather than threads, so short-lived threads, such as one virtual
+ * thread per task, reuse the IDs left in a stripe instead of each burning a fresh block. When two
+ * threads of a stripe both find its block used up, the one that loses the compare-and-set keeps
+ * a single ID of its new block and skips the rest. IDs are unique but, across stripes, not in
+ * issue order.
+ * <p>
+ * With a {@link HighWaterMark} the allocator saves a mark ahead of every ID it has leased and
+ * resumes from that mark after a restart, so IDs never repeat; the IDs leased but not used
+ * before a restart are skipped. With a node ID the top {@value #NODE_BITS} bits of every ID
+ * carry that node, so processes with different node IDs can allocate without coordinating.
+ */
+public class IdAllocator {
+    public static final int NODE_BITS = 8;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+    // Save the mark this many blocks ahead, so only one lease in that many writes it
+    private static final int PERSIST_AHEAD_BLOCKS = 16;
+    // A power of two of at least two stripes per processor, so threads rarely share a lease
+    static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+
+    /**
+     * Durable storage for the first sequence number that has not been leased yet
+     */
+    public interface HighWaterMark {
+        /**
+         * @return The saved mark, or 1 if none was saved
+         */
+        long load();
+
+        void save(long mark);
+    }
+
+    private static final class Lease {
+        final AtomicLong next;
+        final long limit;
+        final int epoch;
+
+        Lease(long next, long limit, int epoch) {
+            this.next = new AtomicLong(next);
+            this.limit = limit;
+            this.epoch = epoch;
+        }
+    }
+
+    private final int prefix;
+    private final long maxSequence;
+    private final int blockSize;
+    private final HighWaterMark mark;
+    private final AtomicLong nextSequence;
+    private final Object persistLock = new Object();
+    // Sequences below this are covered by the saved mark
+    private volatile long persistedLimit;
+    // Bumped by reset() to invalidate every stripe's lease
+    private volatile int epoch;
+    private final AtomicReferenceArray<Lease> leases = new AtomicReferenceArray<>(STRIPES);
+
+    /**
+     * Create an in-memory allocator without a node prefix, starting at 1
+     */
+    public IdAllocator() {
+        this(-1, DEFAULT_BLOCK_SIZE, null);
+    }
+
+    /**
+     * @param nodeId The node encoded in the top bits of every ID, or -1 for no prefix
+     * @param blockSize The number of IDs a stripe leases at a time
+     * @param mark The durable high-water mark, or null to start from 1 on every run
+     */
+    public IdAllocator(int nodeId, int blockSize, HighWaterMark mark) {
+        if (nodeId < -1 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ", or -1");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        int sequenceBits = nodeId < 0 ? Integer.SIZE - 1 : Integer.SIZE - 1 - NODE_BITS;
+        this.prefix = nodeId < 0 ? 0 : nodeId << sequenceBits;
+        this.maxSequence = (1L << sequenceBits) - 1;
+        this.blockSize = blockSize;
+        this.mark = mark;
+        long start = mark != null ? Math.max(1, mark.load()) : 1;
+        this.nextSequence = new AtomicLong(start);
+        this.persistedLimit = start;
+    }
+
+    /**
+     * @return The next ID from the lease of this thread's stripe
+     * @throws IllegalStateException if the ID space is exhausted
+     */
+    public int nextId() {
+        int stripe = stripe();
+        Lease lease = leases.get(stripe);
+        int currentEpoch = epoch;
+        if (lease != null && lease.epoch == currentEpoch) {
+            long next = lease.next.getAndIncrement();
+            if (next < lease.limit) {
+                return prefix | (int) next;
+            }
+        }
+        // The first ID of the new block is ours; the rest go to the stripe if no one else renewed it
+        long start = reserve(blockSize);
+        leases.compareAndSet(stripe, lease, new Lease(start + 1, start + blockSize, currentEpoch));
+        return prefix | (int) start;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Allocate a contiguous range of IDs, bypassing the stripes' leases
+     * @param count The number of IDs
+     * @return The first ID of the range
+     * @throws IllegalStateException if the ID space is exhausted
+     */
+    public int nextIds(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        return prefix | (int) reserve(count);
+    }
+
+    /**
+     * Make sure an ID issued elsewhere, e.g. by a replicated primary, is never issued here.
+     * Every stripe's lease is discarded.
+     * @param id The ID to skip past
+     */
+    public void skipPast(int id) {
+        long sequence = id & maxSequence;
+        synchronized (persistLock) {
+            epoch++;
+            long next = nextSequence.accumulateAndGet(sequence + 1, Math::max);
+            if (mark != null && next > persistedLimit) {
+                persistThrough(next);
+            }
+        }
+    }
+
+    /**
+     * Start again from 1, discarding every stripe's lease. Previously issued IDs will be issued again.
+     */
+    public void reset() {
+        synchronized (persistLock) {
+            epoch++;
+            nextSequence.set(1);
+            if (mark != null) {
+                mark.save(1);
+            }
+            persistedLimit = 1;
+        }
+    }
+
+    private long reserve(int count) {
+        long start = nextSequence.getAndAdd(count);
+        long end = start + count;
+        if (end - 1 > maxSequence) {
+            throw new IllegalStateException("ID space exhausted");
+        }
+        if (mark != null && end > persistedLimit) {
+            persistThrough(end);
+        }
+        return start;
+    }
+
+    private void persistThrough(long end) {
+        synchronized (persistLock) {
+            if (end > persistedLimit) {
+                long limit = Math.min(end + (long) blockSize * PERSIST_AHEAD_BLOCKS, maxSequence + 1);
+                mark.save(limit);
+                persistedLimit = limit;
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON parser for request bodies. Values are returned as {@link Map} for objects,
+ * {@link List} for arrays, {@link Long} for integral numbers, {@link Double} for other numbers,
+ * {@link String}, {@link Boolean} and null. Nesting is limited so hostile input can't exhaust
+ * the stack.
+ */
+public final class JsonReader {
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int position;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parse a JSON document
+     * @param text The document
+     * @return The parsed value
+     * @throws IllegalArgumentException if the document isn't valid JSON
+     */
+    public static Object parse(String text) {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.readValue(0);
+        reader.skipWhitespace();
+        if (reader.position < text.length()) {
+            throw reader.error("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    private Object readValue(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw error("Nesting is too deep");
+        }
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject(depth);
+            case '[':
+                return readArray(depth);
+            case '"':
+                return readString();
+            case 't':
+                expectWord("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectWord("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectWord("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject(int depth) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (consume('}')) {
+            return object;
+        }
+        do {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error("Expected a member name");
+            }
+            String name = readString();
+            skipWhitespace();
+            if (!consume(':')) {
+                throw error("Expected ':'");
+            }
+            object.put(name, readValue(depth + 1));
+            skipWhitespace();
+        } while (consume(','));
+        if (!consume('}')) {
+            throw error("Expected ',' or '}'");
+        }
+        return object;
+    }
+
+    private List<Object> readArray(int depth) {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (consume(']')) {
+            return array;
+        }
+        do {
+            array.add(readValue(depth + 1));
+            skipWhitespace();
+        } while (consume(','));
+        if (!consume(']')) {
+            throw error("Expected ',' or ']'");
+        }
+        return array;
+    }
+
+    private String readString() {
+        position++;
+        StringBuilder value = null;
+        int start = position;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '"') {
+                String result = value == null ? text.substring(start, position)
+                        : value.append(text, start, position).toString();
+                position++;
+                return result;
+            }
+            if (c == '\\') {
+                if (value == null) {
+                    value = new StringBuilder();
+                }
+                value.append(text, start, position);
+                value.append(readEscape());
+                start = position;
+            } else if (c < 0x20) {
+                throw error("Control character in string");
+            } else {
+                position++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private char readEscape() {
+        if (position + 1 >= text.length()) {
+            throw error("Unterminated escape");
+        }
+        char c = text.charAt(position + 1);
+        position += 2;
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (position + 4 > text.length()) {
+                    throw error("Unterminated escape");
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(text.substring(position, position + 4), 16);
+                    position += 4;
+                    return unicode;
+                } catch (NumberFormatException e) {
+                    throw error("Invalid unicode escape");
+                }
+            default:
+                throw error("Invalid escape '\\" + c + "'");
+        }
+    }
+
+    private Object readNumber() {
+        int start = position;
+        boolean integral = true;
+        if (text.charAt(position) == '-') {
+            position++;
+        }
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c >= '0' && c <= '9') {
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+                position++;
+            } else {
+                break;
+            }
+        }
+        String number = text.substring(start, position);
+        try {
+            return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private void expectWord(String word) {
+        if (!text.startsWith(word, position)) {
+            throw error("Unexpected token");
+        }
+        position += word.length();
+    }
+
+    private boolean consume(char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
@@ -0,0 +1,128 @@
+package org.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Pre-allocated ring of reusable entries with many producers and a single consumer,
+ * in the style of the LMAX Disruptor.
+ * <p>
+ * A producer claims a sequence with {@link #next()}, fills the entry returned by
+ * {@link #get(long)} and makes it visible with {@link #publish(long)}. The consumer reads
+ * published entries in sequence order and reports its progress with {@link #release(long)},
+ * which frees the slots for reuse. Producers wait when the ring is full.
+ *
+ * @param <E> The entry type
+ */
+public class RingBuffer<E> {
+    private final Object[] entries;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Holds, for every slot, the sequence that was last published into it
+    private final AtomicLongArray published;
+    private volatile long released = -1;
+    private volatile Thread consumer;
+
+    /**
+     * @param capacity The number of entries; must be a power of two
+     * @param factory Creates the entries up front
+     */
+    public RingBuffer(int capacity, Supplier<E> factory) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = factory.get();
+            published.set(i, -1);
+        }
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Claim the next sequence, waiting while the ring is full
+     * @return The claimed sequence
+     */
+    public long next() {
+        long sequence = claimed.incrementAndGet();
+        int spins = 0;
+        while (sequence - entries.length > released) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * @param sequence A claimed or published sequence
+     * @return The entry for the sequence
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) (sequence & mask)];
+    }
+
+    /**
+     * Make a claimed entry visible to the consumer
+     * @param sequence The claimed sequence
+     */
+    public void publish(long sequence) {
+        published.set((int) (sequence & mask), sequence);
+        Thread waiting = consumer;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    /**
+     * @param sequence A sequence
+     * @return true if the entry for the sequence has been published
+     */
+    public boolean isPublished(long sequence) {
+        return published.get((int) (sequence & mask)) == sequence;
+    }
+
+    /**
+     * Wait until the entry for the sequence is published. Only the consumer thread may call this.
+     * @param sequence The sequence to wait for
+     * @param timeoutNanos The maximum time to wait
+     * @return true if the entry is published, false if the wait timed out
+     */
+    public boolean awaitPublished(long sequence, long timeoutNanos) {
+        if (isPublished(sequence)) {
+            return true;
+        }
+        consumer = Thread.currentThread();
+        try {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!isPublished(sequence)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return true;
+        } finally {
+            consumer = null;
+        }
+    }
+
+    /**
+     * Free all slots up to and including the sequence. Only the consumer thread may call this.
+     * @param sequence The last consumed sequence
+     */
+    public void release(long sequence) {
+        released = sequence;
+    }
+}
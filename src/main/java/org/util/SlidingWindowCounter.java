@@ -0,0 +1,107 @@
+package org.util;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event count, item count and amount over a sliding time window, kept in a ring of buckets.
+ * <p>
+ * Recording only touches the bucket of the current time slice, through striped adders, so
+ * concurrent writers do not contend. A bucket is cleared lazily by the first writer of a new
+ * slice; events recorded in the instant of that rollover may be counted in the new slice.
+ * Reading sums the buckets that are still inside the window.
+ */
+public class SlidingWindowCounter {
+    private final Bucket[] buckets;
+    private final long bucketMillis;
+
+    private static final class Bucket {
+        private volatile long slice = -1;
+        private final LongAdder events = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final DoubleAdder amount = new DoubleAdder();
+    }
+
+    /**
+     * @param bucketCount The number of buckets in the window
+     * @param bucketMillis The time slice covered by one bucket
+     */
+    public SlidingWindowCounter(int bucketCount, long bucketMillis) {
+        if (bucketCount <= 0 || bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket count and bucket length must be positive");
+        }
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * @return The length of the window in milliseconds
+     */
+    public long getWindowMillis() {
+        return buckets.length * bucketMillis;
+    }
+
+    /**
+     * Record one event
+     * @param nowMillis The current time
+     * @param items The number of items in the event
+     * @param amount The amount of the event
+     */
+    public void record(long nowMillis, int items, double amount) {
+        long slice = nowMillis / bucketMillis;
+        Bucket bucket = buckets[(int) (slice % buckets.length)];
+        if (bucket.slice != slice) {
+            synchronized (bucket) {
+                if (bucket.slice != slice) {
+                    bucket.events.reset();
+                    bucket.items.reset();
+                    bucket.amount.reset();
+                    bucket.slice = slice;
+                }
+            }
+        }
+        bucket.events.increment();
+        bucket.items.add(items);
+        bucket.amount.add(amount);
+    }
+
+    public long getEvents(long nowMillis) {
+        long oldest = oldestSlice(nowMillis);
+        long sum = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.slice >= oldest) {
+                sum += bucket.events.sum();
+            }
+        }
+        return sum;
+    }
+
+    public long getItems(long nowMillis) {
+        long oldest = oldestSlice(nowMillis);
+        long sum = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.slice >= oldest) {
+                sum += bucket.items.sum();
+            }
+        }
+        return sum;
+    }
+
+    public double getAmount(long nowMillis) {
+        long oldest = oldestSlice(nowMillis);
+        double sum = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.slice >= oldest) {
+                sum += bucket.amount.sum();
+            }
+        }
+        return sum;
+    }
+
+    private long oldestSlice(long nowMillis) {
+        return nowMillis / bucketMillis - buckets.length + 1;
+    }
+}
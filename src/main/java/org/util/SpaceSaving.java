@@ -0,0 +1,233 @@
+package org.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the heaviest keys in a weighted stream, in memory bounded by its capacity.
+ * <p>
+ * Every tracked key has a count that overestimates its true weight by at most its recorded error,
+ * and the error never exceeds the total weight divided by the capacity; any key heavier than that
+ * is guaranteed to be tracked. The counters sit in an indexed min-heap, so an update costs
+ * {@code O(log capacity)}: the constant-time stream-summary variant only supports increments of one,
+ * and sales arrive with arbitrary quantities and amounts. Summaries can be merged, e.g. to combine
+ * registers or stores. Not thread-safe.
+ *
+ * @param <K> The key type
+ */
+public class SpaceSaving<K> {
+    private final int capacity;
+    private final Map<K, Counter<K>> index;
+    private final Counter<K>[] heap;
+    private int size;
+    private double total;
+
+    private static final class Counter<K> {
+        private K key;
+        private double count;
+        private double error;
+        private int position;
+    }
+
+    /**
+     * A tracked key with its estimated weight
+     */
+    public static final class Entry<K> {
+        private final K key;
+        private final double count;
+        private final double error;
+
+        private Entry(K key, double count, double error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * @return The estimated weight; never below the true weight
+         */
+        public double getCount() {
+            return count;
+        }
+
+        /**
+         * @return The most the estimate can exceed the true weight by
+         */
+        public double getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.2f (+/- %.2f)", key, count, error);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.index = new HashMap<>(capacity * 2);
+        this.heap = (Counter<K>[]) new Counter<?>[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return The sum of all weights offered
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * @return The largest possible overestimate of any count, i.e. the total divided by the capacity
+     */
+    public double getErrorBound() {
+        return total / capacity;
+    }
+
+    /**
+     * Add weight to a key, replacing the lightest tracked key if the summary is full
+     */
+    public void offer(K key, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weights cannot be negative: " + weight);
+        }
+        total += weight;
+        Counter<K> counter = index.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.position);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>();
+            counter.key = key;
+            counter.count = weight;
+            counter.position = size;
+            heap[size++] = counter;
+            index.put(key, counter);
+            siftUp(counter.position);
+            return;
+        }
+        // Take over the lightest counter: the new key may have been counted there all along
+        counter = heap[0];
+        index.remove(counter.key);
+        counter.key = key;
+        counter.error = counter.count;
+        counter.count += weight;
+        index.put(key, counter);
+        siftDown(0);
+    }
+
+    /**
+     * @return The estimated weight of the key, or 0 if it is not tracked
+     */
+    public double estimate(K key) {
+        Counter<K> counter = index.get(key);
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * @param k The number of keys to return
+     * @return The up to {@code k} heaviest tracked keys, heaviest first
+     */
+    public List<Entry<K>> top(int k) {
+        List<Entry<K>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry<>(heap[i].key, heap[i].count, heap[i].error));
+        }
+        entries.sort(Comparator.comparingDouble((Entry<K> entry) -> entry.count).reversed());
+        return entries.size() > k ? new ArrayList<>(entries.subList(0, k)) : entries;
+    }
+
+    /**
+     * Combine two summaries into a new one with the given capacity. A key missing from a full
+     * summary may still have had up to that summary's smallest count, so that much is added to
+     * both its count and its error.
+     */
+    public static <K> SpaceSaving<K> merge(SpaceSaving<K> a, SpaceSaving<K> b, int capacity) {
+        double missingFromA = a.size == a.capacity ? a.heap[0].count : 0;
+        double missingFromB = b.size == b.capacity ? b.heap[0].count : 0;
+        Map<K, double[]> combined = new HashMap<>();
+        for (int i = 0; i < a.size; i++) {
+            Counter<K> counter = a.heap[i];
+            combined.put(counter.key, new double[] {counter.count + missingFromB, counter.error + missingFromB});
+        }
+        for (int i = 0; i < b.size; i++) {
+            Counter<K> counter = b.heap[i];
+            double[] existing = combined.get(counter.key);
+            if (existing == null) {
+                combined.put(counter.key, new double[] {counter.count + missingFromA, counter.error + missingFromA});
+            } else {
+                existing[0] += counter.count - missingFromB;
+                existing[1] += counter.error - missingFromB;
+            }
+        }
+
+        List<Map.Entry<K, double[]>> ranked = new ArrayList<>(combined.entrySet());
+        ranked.sort((x, y) -> Double.compare(y.getValue()[0], x.getValue()[0]));
+        SpaceSaving<K> merged = new SpaceSaving<>(capacity);
+        for (int i = 0; i < ranked.size() && i < capacity; i++) {
+            Counter<K> counter = new Counter<>();
+            counter.key = ranked.get(i).getKey();
+            counter.count = ranked.get(i).getValue()[0];
+            counter.error = ranked.get(i).getValue()[1];
+            counter.position = merged.size;
+            merged.heap[merged.size++] = counter;
+            merged.index.put(counter.key, counter);
+            merged.siftUp(counter.position);
+        }
+        merged.total = a.total + b.total;
+        return merged;
+    }
+
+    private void siftUp(int position) {
+        Counter<K> counter = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter<K> counter = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(counter, position);
+    }
+
+    private void place(Counter<K> counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+}
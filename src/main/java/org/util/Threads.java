@@ -0,0 +1,110 @@
+package org.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread and executor factories that use virtual threads when the runtime supports them.
+ * The project targets Java 11, so virtual threads are looked up reflectively once and
+ * platform threads are used as a fallback.
+ */
+public final class Threads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Class<?> BUILDER = findClass("java.lang.Thread$Builder");
+    private static final Method BUILDER_NAME = BUILDER == null ? null
+            : findMethod(BUILDER, "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = BUILDER == null ? null : findMethod(BUILDER, "factory");
+    private static final Method THREAD_PER_TASK =
+            findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private Threads() {
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    public static boolean virtualThreadsAvailable() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null;
+    }
+
+    /**
+     * Create a thread factory for worker threads: virtual threads when available,
+     * otherwise daemon platform threads.
+     * @param namePrefix The prefix of the thread names
+     * @return The thread factory
+     */
+    public static ThreadFactory workerThreadFactory(String namePrefix) {
+        if (virtualThreadsAvailable()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix + "-", 0L);
+                return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall through to platform threads
+            }
+        }
+        return platformThreadFactory(namePrefix);
+    }
+
+    /**
+     * Create a thread factory for daemon platform threads
+     * @param namePrefix The prefix of the thread names
+     * @return The thread factory
+     */
+    public static ThreadFactory platformThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create an executor for CPU-bound work: a fixed pool of daemon platform threads,
+     * since virtual threads bring nothing to work that never blocks.
+     * @param namePrefix The prefix of the thread names
+     * @param threads The pool size
+     * @return The executor
+     */
+    public static ExecutorService newComputeExecutor(String namePrefix, int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), platformThreadFactory(namePrefix));
+    }
+
+    /**
+     * Create an executor for blocking work: one virtual thread per task when available,
+     * otherwise a fixed pool of daemon platform threads.
+     * @param namePrefix The prefix of the thread names
+     * @param platformThreads The pool size used when virtual threads are not available
+     * @return The executor
+     */
+    public static ExecutorService newWorkerExecutor(String namePrefix, int platformThreads) {
+        ThreadFactory factory = workerThreadFactory(namePrefix);
+        if (virtualThreadsAvailable() && THREAD_PER_TASK != null) {
+            try {
+                return (ExecutorService) THREAD_PER_TASK.invoke(null, factory);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Fall through to a platform pool
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), factory);
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of time buckets, each holding an event count, an item count and an amount.
+ * <p>
+ * Buckets are addressed by slice number (time divided by the bucket length) and the ring keeps
+ * the most recent {@code capacity} slices. Each slot remembers which slice it holds, so a slot
+ * left over from an older pass of the ring reads as empty and is cleared by the first write of
+ * its new slice. Writes are lock-free apart from that clearing.
+ */
+public class TimeBucketRing {
+    private final int capacity;
+    private final AtomicLongArray slices;
+    private final AtomicLongArray events;
+    private final AtomicLongArray items;
+    // Amounts are stored as raw double bits and added with compare-and-set
+    private final AtomicLongArray amounts;
+
+    public TimeBucketRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.slices = new AtomicLongArray(capacity);
+        this.events = new AtomicLongArray(capacity);
+        this.items = new AtomicLongArray(capacity);
+        this.amounts = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slices.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Add one event to a slice
+     * @param slice The slice number; must not be negative
+     * @param itemCount The number of items in the event
+     * @param amount The amount of the event
+     */
+    public void add(long slice, long itemCount, double amount) {
+        int slot = slot(slice);
+        if (slices.get(slot) != slice) {
+            synchronized (this) {
+                if (slices.get(slot) < slice) {
+                    events.set(slot, 0);
+                    items.set(slot, 0);
+                    amounts.set(slot, Double.doubleToRawLongBits(0));
+                    slices.set(slot, slice);
+                }
+            }
+            if (slices.get(slot) != slice) {
+                // The slot already moved on to a newer slice, so this event is past retention
+                return;
+            }
+        }
+        events.incrementAndGet(slot);
+        items.addAndGet(slot, itemCount);
+        long bits;
+        do {
+            bits = amounts.get(slot);
+        } while (!amounts.compareAndSet(slot, bits,
+                Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + amount)));
+    }
+
+    /**
+     * @return true if the ring currently holds the slice
+     */
+    public boolean holds(long slice) {
+        return slice >= 0 && slices.get(slot(slice)) == slice;
+    }
+
+    public long getEvents(long slice) {
+        return holds(slice) ? events.get(slot(slice)) : 0;
+    }
+
+    public long getItems(long slice) {
+        return holds(slice) ? items.get(slot(slice)) : 0;
+    }
+
+    public double getAmount(long slice) {
+        return holds(slice) ? Double.longBitsToDouble(amounts.get(slot(slice))) : 0;
+    }
+
+    private int slot(long slice) {
+        return (int) Math.floorMod(slice, (long) capacity);
+    }
+}
@@ -0,0 +1,234 @@
+package org.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel with intrusive timers.
+ * <p>
+ * Level 0 has one slot per tick, every further level has slots that are 64 times wider.
+ * Arming and cancelling a timer is O(1): the timer is linked into, or unlinked from, the slot
+ * that covers its deadline. Timers on higher levels are cascaded down as the wheel turns, and
+ * expire when the level 0 slot of their deadline is reached.
+ * <p>
+ * Timers can be armed and cancelled from any thread. {@link #advance(long)} may be called from
+ * several threads as well, but only one of them turns the wheel at a time.
+ *
+ * @param <T> The concrete timer type handed to the expiry callback
+ */
+public class TimerWheel<T extends TimerWheel.Timer> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final Bucket[][] wheel;
+    private final Consumer<T> onExpiry;
+    // Arming takes the read lock so it never races with a tick; turning the wheel takes the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long currentTick;
+
+    /**
+     * A timer that can be armed on a wheel. Subclasses carry the payload, so arming does not allocate.
+     */
+    public abstract static class Timer {
+        private long deadlineTick;
+        private Timer prev;
+        private Timer next;
+        private volatile Bucket bucket;
+
+        /**
+         * @return true if the timer is currently armed on a wheel
+         */
+        public boolean isArmed() {
+            return bucket != null;
+        }
+    }
+
+    private static final class Bucket {
+        private Timer head;
+
+        synchronized void add(Timer timer) {
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+            timer.bucket = this;
+        }
+
+        synchronized boolean remove(Timer timer) {
+            if (timer.bucket != this) {
+                return false;
+            }
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = null;
+            return true;
+        }
+
+        synchronized Timer drain() {
+            Timer drained = head;
+            for (Timer t = head; t != null; t = t.next) {
+                t.bucket = null;
+            }
+            head = null;
+            return drained;
+        }
+    }
+
+    /**
+     * @param tickMillis The resolution of the wheel in milliseconds
+     * @param levels The number of levels; the wheel spans 64^levels ticks before timers are clamped
+     * @param startMillis The current time
+     * @param onExpiry Called for each timer whose deadline has passed, outside of any wheel lock
+     */
+    public TimerWheel(long tickMillis, int levels, long startMillis, Consumer<T> onExpiry) {
+        if (tickMillis <= 0 || levels <= 0 || levels * SLOT_BITS >= 63) {
+            throw new IllegalArgumentException("Invalid timer wheel dimensions: tick=" + tickMillis + ", levels=" + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.onExpiry = onExpiry;
+        this.currentTick = startMillis / tickMillis;
+        this.wheel = new Bucket[levels][SLOTS];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * Arm a timer. A timer must not be armed twice.
+     * @param timer The timer
+     * @param deadlineMillis The time at which the timer expires
+     */
+    public void arm(T timer, long deadlineMillis) {
+        Timer armed = timer;
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        lock.readLock().lock();
+        try {
+            armed.deadlineTick = deadlineTick;
+            place(armed, currentTick + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cancel a timer
+     * @param timer The timer
+     * @return true if the timer was armed and is now cancelled, false if it already expired or was cancelled
+     */
+    public boolean cancel(T timer) {
+        Timer armed = timer;
+        while (true) {
+            Bucket bucket = armed.bucket;
+            if (bucket == null) {
+                return false;
+            }
+            if (bucket.remove(armed)) {
+                return true;
+            }
+            // The timer was cascaded to another bucket in the meantime; retry there
+        }
+    }
+
+    /**
+     * Turn the wheel up to the given time and fire every timer whose deadline has passed.
+     * If another thread is already turning the wheel this call returns immediately.
+     * @param nowMillis The current time
+     * @return The number of timers that expired
+     */
+    public int advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick <= currentTick || !lock.writeLock().tryLock()) {
+            return 0;
+        }
+        List<Timer> expired = new ArrayList<>();
+        try {
+            while (currentTick < targetTick) {
+                long tick = currentTick + 1;
+                currentTick = tick;
+                // Cascade from the highest level whose slot boundary was crossed down to level 1
+                int level = 1;
+                while (level < levels && (tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    level++;
+                }
+                for (int l = level - 1; l >= 1; l--) {
+                    cascade(wheel[l][(int) ((tick >>> (SLOT_BITS * l)) & SLOT_MASK)], tick);
+                }
+                Timer timer = wheel[0][(int) (tick & SLOT_MASK)].drain();
+                while (timer != null) {
+                    Timer next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    if (timer.deadlineTick <= tick) {
+                        expired.add(timer);
+                    } else {
+                        place(timer, tick + 1);
+                    }
+                    timer = next;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Timer timer : expired) {
+            @SuppressWarnings("unchecked")
+            T typed = (T) timer;
+            onExpiry.accept(typed);
+        }
+        return expired.size();
+    }
+
+    /**
+     * @return The time up to which the wheel has been turned
+     */
+    public long getCurrentMillis() {
+        return currentTick * tickMillis;
+    }
+
+    // Cascading happens before the level 0 slot of the same tick is drained,
+    // so timers due at this very tick can still be placed into it
+    private void cascade(Bucket bucket, long tick) {
+        Timer timer = bucket.drain();
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer, tick);
+            timer = next;
+        }
+    }
+
+    private void place(Timer timer, long earliestTick) {
+        long tick = currentTick;
+        // Overdue timers go into the earliest slot that will still be drained. Timers beyond the
+        // wheel's span are clamped so they land at most 63 slots ahead on the top level, and are
+        // re-placed with their real deadline when they cascade down.
+        long placement = Math.max(timer.deadlineTick, earliestTick);
+        long maxDelta = ((long) SLOT_MASK << (SLOT_BITS * (levels - 1))) - 1;
+        if (placement - tick > maxDelta) {
+            placement = tick + maxDelta;
+        }
+        int level = 0;
+        while (level < levels - 1 && (placement >>> (SLOT_BITS * (level + 1))) != (tick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        wheel[level][(int) ((placement >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timer);
+    }
+}
@@ -40,7 +40,6 @@ public class StoreSystemIntegrationTest {
 
     @BeforeEach
     void setUp() {
-        Receipt.resetReceiptCounter();
         Product.resetProductCounter();
         Cashier.resetCashierCounter();
         
@@ -49,6 +48,7 @@ public class StoreSystemIntegrationTest {
         productService = new ProductServiceImpl(5, 0.20);
         cashierService = new CashierServiceImpl();
         receiptService = new ReceiptServiceImpl(config);
+        receiptService.resetReceiptCounter();
         PricingService pricingService = new PricingServiceImpl(productService, 5, 0.20);
         store = new StoreServiceImpl(storeData, config, productService, cashierService, receiptService, pricingService);
     }
@@ -2,6 +2,8 @@ package org.service;
 
 import org.data.Cashier;
 import org.service.impl.CashierServiceImpl;
+import org.exception.CashierAlreadyAssignedException;
+import org.exception.CashierNotAtRegisterException;
 import org.exception.CashierNotFoundException;
 import org.exception.RegisterAlreadyAssignedException;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Nested;
 
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +85,98 @@ public class CashierServiceTest {
         void testGetCashierAtUnassignedRegister() {
             assertNull(cashierService.getCashierAtRegister(1));
         }
+
+        @Test
+        void testReleaseRegister() {
+            Cashier cashier = new Cashier("John Doe", 1500.0);
+            cashierService.addCashier(cashier);
+            cashierService.assignCashierToRegister(cashier.getId(), 3);
+
+            assertSame(cashier, cashierService.releaseRegister(3));
+            assertNull(cashierService.getCashierAtRegister(3));
+            assertEquals(-1, cashier.getRegisterNumber());
+            assertNull(cashierService.releaseRegister(3));
+            assertEquals(0, cashierService.getAssignedRegisters().length);
+        }
+
+        @Test
+        void testHandOverRegister() {
+            Cashier morning = new Cashier("John Doe", 1500.0);
+            Cashier evening = new Cashier("Jane Smith", 1600.0);
+            cashierService.addCashier(morning);
+            cashierService.addCashier(evening);
+            cashierService.assignCashierToRegister(morning.getId(), 2);
+
+            cashierService.handOverRegister(2, morning.getId(), evening.getId());
+
+            assertSame(evening, cashierService.getCashierAtRegister(2));
+            assertEquals(2, evening.getRegisterNumber());
+            assertEquals(-1, morning.getRegisterNumber());
+            Cashier night = new Cashier("Night Shift", 1400.0);
+            cashierService.addCashier(night);
+            assertThrows(CashierNotAtRegisterException.class,
+                    () -> cashierService.handOverRegister(2, morning.getId(), night.getId()));
+            assertThrows(CashierAlreadyAssignedException.class,
+                    () -> cashierService.handOverRegister(3, night.getId(), evening.getId()));
+            assertSame(evening, cashierService.getCashierAtRegister(2));
+            assertEquals(-1, night.getRegisterNumber());
+        }
+
+        @Test
+        void testCashierHoldsOneRegisterAtATime() {
+            Cashier cashier = new Cashier("John Doe", 1500.0);
+            cashierService.addCashier(cashier);
+            cashierService.assignCashierToRegister(cashier.getId(), 2);
+
+            CashierAlreadyAssignedException e = assertThrows(CashierAlreadyAssignedException.class,
+                    () -> cashierService.assignCashierToRegister(cashier.getId(), 3));
+            assertEquals(2, e.getRegisterNumber());
+            assertNull(cashierService.getCashierAtRegister(3));
+
+            cashierService.releaseRegister(2);
+            cashierService.assignCashierToRegister(cashier.getId(), 3);
+            assertSame(cashier, cashierService.getCashierAtRegister(3));
+        }
+
+        @Test
+        void testAssignedRegistersAreSorted() {
+            int[] registers = {130, 1, 64, 7};
+            for (int register : registers) {
+                Cashier cashier = new Cashier("Cashier " + register, 1000.0);
+                cashierService.addCashier(cashier);
+                cashierService.assignCashierToRegister(cashier.getId(), register);
+            }
+
+            assertArrayEquals(new int[] {1, 7, 64, 130}, cashierService.getAssignedRegisters());
+        }
+
+        @Test
+        void testConcurrentAssignmentsHaveOneWinner() throws InterruptedException {
+            int contenders = 8;
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger winners = new AtomicInteger();
+            Thread[] threads = new Thread[contenders];
+            for (int i = 0; i < contenders; i++) {
+                Cashier cashier = new Cashier("Cashier " + i, 1000.0);
+                cashierService.addCashier(cashier);
+                threads[i] = new Thread(() -> {
+                    try {
+                        start.await();
+                        cashierService.assignCashierToRegister(cashier.getId(), 5);
+                        winners.incrementAndGet();
+                    } catch (RegisterAlreadyAssignedException | InterruptedException e) {
+                        // Lost the race
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(1, winners.get());
+        }
     }
 
     @Nested
@@ -0,0 +1,114 @@
+package org.service;
+
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.exception.CheckoutAlreadyOpenException;
+import org.exception.InsufficientQuantityException;
+import org.exception.NoAssignedCashierException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.service.impl.StoreServiceImpl;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutSessionTest {
+    private StoreServiceImpl store;
+    private Product milk;
+    private Product soap;
+
+    @BeforeEach
+    void setUp() {
+        store = new StoreServiceImpl(0.20, 0.30, 7, 0.15);
+        milk = new Product(1, "Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), 10);
+        soap = new Product(2, "Soap", 3.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(365), 5);
+        store.addProduct(milk);
+        store.addProduct(soap);
+
+        Cashier cashier = new Cashier(1, "John Doe", 1500.0);
+        store.addCashier(cashier);
+        store.assignCashierToRegister(cashier, 1);
+    }
+
+    @Test
+    void testScanHoldsStockAndKeepsRunningTotal() {
+        CheckoutSession session = store.openCheckout(1);
+
+        session.scan(1, 2);
+        session.scan(2, 1);
+
+        assertEquals(2 * 2.4 + 3.9, session.total(), 0.001);
+        assertEquals(10, milk.getQuantity());
+        assertEquals(8, milk.getAvailableQuantity());
+        assertEquals(4, soap.getAvailableQuantity());
+    }
+
+    @Test
+    void testHeldStockCannotBeSoldElsewhere() {
+        CheckoutSession session = store.openCheckout(1);
+        session.scan(2, 4);
+
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(2, 2);
+        assertThrows(InsufficientQuantityException.class, () -> store.createSale(1, purchase));
+        assertThrows(InsufficientQuantityException.class, () -> session.scan(2, 2));
+    }
+
+    @Test
+    void testVoidLineReleasesHold() {
+        CheckoutSession session = store.openCheckout(1);
+        int line = session.scan(1, 3);
+        session.scan(2, 1);
+
+        session.voidLine(line);
+
+        assertEquals(3.9, session.total(), 0.001);
+        assertEquals(10, milk.getAvailableQuantity());
+    }
+
+    @Test
+    void testFinishCommitsHeldLines() {
+        CheckoutSession session = store.openCheckout(1);
+        int line = session.scan(1, 3);
+        session.scan(2, 2);
+        session.voidLine(line);
+
+        Receipt receipt = session.finish();
+
+        assertEquals(1, receipt.getLineCount());
+        assertEquals(2, receipt.getProductId(0));
+        assertEquals(2 * 3.9, receipt.getTotalAmount(), 0.001);
+        assertEquals(3, soap.getQuantity());
+        assertEquals(0, soap.getReservedQuantity());
+        assertEquals(10, milk.getQuantity());
+        assertFalse(session.isOpen());
+        assertNull(store.getOpenCheckout(1));
+    }
+
+    @Test
+    void testCancelReleasesAllHolds() {
+        CheckoutSession session = store.openCheckout(1);
+        session.scan(1, 3);
+        session.scan(2, 5);
+
+        session.cancel();
+
+        assertEquals(10, milk.getAvailableQuantity());
+        assertEquals(5, soap.getAvailableQuantity());
+        assertThrows(IllegalStateException.class, () -> session.scan(1, 1));
+    }
+
+    @Test
+    void testOneOpenCheckoutPerRegister() {
+        CheckoutSession session = store.openCheckout(1);
+
+        assertSame(session, store.getOpenCheckout(1));
+        assertThrows(CheckoutAlreadyOpenException.class, () -> store.openCheckout(1));
+        assertThrows(NoAssignedCashierException.class, () -> store.openCheckout(2));
+    }
+}
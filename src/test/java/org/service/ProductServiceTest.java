@@ -2,6 +2,7 @@ package org.service;
 
 import org.data.Product;
 import org.data.ProductCategory;
+import org.data.StockHold;
 import org.service.impl.ProductServiceImpl;
 import org.service.impl.StoreServiceImpl;
 import org.exception.ProductNotFoundException;
@@ -141,6 +142,52 @@ public class ProductServiceTest {
         }
     }
 
+    @Nested
+    class StockHoldTests {
+        @Test
+        void testHoldReducesAvailableQuantity() {
+            Product product = new Product("Held", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(10), 5);
+            productService.addProduct(product);
+
+            StockHold hold = productService.placeHold(product.getId(), 3, 60_000);
+
+            assertNotNull(hold);
+            assertEquals(2, product.getAvailableQuantity());
+            assertNull(productService.placeHold(product.getId(), 3, 60_000));
+            assertFalse(productService.decreaseProductQuantity(product.getId(), 3));
+        }
+
+        @Test
+        void testCommitAndReleaseEndHoldOnce() {
+            Product product = new Product("Held", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(10), 5);
+            productService.addProduct(product);
+            StockHold sold = productService.placeHold(product.getId(), 2, 60_000);
+            StockHold released = productService.placeHold(product.getId(), 2, 60_000);
+
+            assertTrue(productService.commitHold(sold));
+            assertTrue(productService.releaseHold(released));
+            assertFalse(productService.releaseHold(sold));
+            assertFalse(productService.commitHold(released));
+
+            assertEquals(3, product.getQuantity());
+            assertEquals(3, product.getAvailableQuantity());
+        }
+
+        @Test
+        void testHoldExpiresAfterTtl() {
+            Product product = new Product("Held", 10.0, ProductCategory.FOOD, LocalDate.now().plusDays(10), 5);
+            productService.addProduct(product);
+            StockHold hold = productService.placeHold(product.getId(), 4, 1_000);
+
+            int expired = ((ProductServiceImpl) productService).expireHolds(System.currentTimeMillis() + 5_000);
+
+            assertEquals(1, expired);
+            assertEquals(StockHold.State.EXPIRED, hold.getState());
+            assertEquals(5, product.getAvailableQuantity());
+            assertFalse(productService.commitHold(hold));
+        }
+    }
+
     @Nested
     class ErrorHandlingTests {
         @Test
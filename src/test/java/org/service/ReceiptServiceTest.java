@@ -4,6 +4,7 @@ import org.data.Receipt;
 import org.data.Cashier;
 import org.data.Product;
 import org.data.ProductCategory;
+import org.service.impl.ReceiptPersistenceServiceImpl;
 import org.service.impl.ReceiptServiceImpl;
 import org.config.StoreConfig;
 import org.exception.ReceiptPersistenceException;
@@ -18,6 +19,7 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,9 +35,9 @@ public class ReceiptServiceTest {
 
     @BeforeEach
     void setUp() {
-        Receipt.resetReceiptCounter();
         config = new StoreConfig();
         receiptService = new ReceiptServiceImpl(config);
+        receiptService.resetReceiptCounter();
         
         cashier = new Cashier("John Doe", 1500.0);
         product = new Product("Test Product", 10.0, ProductCategory.FOOD,
@@ -63,6 +65,8 @@ public class ReceiptServiceTest {
             assertEquals(1, receiptItems.size());
             assertTrue(receiptItems.containsKey(product));
             assertEquals(2, receiptItems.get(product));
+            assertSame(receiptItems, receipt.getItems());
+            assertThrows(UnsupportedOperationException.class, () -> receiptItems.put(product, 5));
         }
 
         @Test
@@ -153,6 +157,17 @@ public class ReceiptServiceTest {
             Receipt newReceipt = receiptService.createReceipt(cashier, 2, items, 36.0);
             assertEquals(1, newReceipt.getReceiptNumber());
         }
+
+        @Test
+        void testRestartedServiceDoesNotReuseReceiptNumbers() {
+            StoreConfig storeConfig = new StoreConfig(tempDir.getPath(), 1, 0, true, true);
+            Receipt beforeRestart = new ReceiptServiceImpl(storeConfig).createReceipt(cashier, 1, items, 24.0);
+
+            Receipt afterRestart = new ReceiptServiceImpl(storeConfig).createReceipt(cashier, 1, items, 24.0);
+
+            assertTrue(afterRestart.getReceiptNumber() > beforeRestart.getReceiptNumber());
+            assertTrue(new File(tempDir, "receipt_" + beforeRestart.getReceiptNumber() + ".ser").exists());
+        }
     }
 
     @Nested
@@ -169,6 +184,28 @@ public class ReceiptServiceTest {
             });
         }
 
+        @Test
+        void testFailedWriteIsReportedToDurableCallers() {
+            ReceiptService writeOnCaller = new ReceiptServiceImpl(new ReceiptPersistenceServiceImpl(blockedConfig("caller")));
+            ReceiptService writeOnExecutor = new ReceiptServiceImpl(
+                    new ReceiptPersistenceServiceImpl(blockedConfig("executor")), Runnable::run);
+
+            for (ReceiptService service : List.of(writeOnCaller, writeOnExecutor)) {
+                Receipt receipt = service.createReceipt(cashier, 1, items, 24.0);
+
+                CompletionException e = assertThrows(CompletionException.class,
+                        () -> service.whenPersisted(receipt.getReceiptNumber()).join());
+                assertInstanceOf(ReceiptPersistenceException.class, e.getCause());
+            }
+        }
+
+        // A directory where the first receipt's file should be makes its write fail
+        private StoreConfig blockedConfig(String name) {
+            File dir = new File(tempDir, name);
+            assertTrue(new File(dir, "receipt_1.ser").mkdirs());
+            return new StoreConfig(dir.getPath(), 1, 0, true, true);
+        }
+
         @Test
         void testReadNonExistentTextFile() {
             assertThrows(IOException.class, () -> {
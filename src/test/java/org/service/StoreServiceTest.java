@@ -1,9 +1,16 @@
 package org.service;
 
 import org.data.Product;
+import org.data.Basket;
 import org.data.Cashier;
+import org.data.Delivery;
 import org.data.Receipt;
 import org.data.ProductCategory;
+import org.data.ProductProfit;
+import org.data.SaleOutcome;
+import org.data.SaleRequest;
+import org.data.SaleResult;
+import org.data.SalesCounters;
 import org.data.Store;
 import org.service.impl.StoreServiceImpl;
 import org.service.impl.ProductServiceImpl;
@@ -11,6 +18,10 @@ import org.service.impl.CashierServiceImpl;
 import org.service.impl.ReceiptServiceImpl;
 import org.config.StoreConfig;
 import org.exception.InsufficientQuantityException;
+import org.exception.InvalidInputException;
+import org.exception.NegativeQuantityException;
+import org.exception.NoAssignedCashierException;
+import org.exception.ProductNotFoundException;
 import org.exception.RegisterAlreadyAssignedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,7 +30,10 @@ import org.service.PricingService;
 import org.service.impl.PricingServiceImpl;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,12 +49,12 @@ public class StoreServiceTest {
 
     @BeforeEach
     void setUp() {
-        Receipt.resetReceiptCounter();
         config = new StoreConfig();
         storeData = new Store("Test Store", "Test Address", 0.20, 0.30, 7, 0.15);
         productService = new ProductServiceImpl(7, 0.15);
         cashierService = new CashierServiceImpl();
         receiptService = new ReceiptServiceImpl(config);
+        receiptService.resetReceiptCounter();
         pricingService = new PricingServiceImpl(productService, 7, 0.15);
         store = new StoreServiceImpl(storeData, config, productService, cashierService, receiptService, pricingService);
 
@@ -77,6 +91,63 @@ public class StoreServiceTest {
             assertTrue(store.getDeliveredProducts().stream()
                     .anyMatch(p -> p.getName().equals("Bread")));
         }
+
+        @Test
+        void testRestockExistingProduct() {
+            double expensesBefore = store.getDeliveryExpenses();
+
+            int newQuantity = store.restock(1, 5, 1.8, LocalDate.now().plusDays(20));
+
+            assertEquals(15, newQuantity);
+            assertEquals(15, productService.getProduct(1).getQuantity());
+            assertEquals(LocalDate.now().plusDays(10), productService.getProduct(1).getExpirationDate());
+            assertEquals(expensesBefore + 9.0, store.getDeliveryExpenses(), 0.01);
+        }
+
+        @Test
+        void testRestockBatchIsValidatedBeforeApplying() {
+            List<Delivery> deliveries = Arrays.asList(
+                    new Delivery(1, 5, 2.0, null),
+                    new Delivery(999, 5, 2.0, null));
+
+            assertThrows(ProductNotFoundException.class, () -> store.restock(deliveries));
+            assertEquals(10, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testRestockBatch() {
+            double expensesBefore = store.getDeliveryExpenses();
+
+            store.restock(Arrays.asList(
+                    new Delivery(1, 5, 2.0, null),
+                    new Delivery(2, 10, 1.0, null)));
+
+            assertEquals(15, productService.getProduct(1).getQuantity());
+            assertEquals(25, productService.getProduct(2).getQuantity());
+            assertEquals(expensesBefore + 20.0, store.getDeliveryExpenses(), 0.01);
+        }
+
+        @Test
+        void testConcurrentRestocksAndSales() throws InterruptedException {
+            Thread delivery = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    store.restock(1, 1, 2.0, null);
+                }
+            });
+            Thread sales = new Thread(() -> {
+                Map<Integer, Integer> purchase = new HashMap<>();
+                purchase.put(1, 1);
+                for (int i = 0; i < 500; i++) {
+                    store.createSale(1, purchase);
+                }
+            });
+            delivery.start();
+            sales.start();
+            delivery.join();
+            sales.join();
+
+            assertEquals(10 + 1000 - 500, productService.getProduct(1).getQuantity());
+        }
     }
 
     @Nested
@@ -141,10 +212,360 @@ public class StoreServiceTest {
                 store.createSale(1, purchase);
             });
         }
+
+        @Test
+        void testRetriedSaleReturnsOriginalReceipt() {
+            Map<Integer, Integer> purchase = new HashMap<>();
+            purchase.put(1, 2);
+
+            Receipt first = store.createSale("terminal-1/42", 1, purchase);
+            Receipt retry = store.createSale("terminal-1/42", 1, purchase);
+
+            assertSame(first, retry);
+            assertEquals(8, productService.getProduct(1).getQuantity());
+            assertEquals(1, store.getTotalReceipts());
+
+            store.createSale("terminal-1/43", 1, purchase);
+            assertEquals(6, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testFailedIdempotentSaleCanBeRetried() {
+            Map<Integer, Integer> purchase = new HashMap<>();
+            purchase.put(1, 15);
+            assertThrows(InsufficientQuantityException.class, () -> store.createSale("key", 1, purchase));
+
+            store.restock(1, 5, 2.0, null);
+            Receipt receipt = store.createSale("key", 1, purchase);
+
+            assertNotNull(receipt);
+            assertEquals(0, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testCreateSaleFromBasket() {
+            Basket basket = new Basket();
+            basket.add(1, 2);
+            basket.add(2, 1);
+            basket.add(1, 1);
+
+            Receipt receipt = store.createSale(1, basket);
+
+            assertEquals(2, receipt.getLineCount());
+            assertEquals(1, receipt.getProductId(0));
+            assertEquals(3, receipt.getQuantity(0));
+            assertEquals(pricingService.calculateSellingPrice(1, 0.20), receipt.getUnitPrice(0), 0.001);
+            assertEquals(7, productService.getProduct(1).getQuantity());
+            assertEquals(14, productService.getProduct(2).getQuantity());
+            assertEquals(Integer.valueOf(3), receipt.getItems().get(productService.getProduct(1)));
+        }
+
+        @Test
+        void testCreateSaleFromArraysDoesNotKeepCallerArrays() {
+            int[] productIds = {1, 2};
+            int[] quantities = {1, 1};
+
+            Receipt receipt = store.createSale(1, productIds, quantities, 2);
+            quantities[0] = 5;
+
+            assertEquals(1, receipt.getQuantity(0));
+            assertEquals(9, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testFailedSaleLeavesStockUnchanged() {
+            int[] productIds = {1, 2};
+            int[] quantities = {2, 50};
+
+            assertThrows(InsufficientQuantityException.class, () -> store.createSale(1, productIds, quantities, 2));
+            assertEquals(10, productService.getProduct(1).getQuantity());
+            assertEquals(15, productService.getProduct(2).getQuantity());
+        }
+
+        @Test
+        void testInvalidQuantityIsRejectedBeforeStockIsTaken() {
+            int[] productIds = {1, 2};
+
+            assertThrows(NegativeQuantityException.class,
+                    () -> store.createSale(1, productIds, new int[] {3, -1}, 2));
+            assertThrows(InvalidInputException.class,
+                    () -> store.createSale(1, productIds, new int[] {3, 0}, 2));
+            assertEquals(10, productService.getProduct(1).getQuantity());
+            assertEquals(15, productService.getProduct(2).getQuantity());
+            assertEquals(0, store.getTotalReceipts());
+        }
+
+        @Test
+        void testHeldStockIsNotSoldTwice() {
+            productService.placeHold(1, 8, 60_000);
+            Map<Integer, Integer> fiveMilk = new HashMap<>();
+            fiveMilk.put(1, 5);
+
+            assertThrows(InsufficientQuantityException.class, () -> store.createSale(1, fiveMilk));
+            assertEquals(10, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testExpiredHoldNoLongerBlocksSales() throws InterruptedException {
+            productService.placeHold(1, 8, 50);
+            Map<Integer, Integer> fiveMilk = new HashMap<>();
+            fiveMilk.put(1, 5);
+            Map<Integer, Integer> twoMilk = new HashMap<>();
+            twoMilk.put(1, 2);
+
+            Thread.sleep(400);
+
+            assertEquals(SaleOutcome.SOLD, store.trySale(1, fiveMilk).getOutcome());
+            productService.placeHold(1, 3, 50);
+            Thread.sleep(400);
+            List<SaleResult> results = store.createSales(List.of(new SaleRequest(1, twoMilk)));
+            assertEquals(SaleOutcome.SOLD, results.get(0).getOutcome());
+            assertEquals(3, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testQuoteSellingPricesMatchesSingleProductPricing() {
+            int[] productIds = {1, 2};
+            int[] quantities = {2, 3};
+            double[] unitPrices = new double[2];
+
+            double total = store.quoteSellingPrices(productIds, quantities, unitPrices);
+
+            double milkPrice = pricingService.calculateSellingPrice(1, 0.20);
+            double breadPrice = pricingService.calculateSellingPrice(2, 0.20); // near expiration
+            assertEquals(milkPrice, unitPrices[0], 0.001);
+            assertEquals(breadPrice, unitPrices[1], 0.001);
+            assertEquals(milkPrice * 2 + breadPrice * 3, total, 0.001);
+        }
+
+        @Test
+        void testCreateSalesReportsFailuresPerSale() {
+            Map<Integer, Integer> twoMilk = new HashMap<>();
+            twoMilk.put(1, 2);
+            Map<Integer, Integer> unknown = new HashMap<>();
+            unknown.put(99, 1);
+            Map<Integer, Integer> bread = new HashMap<>();
+            bread.put(2, 5);
+            List<SaleRequest> requests = Arrays.asList(
+                    new SaleRequest(1, twoMilk),
+                    new SaleRequest(1, unknown),
+                    new SaleRequest(2, bread),
+                    new SaleRequest(1, bread));
+
+            List<SaleResult> results = store.createSales(requests);
+
+            assertEquals(4, results.size());
+            assertTrue(results.get(0).isSuccess());
+            assertInstanceOf(ProductNotFoundException.class, results.get(1).getFailure());
+            assertEquals(SaleOutcome.PRODUCT_NOT_FOUND, results.get(1).getOutcome());
+            assertInstanceOf(NoAssignedCashierException.class, results.get(2).getFailure());
+            assertTrue(results.get(3).isSuccess());
+            assertEquals(results.get(0).getReceipt().getReceiptNumber() + 1,
+                    results.get(3).getReceipt().getReceiptNumber());
+            assertEquals(8, productService.getProduct(1).getQuantity());
+            assertEquals(10, productService.getProduct(2).getQuantity());
+            assertEquals(2, store.getTotalReceipts());
+        }
+
+        @Test
+        void testTrySaleReturnsSharedRejections() {
+            Map<Integer, Integer> tooMuchMilk = new HashMap<>();
+            tooMuchMilk.put(1, 50);
+            Map<Integer, Integer> unknown = new HashMap<>();
+            unknown.put(99, 1);
+
+            SaleResult first = store.trySale(1, tooMuchMilk);
+            SaleResult second = store.trySale(1, tooMuchMilk);
+
+            assertEquals(SaleOutcome.INSUFFICIENT_QUANTITY, first.getOutcome());
+            assertSame(first, second);
+            assertNull(first.getFailure());
+            assertEquals(SaleOutcome.PRODUCT_NOT_FOUND, store.trySale(1, unknown).getOutcome());
+            assertEquals(SaleOutcome.NO_ASSIGNED_CASHIER, store.trySale(2, unknown).getOutcome());
+            assertEquals(10, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testTrySaleRejectsInvalidQuantitiesWithoutTakingStock() {
+            Map<Integer, Integer> negative = new HashMap<>();
+            negative.put(1, 2);
+            negative.put(2, -1);
+            Map<Integer, Integer> missing = new HashMap<>();
+            missing.put(1, 2);
+            missing.put(2, null);
+            Basket empty = new Basket();
+            empty.add(1, 2);
+            empty.add(2, 0);
+
+            assertEquals(SaleOutcome.INVALID_REQUEST, store.trySale(1, negative).getOutcome());
+            assertEquals(SaleOutcome.INVALID_REQUEST, store.trySale(1, missing).getOutcome());
+            assertEquals(SaleOutcome.INVALID_REQUEST, store.trySale(1, empty).getOutcome());
+            assertEquals(10, productService.getProduct(1).getQuantity());
+            assertEquals(15, productService.getProduct(2).getQuantity());
+            assertEquals(0, store.getTotalReceipts());
+        }
+
+        @Test
+        void testTrySaleIssuesReceipt() {
+            Basket basket = new Basket();
+            basket.add(1, 3);
+
+            SaleResult result = store.trySale(1, basket);
+
+            assertTrue(result.isSuccess());
+            assertEquals(SaleOutcome.SOLD, result.getOutcome());
+            assertEquals(3, result.getReceipt().getQuantity(0));
+            assertEquals(7, productService.getProduct(1).getQuantity());
+        }
+
+        @Test
+        void testSaleExceptionsAreStackless() {
+            Map<Integer, Integer> tooMuchMilk = new HashMap<>();
+            tooMuchMilk.put(1, 50);
+
+            InsufficientQuantityException e = assertThrows(InsufficientQuantityException.class,
+                    () -> store.createSale(1, tooMuchMilk));
+
+            assertEquals(0, e.getStackTrace().length);
+            assertEquals("Insufficient quantity for Milk. Requested: 50, Available: 10", e.getMessage());
+        }
+
+        @Test
+        void testInvalidSaleInBatchFailsAlone() {
+            Map<Integer, Integer> oneMilk = new HashMap<>();
+            oneMilk.put(1, 1);
+            Map<Integer, Integer> negativeBread = new HashMap<>();
+            negativeBread.put(2, -5);
+            Map<Integer, Integer> milkAndNoBread = new HashMap<>();
+            milkAndNoBread.put(1, 2);
+            milkAndNoBread.put(2, 0);
+            List<SaleRequest> requests = Arrays.asList(
+                    new SaleRequest(1, oneMilk),
+                    new SaleRequest(1, negativeBread),
+                    new SaleRequest(1, milkAndNoBread));
+
+            List<SaleResult> results = store.createSales(requests);
+
+            assertTrue(results.get(0).isSuccess());
+            assertEquals(SaleOutcome.INVALID_REQUEST, results.get(1).getOutcome());
+            assertInstanceOf(NegativeQuantityException.class, results.get(1).getFailure());
+            assertEquals(SaleOutcome.INVALID_REQUEST, results.get(2).getOutcome());
+            assertEquals(9, productService.getProduct(1).getQuantity());
+            assertEquals(15, productService.getProduct(2).getQuantity());
+            assertEquals(1, store.getTotalReceipts());
+        }
+
+        @Test
+        void testCreateSalesAllocatesStockInRequestOrder() {
+            Map<Integer, Integer> sixMilk = new HashMap<>();
+            sixMilk.put(1, 6);
+            List<SaleRequest> requests = Arrays.asList(
+                    new SaleRequest(1, sixMilk),
+                    new SaleRequest(1, sixMilk));
+
+            List<SaleResult> results = store.createSales(requests);
+
+            assertTrue(results.get(0).isSuccess());
+            assertInstanceOf(InsufficientQuantityException.class, results.get(1).getFailure());
+            assertEquals(4, productService.getProduct(1).getQuantity());
+        }
     }
 
     @Nested
     class FinancialManagementTests {
+        @Test
+        void testSalesStatisticsPerCashierAndRegister() {
+            Cashier jane = new Cashier(2, "Jane Smith", 1600.0);
+            store.addCashier(jane);
+            store.assignCashierToRegister(jane, 2);
+            Map<Integer, Integer> milk = new HashMap<>();
+            milk.put(1, 2);
+            Map<Integer, Integer> bread = new HashMap<>();
+            bread.put(2, 3);
+
+            Receipt first = store.createSale(1, milk);
+            Receipt second = store.createSale(1, bread);
+            store.createSale(2, milk);
+
+            SalesStatistics statistics = store.getSalesStatistics();
+            SalesCounters john = statistics.getCashierSales(1);
+            assertEquals(2, john.getSales());
+            assertEquals(5, john.getItems());
+            assertEquals(first.getTotalAmount() + second.getTotalAmount(), john.getRevenue(), 0.001);
+            assertEquals(john.getRevenue() / 2, john.getAverageBasket(), 0.001);
+            assertEquals(2, john.getSalesLastMinute());
+            assertEquals(5, john.getItemsLastHour());
+            assertEquals(1, statistics.getRegisterSales(2).getSales());
+            assertNull(statistics.getRegisterSales(3));
+            assertEquals(3, statistics.getStoreSales().getSales());
+            assertEquals(store.getTotalRevenue(), statistics.getStoreSales().getRevenue(), 0.001);
+            LocalDateTime now = LocalDateTime.now();
+            assertEquals(3, statistics.getSalesBetween(now.minusHours(1), now.plusMinutes(1)).getReceipts());
+            assertEquals(0, statistics.getSalesBetween(now.minusDays(3), now.minusDays(2)).getReceipts());
+        }
+
+        @Test
+        void testBestSellersAcrossRegisters() {
+            Cashier jane = new Cashier(2, "Jane Smith", 1600.0);
+            store.addCashier(jane);
+            store.assignCashierToRegister(jane, 2);
+            Map<Integer, Integer> milk = new HashMap<>();
+            milk.put(1, 1);
+            Map<Integer, Integer> bread = new HashMap<>();
+            bread.put(2, 2);
+
+            store.createSale(1, milk);
+            store.createSale(2, milk);
+            store.createSale(2, bread);
+            store.createSale(1, bread);
+
+            SalesStatistics statistics = store.getSalesStatistics();
+            assertEquals(2, statistics.getTopProductsByUnits(1).get(0).getProductId());
+            assertEquals(4, statistics.getTopProductsByUnits(2).get(0).getEstimate(), 0.001);
+            assertEquals(2, statistics.getTopProductsByRevenue(2).size());
+            assertEquals(2, statistics.estimateUnitsSold(1));
+        }
+
+        @Test
+        void testProductProfitability() {
+            Map<Integer, Integer> purchase = new HashMap<>();
+            purchase.put(1, 2);
+            purchase.put(2, 1);
+            Receipt receipt = store.createSale(1, purchase);
+            purchase.put(1, 1);
+            purchase.remove(2);
+            store.createSale(1, purchase);
+
+            assertEquals(receipt.getProduct(0).getDeliveryPrice(), receipt.getUnitCost(0), 0.001);
+
+            ProductProfit milk = store.getProductProfit(1);
+            assertEquals(3, milk.getUnitsSold());
+            assertEquals(6.0, milk.getCostOfGoodsSold(), 0.001);
+            assertTrue(milk.getGrossMargin() > 0);
+            assertEquals(milk.getRevenue() - milk.getCostOfGoodsSold(), milk.getGrossMargin(), 0.001);
+            assertEquals(1, store.getProductProfit(2).getUnitsSold());
+            assertNull(store.getProductProfit(99));
+
+            List<ProductProfit> profits = store.getProductProfits();
+            assertEquals(2, profits.size());
+            assertTrue(profits.get(0).getGrossMargin() >= profits.get(1).getGrossMargin());
+        }
+
+        @Test
+        void testRestockCostReachesReceiptLines() {
+            store.restock(1, 10, 3.0, null);
+            Map<Integer, Integer> purchase = new HashMap<>();
+            purchase.put(1, 4);
+            Receipt receipt = store.createSale(1, purchase);
+
+            // 10 units at 2.00 and 10 at 3.00
+            assertEquals(2.5, receipt.getUnitCost(0), 0.001);
+            assertEquals(10.0, store.getProductProfit(1).getCostOfGoodsSold(), 0.001);
+
+            store.restock(1, 4, 2.5, null);
+            assertEquals(2.5, store.createSale(1, purchase).getUnitCost(0), 0.001);
+        }
+
         @Test
         void testFinancialCalculations() throws InsufficientQuantityException {
             Map<Integer, Integer> purchase = new HashMap<>();
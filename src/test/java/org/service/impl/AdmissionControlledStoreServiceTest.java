@@ -0,0 +1,40 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.exception.StoreOverloadedException;
+import org.junit.jupiter.api.Test;
+import org.util.AdmissionController;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlledStoreServiceTest {
+
+    @Test
+    void testSaleIsRejectedWhenOverloaded() {
+        StoreServiceImpl delegate = new StoreServiceImpl(0.20, 0.30, 7, 0.15);
+        delegate.addProduct(new Product(1, "Water", 1.0, ProductCategory.FOOD, LocalDate.now().plusDays(100), 10));
+        Cashier cashier = new Cashier(1, "Cashier", 1200.0);
+        delegate.addCashier(cashier);
+        delegate.assignCashierToRegister(cashier, 1);
+        AdmissionController admission = new AdmissionController(1, 1, 1, 0, 1_000, 0);
+        AdmissionControlledStoreService store = new AdmissionControlledStoreService(delegate, admission);
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 1);
+
+        assertNotNull(store.createSale(1, purchase));
+        long occupied = admission.acquire();
+        StoreOverloadedException e = assertThrows(StoreOverloadedException.class, () -> store.createSale(1, purchase));
+        admission.release(occupied);
+
+        assertSame(StoreOverloadedException.INSTANCE, e);
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(1, delegate.getTotalReceipts());
+        assertEquals(0, admission.getInFlight());
+    }
+}
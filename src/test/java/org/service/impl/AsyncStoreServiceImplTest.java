@@ -0,0 +1,76 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.Store;
+import org.exception.InsufficientQuantityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncStoreServiceImplTest {
+    private AsyncStoreServiceImpl store;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        StoreConfig config = new StoreConfig(tempDir.getPath(), 2, 10, true, true);
+        store = AsyncStoreServiceImpl.create(new Store("Test Store", "Test Address", 0.20, 0.30, 7, 0.15), config);
+        store.getStoreService().addProduct(new Product(1, "Milk", 2.0, ProductCategory.FOOD,
+                LocalDate.now().plusDays(10), 10));
+        Cashier cashier = new Cashier(1, "John Doe", 1500.0);
+        store.getStoreService().addCashier(cashier);
+        store.getStoreService().assignCashierToRegister(cashier, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testDurableSaleCanBeLoadedBack() throws Exception {
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 2);
+
+        Receipt receipt = store.createDurableSale(1, purchase).get(10, TimeUnit.SECONDS);
+        Receipt loaded = store.loadReceiptFromFile(receipt.getReceiptNumber()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(receipt.getReceiptNumber(), loaded.getReceiptNumber());
+        assertEquals(receipt.getTotalAmount(), loaded.getTotalAmount(), 0.001);
+        assertEquals(receipt.getTotalAmount(), store.getTotalRevenue().get(10, TimeUnit.SECONDS), 0.001);
+        assertEquals(1, store.getTotalReceipts().get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedSaleCompletesExceptionally() {
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 50);
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> store.createSale(1, purchase).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientQuantityException.class, e.getCause());
+    }
+
+    @Test
+    void testMissingReceiptFailsWithoutBlockingCaller() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> store.loadReceiptFromFile(12345).get(10, TimeUnit.SECONDS));
+        assertNotNull(e.getCause());
+    }
+}
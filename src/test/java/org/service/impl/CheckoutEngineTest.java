@@ -0,0 +1,89 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.exception.InsufficientQuantityException;
+import org.exception.NoAssignedCashierException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutEngineTest {
+    private StoreServiceImpl store;
+    private CheckoutEngine engine;
+    private Product water;
+
+    @BeforeEach
+    void setUp() {
+        store = new StoreServiceImpl(0.20, 0.30, 7, 0.15);
+        water = new Product(1, "Water", 1.0, ProductCategory.FOOD, LocalDate.now().plusDays(100), 1_000);
+        store.addProduct(water);
+        for (int register = 1; register <= 4; register++) {
+            Cashier cashier = new Cashier(register, "Cashier " + register, 1200.0);
+            store.addCashier(cashier);
+            store.assignCashierToRegister(cashier, register);
+        }
+        engine = new CheckoutEngine(store, 1_000);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void testRegistersCheckOutInParallel() throws Exception {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 1);
+        List<CompletableFuture<Receipt>> results = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            results.add(engine.submit(1 + i % 4, basket));
+        }
+        for (CompletableFuture<Receipt> result : results) {
+            assertNotNull(result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(600, water.getQuantity());
+        assertEquals(400, store.getTotalReceipts());
+        long completed = 0;
+        for (CheckoutEngine.RegisterMetrics metrics : engine.getAllMetrics()) {
+            assertEquals(100, metrics.getCompletedSales());
+            completed += metrics.getCompletedSales();
+        }
+        assertEquals(400, completed);
+    }
+
+    @Test
+    void testFailedSaleCompletesExceptionally() {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 5_000);
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> engine.submit(2, basket).get(10, TimeUnit.SECONDS));
+
+        assertTrue(error.getCause() instanceof InsufficientQuantityException);
+        assertEquals(1, engine.getMetrics(2).getFailedSales());
+    }
+
+    @Test
+    void testUnknownRegisterIsRejected() {
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> engine.submit(9, new HashMap<>()).get(10, TimeUnit.SECONDS));
+
+        assertTrue(error.getCause() instanceof NoAssignedCashierException);
+    }
+}
@@ -0,0 +1,104 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarSalesExportTest {
+    private static final int RECEIPTS = 5_000;
+
+    private SalesFactStore facts;
+    private SalesExporter exporter;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        Product milk = new Product(1, "Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), 100);
+        Product soap = new Product(2, "Soap", 3.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(300), 100);
+        Cashier alice = new Cashier(7, "Alice", 1500.0);
+        Cashier bob = new Cashier(9, "Bob", 1500.0);
+
+        facts = new SalesFactStore(ZoneOffset.UTC);
+        for (int i = 0; i < RECEIPTS; i++) {
+            // The first half of the day is sold at register 1, the second half at register 2
+            int register = i < RECEIPTS / 2 ? 1 : 2;
+            facts.onReceiptCreated(new Receipt(i + 1, i % 2 == 0 ? alice : bob, register,
+                    new Product[]{milk, soap}, new int[]{1 + i % 3, 1}, new double[]{2.5, 4.0}, 0));
+        }
+        StoreConfig config = new StoreConfig.Builder().receiptOutputDir(tempDir.getPath()).build();
+        exporter = new SalesExporter(config, facts, ZoneOffset.UTC);
+    }
+
+    @Test
+    void testRoundTripMatchesFactStore() throws Exception {
+        Path file = exporter.exportDay(LocalDate.now());
+
+        assertTrue(Files.exists(file));
+        try (ColumnarSalesReader reader = ColumnarSalesReader.open(file)) {
+            assertEquals(2 * RECEIPTS, reader.getRowCount());
+            assertEquals(3, reader.getBlockCount());
+            assertArrayEquals(new int[]{1, 2}, reader.getProductIds());
+            assertEquals(facts.sumRevenue(SalesFactStore.Query.all()),
+                    reader.sumRevenue(SalesFactStore.Query.all()), 0.001);
+            assertEquals(facts.sumRevenue(SalesFactStore.Query.all().byCashier(9).forProduct(1)),
+                    reader.sumRevenue(SalesFactStore.Query.all().byCashier(9).forProduct(1)), 0.001);
+
+            List<Integer> receiptNumbers = new ArrayList<>();
+            reader.scan(SalesFactStore.Query.all().forProduct(2), EnumSet.of(ColumnarSalesReader.Column.RECEIPT), batch -> {
+                assertNull(batch.getUnitPrices());
+                for (int row = 0; row < batch.getSize(); row++) {
+                    receiptNumbers.add(batch.getReceiptNumbers()[row]);
+                }
+            });
+            assertEquals(RECEIPTS, receiptNumbers.size());
+            assertEquals(1, receiptNumbers.get(0));
+            assertEquals(RECEIPTS, receiptNumbers.get(RECEIPTS - 1));
+        }
+        assertTrue(Files.size(file) < 2L * RECEIPTS * 8, "columns should be compressed");
+    }
+
+    @Test
+    void testBlocksOutsideTheQueryAreSkipped() throws Exception {
+        Path file = exporter.exportDay(LocalDate.now());
+
+        try (ColumnarSalesReader reader = ColumnarSalesReader.open(file)) {
+            long[] rows = new long[1];
+            int blocksRead = reader.scan(SalesFactStore.Query.all().atRegister(1),
+                    EnumSet.of(ColumnarSalesReader.Column.QUANTITY), batch -> rows[0] += batch.getSize());
+
+            assertEquals(RECEIPTS, rows[0]);
+            assertEquals(2, blocksRead);
+            assertEquals(0, reader.scan(SalesFactStore.Query.all().forProduct(3),
+                    EnumSet.of(ColumnarSalesReader.Column.QUANTITY), batch -> fail("no block should match")));
+        }
+    }
+
+    @Test
+    void testOtherDayExportsNoRows() throws Exception {
+        Path file = tempDir.toPath().resolve("empty.col");
+
+        assertEquals(0, exporter.export(LocalDate.now().minusDays(1), file));
+        try (ColumnarSalesReader reader = ColumnarSalesReader.open(file)) {
+            assertEquals(0, reader.getRowCount());
+            assertEquals(0.0, reader.sumRevenue(SalesFactStore.Query.all()), 0.001);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Delivery;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.Store;
+import org.exception.RegisterAlreadyAssignedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.service.StoreService;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplicationTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private Store store;
+    private ReplicatingStoreService primary;
+    private ReplicationFollower follower;
+    private Product milk;
+    private Cashier cashier;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new Store("Store", "Address", 0.20, 0.30, 7, 0.15);
+        StoreConfig primaryConfig = new StoreConfig.Builder()
+                .receiptOutputDir(new File(tempDir, "primary").getPath()).build();
+        primary = ReplicatingStoreService.start(new StoreServiceImpl(store, primaryConfig),
+                tempDir.toPath().resolve("sales.journal"), 0);
+        milk = new Product("Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), 100);
+        cashier = new Cashier("Cashier", 1500.0);
+        primary.addProduct(milk);
+        primary.addCashier(cashier);
+        primary.assignCashierToRegister(cashier, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (follower != null) {
+            follower.close();
+        }
+        primary.close();
+    }
+
+    private ReplicationFollower follow() {
+        StoreConfig standbyConfig = new StoreConfig.Builder()
+                .receiptOutputDir(new File(tempDir, "standby").getPath()).build();
+        return new ReplicationFollower(store, standbyConfig, primary.getPort());
+    }
+
+    private Receipt sell(int quantity) throws Exception {
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(milk.getId(), quantity);
+        return primary.createSale(1, purchase);
+    }
+
+    @Test
+    void testFollowerCatchesUpWithCatalogSalesAndRestocks() throws Exception {
+        sell(10);
+        follower = follow();
+        primary.restock(Collections.singletonList(new Delivery(milk.getId(), 20, 1.5, null)));
+        Receipt last = sell(5);
+
+        assertTrue(follower.awaitSequence(primary.getLastSequence(), TIMEOUT_MILLIS));
+        StoreService standby = follower.getStoreService();
+        assertEquals(105, standby.getDeliveredProducts().get(0).getQuantity());
+        assertEquals(cashier.getId(), standby.getCashierAtRegister(1).getId());
+        assertEquals(2, standby.getTotalReceipts());
+        assertEquals(primary.getTotalRevenue(), standby.getTotalRevenue(), 1e-9);
+        assertEquals(primary.getDeliveryExpenses(), standby.getDeliveryExpenses(), 1e-9);
+        assertEquals(last.getDate(), standby.loadReceiptFromFile(last.getReceiptNumber()).getDate());
+        assertEquals(0, follower.getLagEntries());
+        assertEquals(0, follower.getLagMillis());
+        assertTrue(follower.isConnected());
+    }
+
+    @Test
+    void testPromotedStandbyContinuesReceiptNumbers() throws Exception {
+        follower = follow();
+        sell(1);
+        Receipt last = sell(2);
+        primary.releaseRegister(1);
+        assertTrue(follower.awaitSequence(primary.getLastSequence(), TIMEOUT_MILLIS));
+
+        StoreService promoted = follower.promote();
+        assertFalse(follower.isConnected());
+        assertFalse(promoted.isRegisterAssigned(1));
+        promoted.assignCashierToRegister(promoted.getCashiers().get(0), 2);
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(milk.getId(), 3);
+        Receipt next = promoted.createSale(2, purchase);
+
+        assertTrue(next.getReceiptNumber() > last.getReceiptNumber());
+        assertEquals(94, promoted.getDeliveredProducts().get(0).getQuantity());
+    }
+
+    @Test
+    void testFollowerStopsAtARecordTheStandbyRejects() throws Exception {
+        follower = follow();
+        sell(1);
+        assertTrue(follower.awaitSequence(primary.getLastSequence(), TIMEOUT_MILLIS));
+        long applied = follower.getAppliedSequence();
+        // Drift the standby: register 2 is taken there but free on the primary
+        StoreService standby = follower.getStoreService();
+        Cashier local = new Cashier(999, "Local", 1500.0);
+        standby.addCashier(local);
+        standby.assignCashierToRegister(local, 2);
+
+        Cashier second = new Cashier("Second", 1500.0);
+        primary.addCashier(second);
+        primary.assignCashierToRegister(second, 2);
+        sell(2);
+
+        assertFalse(follower.awaitSequence(primary.getLastSequence(), TIMEOUT_MILLIS));
+        assertTrue(follower.isDiverged());
+        assertInstanceOf(RegisterAlreadyAssignedException.class, follower.getDivergence());
+        assertEquals(applied + 1, follower.getAppliedSequence());
+        assertEquals(1, standby.getTotalReceipts());
+        assertEquals(99, standby.getDeliveredProducts().get(0).getQuantity());
+    }
+
+    @Test
+    void testFailedJournalAppendBreaksReplication() throws Exception {
+        long journaled = primary.getLastSequence();
+        assertFalse(primary.isBroken());
+        // The store keeps serving once its journal is gone, but nothing reaches followers any more
+        primary.close();
+
+        Receipt receipt = sell(1);
+        primary.restock(Collections.singletonList(new Delivery(milk.getId(), 5, 1.5, null)));
+
+        assertNotNull(receipt);
+        assertTrue(primary.isBroken());
+        assertInstanceOf(IOException.class, primary.getJournalFailure());
+        assertEquals(journaled, primary.getLastSequence());
+        assertEquals(104, milk.getQuantity());
+    }
+
+    @Test
+    void testReopenedJournalDropsTornTail() throws Exception {
+        Path file = tempDir.toPath().resolve("torn.journal");
+        long intact;
+        try (SalesJournal journal = SalesJournal.open(file)) {
+            journal.append(SalesJournal.REGISTER_RELEASED, ByteBuffer.allocate(4).putInt(1).array());
+            intact = journal.getLength();
+            journal.append(SalesJournal.REGISTER_RELEASED, ByteBuffer.allocate(4).putInt(2).array());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (SalesJournal journal = SalesJournal.open(file)) {
+            assertEquals(intact, journal.getLength());
+            assertEquals(1, journal.getLastSequence());
+            assertTrue(SalesJournal.checksumMatches(journal.read(0)));
+            assertEquals(2, journal.append(SalesJournal.REGISTER_RELEASED, new byte[4]));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.SalesReport;
+import org.data.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.service.ReceiptPersistenceService;
+import org.util.Threads;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+public class ReportingEngineTest {
+    private StoreServiceImpl store;
+    private StoreConfig config;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        config = new StoreConfig(tempDir.getPath(), 1, 0, true, true);
+        store = new StoreServiceImpl(new Store("Test Store", "Test Address", 0.20, 0.30, 7, 0.15), config);
+        store.addProduct(new Product(1, "Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), 10_000));
+        store.addProduct(new Product(2, "Soap", 3.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(300), 10_000));
+        for (int register = 1; register <= 2; register++) {
+            Cashier cashier = new Cashier(register, "Cashier " + register, 1500.0);
+            store.addCashier(cashier);
+            store.assignCashierToRegister(cashier, register);
+        }
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 2);
+        purchase.put(2, 1);
+        for (int i = 0; i < 600; i++) {
+            store.createSale(1 + i % 2, purchase);
+        }
+    }
+
+    @Test
+    void testReportFromStorageMatchesInMemoryReport() throws Exception {
+        ReportingEngine engine = new ReportingEngine(config, new ReceiptPersistenceServiceImpl(config),
+                new ForkJoinPool(4));
+
+        SalesReport fromDisk = engine.reportFromStorage(null, null);
+        SalesReport inMemory = engine.report(store.getReceiptService().getAllReceipts(), null, null);
+
+        assertEquals(600, fromDisk.getReceiptCount());
+        assertEquals(1_800, fromDisk.getItemCount());
+        assertEquals(store.getTotalRevenue(), fromDisk.getTotalRevenue(), 0.001);
+        assertEquals(inMemory.getTotalRevenue(), fromDisk.getTotalRevenue(), 0.001);
+        assertEquals(300 * 2.0 * 1.2 * 2 * 2, fromDisk.getRevenueByCategory().get(ProductCategory.FOOD), 0.001);
+        assertEquals(fromDisk.getTotalRevenue() / 2, fromDisk.getRevenueByCashier().get(1), 0.001);
+        assertEquals(600 * 2 * 2.0 * 0.2, fromDisk.getMarginByProduct().get(1), 0.001);
+        assertEquals(fromDisk.getTotalRevenue(), fromDisk.getRevenueByDay().get(LocalDate.now()), 0.001);
+        assertEquals(0, fromDisk.getSkippedReceipts());
+    }
+
+    @Test
+    void testStorageIsReadOnTheIoExecutor() throws Exception {
+        Set<String> readers = ConcurrentHashMap.newKeySet();
+        ReceiptPersistenceService persistence = spy(new ReceiptPersistenceServiceImpl(config));
+        doAnswer(invocation -> {
+            readers.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(persistence).readReceiptFromFile(anyString());
+        ExecutorService io = Executors.newFixedThreadPool(2, Threads.platformThreadFactory("report-test"));
+        try {
+            ReportingEngine engine = new ReportingEngine(config, persistence, ForkJoinPool.commonPool(), io);
+
+            assertEquals(600, engine.reportFromStorage(null, null).getReceiptCount());
+            assertFalse(readers.isEmpty());
+            assertTrue(readers.stream().allMatch(name -> name.startsWith("report-test-")), readers.toString());
+        } finally {
+            io.shutdown();
+        }
+    }
+
+    @Test
+    void testUnreadableReceiptIsSkipped() throws Exception {
+        Files.write(tempDir.toPath().resolve("receipt_99999.ser"), new byte[] {1, 2, 3});
+        ReportingEngine engine = new ReportingEngine(config);
+
+        SalesReport report = engine.reportFromStorage(null, null);
+
+        assertEquals(600, report.getReceiptCount());
+        assertEquals(1, report.getSkippedReceipts());
+    }
+
+    @Test
+    void testCorruptReceiptIsSkippedWithoutRetrying() throws Exception {
+        // A valid stream header followed by a byte that starts no object
+        Files.write(tempDir.toPath().resolve("receipt_99999.ser"),
+                new byte[] {(byte) 0xAC, (byte) 0xED, 0x00, 0x05, 0x01});
+        StoreConfig retrying = new StoreConfig(tempDir.getPath(), 3, 1_000, true, true);
+        ReportingEngine engine = new ReportingEngine(retrying);
+
+        long started = System.nanoTime();
+        SalesReport report = engine.reportFromStorage(null, null);
+
+        assertTrue(System.nanoTime() - started < 1_000_000_000L);
+        assertEquals(600, report.getReceiptCount());
+        assertEquals(1, report.getSkippedReceipts());
+    }
+
+    @Test
+    void testDateRangeFiltersReceipts() {
+        ReportingEngine engine = new ReportingEngine(config);
+
+        SalesReport report = engine.report(store.getReceiptService().getAllReceipts(),
+                LocalDate.now().plusDays(1), null);
+
+        assertEquals(0, report.getReceiptCount());
+    }
+}
@@ -0,0 +1,105 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.Store;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesFactStoreTest {
+    private final Product milk = new Product(1, "Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), 100);
+    private final Product soap = new Product(2, "Soap", 3.0, ProductCategory.NON_FOOD, LocalDate.now().plusDays(300), 100);
+    private final Cashier alice = new Cashier(1, "Alice", 1500.0);
+    private final Cashier bob = new Cashier(2, "Bob", 1500.0);
+
+    private Receipt receipt(int number, Cashier cashier, int register, int milkQuantity, int soapQuantity) {
+        return new Receipt(number, cashier, register, new Product[]{milk, soap},
+                new int[]{milkQuantity, soapQuantity}, new double[]{2.5, 4.0}, milkQuantity * 2.5 + soapQuantity * 4.0);
+    }
+
+    @Test
+    void testAggregatesFilterAndGroupRows() {
+        SalesFactStore facts = new SalesFactStore();
+        facts.onReceiptCreated(receipt(1, alice, 1, 2, 1));
+        facts.onReceiptCreated(receipt(2, bob, 2, 4, 0));
+
+        assertEquals(4, facts.getRowCount());
+        assertEquals(19.0, facts.sumRevenue(SalesFactStore.Query.all()), 0.001);
+        assertEquals(7, facts.sumQuantity(SalesFactStore.Query.all()));
+        assertEquals(6, facts.sumQuantity(SalesFactStore.Query.all().forProduct(1)));
+        assertEquals(9.0, facts.sumRevenue(SalesFactStore.Query.all().byCashier(1)), 0.001);
+        assertEquals(1, facts.countLines(SalesFactStore.Query.all().atRegister(1).forProduct(2)));
+
+        Map<Integer, Double> byRegister = facts.revenueBy(SalesFactStore.Column.REGISTER, SalesFactStore.Query.all());
+        assertEquals(9.0, byRegister.get(1), 0.001);
+        assertEquals(10.0, byRegister.get(2), 0.001);
+
+        long now = System.currentTimeMillis();
+        assertEquals(0, facts.countLines(SalesFactStore.Query.all().between(now + 60_000, Long.MAX_VALUE)));
+        assertEquals(4, facts.countLines(SalesFactStore.Query.all().between(now - 60_000, now + 60_000)));
+    }
+
+    @Test
+    void testRowsSpanSeveralChunks() {
+        SalesFactStore facts = new SalesFactStore(ZoneOffset.UTC);
+        int receipts = SalesFactStore.CHUNK_ROWS + 100;
+        for (int i = 0; i < receipts; i++) {
+            facts.onReceiptCreated(receipt(i + 1, i % 2 == 0 ? alice : bob, i % 3 + 1, 1, 1));
+        }
+
+        assertEquals(2L * receipts, facts.getRowCount());
+        assertEquals(receipts * 6.5, facts.sumRevenue(SalesFactStore.Query.all()), 0.001);
+
+        Map<Integer, Double> byProduct = facts.revenueBy(SalesFactStore.Column.PRODUCT, SalesFactStore.Query.all());
+        assertEquals(receipts * 2.5, byProduct.get(1), 0.001);
+        assertEquals(receipts * 4.0, byProduct.get(2), 0.001);
+    }
+
+    @Test
+    void testReceiptIsNeverSplitAcrossChunks() {
+        SalesFactStore facts = new SalesFactStore(ZoneOffset.UTC);
+        // One line first, so a two-line receipt would straddle the chunk boundary
+        facts.onReceiptCreated(new Receipt(1, alice, 1, new Product[]{milk}, new int[]{1}, new double[]{2.5}, 2.5));
+        int receipts = SalesFactStore.CHUNK_ROWS / 2;
+        for (int i = 0; i < receipts; i++) {
+            facts.onReceiptCreated(receipt(i + 2, alice, 1, 1, 1));
+        }
+
+        assertEquals(1 + 2L * receipts, facts.getRowCount());
+        Map<Integer, Integer> chunkOfReceipt = new HashMap<>();
+        List<SalesFactStore.Chunk> chunks = facts.chunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            SalesFactStore.Chunk chunk = chunks.get(i);
+            for (int row = 0; row < chunk.size; row++) {
+                int chunkIndex = i;
+                assertEquals(chunkIndex, chunkOfReceipt.computeIfAbsent(chunk.receiptNumbers[row], n -> chunkIndex));
+            }
+        }
+        assertEquals(receipts + 1, chunkOfReceipt.size());
+    }
+
+    @Test
+    void testStoreServiceFeedsFactsFromSales() {
+        StoreServiceImpl store = new StoreServiceImpl(new Store("Test Store", "Test Address", 0.20, 0.30, 7, 0.15));
+        store.addProduct(milk);
+        store.addCashier(alice);
+        store.assignCashierToRegister(alice, 1);
+
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 3);
+        store.createSale(1, purchase);
+
+        assertEquals(1, store.getSalesFacts().getRowCount());
+        assertEquals(3, store.getSalesFacts().sumQuantity(SalesFactStore.Query.all().byCashier(1)));
+        assertEquals(store.getTotalRevenue(), store.getSalesFacts().sumRevenue(SalesFactStore.Query.all()), 0.001);
+    }
+}
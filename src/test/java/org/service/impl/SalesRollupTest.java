@@ -0,0 +1,91 @@
+package org.service.impl;
+
+import org.data.SalesTotals;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.service.impl.SalesRollup.DAY_MILLIS;
+import static org.service.impl.SalesRollup.HOUR_MILLIS;
+import static org.service.impl.SalesRollup.MINUTE_MILLIS;
+
+public class SalesRollupTest {
+    private static final long NOW = 1_000 * DAY_MILLIS + 10 * HOUR_MILLIS + 30 * MINUTE_MILLIS;
+
+    @Test
+    void testRecentRangeIsResolvedToTheMinute() {
+        SalesRollup rollup = new SalesRollup(0);
+        rollup.record(NOW - 5 * MINUTE_MILLIS, 2, 10.0);
+        rollup.record(NOW - 20 * MINUTE_MILLIS, 1, 4.0);
+        rollup.record(NOW - 3 * HOUR_MILLIS, 3, 6.0);
+
+        SalesTotals lastTenMinutes = rollup.getTotals(NOW - 10 * MINUTE_MILLIS, NOW, NOW);
+        assertEquals(1, lastTenMinutes.getReceipts());
+        assertEquals(2, lastTenMinutes.getItems());
+        assertEquals(10.0, lastTenMinutes.getRevenue(), 0.001);
+
+        SalesTotals lastDay = rollup.getTotals(NOW - DAY_MILLIS, NOW + MINUTE_MILLIS, NOW);
+        assertEquals(3, lastDay.getReceipts());
+        assertEquals(20.0, lastDay.getRevenue(), 0.001);
+    }
+
+    @Test
+    void testLongRangeCombinesDayHourAndMinuteBuckets() {
+        SalesRollup rollup = new SalesRollup(0);
+        rollup.record(NOW - 40 * DAY_MILLIS, 1, 1.0);
+        rollup.record(NOW - 2 * DAY_MILLIS - 7 * HOUR_MILLIS, 1, 2.0);
+        rollup.record(NOW - 2 * MINUTE_MILLIS, 1, 4.0);
+
+        SalesTotals all = rollup.getTotals(NOW - 60 * DAY_MILLIS, NOW + MINUTE_MILLIS, NOW);
+        assertEquals(3, all.getReceipts());
+        assertEquals(7.0, all.getRevenue(), 0.001);
+
+        SalesTotals withoutOldest = rollup.getTotals(NOW - 30 * DAY_MILLIS, NOW + MINUTE_MILLIS, NOW);
+        assertEquals(6.0, withoutOldest.getRevenue(), 0.001);
+    }
+
+    @Test
+    void testOldRangeEndsAreWidenedToTheHour() {
+        SalesRollup rollup = new SalesRollup(0);
+        long twoDaysAgo = NOW - 2 * DAY_MILLIS;
+        rollup.record(twoDaysAgo + 10 * MINUTE_MILLIS, 1, 5.0);
+
+        SalesTotals totals = rollup.getTotals(twoDaysAgo + 20 * MINUTE_MILLIS, twoDaysAgo + 25 * MINUTE_MILLIS, NOW);
+
+        assertEquals(1, totals.getReceipts());
+        assertEquals(5.0, totals.getAverageBasket(), 0.001);
+    }
+
+    @Test
+    void testDayBucketsFollowDaylightSavingChanges() {
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        SalesRollup rollup = new SalesRollup(berlin);
+        // Clocks went forward early on 31 March 2024
+        long lastEvening = millis(LocalDateTime.of(2024, 3, 31, 23, 30), berlin);
+        long nextMorning = millis(LocalDateTime.of(2024, 4, 1, 0, 30), berlin);
+        // Old enough that the range is answered from day buckets
+        long now = millis(LocalDateTime.of(2024, 9, 1, 12, 0), berlin);
+        rollup.record(lastEvening, 1, 3.0);
+        rollup.record(nextMorning, 1, 5.0);
+
+        SalesTotals day = rollup.getTotals(millis(LocalDateTime.of(2024, 3, 31, 0, 0), berlin),
+                millis(LocalDateTime.of(2024, 4, 1, 0, 0), berlin), now);
+
+        assertEquals(1, day.getReceipts());
+        assertEquals(3.0, day.getRevenue(), 0.001);
+    }
+
+    private static long millis(LocalDateTime time, ZoneId zone) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @Test
+    void testFutureRangeIsEmpty() {
+        SalesRollup rollup = new SalesRollup(0);
+        rollup.record(NOW, 1, 5.0);
+
+        assertEquals(0, rollup.getTotals(NOW + HOUR_MILLIS, NOW + 1_000 * DAY_MILLIS, NOW).getReceipts());
+    }
+}
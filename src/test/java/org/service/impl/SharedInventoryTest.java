@@ -0,0 +1,174 @@
+package org.service.impl;
+
+import org.data.Product;
+import org.data.ProductCategory;
+import org.exception.InventoryLeaseLostException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedInventoryTest {
+    @TempDir
+    Path tempDir;
+
+    private static Product milk(int quantity) {
+        return new Product(1, "Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), quantity);
+    }
+
+    @Test
+    void testTwoMappingsShareOneStock() throws Exception {
+        Path file = tempDir.resolve("inventory.map");
+        try (SharedInventory first = SharedInventory.open(file, 64);
+                SharedInventory second = SharedInventory.open(file, 64)) {
+            SharedInventoryProductService north = new SharedInventoryProductService(first, 7, 0.15);
+            SharedInventoryProductService south = new SharedInventoryProductService(second, 7, 0.15);
+            north.addProduct(milk(10));
+            south.addProduct(milk(999));
+
+            assertTrue(north.decreaseProductQuantity(1, 4));
+            assertEquals(6, south.getProduct(1).getQuantity());
+            assertTrue(south.reserveProductQuantity(1, 5));
+            assertFalse(north.decreaseProductQuantity(1, 2));
+            assertEquals(6, first.getQuantity(1));
+        }
+    }
+
+    @Test
+    void testConcurrentSalesNeverOversell() throws Exception {
+        Path file = tempDir.resolve("inventory.map");
+        try (SharedInventory first = SharedInventory.open(file, 64);
+                SharedInventory second = SharedInventory.open(file, 64)) {
+            Product a = milk(10_000);
+            Product b = milk(0);
+            a.bindStock(first.slotFor(1, a.getQuantity()));
+            b.bindStock(second.slotFor(1, b.getQuantity()));
+            AtomicInteger sold = new AtomicInteger();
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                Product product = t % 2 == 0 ? a : b;
+                threads[t] = new Thread(() -> {
+                    while (product.tryDecreaseQuantity(3)) {
+                        sold.addAndGet(3);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(9_999, sold.get());
+            assertEquals(1, first.getQuantity(1));
+        }
+    }
+
+    @Test
+    void testReopenKeepsStockAndCompletesInterruptedClaims() throws Exception {
+        Path file = tempDir.resolve("inventory.map");
+        try (SharedInventory inventory = SharedInventory.open(file, 64)) {
+            inventory.slotFor(1, 10).addAndGet(-3);
+            inventory.slotFor(2, 5);
+            inventory.force();
+        }
+        // Leave product 2 as a process that died mid-claim would
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            for (int offset = 64; offset < 64 + 64 * 16; offset += 16) {
+                if (buffer.getLong(offset) == 3) {
+                    buffer.putLong(offset, -3);
+                }
+            }
+        }
+
+        try (SharedInventory reopened = SharedInventory.open(file, 1024)) {
+            assertEquals(64, reopened.getCapacity());
+            assertEquals(7, reopened.getQuantity(1));
+            assertEquals(5, reopened.slotFor(2, 0).get());
+            assertEquals(-1, reopened.getQuantity(3));
+        }
+    }
+
+    @Test
+    void testOnlyADeadOwnersHoldsAreReleased() throws Exception {
+        Path file = tempDir.resolve("inventory.map");
+        try (SharedInventory live = SharedInventory.open(file, 64, 200)) {
+            Product kept = milk(10);
+            kept.bindStock(live.slotFor(1, kept.getQuantity()));
+            assertTrue(kept.tryReserve(3));
+
+            SharedInventory dead = SharedInventory.open(file, 64, 200);
+            Product lost = milk(0);
+            lost.bindStock(dead.slotFor(1, 0));
+            assertTrue(lost.tryReserve(4));
+            assertTrue(lost.commitReservation(1));
+            assertEquals(3, dead.getHeldQuantity(1));
+            assertEquals(6, kept.getReservedQuantity());
+            dead.stopHeartbeat();
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (kept.getReservedQuantity() != 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(3, kept.getReservedQuantity());
+            assertEquals(3, live.getHeldQuantity(1));
+            assertEquals(6, kept.getAvailableQuantity());
+            assertEquals(0, live.releaseStaleHolds());
+        }
+    }
+
+    @Test
+    void testOwnerThatLostItsLeaseCanNoLongerChangeStock() throws Exception {
+        Path file = tempDir.resolve("inventory.map");
+        try (SharedInventory live = SharedInventory.open(file, 64, 200);
+                SharedInventory paused = SharedInventory.open(file, 64, 200)) {
+            Product product = milk(10);
+            product.bindStock(paused.slotFor(1, product.getQuantity()));
+            assertTrue(product.tryReserve(4));
+            paused.stopHeartbeat();
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (product.getReservedQuantity() != 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            // The paused process wakes up and finds its record taken
+            paused.beat();
+
+            assertTrue(paused.isLeaseLost());
+            assertFalse(live.isLeaseLost());
+            assertThrows(InventoryLeaseLostException.class, () -> product.tryReserve(1));
+            assertThrows(InventoryLeaseLostException.class, () -> product.tryDecreaseQuantity(1));
+            assertEquals(10, live.getQuantity(1));
+        }
+    }
+
+    @Test
+    void testClosingReleasesOwnHoldsAndRecord() throws Exception {
+        Path file = tempDir.resolve("inventory.map");
+        try (SharedInventory first = SharedInventory.open(file, 64)) {
+            Product product = milk(10);
+            product.bindStock(first.slotFor(1, product.getQuantity()));
+            for (int i = 0; i < SharedInventory.MAX_OWNERS * 2; i++) {
+                try (SharedInventory other = SharedInventory.open(file, 64)) {
+                    Product shared = milk(0);
+                    shared.bindStock(other.slotFor(1, 0));
+                    assertTrue(shared.tryReserve(2));
+                }
+            }
+            assertTrue(product.tryReserve(1));
+
+            assertEquals(1, product.getReservedQuantity());
+            assertEquals(9, product.getAvailableQuantity());
+        }
+    }
+}
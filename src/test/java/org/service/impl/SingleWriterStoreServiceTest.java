@@ -0,0 +1,179 @@
+package org.service.impl;
+
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.exception.InsufficientQuantityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.service.CheckoutSession;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleWriterStoreServiceTest {
+    private StoreServiceImpl delegate;
+    private SingleWriterStoreService store;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new StoreServiceImpl(0.20, 0.30, 7, 0.15);
+        store = new SingleWriterStoreService(delegate, 64);
+        store.addProduct(new Product(1, "Water", 1.0, ProductCategory.FOOD, LocalDate.now().plusDays(100), 1_000));
+        for (int register = 1; register <= 4; register++) {
+            Cashier cashier = new Cashier(register, "Cashier " + register, 1200.0);
+            store.addCashier(cashier);
+            store.assignCashierToRegister(cashier, register);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testConcurrentSalesAreApplied() throws Exception {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 1);
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Receipt>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                int register = 1 + i % 4;
+                results.add(clients.submit(() -> store.createSale(register, basket)));
+            }
+            for (Future<Receipt> result : results) {
+                assertNotNull(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        assertEquals(400, store.getTotalReceipts());
+        assertEquals(600, store.getDeliveredProducts().get(0).getQuantity());
+        assertEquals(delegate.getTotalRevenue(), store.getTotalRevenue(), 0.0001);
+    }
+
+    @Test
+    void testSnapshotIsIsolatedFromTheStore() {
+        Product snapshotCopy = store.getDeliveredProducts().get(0);
+        snapshotCopy.setQuantity(1);
+
+        assertEquals(1_000, delegate.getDeliveredProducts().get(0).getQuantity());
+        assertEquals(4, store.getAssignedRegisters().length);
+        assertEquals(2, store.getCashierAtRegister(2).getId());
+        assertFalse(store.isRegisterAssigned(5));
+    }
+
+    @Test
+    void testSnapshotIsOnlyRebuiltAfterWrites() {
+        SingleWriterStoreService.StoreSnapshot before = store.getSnapshot();
+        assertSame(before, store.getSnapshot());
+
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 3);
+        store.createSale(1, basket);
+        store.createSale(2, basket);
+
+        SingleWriterStoreService.StoreSnapshot after = store.getSnapshot();
+        assertTrue(after.getSequence() > before.getSequence());
+        assertEquals(994, after.getProducts().get(0).getQuantity());
+        assertSame(after, store.getSnapshot());
+    }
+
+    @Test
+    void testCheckoutIsAppliedByTheWriter() {
+        CheckoutSession checkout = store.openCheckout(1);
+        checkout.scan(1, 5);
+        Receipt receipt = checkout.finish();
+
+        assertFalse(checkout.isOpen());
+        assertNull(store.getOpenCheckout(1));
+        assertEquals(1, store.getTotalReceipts());
+        assertEquals(receipt.getTotalAmount(), store.getTotalRevenue(), 0.0001);
+        assertEquals(995, store.getDeliveredProducts().get(0).getQuantity());
+    }
+
+    @Test
+    void testReadsAfterCloseSeeEveryWrite() {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 4);
+        store.submitSale(1, basket);
+        store.close();
+
+        assertEquals(1, store.getTotalReceipts());
+        assertEquals(996, store.getDeliveredProducts().get(0).getQuantity());
+    }
+
+    @Test
+    void testCloseCompletesEveryPendingCommand() throws Exception {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 1);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<List<CompletableFuture<Receipt>>>> submitted = new ArrayList<>();
+        try {
+            for (int client = 0; client < 8; client++) {
+                submitted.add(clients.submit(() -> {
+                    List<CompletableFuture<Receipt>> futures = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        futures.add(store.submitSale(1, basket));
+                    }
+                    return futures;
+                }));
+            }
+            store.close();
+            for (Future<List<CompletableFuture<Receipt>>> client : submitted) {
+                for (CompletableFuture<Receipt> future : client.get(10, TimeUnit.SECONDS)) {
+                    try {
+                        future.get(10, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(java.util.concurrent.RejectedExecutionException.class, e.getCause());
+                    }
+                }
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedSaleSurfacesException() {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 5_000);
+
+        assertThrows(InsufficientQuantityException.class, () -> store.createSale(1, basket));
+        assertEquals(0, store.getTotalReceipts());
+    }
+
+    @Test
+    void testSubmitSaleCompletesAsynchronously() throws Exception {
+        Map<Integer, Integer> basket = new HashMap<>();
+        basket.put(1, 2);
+        CompletableFuture<Receipt> result = store.submitSale(3, basket);
+
+        assertEquals(3, result.get(10, TimeUnit.SECONDS).getRegisterNumber());
+    }
+
+    @Test
+    void testClosedStoreRejectsCommands() {
+        store.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> store.submitSale(1, new HashMap<>()).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(java.util.concurrent.RejectedExecutionException.class, e.getCause());
+    }
+}
@@ -0,0 +1,160 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Store;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.service.StoreService;
+import org.util.JsonReader;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+public class StoreHttpServerTest {
+    private StoreService store;
+    private StoreHttpServer server;
+    private ExecutorService executor;
+    private HttpClient client;
+    private Product milk;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StoreConfig config = new StoreConfig.Builder().receiptOutputDir(tempDir.getPath()).build();
+        store = new StoreServiceImpl(new Store("Store", "Address", 0.20, 0.30, 7, 0.15), config);
+        milk = new Product("Milk", 2.0, ProductCategory.FOOD, LocalDate.now().plusDays(30), 10);
+        store.addProduct(milk);
+        Cashier cashier = new Cashier("Cashier", 1500.0);
+        store.addCashier(cashier);
+        store.assignCashierToRegister(cashier, 1);
+
+        executor = Executors.newFixedThreadPool(2);
+        server = new StoreHttpServer(store, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        executor.shutdown();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body, String idempotencyKey) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKey != null) {
+            request.header("Idempotency-Key", idempotencyKey);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private String saleOf(int quantity) {
+        return "{\"register\":1,\"items\":[{\"productId\":" + milk.getId() + ",\"quantity\":" + quantity + "}]}";
+    }
+
+    @Test
+    void testSaleIsReturnedAndCanBeFetched() throws Exception {
+        HttpResponse<String> sale = post("/sales", saleOf(3), null);
+        assertEquals(201, sale.statusCode());
+        assertTrue(sale.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+        Map<?, ?> receipt = (Map<?, ?>) JsonReader.parse(sale.body());
+        assertEquals(7.2, (Double) receipt.get("total"), 1e-9);
+        assertEquals(1L, receipt.get("register"));
+        assertEquals(3L, ((Map<?, ?>) ((List<?>) receipt.get("lines")).get(0)).get("quantity"));
+
+        // The receipt is served from memory, whether or not it has reached disk yet
+        HttpResponse<String> fetched = get("/receipts/" + receipt.get("number"));
+        assertEquals(200, fetched.statusCode());
+        assertEquals(receipt, JsonReader.parse(fetched.body()));
+    }
+
+    @Test
+    void testIdempotentSaleIsNotRepeated() throws Exception {
+        HttpResponse<String> first = post("/sales", saleOf(2), "terminal-7:42");
+        HttpResponse<String> retry = post("/sales", saleOf(2), "terminal-7:42");
+
+        assertEquals(201, retry.statusCode());
+        assertEquals(first.body(), retry.body());
+        assertEquals(8, milk.getQuantity());
+        assertEquals(1, store.getTotalReceipts());
+    }
+
+    @Test
+    void testProductsAndFinance() throws Exception {
+        post("/sales", saleOf(4), null);
+
+        List<?> products = (List<?>) JsonReader.parse(get("/products").body());
+        assertEquals(1, products.size());
+        Map<?, ?> product = (Map<?, ?>) JsonReader.parse(get("/products/" + milk.getId()).body());
+        assertEquals(products.get(0), product);
+        assertEquals(2.4, (Double) product.get("sellingPrice"), 1e-9);
+        assertEquals(6L, product.get("quantity"));
+
+        Map<?, ?> finance = (Map<?, ?>) JsonReader.parse(get("/finance").body());
+        assertEquals(1L, finance.get("receipts"));
+        assertEquals(9.6, (Double) finance.get("revenue"), 1e-9);
+        Map<?, ?> profit = (Map<?, ?>) JsonReader.parse(get("/finance/products/" + milk.getId()).body());
+        assertEquals(4L, profit.get("unitsSold"));
+        assertEquals(1.6, (Double) profit.get("grossMargin"), 1e-9);
+        assertEquals(1, ((List<?>) JsonReader.parse(get("/finance/products").body())).size());
+    }
+
+    @Test
+    void testStoreBugsAreNotReportedAsBadRequests() throws Exception {
+        StoreService broken = spy(store);
+        doThrow(new IllegalArgumentException("bug")).when(broken).getProduct(milk.getId());
+        server.close();
+        server = new StoreHttpServer(broken, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor);
+
+        assertEquals(500, get("/products/" + milk.getId()).statusCode());
+        assertEquals(400, post("/sales", "not json", null).statusCode());
+    }
+
+    @Test
+    void testErrorsMapToStatusCodes() throws Exception {
+        assertEquals(409, post("/sales", saleOf(11), null).statusCode());
+        assertEquals(400, post("/sales", "{\"register\":1,\"items\":[", null).statusCode());
+        assertEquals(400, post("/sales", "{\"register\":1,\"items\":[]}", null).statusCode());
+        assertEquals(400, get("/products/abc").statusCode());
+        assertEquals(404, get("/products/999999").statusCode());
+        long started = System.nanoTime();
+        assertEquals(404, get("/receipts/999999").statusCode());
+        // A missing receipt file is reported at once rather than after the read retries (3 x 1 s)
+        assertTrue(System.nanoTime() - started < 1_000_000_000L);
+        assertEquals(404, get("/finance/nothing").statusCode());
+        HttpResponse<String> wrongMethod = get("/sales");
+        assertEquals(405, wrongMethod.statusCode());
+        assertEquals("POST", wrongMethod.headers().firstValue("Allow").orElse(null));
+        assertTrue(((Map<?, ?>) JsonReader.parse(wrongMethod.body())).containsKey("error"));
+        assertEquals(10, milk.getQuantity());
+    }
+}
@@ -0,0 +1,180 @@
+package org.service.impl;
+
+import org.config.StoreConfig;
+import org.data.Cashier;
+import org.data.Product;
+import org.data.ProductCategory;
+import org.data.Receipt;
+import org.data.SaleOutcome;
+import org.data.Store;
+import org.exception.InvalidInputException;
+import org.exception.StoreClosedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.service.CheckoutSession;
+import org.service.StoreService;
+import org.service.StoreTenant;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StoreRegistryImplTest {
+    private StoreRegistryImpl registry;
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StoreRegistryImpl(new StoreConfig.Builder().receiptOutputDir(tempDir.getPath()).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    private StoreTenant openStocked(String storeId) {
+        StoreTenant tenant = registry.openStore(storeId, new Store(storeId, "Address", 0.20, 0.30, 7, 0.15));
+        StoreService store = tenant.getStoreService();
+        store.addProduct(new Product(tenant.nextProductId(), "Milk", 2.0, ProductCategory.FOOD,
+                LocalDate.now().plusDays(30), 100));
+        Cashier cashier = new Cashier(tenant.nextCashierId(), "Cashier", 1500.0);
+        store.addCashier(cashier);
+        store.assignCashierToRegister(cashier, 1);
+        return tenant;
+    }
+
+    @Test
+    void testStoresHaveSeparateIdSpacesAndDirectories() throws Exception {
+        StoreTenant north = openStocked("north");
+        StoreTenant south = openStocked("south");
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 2);
+
+        Receipt northReceipt = north.getAsyncStoreService().createDurableSale(1, purchase).get();
+        Receipt southReceipt = south.getAsyncStoreService().createDurableSale(1, purchase).get();
+
+        assertEquals(1, northReceipt.getReceiptNumber());
+        assertEquals(1, southReceipt.getReceiptNumber());
+        assertEquals(2, north.nextProductId());
+        assertTrue(new File(tempDir, "north").isDirectory());
+        assertTrue(new File(tempDir, "south").isDirectory());
+        assertNotEquals(north.getConfig().getReceiptOutputDir(), south.getConfig().getReceiptOutputDir());
+    }
+
+    @Test
+    void testReopenedStoreContinuesItsIds() {
+        StoreTenant north = openStocked("north");
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 1);
+        Receipt before = north.getStoreService().createSale(1, purchase);
+        registry.closeStore("north");
+
+        StoreTenant reopened = openStocked("north");
+        int productId = reopened.getStoreService().getDeliveredProducts().get(0).getId();
+        purchase.clear();
+        purchase.put(productId, 1);
+        Receipt after = reopened.getStoreService().createSale(1, purchase);
+
+        assertTrue(productId > 1);
+        assertTrue(after.getReceiptNumber() > before.getReceiptNumber());
+    }
+
+    @Test
+    void testIdempotencyKeysAreScopedPerStore() {
+        StoreTenant north = openStocked("north");
+        StoreTenant south = openStocked("south");
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 1);
+
+        Receipt first = north.getStoreService().createSale("order-1", 1, purchase);
+        Receipt retry = north.getStoreService().createSale("order-1", 1, purchase);
+        south.getStoreService().createSale("order-1", 1, purchase);
+
+        assertSame(first, retry);
+        assertEquals(1, north.getStoreService().getTotalReceipts());
+        assertEquals(1, south.getStoreService().getTotalReceipts());
+    }
+
+    @Test
+    void testAggregatesAcrossStores() {
+        StoreTenant north = openStocked("north");
+        StoreTenant south = openStocked("south");
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 1);
+        north.getStoreService().createSale(1, purchase);
+        south.getStoreService().createSale(1, purchase);
+        south.getStoreService().createSale(1, purchase);
+
+        assertEquals(3, registry.getTotalReceipts());
+        assertEquals(north.getStoreService().getTotalRevenue() + south.getStoreService().getTotalRevenue(),
+                registry.getTotalRevenue(), 0.001);
+        assertEquals(2 * registry.getRevenueByStore().get("north"), registry.getRevenueByStore().get("south"), 0.001);
+        assertEquals(Set.of("north", "south"), registry.getStoreIds());
+
+        assertTrue(registry.closeStore("north"));
+        assertNull(registry.getStore("north"));
+        assertEquals(2, registry.getTotalReceipts());
+    }
+
+    @Test
+    void testClosedStoreRejectsSalesAndHasWrittenItsReceipts() throws Exception {
+        StoreTenant north = openStocked("north");
+        Map<Integer, Integer> purchase = new HashMap<>();
+        purchase.put(1, 1);
+        List<CompletableFuture<Receipt>> sales = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sales.add(north.getAsyncStoreService().createSale(1, purchase));
+        }
+        CompletableFuture.allOf(sales.toArray(new CompletableFuture<?>[0])).get();
+
+        assertTrue(registry.closeStore("north"));
+
+        for (CompletableFuture<Receipt> sale : sales) {
+            assertTrue(new File(north.getConfig().getReceiptOutputDir(),
+                    "receipt_" + sale.get().getReceiptNumber() + ".ser").exists());
+        }
+        assertThrows(StoreClosedException.class, () -> north.getStoreService().createSale(1, purchase));
+        assertEquals(SaleOutcome.STORE_CLOSED, north.getStoreService().trySale(1, purchase).getOutcome());
+        assertThrows(StoreClosedException.class, () -> north.getStoreService().openCheckout(1));
+        assertEquals(20, north.getStoreService().getTotalReceipts());
+        assertFalse(registry.closeStore("north"));
+    }
+
+    @Test
+    void testClosingCancelsOpenCheckoutsAndBlocksTheirFinish() {
+        StoreTenant north = openStocked("north");
+        CheckoutSession checkout = north.getStoreService().openCheckout(1);
+        checkout.scan(1, 5);
+        assertEquals(95, north.getStoreService().getProduct(1).getAvailableQuantity());
+
+        assertTrue(registry.closeStore("north"));
+
+        assertFalse(checkout.isOpen());
+        assertNull(north.getStoreService().getOpenCheckout(1));
+        assertThrows(StoreClosedException.class, checkout::finish);
+        assertEquals(100, north.getStoreService().getProduct(1).getAvailableQuantity());
+        assertEquals(0, north.getStoreService().getTotalReceipts());
+    }
+
+    @Test
+    void testOpenRejectsDuplicateAndUnsafeIds() {
+        openStocked("north");
+
+        assertThrows(IllegalStateException.class,
+                () -> registry.openStore("north", new Store("North", "Address", 0.20, 0.30, 7, 0.15)));
+        assertThrows(InvalidInputException.class,
+                () -> registry.openStore("../etc", new Store("Bad", "Address", 0.20, 0.30, 7, 0.15)));
+    }
+}
@@ -26,8 +26,8 @@ public class StoreServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        Receipt.resetReceiptCounter();
         store = new StoreServiceImpl(0.20, 0.30, 7, 0.15);
+        ((StoreServiceImpl) store).getReceiptService().resetReceiptCounter();
         persistenceService = ((ReceiptServiceImpl) ((StoreServiceImpl) store).getReceiptService()).getPersistenceService();
 
         Product milk = new Product(1, "Milk", 2.0, ProductCategory.FOOD,
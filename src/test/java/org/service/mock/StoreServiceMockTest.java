@@ -24,6 +24,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 
 @ExtendWith(MockitoExtension.class)
 public class StoreServiceMockTest {
@@ -57,12 +58,15 @@ public class StoreServiceMockTest {
     void testCreateSaleWithMocks() throws InsufficientQuantityException {
         // Arrange
         when(mockProduct.getId()).thenReturn(1);
-        when(mockProduct.getCategory()).thenReturn(ProductCategory.FOOD);
-        when(mockProduct.getQuantity()).thenReturn(10);
+        when(mockProduct.getAvailableQuantity()).thenReturn(10);
         when(productService.getProduct(1)).thenReturn(mockProduct);
         when(cashierService.getCashierAtRegister(1)).thenReturn(mockCashier);
-        when(pricingService.calculateSellingPrice(1, 0.2)).thenReturn(12.0);
-        when(receiptService.createReceipt(any(), anyInt(), any(), anyDouble()))
+        when(store.getFoodMarkup()).thenReturn(0.2);
+        when(pricingService.calculateSellingPrices(aryEq(new int[] {1}), aryEq(new int[] {2}), eq(1),
+                eq(0.2), anyDouble(), any(double[].class))).thenReturn(24.0);
+        when(productService.decreaseProductQuantity(1, 2)).thenReturn(true);
+        when(receiptService.createReceipt(any(), anyInt(), any(Product[].class), any(int[].class),
+                any(double[].class), anyDouble()))
             .thenReturn(mockReceipt);
             
         // Act
@@ -72,16 +76,18 @@ public class StoreServiceMockTest {
         
         // Assert
         assertNotNull(receipt);
-        verify(productService).updateProductQuantity(1, 8);
-        verify(receiptService).createReceipt(eq(mockCashier), eq(1), any(), eq(24.0));
-        verify(pricingService).calculateSellingPrice(1, 0.2);
+        verify(productService).decreaseProductQuantity(1, 2);
+        verify(receiptService).createReceipt(eq(mockCashier), eq(1), any(Product[].class),
+                aryEq(new int[] {2}), any(double[].class), eq(24.0));
+        verify(pricingService).calculateSellingPrices(aryEq(new int[] {1}), aryEq(new int[] {2}), eq(1),
+                eq(0.2), anyDouble(), any(double[].class));
     }
     
     @Test
     void testCreateSaleWithInsufficientQuantity() {
         // Arrange
         when(mockProduct.getId()).thenReturn(1);
-        when(mockProduct.getQuantity()).thenReturn(5);
+        when(mockProduct.getAvailableQuantity()).thenReturn(5);
         when(productService.getProduct(1)).thenReturn(mockProduct);
         when(cashierService.getCashierAtRegister(1)).thenReturn(mockCashier);
         
@@ -0,0 +1,82 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControllerTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private final AtomicLong now = new AtomicLong(1_000 * MS);
+
+    @Test
+    void testRejectsBeyondLimitWithoutQueue() {
+        AdmissionController controller = new AdmissionController(2, 1, 10, 0, 10 * MS, 0, now::get);
+
+        long first = controller.acquire();
+        long second = controller.acquire();
+
+        assertEquals(AdmissionController.REJECTED, controller.acquire());
+        assertEquals(2, controller.getInFlight());
+        assertEquals(1, controller.getRejectedCount());
+        controller.release(first);
+        controller.release(second);
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    void testLimitShrinksWhenServiceTimeExceedsTarget() {
+        AdmissionController controller = new AdmissionController(10, 2, 20, 0, 10 * MS, 0, now::get);
+
+        for (int i = 0; i < 200; i++) {
+            long admittedAt = controller.acquire();
+            now.addAndGet(50 * MS);
+            controller.release(admittedAt);
+        }
+
+        assertEquals(2, controller.getLimit());
+    }
+
+    @Test
+    void testLimitGrowsWhileUsedWithinTarget() {
+        AdmissionController controller = new AdmissionController(2, 1, 4, 0, 10 * MS, 0, now::get);
+
+        for (int i = 0; i < 100; i++) {
+            long first = controller.acquire();
+            long second = controller.acquire();
+            now.addAndGet(MS);
+            controller.release(first);
+            controller.release(second);
+        }
+
+        assertEquals(4, controller.getLimit());
+    }
+
+    @Test
+    void testQueuedRequestIsAdmittedWhenSlotFrees() throws Exception {
+        AdmissionController controller = new AdmissionController(1, 1, 1, 1, 10, 10_000);
+        long holder = controller.acquire();
+        CountDownLatch admitted = new CountDownLatch(1);
+
+        Thread waiter = new Thread(() -> {
+            long admittedAt = controller.acquire();
+            if (admittedAt != AdmissionController.REJECTED) {
+                admitted.countDown();
+                controller.release(admittedAt);
+            }
+        });
+        waiter.start();
+        while (controller.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        assertEquals(AdmissionController.REJECTED, controller.acquire());
+
+        controller.release(holder);
+        assertTrue(admitted.await(10, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(0, controller.getQueued());
+    }
+}
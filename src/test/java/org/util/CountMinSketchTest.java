@@ -0,0 +1,38 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountMinSketchTest {
+
+    @Test
+    void testEstimatesNeverUnderCount() {
+        CountMinSketch sketch = new CountMinSketch(0.01, 0.01, 7);
+        for (int key = 0; key < 1_000; key++) {
+            sketch.add(key, key % 5 + 1);
+        }
+
+        for (int key = 0; key < 1_000; key++) {
+            long estimate = sketch.estimate(key);
+            assertTrue(estimate >= key % 5 + 1);
+            assertTrue(estimate <= key % 5 + 1 + 0.01 * sketch.getTotal() * 3);
+        }
+        assertEquals(272, sketch.getWidth());
+        assertEquals(5, sketch.getDepth());
+    }
+
+    @Test
+    void testMergeAddsCounts() {
+        CountMinSketch first = new CountMinSketch(0.01, 0.01, 7);
+        CountMinSketch second = new CountMinSketch(0.01, 0.01, 7);
+        first.add(42, 10);
+        second.add(42, 5);
+
+        first.merge(second);
+
+        assertEquals(15, first.estimate(42));
+        assertEquals(15, first.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new CountMinSketch(0.01, 0.01, 8)));
+    }
+}
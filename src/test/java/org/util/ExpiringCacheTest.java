@@ -0,0 +1,122 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiringCacheTest {
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    @Test
+    void testValueIsComputedOnce() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 1_000, now::get);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, cache.computeIfAbsent("a", k -> calls.incrementAndGet()));
+        assertEquals(1, cache.computeIfAbsent("a", k -> calls.incrementAndGet()));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testEntriesExpire() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 1_000, now::get);
+        cache.computeIfAbsent("a", k -> 1);
+
+        now.addAndGet(1_000);
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(2, cache.computeIfAbsent("a", k -> 2));
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(100, 60_000, now::get);
+        for (int i = 0; i < 1_000; i++) {
+            cache.computeIfAbsent(i, k -> k);
+        }
+
+        assertEquals(100, cache.size());
+        assertNull(cache.getIfPresent(0));
+        assertEquals(999, cache.getIfPresent(999));
+    }
+
+    @Test
+    void testLoadingEntryIsNotEvicted() throws Exception {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(2, 1_000, now::get);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> cache.computeIfAbsent(0, k -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 42;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // Overfill the cache while the first loader is blocked
+            for (int i = 1; i <= 10; i++) {
+                cache.computeIfAbsent(i, k -> k);
+            }
+            assertNull(cache.getIfPresent(1));
+            Future<Integer> retry = executor.submit(() -> cache.computeIfAbsent(0, k -> calls.incrementAndGet()));
+            release.countDown();
+
+            assertEquals(42, first.get(5, TimeUnit.SECONDS));
+            assertEquals(42, retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedComputationIsNotCached() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 1_000, now::get);
+
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent("a", k -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.computeIfAbsent("a", k -> 3));
+    }
+
+    @Test
+    void testConcurrentCallersShareOneComputation() throws Exception {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    return cache.computeIfAbsent("key", k -> calls.incrementAndGet());
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                assertEquals(1, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,118 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdAllocatorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSingleThreadIssuesConsecutiveIdsFromOne() {
+        IdAllocator ids = new IdAllocator();
+
+        assertEquals(1, ids.nextId());
+        assertEquals(2, ids.nextId());
+        ids.reset();
+        assertEquals(1, ids.nextId());
+    }
+
+    @Test
+    void testConcurrentThreadsNeverShareAnId() throws InterruptedException {
+        IdAllocator ids = new IdAllocator(-1, 16, null);
+        Set<Integer> issued = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertTrue(issued.add(ids.nextId()));
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(80_000, issued.size());
+    }
+
+    @Test
+    void testThreadPerTaskDoesNotBurnABlockPerThread() throws InterruptedException {
+        AtomicInteger saves = new AtomicInteger();
+        IdAllocator.HighWaterMark mark = new IdAllocator.HighWaterMark() {
+            @Override
+            public long load() {
+                return 1;
+            }
+
+            @Override
+            public void save(long mark) {
+                saves.incrementAndGet();
+            }
+        };
+        IdAllocator ids = new IdAllocator(-1, 64, mark);
+        Set<Integer> issued = ConcurrentHashMap.newKeySet();
+        int tasks = 2_000;
+        for (int t = 0; t < tasks; t++) {
+            Thread thread = new Thread(() -> issued.add(ids.nextId()));
+            thread.start();
+            thread.join();
+        }
+
+        assertEquals(tasks, issued.size());
+        // A block per thread would reach 64 times the task count and save the mark every 16 tasks
+        assertTrue(Collections.max(issued) <= tasks + IdAllocator.STRIPES * 64, "max " + Collections.max(issued));
+        assertTrue(saves.get() <= 1 + (tasks + IdAllocator.STRIPES * 64) / (64 * 16), "saves " + saves.get());
+    }
+
+    @Test
+    void testRangeIsContiguousAndSkipsLeases() {
+        IdAllocator ids = new IdAllocator(-1, 4, null);
+
+        assertEquals(1, ids.nextId());
+        int first = ids.nextIds(10);
+        assertEquals(5, first);
+        assertEquals(2, ids.nextId());
+        assertEquals(15, ids.nextIds(1));
+    }
+
+    @Test
+    void testIdsDoNotRepeatAfterRestart() {
+        Path markFile = tempDir.resolve("receipt.ids");
+        IdAllocator first = new IdAllocator(-1, 8, new FileHighWaterMark(markFile));
+        int last = 0;
+        for (int i = 0; i < 200; i++) {
+            last = first.nextId();
+        }
+
+        IdAllocator restarted = new IdAllocator(-1, 8, new FileHighWaterMark(markFile));
+        assertTrue(restarted.nextId() > last);
+    }
+
+    @Test
+    void testNodePrefixSeparatesIdSpaces() {
+        IdAllocator nodeOne = new IdAllocator(1, 8, null);
+        IdAllocator nodeTwo = new IdAllocator(2, 8, null);
+
+        int a = nodeOne.nextId();
+        int b = nodeTwo.nextId();
+        assertNotEquals(a, b);
+        assertEquals(1, a >>> (31 - IdAllocator.NODE_BITS));
+        assertEquals(2, b >>> (31 - IdAllocator.NODE_BITS));
+        assertTrue(a > 0 && b > 0);
+        assertThrows(IllegalArgumentException.class, () -> new IdAllocator(IdAllocator.MAX_NODE_ID + 1, 8, null));
+    }
+}
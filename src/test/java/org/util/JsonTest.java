@@ -0,0 +1,52 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTest {
+
+    @Test
+    void testWrittenDocumentParsesBack() {
+        String text = new JsonWriter().beginObject()
+                .name("name").value("Tab\t\"quoted\" \\ \u0001")
+                .name("count").value(42)
+                .name("price").value(2.5)
+                .name("missing").value(Double.NaN)
+                .name("flags").beginArray().value(true).value(false).nullValue().endArray()
+                .name("nested").beginObject().endObject()
+                .endObject().toString();
+
+        Map<?, ?> parsed = (Map<?, ?>) JsonReader.parse(text);
+
+        assertEquals("Tab\t\"quoted\" \\ \u0001", parsed.get("name"));
+        assertEquals(42L, parsed.get("count"));
+        assertEquals(2.5, parsed.get("price"));
+        assertTrue(parsed.containsKey("missing"));
+        assertNull(parsed.get("missing"));
+        assertEquals(Arrays.asList(true, false, null), parsed.get("flags"));
+        assertTrue(((Map<?, ?>) parsed.get("nested")).isEmpty());
+    }
+
+    @Test
+    void testParsesWhitespaceEscapesAndNumbers() {
+        List<?> parsed = (List<?>) JsonReader.parse(" [ -7 , 1.5e2 , \"\\u00e9\\n\" , { \"a\" : [ ] } ] ");
+
+        assertEquals(-7L, parsed.get(0));
+        assertEquals(150.0, parsed.get(1));
+        assertEquals("é\n", parsed.get(2));
+        assertEquals(List.of(), ((Map<?, ?>) parsed.get(3)).get("a"));
+    }
+
+    @Test
+    void testRejectsMalformedDocuments() {
+        for (String malformed : new String[] {"", "{", "{\"a\" 1}", "[1,]", "\"open", "tru", "{} {}", "1.2.3",
+                "[".repeat(100)}) {
+            assertThrows(IllegalArgumentException.class, () -> JsonReader.parse(malformed), malformed);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferTest {
+
+    @Test
+    void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6, AtomicLong::new));
+    }
+
+    @Test
+    void testEntriesAreReused() {
+        RingBuffer<AtomicLong> ring = new RingBuffer<>(2, AtomicLong::new);
+        long first = ring.next();
+        ring.get(first).set(7);
+        ring.publish(first);
+
+        assertTrue(ring.isPublished(first));
+        assertFalse(ring.isPublished(first + 1));
+        ring.release(first);
+        ring.next();
+        long third = ring.next();
+        assertSame(ring.get(first), ring.get(third));
+    }
+
+    @Test
+    void testConsumerSeesAllPublishedEntries() throws Exception {
+        RingBuffer<AtomicLong> ring = new RingBuffer<>(8, AtomicLong::new);
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int n = 0; n < 1_000; n++) {
+                    long sequence = ring.next();
+                    ring.get(sequence).set(1);
+                    ring.publish(sequence);
+                }
+            });
+            producers[i].start();
+        }
+
+        long sum = 0;
+        for (long sequence = 0; sequence < 4_000; sequence++) {
+            assertTrue(ring.awaitPublished(sequence, TimeUnit.SECONDS.toNanos(10)));
+            sum += ring.get(sequence).getAndSet(0);
+            ring.release(sequence);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(4_000, sum);
+    }
+}
@@ -0,0 +1,35 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    void testEventsLeaveTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60, 1_000);
+
+        counter.record(10_000, 2, 5.0);
+        counter.record(40_500, 3, 7.5);
+
+        assertEquals(2, counter.getEvents(41_000));
+        assertEquals(5, counter.getItems(41_000));
+        assertEquals(12.5, counter.getAmount(41_000), 0.001);
+        assertEquals(1, counter.getEvents(70_000));
+        assertEquals(7.5, counter.getAmount(70_000), 0.001);
+        assertEquals(0, counter.getEvents(101_000));
+    }
+
+    @Test
+    void testReusedBucketIsCleared() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(4, 1_000);
+
+        counter.record(1_000, 1, 1.0);
+        counter.record(5_000, 4, 2.0);
+
+        assertEquals(1, counter.getEvents(5_000));
+        assertEquals(4, counter.getItems(5_000));
+        assertEquals(4_000, counter.getWindowMillis());
+    }
+}
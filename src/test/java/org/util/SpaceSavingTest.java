@@ -0,0 +1,61 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingTest {
+
+    @Test
+    void testExactWhileUnderCapacity() {
+        SpaceSaving<String> summary = new SpaceSaving<>(10);
+        summary.offer("milk", 3);
+        summary.offer("bread", 5);
+        summary.offer("milk", 4);
+
+        List<SpaceSaving.Entry<String>> top = summary.top(2);
+
+        assertEquals("milk", top.get(0).getKey());
+        assertEquals(7, top.get(0).getCount(), 0.001);
+        assertEquals(0, top.get(0).getError(), 0.001);
+        assertEquals("bread", top.get(1).getKey());
+    }
+
+    @Test
+    void testHeavyKeysSurviveSkewedStream() {
+        SpaceSaving<Integer> summary = new SpaceSaving<>(20);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            summary.offer(i % 10 == 0 ? 1 : i % 7 == 0 ? 2 : 1_000 + random.nextInt(5_000), 1);
+        }
+
+        List<SpaceSaving.Entry<Integer>> top = summary.top(2);
+
+        // Key 2 appears 2,572 times and key 1 2,000 times; every other key at most a handful
+        assertEquals(2, top.get(0).getKey());
+        assertEquals(1, top.get(1).getKey());
+        assertTrue(top.get(1).getCount() >= 2_000);
+        assertTrue(top.get(1).getCount() - top.get(1).getError() <= 2_000);
+        assertTrue(top.get(1).getError() <= summary.getErrorBound());
+    }
+
+    @Test
+    void testMergeCombinesCounts() {
+        SpaceSaving<String> first = new SpaceSaving<>(4);
+        SpaceSaving<String> second = new SpaceSaving<>(4);
+        first.offer("milk", 10);
+        first.offer("bread", 2);
+        second.offer("milk", 5);
+        second.offer("soap", 8);
+
+        SpaceSaving<String> merged = SpaceSaving.merge(first, second, 4);
+
+        assertEquals(15, merged.estimate("milk"), 0.001);
+        assertEquals(8, merged.estimate("soap"), 0.001);
+        assertEquals(25, merged.getTotal(), 0.001);
+        assertEquals("milk", merged.top(1).get(0).getKey());
+    }
+}
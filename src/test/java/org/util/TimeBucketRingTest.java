@@ -0,0 +1,36 @@
+package org.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeBucketRingTest {
+
+    @Test
+    void testSlotIsReusedForNewerSlice() {
+        TimeBucketRing ring = new TimeBucketRing(4);
+
+        ring.add(1, 2, 3.5);
+        ring.add(1, 1, 1.0);
+        assertEquals(2, ring.getEvents(1));
+        assertEquals(3, ring.getItems(1));
+        assertEquals(4.5, ring.getAmount(1), 0.001);
+
+        ring.add(5, 1, 2.0);
+        assertFalse(ring.holds(1));
+        assertEquals(0, ring.getEvents(1));
+        assertEquals(1, ring.getEvents(5));
+        assertEquals(2.0, ring.getAmount(5), 0.001);
+    }
+
+    @Test
+    void testEventsPastRetentionAreDropped() {
+        TimeBucketRing ring = new TimeBucketRing(4);
+
+        ring.add(5, 1, 2.0);
+        ring.add(1, 1, 1.0);
+
+        assertEquals(1, ring.getEvents(5));
+        assertFalse(ring.holds(1));
+    }
+}
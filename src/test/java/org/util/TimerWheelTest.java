@@ -0,0 +1,83 @@
+package org.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTest {
+    private static final long START = 1_000_000L;
+
+    private List<TestTimer> expired;
+    private TimerWheel<TestTimer> wheel;
+
+    private static class TestTimer extends TimerWheel.Timer {
+        private final long deadline;
+
+        TestTimer(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        expired = new ArrayList<>();
+        wheel = new TimerWheel<>(10, 3, START, expired::add);
+    }
+
+    @Test
+    void testTimerExpiresAtItsDeadline() {
+        TestTimer timer = new TestTimer(START + 55);
+        wheel.arm(timer, timer.deadline);
+
+        wheel.advance(START + 50);
+        assertTrue(expired.isEmpty());
+        assertTrue(timer.isArmed());
+
+        wheel.advance(START + 60);
+        assertEquals(1, expired.size());
+        assertFalse(timer.isArmed());
+    }
+
+    @Test
+    void testTimersOnHigherLevelsCascadeDown() {
+        long[] deadlines = {START + 700, START + 41_000, START + 200_000, START + 3_000_000};
+        for (long deadline : deadlines) {
+            wheel.arm(new TestTimer(deadline), deadline);
+        }
+
+        for (long now = START; now <= START + 3_100_000; now += 10) {
+            int before = expired.size();
+            wheel.advance(now);
+            for (int i = before; i < expired.size(); i++) {
+                long deadline = expired.get(i).deadline;
+                assertTrue(deadline <= now, "expired too early");
+                assertTrue(now - deadline < 10, "expired too late: " + (now - deadline));
+            }
+        }
+        assertEquals(deadlines.length, expired.size());
+    }
+
+    @Test
+    void testCancelledTimerNeverFires() {
+        TestTimer timer = new TestTimer(START + 5_000);
+        wheel.arm(timer, timer.deadline);
+
+        assertTrue(wheel.cancel(timer));
+        assertFalse(wheel.cancel(timer));
+        wheel.advance(START + 10_000);
+
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void testOverdueTimerFiresOnNextTick() {
+        TestTimer timer = new TestTimer(START - 100);
+        wheel.arm(timer, timer.deadline);
+
+        assertEquals(1, wheel.advance(START + 10));
+    }
+}